@@ -0,0 +1,139 @@
+package benchmarks;
+
+import dao.PlanificationDAO;
+import services.MoteurConflits;
+import utils.DatabaseConnection;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Détection de conflit d'horaire selon le volume de planifications
+ *
+ * - enBase : PlanificationDAO.verifierConflitEnBase (requête SQL_CONFLIT et
+ *   lecture des séries) ;
+ * - enMemoire : PlanificationDAO.verifierConflit, servi par MoteurConflits.
+ *
+ * Base H2 embarquée (profil -Dplanification.db=h2, réglé ici) remplie de
+ * lignes planifications réparties sur les 6 salles et 6 enseignants de
+ * database/planification.sql, une séance de 90 min toutes les 4 h par salle.
+ * Les créneaux testés sont tirés au hasard sur toute la période (graine
+ * fixe) : environ 70 % sont en conflit.
+ *
+ * Chaque valeur de lignes s'exécute dans sa propre JVM (@Fork) : la
+ * configuration de DatabaseConnection est lue une seule fois par JVM.
+ *
+ * Lancer depuis la racine du projet (scripts dans ./database, sinon
+ * -Dplanification.db.h2.scripts) :
+ * java -jar benchmarks/target/benchmarks.jar Conflit
+ *
+ * @author Système de Planification Académique
+ * @version 1.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx2g" })
+@State(Scope.Benchmark)
+public class ConflitBenchmark {
+
+    private static final int SALLES = 6;
+    private static final int PREMIERE_SALLE = 7;
+    private static final int PREMIER_ENSEIGNANT = 1;
+    private static final int PREMIER_COURS = 13;
+    private static final long PAS_MS = 240 * 60_000L;
+    private static final Timestamp ORIGINE = Timestamp.valueOf("2020-01-06 08:00:00");
+    private static final int SONDES = 4096;
+
+    @Param({ "1000", "100000", "1000000" })
+    public int lignes;
+
+    private PlanificationDAO dao;
+    private int[] salles;
+    private int[] enseignants;
+    private Timestamp[] dates;
+    private int prochaine;
+
+    @Setup(Level.Trial)
+    public void preparer() throws SQLException {
+        System.setProperty("planification.db", "h2");
+        if (System.getProperty("planification.db.h2.scripts") == null) {
+            System.setProperty("planification.db.h2.scripts",
+                    new File("database").isDirectory() ? "database" : "../database");
+        }
+
+        remplir(lignes);
+        dao = new PlanificationDAO();
+        if (!MoteurConflits.getInstance().assurerCharge()) {
+            throw new IllegalStateException("Moteur de conflits non chargé");
+        }
+
+        Random aleatoire = new Random(42);
+        long periode = (long) (lignes / SALLES) * PAS_MS;
+        salles = new int[SONDES];
+        enseignants = new int[SONDES];
+        dates = new Timestamp[SONDES];
+        for (int i = 0; i < SONDES; i++) {
+            salles[i] = PREMIERE_SALLE + aleatoire.nextInt(SALLES);
+            enseignants[i] = PREMIER_ENSEIGNANT + aleatoire.nextInt(SALLES);
+            // Arrondi au quart d'heure, comme les créneaux saisis
+            long decalage = (long) (aleatoire.nextDouble() * periode) / (15 * 60_000L) * (15 * 60_000L);
+            dates[i] = new Timestamp(ORIGINE.getTime() + decalage);
+        }
+    }
+
+    /**
+     * Insère n séances en une requête (INSERT ... SELECT sur SYSTEM_RANGE)
+     */
+    private static void remplir(int n) throws SQLException {
+        String sql = "INSERT INTO planification (enseignant_id, salle_id, cours_id, date_heure, duree, statut) " +
+                "SELECT " + PREMIER_ENSEIGNANT + " + MOD(i + i / " + SALLES + ", " + SALLES + "), " +
+                PREMIERE_SALLE + " + MOD(i, " + SALLES + "), " +
+                PREMIER_COURS + " + MOD(i, " + SALLES + "), " +
+                "DATEADD(MINUTE, (i / " + SALLES + ") * 240, CAST(? AS TIMESTAMP)), 90, 'PLANIFIE' " +
+                "FROM SYSTEM_RANGE(0, CAST(? AS BIGINT)) AS r(i)";
+        try (Connection conn = DatabaseConnection.getConnection();
+                PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setTimestamp(1, ORIGINE);
+            pstmt.setLong(2, n - 1);
+            pstmt.executeUpdate();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void terminer() {
+        DatabaseConnection.shutdown();
+    }
+
+    @Benchmark
+    public boolean enBase() {
+        int i = prochaine++ & (SONDES - 1);
+        return dao.verifierConflitEnBase(salles[i], enseignants[i], dates[i], 90, 0);
+    }
+
+    @Benchmark
+    public boolean enMemoire() {
+        int i = prochaine++ & (SONDES - 1);
+        return dao.verifierConflit(salles[i], enseignants[i], dates[i], 90, 0);
+    }
+}
@@ -0,0 +1,69 @@
+package benchmarks;
+
+import beans.Planification;
+import dao.UtilisateurDAO;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Timestamp;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Petits encodages appelés à chaque requête
+ *
+ * - hashSHA256 : UtilisateurDAO.hashSHA256 (connexion, changement de mot de passe) ;
+ * - heures : Planification.getHeureDebut / getHeureFin (un SimpleDateFormat
+ *   créé par appel), avec en référence un DateTimeFormatter partagé.
+ *
+ * Lancer : java -jar benchmarks/target/benchmarks.jar Encodage
+ *
+ * @author Système de Planification Académique
+ * @version 1.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class EncodageBenchmark {
+
+    private static final DateTimeFormatter HEURE = DateTimeFormatter.ofPattern("HH:mm");
+
+    private String motDePasse;
+    private Planification planification;
+
+    @Setup
+    public void preparer() {
+        motDePasse = "M0tDeP@sse-Très\"Long";
+        planification = new Planification();
+        planification.setDateHeure(Timestamp.valueOf("2026-02-16 14:30:00"));
+        planification.setDuree(90);
+    }
+
+    @Benchmark
+    public String hashSHA256() {
+        return UtilisateurDAO.hashSHA256(motDePasse);
+    }
+
+    @Benchmark
+    public String heures() {
+        return planification.getHeureDebut() + planification.getHeureFin();
+    }
+
+    @Benchmark
+    public String heuresFormatterPartage() {
+        return HEURE.format(planification.getDateHeure().toLocalDateTime())
+                + HEURE.format(planification.getDateHeureFin().toLocalDateTime());
+    }
+}
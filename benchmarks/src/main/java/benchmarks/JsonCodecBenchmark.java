@@ -0,0 +1,204 @@
+package benchmarks;
+
+import beans.Planification;
+import utils.JsonReader;
+import utils.JsonReader.Jeton;
+import utils.JsonWriter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Codec JSON partagé (JsonReader / JsonWriter) face au code qu'il remplace
+ *
+ * - lecture : corps de connexion lu ligne par ligne dans un StringBuilder puis
+ *   extraireChampJson (ancien LoginServlet), contre JsonReader sur le flux ;
+ * - écriture : concaténation + escapeJson vers un PrintWriter (anciens
+ *   servlets), contre JsonWriter, pour une liste de planifications.
+ *
+ * Lancer : mvn -f benchmarks/pom.xml package && java -jar benchmarks/target/benchmarks.jar JsonCodec
+ * (ajouter -prof gc pour comparer les allocations)
+ *
+ * @author Système de Planification Académique
+ * @version 1.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class JsonCodecBenchmark {
+
+    @Param({ "20", "500" })
+    public int planifications;
+
+    private byte[] corpsConnexion;
+    private List<Planification> liste;
+    private final Puits puits = new Puits();
+
+    @Setup
+    public void preparer() {
+        corpsConnexion = ("{\n  \"email\": \"amina.benchekroun@universite.ma\",\n"
+                + "  \"password\": \"M0tDeP@sse-Très\\\"Long\"\n}").getBytes(StandardCharsets.UTF_8);
+
+        liste = new ArrayList<>(planifications);
+        long debut = Timestamp.valueOf("2026-02-16 08:00:00").getTime();
+        for (int i = 0; i < planifications; i++) {
+            Planification p = new Planification();
+            p.setId(i + 1);
+            p.setEnseignantId(1 + i % 40);
+            p.setEnseignantNom("Pr. Benchekroun \"Génie\" " + i % 40);
+            p.setSalleId(100 + i % 25);
+            p.setSalleNom("Amphi " + (char) ('A' + i % 25));
+            p.setCoursId(200 + i % 60);
+            p.setCoursNom("Systèmes répartis\\avancés " + i % 60);
+            p.setDateHeure(new Timestamp(debut + i * 3_600_000L));
+            p.setDuree(90);
+            p.setStatut("PLANIFIE");
+            p.setNotes(i % 3 == 0 ? "Apporter le TP n°" + i + "\nSalle informatique" : null);
+            liste.add(p);
+        }
+    }
+
+    // ==================== Lecture ====================
+
+    @Benchmark
+    public String lectureAncienne() throws IOException {
+        BufferedReader reader = new BufferedReader(
+                new InputStreamReader(new ByteArrayInputStream(corpsConnexion), StandardCharsets.UTF_8));
+        StringBuilder sb = new StringBuilder();
+        String line;
+        while ((line = reader.readLine()) != null) {
+            sb.append(line);
+        }
+        String body = sb.toString();
+        return extraireChampJson(body, "email") + extraireChampJson(body, "password");
+    }
+
+    @Benchmark
+    public String lectureJsonReader() throws IOException {
+        JsonReader json = new JsonReader(new ByteArrayInputStream(corpsConnexion));
+        String email = null;
+        String password = null;
+        json.suivant();
+        while (json.suivant() == Jeton.NOM) {
+            String champ = json.getTexte();
+            json.suivant();
+            if ("email".equals(champ)) {
+                email = json.getTexte();
+            } else if ("password".equals(champ)) {
+                password = json.getTexte();
+            } else {
+                json.ignorerValeur();
+            }
+        }
+        return email + password;
+    }
+
+    // ==================== Écriture ====================
+
+    @Benchmark
+    public long ecritureAncienne() {
+        puits.taille = 0;
+        PrintWriter out = new PrintWriter(puits);
+        out.print('[');
+        for (int i = 0; i < liste.size(); i++) {
+            if (i > 0) {
+                out.print(',');
+            }
+            Planification p = liste.get(i);
+            out.print("{\"id\":" + p.getId());
+            out.print(",\"enseignantId\":" + p.getEnseignantId());
+            out.print(",\"enseignantNom\":\"" + escapeJson(p.getEnseignantNom()) + "\"");
+            out.print(",\"salleId\":" + p.getSalleId());
+            out.print(",\"salleNom\":\"" + escapeJson(p.getSalleNom()) + "\"");
+            out.print(",\"coursId\":" + p.getCoursId());
+            out.print(",\"coursNom\":\"" + escapeJson(p.getCoursNom()) + "\"");
+            out.print(",\"dateHeure\":\"" + p.getDateHeure().toLocalDateTime() + "\"");
+            out.print(",\"duree\":" + p.getDuree());
+            out.print(",\"statut\":\"" + escapeJson(p.getStatut()) + "\"");
+            out.print(",\"notes\":\"" + escapeJson(p.getNotes()) + "\"}");
+        }
+        out.print(']');
+        out.flush();
+        return puits.taille;
+    }
+
+    @Benchmark
+    public long ecritureJsonWriter() throws IOException {
+        puits.taille = 0;
+        JsonWriter json = new JsonWriter(puits);
+        json.debutTableau();
+        for (Planification p : liste) {
+            json.debutObjet()
+                    .nom("id").valeur(p.getId())
+                    .nom("enseignantId").valeur(p.getEnseignantId())
+                    .nom("enseignantNom").valeur(p.getEnseignantNom())
+                    .nom("salleId").valeur(p.getSalleId())
+                    .nom("salleNom").valeur(p.getSalleNom())
+                    .nom("coursId").valeur(p.getCoursId())
+                    .nom("coursNom").valeur(p.getCoursNom())
+                    .nom("dateHeure").valeur(p.getDateHeure())
+                    .nom("duree").valeur(p.getDuree())
+                    .nom("statut").valeur(p.getStatut())
+                    .nom("notes").valeur(p.getNotes())
+                    .finObjet();
+        }
+        json.finTableau();
+        json.flush();
+        return puits.taille;
+    }
+
+    // ==================== Code remplacé (copie conforme) ====================
+
+    private static String extraireChampJson(String json, String champ) {
+        String searchKey = "\"" + champ + "\"";
+        int keyIndex = json.indexOf(searchKey);
+        if (keyIndex == -1)
+            return null;
+
+        int colonIndex = json.indexOf(":", keyIndex + searchKey.length());
+        if (colonIndex == -1)
+            return null;
+
+        int startQuote = json.indexOf("\"", colonIndex + 1);
+        if (startQuote == -1)
+            return null;
+
+        int endQuote = json.indexOf("\"", startQuote + 1);
+        if (endQuote == -1)
+            return null;
+
+        return json.substring(startQuote + 1, endQuote);
+    }
+
+    private static String escapeJson(String s) {
+        if (s == null)
+            return "";
+        return s.replace("\\", "\\\\")
+                .replace("\"", "\\\"")
+                .replace("\n", "\\n")
+                .replace("\r", "\\r");
+    }
+}
@@ -0,0 +1,36 @@
+package benchmarks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Point d'entrée de benchmarks.jar : JMH avec résultats JSON par défaut
+ *
+ * Sans option -rf / -rff, les résultats sont aussi écrits dans
+ * target/jmh-resultats.json (format lisible par JMH Visualizer ou un script
+ * de comparaison). Les autres arguments sont transmis tels quels à JMH.
+ *
+ * @author Système de Planification Académique
+ * @version 1.0
+ */
+public final class Lanceur {
+
+    private static final String FICHIER_RESULTATS = "target/jmh-resultats.json";
+
+    private Lanceur() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<String> arguments = new ArrayList<>(Arrays.asList(args));
+        if (!arguments.contains("-rf")) {
+            arguments.add("-rf");
+            arguments.add("json");
+        }
+        if (!arguments.contains("-rff")) {
+            arguments.add("-rff");
+            arguments.add(FICHIER_RESULTATS);
+        }
+        org.openjdk.jmh.Main.main(arguments.toArray(new String[0]));
+    }
+}
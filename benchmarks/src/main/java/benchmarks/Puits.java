@@ -0,0 +1,32 @@
+package benchmarks;
+
+import java.io.Writer;
+
+/**
+ * Writer qui ne conserve que le nombre de caractères reçus (pas de coût réseau)
+ *
+ * @author Système de Planification Académique
+ * @version 1.0
+ */
+public final class Puits extends Writer {
+
+    public long taille;
+
+    @Override
+    public void write(char[] cbuf, int off, int len) {
+        taille += len;
+    }
+
+    @Override
+    public void write(String str, int off, int len) {
+        taille += len;
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    @Override
+    public void close() {
+    }
+}
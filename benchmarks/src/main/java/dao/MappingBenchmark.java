@@ -0,0 +1,118 @@
+package dao;
+
+import beans.Planification;
+import beans.Ressource;
+
+import org.h2.tools.SimpleResultSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conversion d'une ligne JDBC en bean : PlanificationDAO.mapResultSetToPlanification
+ * et RessourceDAO.extractRessourceFromResultSet
+ *
+ * Les lignes viennent d'un ResultSet en mémoire (SimpleResultSet de H2) : seul
+ * le coût du mapping est mesuré (recherche des colonnes par nom, conversions,
+ * allocation des beans), sans réseau ni driver. Dans le paquet dao : les deux
+ * méthodes ne sont visibles que du paquet.
+ *
+ * Résultat exprimé par ligne (LIGNES lignes par invocation).
+ *
+ * Lancer : java -jar benchmarks/target/benchmarks.jar Mapping
+ *
+ * @author Système de Planification Académique
+ * @version 1.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MappingBenchmark {
+
+    private static final int LIGNES = 1000;
+
+    private SimpleResultSet planifications;
+    private SimpleResultSet ressources;
+
+    @Setup
+    public void preparer() {
+        long debut = Timestamp.valueOf("2026-02-16 08:00:00").getTime();
+        Timestamp creation = Timestamp.valueOf("2026-01-05 10:12:00");
+
+        // Colonnes de SQL_SELECT_JOINT (p.* puis noms joints), dans l'ordre de la table
+        planifications = new SimpleResultSet();
+        planifications.setAutoClose(false);
+        planifications.addColumn("id", Types.INTEGER, 10, 0);
+        planifications.addColumn("enseignant_id", Types.INTEGER, 10, 0);
+        planifications.addColumn("salle_id", Types.INTEGER, 10, 0);
+        planifications.addColumn("cours_id", Types.INTEGER, 10, 0);
+        planifications.addColumn("date_heure", Types.TIMESTAMP, 0, 0);
+        planifications.addColumn("duree", Types.INTEGER, 10, 0);
+        planifications.addColumn("date_fin", Types.TIMESTAMP, 0, 0);
+        planifications.addColumn("statut", Types.VARCHAR, 20, 0);
+        planifications.addColumn("notes", Types.VARCHAR, 65535, 0);
+        planifications.addColumn("date_creation", Types.TIMESTAMP, 0, 0);
+        planifications.addColumn("enseignant_nom", Types.VARCHAR, 200, 0);
+        planifications.addColumn("salle_nom", Types.VARCHAR, 200, 0);
+        planifications.addColumn("cours_nom", Types.VARCHAR, 200, 0);
+        for (int i = 0; i < LIGNES; i++) {
+            long dateHeure = debut + i * 3_600_000L;
+            planifications.addRow(i + 1, 1 + i % 40, 100 + i % 25, 200 + i % 60,
+                    new Timestamp(dateHeure), 90, new Timestamp(dateHeure + 90 * 60_000L), "PLANIFIE",
+                    i % 3 == 0 ? "Apporter le TP n°" + i : null, creation,
+                    "Pr. Benchekroun " + i % 40, "Amphi " + (char) ('A' + i % 25), "Systèmes répartis " + i % 60);
+        }
+
+        ressources = new SimpleResultSet();
+        ressources.setAutoClose(false);
+        ressources.addColumn("id", Types.INTEGER, 10, 0);
+        ressources.addColumn("nom", Types.VARCHAR, 200, 0);
+        ressources.addColumn("type", Types.VARCHAR, 20, 0);
+        ressources.addColumn("disponibilite", Types.BOOLEAN, 1, 0);
+        ressources.addColumn("description", Types.VARCHAR, 65535, 0);
+        ressources.addColumn("date_creation", Types.TIMESTAMP, 0, 0);
+        ressources.addColumn("date_modification", Types.TIMESTAMP, 0, 0);
+        String[] types = { "ENSEIGNANT", "SALLE", "COURS" };
+        for (int i = 0; i < LIGNES; i++) {
+            ressources.addRow(i + 1, "Ressource " + i, types[i % 3], i % 7 != 0,
+                    "Description de la ressource " + i + ", équipée et disponible en semaine.", creation, creation);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LIGNES)
+    public void planification(Blackhole trou) throws SQLException {
+        planifications.beforeFirst();
+        while (planifications.next()) {
+            Planification p = PlanificationDAO.mapResultSetToPlanification(planifications);
+            trou.consume(p);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LIGNES)
+    public void ressource(Blackhole trou) throws SQLException {
+        ressources.beforeFirst();
+        while (ressources.next()) {
+            Ressource r = RessourceDAO.extractRessourceFromResultSet(ressources);
+            trou.consume(r);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package servlets;
+
+import beans.Utilisateur;
+import benchmarks.Puits;
+import utils.JsonWriter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Réponse JSON de LoginServlet et AuthCheckServlet : objet { success, utilisateur }
+ * écrit par AuthCheckServlet.ecrireProfil (visible du paquet, d'où le paquet
+ * servlets), échappement compris
+ *
+ * - ascii : nom et e-mail sans caractère à échapper ;
+ * - echappe : guillemets, antislash, accents et caractères de contrôle.
+ *
+ * Lancer : java -jar benchmarks/target/benchmarks.jar ProfilJson
+ *
+ * @author Système de Planification Académique
+ * @version 1.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ProfilJsonBenchmark {
+
+    @Param({ "ascii", "echappe" })
+    public String contenu;
+
+    private Utilisateur utilisateur;
+    private final Puits puits = new Puits();
+
+    @Setup
+    public void preparer() {
+        if ("ascii".equals(contenu)) {
+            utilisateur = new Utilisateur(12, "Amina Benchekroun", "amina.benchekroun@universite.ma",
+                    "ENSEIGNANT", 4);
+        } else {
+            utilisateur = new Utilisateur(12, "Amina \"Mina\" Benchekroun\\Élève\tprofesseure",
+                    "amina.benchékroun@université.ma", "ENSEIGNANT", null);
+        }
+    }
+
+    @Benchmark
+    public long profil() throws IOException {
+        puits.taille = 0;
+        JsonWriter json = new JsonWriter(puits);
+        json.debutObjet().nom("success").valeur(true).nom("utilisateur").debutObjet();
+        AuthCheckServlet.ecrireProfil(json, utilisateur);
+        json.finObjet().finObjet();
+        json.flush();
+        return puits.taille;
+    }
+}
@@ -0,0 +1,43 @@
+package charge;
+
+/**
+ * Actions rejouées par les utilisateurs simulés, avec leur poids par défaut
+ * dans le mélange (--melange=semaine:40,navigation:20,...)
+ *
+ * @author Système de Planification Académique
+ * @version 1.0
+ */
+enum Action {
+
+    /** GET /calendrier : semaine courante */
+    SEMAINE("semaine", 35),
+    /** GET /calendrier?semaine=n : semaines voisines */
+    NAVIGATION("navigation", 20),
+    /** GET /calendrier?action=formulaire : listes des ressources */
+    FORMULAIRE("formulaire", 10),
+    /** POST /calendrier?action=sauvegarder : nouveau créneau */
+    SAUVEGARDE("sauvegarde", 10),
+    /** POST /calendrier?action=sauvegarder : créneau déjà pris (conflit attendu) */
+    CONFLIT("conflit", 5),
+    /** GET /ressources?action=search */
+    RECHERCHE("recherche", 15),
+    /** POST /api/auth/login : nouvelle session */
+    CONNEXION("connexion", 5);
+
+    final String nom;
+    final int poidsDefaut;
+
+    Action(String nom, int poidsDefaut) {
+        this.nom = nom;
+        this.poidsDefaut = poidsDefaut;
+    }
+
+    static Action parNom(String nom) {
+        for (Action a : values()) {
+            if (a.nom.equals(nom)) {
+                return a;
+            }
+        }
+        throw new IllegalArgumentException("Action inconnue : " + nom);
+    }
+}
@@ -0,0 +1,105 @@
+package charge;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Distribution des temps de réponse d'une action, sans verrou
+ *
+ * Cases logarithmiques de 1 % à partir de 10 µs (jusqu'à plusieurs heures) :
+ * les centiles sont exacts à 1 % près quel que soit le nombre de mesures.
+ *
+ * @author Système de Planification Académique
+ * @version 1.0
+ */
+final class Latences {
+
+    private static final double MIN_MICROS = 10;
+    private static final double LOG_PAS = Math.log(1.01);
+    private static final int CASES = 2200;
+
+    private final AtomicLongArray cases = new AtomicLongArray(CASES);
+    private final LongAdder nombre = new LongAdder();
+    private final LongAdder erreurs = new LongAdder();
+    private final LongAdder refus = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    /**
+     * @param nanos  Durée depuis l'arrivée prévue de la requête
+     * @param erreur Échec (exception, 5xx, session perdue)
+     * @param refuse Réponse valide mais refusée par l'application (conflit détecté)
+     */
+    void enregistrer(long nanos, boolean erreur, boolean refuse) {
+        cases.incrementAndGet(indice(nanos / 1000.0));
+        nombre.increment();
+        if (erreur) {
+            erreurs.increment();
+        }
+        if (refuse) {
+            refus.increment();
+        }
+        long max = maxNanos.get();
+        while (nanos > max && !maxNanos.compareAndSet(max, nanos)) {
+            max = maxNanos.get();
+        }
+    }
+
+    private static int indice(double micros) {
+        if (micros <= MIN_MICROS) {
+            return 0;
+        }
+        return Math.min(CASES - 1, (int) (Math.log(micros / MIN_MICROS) / LOG_PAS) + 1);
+    }
+
+    /**
+     * Centile en microsecondes (borne haute de la case), 0 sans mesure
+     */
+    long centileMicros(double q) {
+        long total = nombre.sum();
+        if (total == 0) {
+            return 0;
+        }
+        long rang = Math.max(1, (long) Math.ceil(q * total));
+        long cumul = 0;
+        for (int i = 0; i < CASES; i++) {
+            cumul += cases.get(i);
+            if (cumul >= rang) {
+                return Math.min((long) (MIN_MICROS * Math.pow(1.01, i)), getMaxMicros());
+            }
+        }
+        return getMaxMicros();
+    }
+
+    /**
+     * Ajoute les mesures d'une autre distribution (total toutes actions)
+     */
+    void ajouter(Latences autre) {
+        for (int i = 0; i < CASES; i++) {
+            long n = autre.cases.get(i);
+            if (n > 0) {
+                cases.addAndGet(i, n);
+            }
+        }
+        nombre.add(autre.nombre.sum());
+        erreurs.add(autre.erreurs.sum());
+        refus.add(autre.refus.sum());
+        maxNanos.accumulateAndGet(autre.maxNanos.get(), Math::max);
+    }
+
+    long getNombre() {
+        return nombre.sum();
+    }
+
+    long getErreurs() {
+        return erreurs.sum();
+    }
+
+    long getRefus() {
+        return refus.sum();
+    }
+
+    long getMaxMicros() {
+        return maxNanos.get() / 1000;
+    }
+}
@@ -0,0 +1,211 @@
+package charge;
+
+import utils.JsonReader;
+import utils.JsonReader.Jeton;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.net.HttpURLConnection;
+import java.net.URLEncoder;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Requêtes HTTP de chaque action et jeu de données qu'elles utilisent
+ *
+ * Les identifiants des enseignants, salles et cours sont lus une fois par
+ * l'API JSON (/api/ressources/type/...). Les sauvegardes visent un créneau
+ * aléatoire des 8 semaines suivantes ; les dernières réussies sont gardées
+ * pour l'action CONFLIT, qui renvoie exactement le même formulaire et doit
+ * être refusée par la détection de conflit.
+ *
+ * @author Système de Planification Académique
+ * @version 1.0
+ */
+final class Scenario {
+
+    /** Issue d'une action */
+    enum Issue {
+        SUCCES, REFUS, ERREUR
+    }
+
+    private static final int[] HEURES = { 8 * 60 + 30, 10 * 60 + 15, 13 * 60 + 30, 15 * 60 + 15, 17 * 60 };
+    private static final DateTimeFormatter FORMAT_FORMULAIRE = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm");
+    private static final int SAUVEGARDES_GARDEES = 256;
+    private static final int MOTS_CLES_MAX = 200;
+
+    private final String base;
+    private final int delaiMs;
+    private final String[] comptes;
+    private final String motDePasse;
+
+    private int[] enseignants;
+    private int[] salles;
+    private int[] cours;
+    private String[] motsCles;
+
+    private final AtomicReferenceArray<String> sauvegardes = new AtomicReferenceArray<>(SAUVEGARDES_GARDEES);
+    private final AtomicLong nbSauvegardes = new AtomicLong();
+
+    Scenario(String base, int delaiMs, String[] comptes, String motDePasse) {
+        this.base = base;
+        this.delaiMs = delaiMs;
+        this.comptes = comptes;
+        this.motDePasse = motDePasse;
+    }
+
+    /**
+     * Crée et connecte les sessions, puis charge les ressources
+     */
+    List<UtilisateurVirtuel> preparer(int nbUtilisateurs) throws IOException {
+        List<UtilisateurVirtuel> utilisateurs = new ArrayList<>(nbUtilisateurs);
+        for (int i = 0; i < nbUtilisateurs; i++) {
+            UtilisateurVirtuel vu = nouvelUtilisateur(i);
+            if (!vu.connecter()) {
+                throw new IOException("Connexion refusée pour " + comptes[i % comptes.length]
+                        + " (voir --comptes et --motDePasse)");
+            }
+            utilisateurs.add(vu);
+        }
+
+        UtilisateurVirtuel vu = utilisateurs.get(0);
+        Set<String> mots = new LinkedHashSet<>();
+        enseignants = lireRessources(vu, "ENSEIGNANT", mots);
+        salles = lireRessources(vu, "SALLE", mots);
+        cours = lireRessources(vu, "COURS", mots);
+        if (enseignants.length == 0 || salles.length == 0 || cours.length == 0) {
+            throw new IOException("Il faut au moins un enseignant, une salle et un cours en base");
+        }
+        motsCles = mots.toArray(new String[0]);
+        System.out.println("✓ " + nbUtilisateurs + " session(s), " + enseignants.length + " enseignant(s), "
+                + salles.length + " salle(s), " + cours.length + " cours");
+        return utilisateurs;
+    }
+
+    UtilisateurVirtuel nouvelUtilisateur(int numero) {
+        return new UtilisateurVirtuel(base, delaiMs, comptes[numero % comptes.length], motDePasse);
+    }
+
+    /**
+     * GET /api/ressources/type/{type} : identifiants, et mots des noms pour les recherches
+     */
+    private int[] lireRessources(UtilisateurVirtuel vu, String type, Set<String> mots) throws IOException {
+        UtilisateurVirtuel.Reponse r = vu.get("/api/ressources/type/" + type);
+        if (r.statut != HttpURLConnection.HTTP_OK) {
+            throw new IOException("GET /api/ressources/type/" + type + " : HTTP " + r.statut);
+        }
+        List<Integer> ids = new ArrayList<>();
+        JsonReader json = new JsonReader(new ByteArrayInputStream(r.corps));
+        for (Jeton j = json.suivant(); j != Jeton.FIN_DOCUMENT; j = json.suivant()) {
+            if (j != Jeton.NOM) {
+                continue;
+            }
+            if (json.texteEgal("id")) {
+                json.suivant();
+                ids.add(json.getInt());
+            } else if (json.texteEgal("nom")) {
+                json.suivant();
+                for (String mot : json.getTexte().split("[^\\p{L}]+")) {
+                    if (mot.length() >= 4 && mots.size() < MOTS_CLES_MAX) {
+                        mots.add(mot.toLowerCase(Locale.ROOT));
+                    }
+                }
+            }
+        }
+        int[] tableau = new int[ids.size()];
+        for (int i = 0; i < tableau.length; i++) {
+            tableau[i] = ids.get(i);
+        }
+        return tableau;
+    }
+
+    /**
+     * Exécute une action pour l'utilisateur donné
+     */
+    Issue executer(Action action, UtilisateurVirtuel vu) throws IOException {
+        ThreadLocalRandom r = ThreadLocalRandom.current();
+        UtilisateurVirtuel.Reponse reponse;
+        switch (action) {
+            case SEMAINE:
+                reponse = vu.get("/calendrier");
+                break;
+            case NAVIGATION:
+                int decalage = r.nextInt(1, 13);
+                reponse = vu.get("/calendrier?semaine=" + (r.nextBoolean() ? decalage : -decalage));
+                break;
+            case FORMULAIRE:
+                reponse = vu.get("/calendrier?action=formulaire");
+                break;
+            case RECHERCHE:
+                reponse = vu.get("/ressources?action=search&keyword="
+                        + encoder(motsCles.length > 0 ? motsCles[r.nextInt(motsCles.length)] : "salle"));
+                break;
+            case SAUVEGARDE:
+                return sauvegarder(vu, formulaireAleatoire(r), false);
+            case CONFLIT:
+                long n = nbSauvegardes.get();
+                String deja = n > 0 ? sauvegardes.get((int) (r.nextLong(Math.min(n, SAUVEGARDES_GARDEES)))) : null;
+                return sauvegarder(vu, deja != null ? deja : formulaireAleatoire(r), deja != null);
+            case CONNEXION:
+                return nouvelUtilisateur(r.nextInt(comptes.length)).connecter() ? Issue.SUCCES : Issue.ERREUR;
+            default:
+                throw new IllegalArgumentException(action.nom);
+        }
+        return issue(vu, reponse);
+    }
+
+    /**
+     * 302 vers le calendrier = enregistrée ; 200 = formulaire réaffiché avec l'erreur de conflit
+     */
+    private Issue sauvegarder(UtilisateurVirtuel vu, String formulaire, boolean conflitAttendu) throws IOException {
+        UtilisateurVirtuel.Reponse reponse = vu.poster("/calendrier", formulaire);
+        Issue issue = issue(vu, reponse);
+        if (issue != Issue.SUCCES) {
+            return issue;
+        }
+        if (reponse.statut == HttpURLConnection.HTTP_MOVED_TEMP) {
+            if (!conflitAttendu) {
+                sauvegardes.set((int) (nbSauvegardes.getAndIncrement() % SAUVEGARDES_GARDEES), formulaire);
+            }
+            return Issue.SUCCES;
+        }
+        return Issue.REFUS;
+    }
+
+    private static Issue issue(UtilisateurVirtuel vu, UtilisateurVirtuel.Reponse reponse) {
+        if (reponse.isNonAuthentifie()) {
+            vu.invalider();
+            return Issue.ERREUR;
+        }
+        return reponse.statut >= 400 ? Issue.ERREUR : Issue.SUCCES;
+    }
+
+    private String formulaireAleatoire(ThreadLocalRandom r) throws UnsupportedEncodingException {
+        LocalDate lundi = LocalDate.now().with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY))
+                .plusWeeks(r.nextInt(1, 9));
+        LocalDateTime debut = lundi.plusDays(r.nextInt(5)).atStartOfDay()
+                .plusMinutes(HEURES[r.nextInt(HEURES.length)]);
+        return "action=sauvegarder"
+                + "&enseignantId=" + enseignants[r.nextInt(enseignants.length)]
+                + "&salleId=" + salles[r.nextInt(salles.length)]
+                + "&coursId=" + cours[r.nextInt(cours.length)]
+                + "&dateHeure=" + encoder(FORMAT_FORMULAIRE.format(debut))
+                + "&duree=90&statut=PLANIFIE&notes=" + encoder("Test de charge");
+    }
+
+    private static String encoder(String valeur) throws UnsupportedEncodingException {
+        return URLEncoder.encode(valeur, "UTF-8");
+    }
+}
@@ -0,0 +1,85 @@
+package charge;
+
+import servlets.CalendrierServlet;
+
+import org.apache.catalina.Context;
+import org.apache.catalina.LifecycleException;
+import org.apache.catalina.connector.Connector;
+import org.apache.catalina.loader.WebappLoader;
+import org.apache.catalina.startup.Tomcat;
+import org.apache.tomcat.util.scan.StandardJarScanner;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+/**
+ * Application déployée dans un Tomcat embarqué
+ *
+ * WebContent est servi tel quel : web.xml (AuthFilter, ApplicationListener,
+ * servlets), JSP compilées par Jasper. Les classes de l'application viennent
+ * du classpath du test (pas de WEB-INF/classes) : le chargeur de la webapp
+ * délègue d'abord au parent, pour que le test et les servlets partagent les
+ * mêmes singletons et la même base H2 en mémoire. CalendrierServlet, déclaré
+ * par @WebServlet, est enregistré explicitement (pas de scan du classpath).
+ *
+ * @author Système de Planification Académique
+ * @version 1.0
+ */
+public final class ServeurEmbarque {
+
+    static final String CONTEXTE = "/PlanificationAcademique";
+
+    private final Tomcat tomcat = new Tomcat();
+    private final File webContent;
+    private final int port;
+    private final int threadsMax;
+
+    /**
+     * @param webContent Répertoire WebContent du projet
+     * @param port       Port d'écoute (0 = port libre choisi par le système)
+     * @param threadsMax Threads de traitement du connecteur HTTP
+     */
+    public ServeurEmbarque(File webContent, int port, int threadsMax) {
+        this.webContent = webContent;
+        this.port = port;
+        this.threadsMax = threadsMax;
+    }
+
+    /**
+     * Démarre Tomcat et déploie l'application
+     *
+     * @return URL de base de l'application (sans / final)
+     */
+    public String demarrer() throws IOException, LifecycleException {
+        if (!new File(webContent, "WEB-INF/web.xml").isFile()) {
+            throw new IOException("web.xml introuvable sous " + webContent.getAbsolutePath());
+        }
+        tomcat.setBaseDir(Files.createTempDirectory("charge-tomcat").toFile().getAbsolutePath());
+        tomcat.setPort(port);
+        Connector connecteur = tomcat.getConnector();
+        connecteur.setProperty("maxThreads", String.valueOf(threadsMax));
+        connecteur.setProperty("acceptCount", String.valueOf(threadsMax));
+
+        Context contexte = tomcat.addWebapp(CONTEXTE, webContent.getAbsolutePath());
+        contexte.setParentClassLoader(ServeurEmbarque.class.getClassLoader());
+        WebappLoader chargeur = new WebappLoader();
+        chargeur.setDelegate(true);
+        contexte.setLoader(chargeur);
+        ((StandardJarScanner) contexte.getJarScanner()).setScanClassPath(false);
+        contexte.addServletContainerInitializer((classes, servletContext) -> servletContext
+                .addServlet("CalendrierServlet", CalendrierServlet.class).addMapping("/calendrier"), null);
+
+        tomcat.start();
+        return "http://localhost:" + connecteur.getLocalPort() + CONTEXTE;
+    }
+
+    public void arreter() {
+        try {
+            tomcat.stop();
+            tomcat.destroy();
+        } catch (LifecycleException e) {
+            System.err.println("Arrêt de Tomcat : " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,323 @@
+package charge;
+
+import beans.Planification;
+import beans.ResultatPlanification;
+import dao.PlanificationDAO;
+import services.MoteurConflits;
+import utils.DatabaseConnection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.temporal.TemporalAdjusters;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Test de stress des réservations concurrentes (double réservation)
+ *
+ * Plusieurs threads réservent en même temps des créneaux tirés au hasard
+ * sur un petit ensemble de salles et d'enseignants, directement par
+ * PlanificationDAO (sans HTTP). À chaque palier de threads, le calendrier
+ * de test est vidé, les tentatives sont rejouées, puis une auto-jointure
+ * compte les paires de séances qui se chevauchent sur une même salle ou un
+ * même enseignant : elle doit être nulle pour reserverSiLibre.
+ *
+ * Le mode "naif" rejoue l'ancien enchaînement verifierConflit puis
+ * creerPlanification (deux connexions) : il montre que le test détecte bien
+ * les doubles réservations.
+ *
+ * Lancer : java -cp target/charge.jar charge.StressReservations --threads=1,2,4,8,16,32,64
+ * (base H2 en mémoire par défaut, ou celle de -Dplanification.db*)
+ *
+ * Code de sortie 1 si reserverSiLibre a laissé passer une double réservation.
+ *
+ * @author Système de Planification Académique
+ * @version 1.0
+ */
+public final class StressReservations {
+
+    private static final String MARQUEUR = "stress-reservations";
+    private static final int[] DUREES = { 60, 90, 120 };
+    /** Débuts possibles : tous les quarts d'heure de 8 h à 17 h 45 */
+    private static final int QUARTS_PAR_JOUR = 40;
+
+    private static final String SQL_DOUBLES = "SELECT COUNT(*) FROM planification a " +
+            "JOIN planification b ON a.id < b.id " +
+            "AND (a.salle_id = b.salle_id OR a.enseignant_id = b.enseignant_id) " +
+            "AND a.date_heure < b.date_fin AND b.date_heure < a.date_fin " +
+            "WHERE a.notes = ? AND b.notes = ? AND a.statut != 'ANNULE' AND b.statut != 'ANNULE'";
+
+    /** Enchaînement de réservation mesuré */
+    enum Mode {
+        ATOMIQUE("atomique"), NAIF("naif");
+
+        final String nom;
+
+        Mode(String nom) {
+            this.nom = nom;
+        }
+    }
+
+    /** Résultat d'un palier */
+    static final class Mesure {
+        final LongAdder reservees = new LongAdder();
+        final LongAdder refusees = new LongAdder();
+        final LongAdder erreurs = new LongAdder();
+        long nanos;
+        long doubles;
+    }
+
+    private final PlanificationDAO dao = new PlanificationDAO();
+    private final int[] salles;
+    private final int[] enseignants;
+    private final int coursId;
+    private final long lundi;
+    private final int semaines;
+
+    private StressReservations(int[] salles, int[] enseignants, int coursId, long lundi, int semaines) {
+        this.salles = salles;
+        this.enseignants = enseignants;
+        this.coursId = coursId;
+        this.lundi = lundi;
+        this.semaines = semaines;
+    }
+
+    // ==================== Point d'entrée ====================
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                usage();
+                return;
+            }
+            int egal = arg.indexOf('=');
+            options.put(egal < 0 ? arg.substring(2) : arg.substring(2, egal), egal < 0 ? "" : arg.substring(egal + 1));
+        }
+        if (options.containsKey("aide")) {
+            usage();
+            return;
+        }
+
+        String[] paliers = options.getOrDefault("threads", "1,2,4,8,16,32,64").split(",");
+        int threadsMax = 1;
+        for (String p : paliers) {
+            threadsMax = Math.max(threadsMax, Integer.parseInt(p.trim()));
+        }
+        int tentatives = Integer.parseInt(options.getOrDefault("tentatives", "20000"));
+        int nbSalles = Integer.parseInt(options.getOrDefault("salles", "40"));
+        int nbEnseignants = Integer.parseInt(options.getOrDefault("enseignants", "40"));
+        int semaines = Integer.parseInt(options.getOrDefault("semaines", "12"));
+        long graine = Long.parseLong(options.getOrDefault("graine", "1"));
+        String modeOption = options.getOrDefault("mode", "atomique,naif");
+
+        if (System.getProperty("planification.db") == null) {
+            System.setProperty("planification.db", "h2");
+        }
+        if (System.getProperty("planification.db.h2.scripts") == null) {
+            System.setProperty("planification.db.h2.scripts", TestCharge.trouver(null, "database").getPath());
+        }
+        // Une connexion par thread au plus fort palier, sans attente dans le pool
+        if (System.getProperty("planification.db.pool.max") == null) {
+            System.setProperty("planification.db.pool.max", String.valueOf(threadsMax + 4));
+        }
+
+        boolean doublesAtomique = false;
+        try {
+            StressReservations stress = preparer(nbSalles, nbEnseignants, semaines);
+            System.out.println("✓ " + nbSalles + " salle(s), " + nbEnseignants + " enseignant(s), " + semaines
+                    + " semaine(s), " + tentatives + " tentative(s) par palier");
+            System.out.println(String.format(Locale.ROOT, "%-9s %7s %10s %10s %8s %8s %12s %12s %8s",
+                    "Mode", "Threads", "Tentatives", "Réservées", "Refus", "Erreurs", "Réserv./s", "Tentat./s",
+                    "Doubles"));
+
+            for (String nomMode : modeOption.split(",")) {
+                Mode mode = Mode.valueOf(nomMode.trim().toUpperCase(Locale.ROOT));
+                for (String p : paliers) {
+                    int threads = Integer.parseInt(p.trim());
+                    Mesure m = stress.executer(mode, threads, tentatives, graine);
+                    double secondes = m.nanos / 1e9;
+                    System.out.println(String.format(Locale.ROOT, "%-9s %7d %10d %10d %8d %8d %12.0f %12.0f %8d",
+                            mode.nom, threads, tentatives, m.reservees.sum(), m.refusees.sum(), m.erreurs.sum(),
+                            m.reservees.sum() / secondes, tentatives / secondes, m.doubles));
+                    if (mode == Mode.ATOMIQUE && m.doubles > 0) {
+                        doublesAtomique = true;
+                    }
+                }
+            }
+            stress.vider();
+        } finally {
+            DatabaseConnection.shutdown();
+        }
+
+        if (doublesAtomique) {
+            System.out.println("✗ Double réservation avec reserverSiLibre");
+            System.exit(1);
+        }
+        System.out.println("✓ Aucune double réservation avec reserverSiLibre");
+        System.exit(0);
+    }
+
+    private static void usage() {
+        System.err.println("Usage : charge.StressReservations [--threads=1,2,4,8,16,32,64] [--tentatives=20000]");
+        System.err.println("  [--salles=40] [--enseignants=40] [--semaines=12] [--mode=atomique,naif] [--graine=1]");
+    }
+
+    // ==================== Préparation ====================
+
+    /**
+     * Crée les ressources du test (réutilisées d'un lancement à l'autre sur une base persistante)
+     */
+    private static StressReservations preparer(int nbSalles, int nbEnseignants, int semaines) throws SQLException {
+        Connection conn = null;
+        try {
+            conn = DatabaseConnection.getConnection();
+            int[] salles = creerRessources(conn, "SALLE", "Salle stress ", nbSalles);
+            int[] enseignants = creerRessources(conn, "ENSEIGNANT", "Enseignant stress ", nbEnseignants);
+            int coursId = creerRessources(conn, "COURS", "Cours stress ", 1)[0];
+            // Semaines lointaines : pas de séance existante ni de transition de statut pendant le test
+            LocalDate lundi = LocalDate.now().plusYears(10).with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            return new StressReservations(salles, enseignants, coursId,
+                    lundi.atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli(), semaines);
+        } finally {
+            DatabaseConnection.closeConnection(conn);
+        }
+    }
+
+    private static int[] creerRessources(Connection conn, String type, String prefixe, int nombre) throws SQLException {
+        int[] ids = new int[nombre];
+        String sql = "INSERT INTO ressource (nom, type, disponibilite, description) VALUES (?, ?, TRUE, ?)";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            for (int i = 0; i < nombre; i++) {
+                pstmt.setString(1, prefixe + (i + 1));
+                pstmt.setString(2, type);
+                pstmt.setString(3, MARQUEUR);
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+            try (ResultSet rs = pstmt.getGeneratedKeys()) {
+                for (int i = 0; i < nombre && rs.next(); i++) {
+                    ids[i] = rs.getInt(1);
+                }
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Supprime les séances du test et recharge le moteur de conflits
+     */
+    private void vider() throws SQLException {
+        Connection conn = null;
+        try {
+            conn = DatabaseConnection.getConnection();
+            try (PreparedStatement pstmt = conn.prepareStatement("DELETE FROM planification WHERE notes = ?")) {
+                pstmt.setString(1, MARQUEUR);
+                pstmt.executeUpdate();
+            }
+        } finally {
+            DatabaseConnection.closeConnection(conn);
+        }
+        MoteurConflits.getInstance().charger();
+    }
+
+    // ==================== Exécution d'un palier ====================
+
+    /**
+     * Rejoue les tentatives réparties sur les threads, puis compte les doubles réservations
+     */
+    Mesure executer(Mode mode, int threads, int tentatives, long graine) throws Exception {
+        vider();
+        Mesure mesure = new Mesure();
+        CountDownLatch depart = new CountDownLatch(1);
+        CountDownLatch fin = new CountDownLatch(threads);
+        SplittableRandom racine = new SplittableRandom(graine);
+
+        for (int t = 0; t < threads; t++) {
+            int part = tentatives / threads + (t < tentatives % threads ? 1 : 0);
+            SplittableRandom aleatoire = racine.split();
+            Thread thread = new Thread(() -> {
+                try {
+                    depart.await();
+                    for (int i = 0; i < part; i++) {
+                        reserver(mode, planificationAleatoire(aleatoire), mesure);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    fin.countDown();
+                }
+            }, "stress-" + t);
+            thread.start();
+        }
+
+        long t0 = System.nanoTime();
+        depart.countDown();
+        fin.await();
+        mesure.nanos = System.nanoTime() - t0;
+        mesure.doubles = compterDoubles();
+        return mesure;
+    }
+
+    private void reserver(Mode mode, Planification p, Mesure mesure) {
+        if (mode == Mode.ATOMIQUE) {
+            String statut = dao.reserverSiLibre(p).getStatut();
+            if (ResultatPlanification.CREE.equals(statut)) {
+                mesure.reservees.increment();
+            } else if (ResultatPlanification.CONFLIT.equals(statut)) {
+                mesure.refusees.increment();
+            } else {
+                mesure.erreurs.increment();
+            }
+            return;
+        }
+        if (dao.verifierConflit(p.getSalleId(), p.getEnseignantId(), p.getDateHeure(), p.getDuree(), 0)) {
+            mesure.refusees.increment();
+        } else if (dao.creerPlanification(p)) {
+            mesure.reservees.increment();
+        } else {
+            mesure.erreurs.increment();
+        }
+    }
+
+    private Planification planificationAleatoire(SplittableRandom r) {
+        long jour = lundi + (r.nextInt(semaines) * 7L + r.nextInt(5)) * 86_400_000L;
+        long debut = jour + (8 * 60 + r.nextInt(QUARTS_PAR_JOUR) * 15) * 60_000L;
+        Planification p = new Planification();
+        p.setSalleId(salles[r.nextInt(salles.length)]);
+        p.setEnseignantId(enseignants[r.nextInt(enseignants.length)]);
+        p.setCoursId(coursId);
+        p.setDateHeure(new Timestamp(debut));
+        p.setDuree(DUREES[r.nextInt(DUREES.length)]);
+        p.setStatut("PLANIFIE");
+        p.setNotes(MARQUEUR);
+        return p;
+    }
+
+    private static long compterDoubles() throws SQLException {
+        Connection conn = null;
+        try {
+            conn = DatabaseConnection.getConnection();
+            try (PreparedStatement pstmt = conn.prepareStatement(SQL_DOUBLES)) {
+                pstmt.setString(1, MARQUEUR);
+                pstmt.setString(2, MARQUEUR);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    return rs.next() ? rs.getLong(1) : 0;
+                }
+            }
+        } finally {
+            DatabaseConnection.closeConnection(conn);
+        }
+    }
+}
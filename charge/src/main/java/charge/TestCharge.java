@@ -0,0 +1,411 @@
+package charge;
+
+import utils.GenerateurDonnees;
+import utils.JsonWriter;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Test de charge de bout en bout : servlets réels, AuthFilter, sessions HTTP
+ *
+ * Démarre l'application dans un Tomcat embarqué (base H2 en mémoire par
+ * défaut, ou celle de -Dplanification.db*), ou vise une instance existante
+ * (--url). Les utilisateurs simulés se connectent par /api/auth/login puis
+ * rejouent un mélange pondéré d'actions (voir {@link Action}).
+ *
+ * Modèle ouvert : les requêtes arrivent selon un processus de Poisson au
+ * débit demandé, qu'elles soient servies vite ou non. La latence est mesurée
+ * depuis l'instant d'arrivée prévu : l'attente côté client est comptée, un
+ * serveur saturé ne ralentit donc pas la charge qu'il reçoit.
+ *
+ * Avec --paliers=10,20,40..., chaque débit est tenu --duree secondes ; le
+ * test s'arrête au premier palier dont le p99 dépasse --seuilP99 ms ou dont
+ * plus de 1 % des requêtes échouent. Le dernier palier tenu est la capacité.
+ *
+ * Lancer : java -jar charge/target/charge.jar --generer --paliers=10,20,40,80
+ *
+ * @author Système de Planification Académique
+ * @version 1.0
+ */
+public final class TestCharge {
+
+    private static final double TAUX_ECHEC_MAX = 0.01;
+    private static final long AFFICHAGE_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+    private final Scenario scenario;
+    private final List<UtilisateurVirtuel> utilisateurs;
+    private final Action[] tirage;
+    private final int dureeS;
+    private final int echauffementS;
+    private final int concurrenceMax;
+    private final int delaiMs;
+    private final Random arrivees;
+
+    /**
+     * Mesures d'un palier
+     */
+    static final class Palier {
+        final double debitVise;
+        final Map<Action, Latences> actions = new EnumMap<>(Action.class);
+        final Latences total = new Latences();
+        final LongAdder rejetees = new LongAdder();
+        final AtomicInteger enVol = new AtomicInteger();
+        volatile int enVolMax;
+        double debitObtenu;
+
+        Palier(double debitVise) {
+            this.debitVise = debitVise;
+            for (Action a : Action.values()) {
+                actions.put(a, new Latences());
+            }
+        }
+
+        long requetes() {
+            return total.getNombre() + rejetees.sum();
+        }
+
+        double tauxEchec() {
+            long n = requetes();
+            return n == 0 ? 0 : (double) (total.getErreurs() + rejetees.sum()) / n;
+        }
+    }
+
+    private TestCharge(Scenario scenario, List<UtilisateurVirtuel> utilisateurs, Map<Action, Integer> melange,
+            int dureeS, int echauffementS, int concurrenceMax, int delaiMs, long graine) {
+        this.scenario = scenario;
+        this.utilisateurs = utilisateurs;
+        this.dureeS = dureeS;
+        this.echauffementS = echauffementS;
+        this.concurrenceMax = concurrenceMax;
+        this.delaiMs = delaiMs;
+        this.arrivees = new Random(graine);
+
+        List<Action> urne = new ArrayList<>();
+        for (Map.Entry<Action, Integer> e : melange.entrySet()) {
+            for (int i = 0; i < e.getValue(); i++) {
+                urne.add(e.getKey());
+            }
+        }
+        if (urne.isEmpty()) {
+            throw new IllegalArgumentException("Mélange vide");
+        }
+        tirage = urne.toArray(new Action[0]);
+    }
+
+    // ==================== Point d'entrée ====================
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                usage();
+                return;
+            }
+            int egal = arg.indexOf('=');
+            options.put(egal < 0 ? arg.substring(2) : arg.substring(2, egal), egal < 0 ? "" : arg.substring(egal + 1));
+        }
+        if (options.containsKey("aide")) {
+            usage();
+            return;
+        }
+
+        int utilisateurs = Integer.parseInt(options.getOrDefault("utilisateurs", "50"));
+        int concurrenceMax = Integer.parseInt(options.getOrDefault("concurrenceMax", "500"));
+        int delaiMs = Integer.parseInt(options.getOrDefault("timeout", "30000"));
+        // Connexions keep-alive réutilisées par HttpURLConnection (5 par défaut)
+        System.setProperty("http.maxConnections", String.valueOf(concurrenceMax));
+
+        ServeurEmbarque serveur = null;
+        String base = options.get("url");
+        try {
+            if (base == null) {
+                preparerBaseEmbarquee(options);
+                serveur = new ServeurEmbarque(trouver(options.get("webcontent"), "WebContent"),
+                        Integer.parseInt(options.getOrDefault("port", "0")),
+                        Integer.parseInt(options.getOrDefault("threads", "200")));
+                base = serveur.demarrer();
+                System.out.println("✓ Application démarrée sur " + base);
+            }
+
+            Scenario scenario = new Scenario(base, delaiMs,
+                    options.getOrDefault("comptes", "admin@academie.ma").split(","),
+                    options.getOrDefault("motDePasse", "password123"));
+            TestCharge test = new TestCharge(scenario, scenario.preparer(utilisateurs),
+                    melange(options.get("melange")),
+                    Integer.parseInt(options.getOrDefault("duree", "60")),
+                    Integer.parseInt(options.getOrDefault("echauffement", "10")),
+                    concurrenceMax, delaiMs, Long.parseLong(options.getOrDefault("graine", "1")));
+
+            String paliersOption = options.get("paliers");
+            String[] debits = paliersOption != null ? paliersOption.split(",")
+                    : new String[] { options.getOrDefault("debit", "20") };
+            long seuilP99Micros = Long.parseLong(options.getOrDefault("seuilP99", "500")) * 1000;
+
+            List<Palier> paliers = new ArrayList<>();
+            Palier capacite = null;
+            for (String debit : debits) {
+                Palier p = test.executer(Double.parseDouble(debit.trim()));
+                paliers.add(p);
+                afficher(p);
+                boolean tenu = p.total.centileMicros(0.99) <= seuilP99Micros && p.tauxEchec() <= TAUX_ECHEC_MAX;
+                if (!tenu) {
+                    System.out.println("✗ Palier non tenu (p99 > " + seuilP99Micros / 1000 + " ms ou > "
+                            + (int) (TAUX_ECHEC_MAX * 100) + " % d'échecs)");
+                    break;
+                }
+                capacite = p;
+            }
+            if (paliersOption != null) {
+                System.out.println(capacite != null
+                        ? String.format(Locale.ROOT, "✓ Capacité : %.0f requêtes/s (p99 %.1f ms)",
+                                capacite.debitVise, capacite.total.centileMicros(0.99) / 1000.0)
+                        : "✗ Aucun palier tenu");
+            }
+            if (options.containsKey("json")) {
+                ecrireJson(new File(options.get("json")), paliers, capacite, seuilP99Micros);
+            }
+        } finally {
+            if (serveur != null) {
+                serveur.arreter();
+            }
+        }
+    }
+
+    private static void usage() {
+        System.err.println("Usage : charge.TestCharge [--url=http://hote:port/contexte] [--generer[=options]]");
+        System.err.println("  [--debit=20 | --paliers=10,20,40] [--duree=60] [--echauffement=10] [--seuilP99=500]");
+        System.err.println("  [--utilisateurs=50] [--comptes=admin@academie.ma] [--motDePasse=password123]");
+        System.err.println("  [--melange=semaine:35,navigation:20,formulaire:10,sauvegarde:10,conflit:5,"
+                + "recherche:15,connexion:5]");
+        System.err.println("  [--concurrenceMax=500] [--timeout=30000] [--threads=200] [--port=0] [--json=fichier]");
+    }
+
+    /**
+     * Base H2 par défaut, éventuellement remplie par GenerateurDonnees
+     */
+    private static void preparerBaseEmbarquee(Map<String, String> options) throws Exception {
+        if (System.getProperty("planification.db") == null) {
+            System.setProperty("planification.db", "h2");
+        }
+        if (System.getProperty("planification.db.h2.scripts") == null) {
+            System.setProperty("planification.db.h2.scripts", trouver(null, "database").getPath());
+        }
+        // Le générateur travaille sans pool s'il n'est pas précisé : l'application en a besoin
+        if (System.getProperty("planification.db.pool") == null) {
+            System.setProperty("planification.db.pool", "true");
+        }
+
+        String generer = options.get("generer");
+        if (generer != null) {
+            List<String> arguments = new ArrayList<>(Arrays.asList("--charger", "--vider", "--salles=200",
+                    "--enseignants=400", "--cours=120", "--etudiants=1000", "--annees=1",
+                    "--debut=" + LocalDate.now().minusWeeks(20)));
+            if (!generer.isEmpty()) {
+                arguments.addAll(Arrays.asList(generer.trim().split("\\s+")));
+            }
+            GenerateurDonnees.main(arguments.toArray(new String[0]));
+        }
+    }
+
+    /**
+     * Répertoire du projet, depuis sa racine ou depuis le module charge
+     */
+    static File trouver(String chemin, String nom) {
+        if (chemin != null) {
+            return new File(chemin);
+        }
+        File ici = new File(nom);
+        return ici.isDirectory() ? ici : new File("..", nom);
+    }
+
+    private static Map<Action, Integer> melange(String option) {
+        Map<Action, Integer> melange = new EnumMap<>(Action.class);
+        if (option == null) {
+            for (Action a : Action.values()) {
+                melange.put(a, a.poidsDefaut);
+            }
+            return melange;
+        }
+        for (String element : option.split(",")) {
+            String[] nomPoids = element.trim().split(":");
+            melange.put(Action.parNom(nomPoids[0]), Integer.parseInt(nomPoids[1]));
+        }
+        return melange;
+    }
+
+    // ==================== Exécution d'un palier ====================
+
+    /**
+     * Envoie les requêtes au débit donné pendant l'échauffement puis la mesure
+     */
+    Palier executer(double debit) throws InterruptedException {
+        System.out.println(String.format(Locale.ROOT, "▶ Palier %.0f requêtes/s : %d s d'échauffement, %d s de mesure",
+                debit, echauffementS, dureeS));
+        Palier palier = new Palier(debit);
+        ThreadPoolExecutor executeur = new ThreadPoolExecutor(0, concurrenceMax, 30, TimeUnit.SECONDS,
+                new SynchronousQueue<>(), r -> {
+                    Thread t = new Thread(r, "charge");
+                    t.setDaemon(true);
+                    return t;
+                });
+
+        long t0 = System.nanoTime();
+        long debutMesure = t0 + TimeUnit.SECONDS.toNanos(echauffementS);
+        long fin = debutMesure + TimeUnit.SECONDS.toNanos(dureeS);
+        long prochainAffichage = t0 + AFFICHAGE_NANOS;
+        double intervalleMoyen = 1e9 / debit;
+        long prevu = t0;
+
+        while (true) {
+            // Processus de Poisson : intervalles exponentiels
+            prevu += (long) (-Math.log(1 - arrivees.nextDouble()) * intervalleMoyen);
+            if (prevu >= fin) {
+                break;
+            }
+            long attente = prevu - System.nanoTime();
+            if (attente > 0) {
+                LockSupport.parkNanos(attente);
+            }
+            Action action = tirage[arrivees.nextInt(tirage.length)];
+            UtilisateurVirtuel vu = utilisateurs.get(arrivees.nextInt(utilisateurs.size()));
+            boolean mesure = prevu >= debutMesure;
+            long arrivee = prevu;
+            try {
+                executeur.execute(() -> traiter(palier, action, vu, arrivee, mesure));
+            } catch (RejectedExecutionException e) {
+                if (mesure) {
+                    palier.rejetees.increment();
+                }
+            }
+
+            long maintenant = System.nanoTime();
+            if (maintenant >= prochainAffichage) {
+                System.out.println(String.format(Locale.ROOT, "  t=%3ds  en cours %4d  terminées %7d  erreurs %d",
+                        TimeUnit.NANOSECONDS.toSeconds(maintenant - t0), palier.enVol.get(),
+                        palier.total.getNombre(), palier.total.getErreurs()));
+                prochainAffichage += AFFICHAGE_NANOS;
+            }
+        }
+
+        executeur.shutdown();
+        if (!executeur.awaitTermination(delaiMs + 5000L, TimeUnit.MILLISECONDS)) {
+            executeur.shutdownNow();
+        }
+        for (Latences l : palier.actions.values()) {
+            palier.total.ajouter(l);
+        }
+        palier.debitObtenu = palier.total.getNombre() / (double) dureeS;
+        return palier;
+    }
+
+    private void traiter(Palier palier, Action action, UtilisateurVirtuel vu, long arrivee, boolean mesure) {
+        int n = palier.enVol.incrementAndGet();
+        if (n > palier.enVolMax) {
+            palier.enVolMax = n;
+        }
+        Scenario.Issue issue;
+        try {
+            if (!vu.isConnecte() && !vu.connecter()) {
+                issue = Scenario.Issue.ERREUR;
+            } else {
+                issue = scenario.executer(action, vu);
+            }
+        } catch (Exception e) {
+            issue = Scenario.Issue.ERREUR;
+        } finally {
+            palier.enVol.decrementAndGet();
+        }
+        if (mesure) {
+            palier.actions.get(action).enregistrer(System.nanoTime() - arrivee, issue == Scenario.Issue.ERREUR,
+                    issue == Scenario.Issue.REFUS);
+        }
+    }
+
+    // ==================== Rapports ====================
+
+    private static void afficher(Palier p) {
+        System.out.println(String.format(Locale.ROOT,
+                "Palier %.0f/s : %d requêtes, %.1f/s obtenues, %d erreur(s), %d rejetée(s) côté client, en vol max %d",
+                p.debitVise, p.requetes(), p.debitObtenu, p.total.getErreurs(), p.rejetees.sum(), p.enVolMax));
+        System.out.println(String.format(Locale.ROOT, "%-12s %8s %8s %8s %9s %9s %9s %9s %9s",
+                "Action", "Nombre", "Erreurs", "Refus", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms"));
+        for (Map.Entry<Action, Latences> e : p.actions.entrySet()) {
+            if (e.getValue().getNombre() > 0) {
+                ligne(e.getKey().nom, e.getValue());
+            }
+        }
+        ligne("total", p.total);
+    }
+
+    private static void ligne(String nom, Latences l) {
+        System.out.println(String.format(Locale.ROOT, "%-12s %8d %8d %8d %9.1f %9.1f %9.1f %9.1f %9.1f", nom,
+                l.getNombre(), l.getErreurs(), l.getRefus(), l.centileMicros(0.50) / 1000.0,
+                l.centileMicros(0.90) / 1000.0, l.centileMicros(0.99) / 1000.0, l.centileMicros(0.999) / 1000.0,
+                l.getMaxMicros() / 1000.0));
+    }
+
+    /**
+     * Résultats lisibles par un script (durées en microsecondes, débits en millièmes de requête/s)
+     */
+    private static void ecrireJson(File fichier, List<Palier> paliers, Palier capacite, long seuilP99Micros)
+            throws IOException {
+        try (Writer out = new OutputStreamWriter(new FileOutputStream(fichier), StandardCharsets.UTF_8)) {
+            JsonWriter json = new JsonWriter(out);
+            json.debutObjet()
+                    .nom("seuilP99Us").valeur(seuilP99Micros)
+                    .nom("capaciteMilliRps").valeur(capacite != null ? Math.round(capacite.debitVise * 1000) : 0);
+            json.nom("paliers").debutTableau();
+            for (Palier p : paliers) {
+                json.debutObjet()
+                        .nom("debitViseMilliRps").valeur(Math.round(p.debitVise * 1000))
+                        .nom("debitObtenuMilliRps").valeur(Math.round(p.debitObtenu * 1000))
+                        .nom("rejetees").valeur(p.rejetees.sum())
+                        .nom("enVolMax").valeur(p.enVolMax);
+                json.nom("actions").debutTableau();
+                for (Map.Entry<Action, Latences> e : p.actions.entrySet()) {
+                    ecrireLatences(json, e.getKey().nom, e.getValue());
+                }
+                ecrireLatences(json, "total", p.total);
+                json.finTableau().finObjet();
+            }
+            json.finTableau().finObjet();
+            json.flush();
+        }
+        System.out.println("✓ Résultats écrits dans " + fichier.getAbsolutePath());
+    }
+
+    private static void ecrireLatences(JsonWriter json, String nom, Latences l) throws IOException {
+        json.debutObjet()
+                .nom("action").valeur(nom)
+                .nom("nombre").valeur(l.getNombre())
+                .nom("erreurs").valeur(l.getErreurs())
+                .nom("refus").valeur(l.getRefus())
+                .nom("p50Us").valeur(l.centileMicros(0.50))
+                .nom("p90Us").valeur(l.centileMicros(0.90))
+                .nom("p99Us").valeur(l.centileMicros(0.99))
+                .nom("p999Us").valeur(l.centileMicros(0.999))
+                .nom("maxUs").valeur(l.getMaxMicros())
+                .finObjet();
+    }
+}
@@ -0,0 +1,169 @@
+package charge;
+
+import utils.JsonReader;
+import utils.JsonReader.Jeton;
+import utils.JsonWriter;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Session HTTP d'un utilisateur simulé (cookie JSESSIONID)
+ *
+ * Les redirections ne sont pas suivies : un 302 est la réponse attendue
+ * d'une sauvegarde réussie, et un renvoi vers index.jsp signale une session
+ * perdue. Le corps des réponses est toujours lu entièrement, pour mesurer le
+ * rendu complet et réutiliser la connexion (keep-alive).
+ *
+ * @author Système de Planification Académique
+ * @version 1.0
+ */
+final class UtilisateurVirtuel {
+
+    /**
+     * Statut, redirection et corps d'une réponse
+     */
+    static final class Reponse {
+        final int statut;
+        final String redirection;
+        final byte[] corps;
+
+        Reponse(int statut, String redirection, byte[] corps) {
+            this.statut = statut;
+            this.redirection = redirection;
+            this.corps = corps;
+        }
+
+        /**
+         * Réponse du filtre d'authentification à une requête sans session valide
+         */
+        boolean isNonAuthentifie() {
+            return statut == HttpURLConnection.HTTP_UNAUTHORIZED
+                    || (redirection != null && redirection.endsWith("/index.jsp"));
+        }
+    }
+
+    private final String base;
+    private final int delaiMs;
+    private final String email;
+    private final String motDePasse;
+    private volatile String cookie;
+
+    UtilisateurVirtuel(String base, int delaiMs, String email, String motDePasse) {
+        this.base = base;
+        this.delaiMs = delaiMs;
+        this.email = email;
+        this.motDePasse = motDePasse;
+    }
+
+    /**
+     * POST /api/auth/login ; conserve le cookie de session en cas de succès
+     */
+    boolean connecter() throws IOException {
+        StringWriter corps = new StringWriter();
+        JsonWriter json = new JsonWriter(corps);
+        json.debutObjet().nom("email").valeur(email).nom("password").valeur(motDePasse).finObjet();
+        json.flush();
+
+        cookie = null;
+        Reponse r = envoyer("POST", "/api/auth/login", "application/json; charset=UTF-8",
+                corps.toString().getBytes(StandardCharsets.UTF_8));
+        return r.statut == HttpURLConnection.HTTP_OK && succes(r.corps) && cookie != null;
+    }
+
+    boolean isConnecte() {
+        return cookie != null;
+    }
+
+    /**
+     * Oublie la session (elle sera rouverte avant la requête suivante)
+     */
+    void invalider() {
+        cookie = null;
+    }
+
+    Reponse get(String chemin) throws IOException {
+        return envoyer("GET", chemin, null, null);
+    }
+
+    Reponse poster(String chemin, String formulaire) throws IOException {
+        return envoyer("POST", chemin, "application/x-www-form-urlencoded; charset=UTF-8",
+                formulaire.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Reponse envoyer(String methode, String chemin, String typeContenu, byte[] corps) throws IOException {
+        HttpURLConnection c = (HttpURLConnection) new URL(base + chemin).openConnection();
+        c.setInstanceFollowRedirects(false);
+        c.setConnectTimeout(delaiMs);
+        c.setReadTimeout(delaiMs);
+        c.setRequestMethod(methode);
+        String session = cookie;
+        if (session != null) {
+            c.setRequestProperty("Cookie", session);
+        }
+        if (corps != null) {
+            c.setDoOutput(true);
+            c.setRequestProperty("Content-Type", typeContenu);
+            c.setFixedLengthStreamingMode(corps.length);
+            try (OutputStream out = c.getOutputStream()) {
+                out.write(corps);
+            }
+        }
+
+        int statut = c.getResponseCode();
+        for (Map.Entry<String, List<String>> entete : c.getHeaderFields().entrySet()) {
+            if (!"Set-Cookie".equalsIgnoreCase(entete.getKey())) {
+                continue;
+            }
+            for (String v : entete.getValue()) {
+                if (v.startsWith("JSESSIONID=")) {
+                    int fin = v.indexOf(';');
+                    cookie = fin < 0 ? v : v.substring(0, fin);
+                }
+            }
+        }
+
+        ByteArrayOutputStream lu = new ByteArrayOutputStream();
+        InputStream in = statut >= 400 ? c.getErrorStream() : c.getInputStream();
+        if (in != null) {
+            try {
+                byte[] tampon = new byte[8192];
+                int n;
+                while ((n = in.read(tampon)) > 0) {
+                    lu.write(tampon, 0, n);
+                }
+            } finally {
+                in.close();
+            }
+        }
+        return new Reponse(statut, c.getHeaderField("Location"), lu.toByteArray());
+    }
+
+    /**
+     * Champ "success" de la réponse de connexion
+     */
+    private static boolean succes(byte[] corps) throws IOException {
+        JsonReader json = new JsonReader(new ByteArrayInputStream(corps));
+        if (json.suivant() != Jeton.DEBUT_OBJET) {
+            return false;
+        }
+        while (json.suivant() == Jeton.NOM) {
+            boolean champ = json.texteEgal("success");
+            json.suivant();
+            if (champ) {
+                return json.getJeton() == Jeton.BOOLEEN && json.getBooleen();
+            }
+            json.ignorerValeur();
+        }
+        return false;
+    }
+}
@@ -29,19 +29,77 @@ CREATE TABLE ressource (
 
 -- ========================================
 -- Table : planification
--- Description : Gère les planifications des ressources
+-- Description : Gère les planifications (enseignant + salle + cours sur un créneau)
+-- date_fin est une colonne générée stockée : elle permet des recherches par
+-- plage indexées au lieu de calculer DATE_ADD(date_heure, ...) sur chaque ligne
 -- ========================================
 CREATE TABLE planification (
     id INT AUTO_INCREMENT PRIMARY KEY,
-    ressource_id INT NOT NULL,
+    enseignant_id INT NOT NULL,
+    salle_id INT NOT NULL,
+    cours_id INT NOT NULL,
     date_heure DATETIME NOT NULL,
     duree INT NOT NULL COMMENT 'Durée en minutes',
+    date_fin DATETIME AS (DATE_ADD(date_heure, INTERVAL duree MINUTE)) STORED,
     statut ENUM('PLANIFIE', 'EN_COURS', 'TERMINE', 'ANNULE') DEFAULT 'PLANIFIE',
     notes TEXT,
     date_creation TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-    FOREIGN KEY (ressource_id) REFERENCES ressource(id) ON DELETE CASCADE,
+    -- Bornes de Planification.DUREE_MIN/MAX_MINUTES : les recherches de conflit
+    -- ne remontent que DUREE_MAX avant le début demandé
+    CONSTRAINT chk_planification_duree CHECK (duree BETWEEN 15 AND 480),
+    FOREIGN KEY (enseignant_id) REFERENCES ressource(id) ON DELETE CASCADE,
+    FOREIGN KEY (salle_id) REFERENCES ressource(id) ON DELETE CASCADE,
+    FOREIGN KEY (cours_id) REFERENCES ressource(id) ON DELETE CASCADE,
     INDEX idx_date_heure (date_heure),
-    INDEX idx_statut (statut)
+    INDEX idx_salle_periode (salle_id, date_heure, date_fin),
+    INDEX idx_enseignant_periode (enseignant_id, date_heure, date_fin),
+    INDEX idx_statut_debut (statut, date_heure),
+    INDEX idx_statut_fin (statut, date_fin)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+-- ========================================
+-- Table : serie_planification
+-- Description : Séances récurrentes hebdomadaires (règle de type RRULE WEEKLY)
+-- Les occurrences ne sont pas stockées : elles sont calculées à la lecture
+-- jours_semaine est un masque : bit 0 = lundi ... bit 6 = dimanche
+-- ========================================
+CREATE TABLE serie_planification (
+    id INT AUTO_INCREMENT PRIMARY KEY,
+    enseignant_id INT NOT NULL,
+    salle_id INT NOT NULL,
+    cours_id INT NOT NULL,
+    date_debut DATE NOT NULL,
+    date_fin DATE NOT NULL,
+    jours_semaine TINYINT NOT NULL,
+    intervalle_semaines INT NOT NULL DEFAULT 1,
+    heure_debut TIME NOT NULL,
+    duree INT NOT NULL COMMENT 'Durée en minutes',
+    notes TEXT,
+    date_creation TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    FOREIGN KEY (enseignant_id) REFERENCES ressource(id) ON DELETE CASCADE,
+    FOREIGN KEY (salle_id) REFERENCES ressource(id) ON DELETE CASCADE,
+    FOREIGN KEY (cours_id) REFERENCES ressource(id) ON DELETE CASCADE,
+    INDEX idx_serie_periode (date_debut, date_fin)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+-- ========================================
+-- Table : serie_exception
+-- Description : Occurrence annulée ou surchargée d'une série
+-- Les colonnes NULL reprennent la valeur de la série
+-- ========================================
+CREATE TABLE serie_exception (
+    serie_id INT NOT NULL,
+    date_occurrence DATE NOT NULL,
+    annulee BOOLEAN NOT NULL DEFAULT FALSE,
+    date_heure DATETIME NULL,
+    duree INT NULL,
+    salle_id INT NULL,
+    enseignant_id INT NULL,
+    notes TEXT,
+    PRIMARY KEY (serie_id, date_occurrence),
+    FOREIGN KEY (serie_id) REFERENCES serie_planification(id) ON DELETE CASCADE,
+    FOREIGN KEY (salle_id) REFERENCES ressource(id) ON DELETE CASCADE,
+    FOREIGN KEY (enseignant_id) REFERENCES ressource(id) ON DELETE CASCADE
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
 
 -- ========================================
@@ -56,6 +114,36 @@ CREATE TABLE logs (
     INDEX idx_date_action (date_action)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
 
+-- ========================================
+-- Table : job_lease
+-- Description : Bail de chaque tâche planifiée exclusive (services.ElectionCluster) :
+-- un seul serveur du cluster l'exécute, renouvelé tant qu'il est vivant
+-- ========================================
+CREATE TABLE job_lease (
+    nom VARCHAR(100) PRIMARY KEY,
+    proprietaire VARCHAR(200) NOT NULL,
+    expiration DATETIME(3) NOT NULL,
+    date_acquisition DATETIME(3) NOT NULL
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+-- ========================================
+-- Table : schema_version
+-- Description : Migrations appliquées par utils.SchemaMigrator au démarrage
+-- ========================================
+CREATE TABLE schema_version (
+    version INT PRIMARY KEY,
+    description VARCHAR(200) NOT NULL,
+    date_application TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+-- Ce script crée directement le schéma à jour
+INSERT INTO schema_version (version, description) VALUES
+(1, 'Colonnes enseignant_id, salle_id, cours_id'),
+(2, 'Colonne date_fin et index composites ressource/période'),
+(3, 'Tables serie_planification et serie_exception'),
+(4, 'Table job_lease (élection des tâches planifiées)'),
+(5, 'Contrainte de durée des planifications');
+
 -- ========================================
 -- Insertion des données de test : ENSEIGNANTS
 -- ========================================
@@ -92,17 +180,17 @@ INSERT INTO ressource (nom, type, disponibilite, description) VALUES
 -- ========================================
 -- Insertion des planifications de test
 -- ========================================
-INSERT INTO planification (ressource_id, date_heure, duree, statut, notes) VALUES
-(1, '2026-02-17 09:00:00', 120, 'PLANIFIE', 'Cours JEE - Amphi A - Introduction aux Servlets et cycle de vie'),
-(2, '2026-02-17 14:00:00', 90, 'PLANIFIE', 'TD Bases de Données - Salle TD 101 - Exercices sur les jointures SQL'),
-(7, '2026-02-18 10:00:00', 180, 'PLANIFIE', 'TP Développement JEE - TP Info 1 - Création application CRUD avec Servlets'),
-(5, '2026-02-18 15:00:00', 120, 'PLANIFIE', 'Cours Machine Learning - Salle Conférence - Algorithmes de classification'),
-(8, '2026-02-19 08:30:00', 150, 'EN_COURS', 'Examen Base de Données - Amphi A - QCM et exercices pratiques'),
-(4, '2026-02-19 13:00:00', 120, 'PLANIFIE', 'Cours Sécurité - Salle TD 101 - Cryptographie symétrique et asymétrique'),
-(9, '2026-02-20 09:00:00', 180, 'PLANIFIE', 'TP Frameworks JS - TP Info 1 - Développement application React'),
-(6, '2026-02-20 14:00:00', 90, 'TERMINE', 'Séminaire Gestion de Projets - Salle Conférence - Méthodologie Scrum (Terminé)'),
-(1, '2026-02-21 10:00:00', 120, 'ANNULE', 'Cours JEE annulé - Professeur en déplacement académique'),
-(11, '2026-02-21 15:00:00', 150, 'PLANIFIE', 'Examen Machine Learning - Amphi A - Projet final à présenter');
+INSERT INTO planification (enseignant_id, salle_id, cours_id, date_heure, duree, statut, notes) VALUES
+(1, 7, 13, '2026-02-17 09:00:00', 120, 'PLANIFIE', 'Cours JEE - Amphi A - Introduction aux Servlets et cycle de vie'),
+(2, 10, 14, '2026-02-17 14:00:00', 90, 'PLANIFIE', 'TD Bases de Données - Salle TD 101 - Exercices sur les jointures SQL'),
+(1, 8, 13, '2026-02-18 10:00:00', 180, 'PLANIFIE', 'TP Développement JEE - TP Info 1 - Création application CRUD avec Servlets'),
+(5, 11, 17, '2026-02-18 15:00:00', 120, 'PLANIFIE', 'Cours Machine Learning - Salle Conférence - Algorithmes de classification'),
+(2, 7, 14, '2026-02-19 08:30:00', 150, 'EN_COURS', 'Examen Base de Données - Amphi A - QCM et exercices pratiques'),
+(4, 10, 16, '2026-02-19 13:00:00', 120, 'PLANIFIE', 'Cours Sécurité - Salle TD 101 - Cryptographie symétrique et asymétrique'),
+(3, 8, 15, '2026-02-20 09:00:00', 180, 'PLANIFIE', 'TP Frameworks JS - TP Info 1 - Développement application React'),
+(6, 11, 18, '2026-02-20 14:00:00', 90, 'TERMINE', 'Séminaire Gestion de Projets - Salle Conférence - Méthodologie Scrum (Terminé)'),
+(1, 7, 13, '2026-02-21 10:00:00', 120, 'ANNULE', 'Cours JEE annulé - Professeur en déplacement académique'),
+(5, 7, 17, '2026-02-21 15:00:00', 150, 'PLANIFIE', 'Examen Machine Learning - Amphi A - Projet final à présenter');
 
 -- ========================================
 -- Insertion de logs initiaux
@@ -131,14 +219,18 @@ GROUP BY type;
 CREATE VIEW vue_planifications_futures AS
 SELECT 
     p.id,
-    r.nom as ressource_nom,
-    r.type as ressource_type,
+    e.nom as enseignant_nom,
+    s.nom as salle_nom,
+    c.nom as cours_nom,
     p.date_heure,
     p.duree,
+    p.date_fin,
     p.statut,
     p.notes
 FROM planification p
-JOIN ressource r ON p.ressource_id = r.id
+JOIN ressource e ON p.enseignant_id = e.id
+JOIN ressource s ON p.salle_id = s.id
+JOIN ressource c ON p.cours_id = c.id
 WHERE p.date_heure > NOW() AND p.statut = 'PLANIFIE'
 ORDER BY p.date_heure ASC;
 
@@ -155,7 +247,7 @@ BEGIN
         r.disponibilite,
         COUNT(p.id) as planifications_futures
     FROM ressource r
-    LEFT JOIN planification p ON r.id = p.ressource_id 
+    LEFT JOIN planification p ON r.id IN (p.enseignant_id, p.salle_id, p.cours_id)
         AND p.date_heure > NOW() 
         AND p.statut = 'PLANIFIE'
     WHERE r.id = ressource_id_param
@@ -0,0 +1,48 @@
+package beans;
+
+import java.sql.Timestamp;
+
+/**
+ * Créneau libre proposé par la recherche de créneaux
+ * La salle et l'enseignant (0 si aucun) sont libres sur toute la durée.
+ *
+ * @author Système de Planification Académique
+ * @version 1.0
+ */
+public class CreneauLibre {
+
+    private final int salleId;
+    private final int enseignantId;
+    private final Timestamp dateHeure;
+    private final int duree;
+
+    public CreneauLibre(int salleId, int enseignantId, Timestamp dateHeure, int duree) {
+        this.salleId = salleId;
+        this.enseignantId = enseignantId;
+        this.dateHeure = dateHeure;
+        this.duree = duree;
+    }
+
+    // Getters
+    public int getSalleId() {
+        return salleId;
+    }
+
+    public int getEnseignantId() {
+        return enseignantId;
+    }
+
+    public Timestamp getDateHeure() {
+        return dateHeure;
+    }
+
+    public int getDuree() {
+        return duree;
+    }
+
+    @Override
+    public String toString() {
+        return "CreneauLibre{salleId=" + salleId + ", enseignantId=" + enseignantId
+                + ", dateHeure=" + dateHeure + ", duree=" + duree + "}";
+    }
+}
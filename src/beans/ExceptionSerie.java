@@ -0,0 +1,115 @@
+package beans;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+
+/**
+ * Exception à une série récurrente pour une occurrence donnée
+ * L'occurrence prévue à dateOccurrence est soit annulée, soit remplacée par
+ * ses valeurs surchargées (les champs null reprennent ceux de la série).
+ *
+ * @author Système de Planification Académique
+ * @version 1.0
+ */
+public class ExceptionSerie {
+
+    private int serieId;
+    private Date dateOccurrence;
+    private boolean annulee;
+
+    // Surcharges (null = valeur de la série)
+    private Timestamp dateHeure;
+    private Integer duree;
+    private Integer salleId;
+    private Integer enseignantId;
+    private String notes;
+
+    /**
+     * Constructeur par défaut
+     */
+    public ExceptionSerie() {
+    }
+
+    /**
+     * Constructeur d'une annulation d'occurrence
+     */
+    public ExceptionSerie(int serieId, Date dateOccurrence) {
+        this.serieId = serieId;
+        this.dateOccurrence = dateOccurrence;
+        this.annulee = true;
+    }
+
+    // Getters et Setters
+    public int getSerieId() {
+        return serieId;
+    }
+
+    public void setSerieId(int serieId) {
+        this.serieId = serieId;
+    }
+
+    public Date getDateOccurrence() {
+        return dateOccurrence;
+    }
+
+    public void setDateOccurrence(Date dateOccurrence) {
+        this.dateOccurrence = dateOccurrence;
+    }
+
+    public boolean isAnnulee() {
+        return annulee;
+    }
+
+    public void setAnnulee(boolean annulee) {
+        this.annulee = annulee;
+    }
+
+    public Timestamp getDateHeure() {
+        return dateHeure;
+    }
+
+    public void setDateHeure(Timestamp dateHeure) {
+        this.dateHeure = dateHeure;
+    }
+
+    public Integer getDuree() {
+        return duree;
+    }
+
+    public void setDuree(Integer duree) {
+        this.duree = duree;
+    }
+
+    public Integer getSalleId() {
+        return salleId;
+    }
+
+    public void setSalleId(Integer salleId) {
+        this.salleId = salleId;
+    }
+
+    public Integer getEnseignantId() {
+        return enseignantId;
+    }
+
+    public void setEnseignantId(Integer enseignantId) {
+        this.enseignantId = enseignantId;
+    }
+
+    public String getNotes() {
+        return notes;
+    }
+
+    public void setNotes(String notes) {
+        this.notes = notes;
+    }
+
+    @Override
+    public String toString() {
+        return "ExceptionSerie{" +
+                "serieId=" + serieId +
+                ", dateOccurrence=" + dateOccurrence +
+                ", annulee=" + annulee +
+                '}';
+    }
+}
@@ -0,0 +1,72 @@
+package beans;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * Page de planifications obtenue par pagination par clé (keyset)
+ *
+ * Le curseur désigne la dernière ligne lue par le couple (date_heure, id) :
+ * la page suivante reprend strictement après lui, sans OFFSET, ce qui garde
+ * un coût constant quelle que soit la profondeur de la page.
+ *
+ * @author Système de Planification Académique
+ * @version 1.0
+ */
+public class PagePlanifications {
+
+    private final List<Planification> elements;
+    private final String curseurSuivant;
+
+    public PagePlanifications(List<Planification> elements, String curseurSuivant) {
+        this.elements = elements;
+        this.curseurSuivant = curseurSuivant;
+    }
+
+    public List<Planification> getElements() {
+        return elements;
+    }
+
+    /**
+     * Curseur de la page suivante, null s'il s'agit de la dernière page
+     */
+    public String getCurseurSuivant() {
+        return curseurSuivant;
+    }
+
+    // ==================== Curseur ====================
+
+    /**
+     * Encode la position d'une planification sous la forme "millis-id"
+     */
+    public static String curseur(Planification p) {
+        return p.getDateHeure().getTime() + "-" + p.getId();
+    }
+
+    /**
+     * Date/heure contenue dans un curseur
+     *
+     * @throws IllegalArgumentException si le curseur est mal formé
+     */
+    public static Timestamp dateCurseur(String curseur) {
+        return new Timestamp(Long.parseLong(partie(curseur, 0)));
+    }
+
+    /**
+     * ID contenu dans un curseur
+     *
+     * @throws IllegalArgumentException si le curseur est mal formé
+     */
+    public static int idCurseur(String curseur) {
+        return Integer.parseInt(partie(curseur, 1));
+    }
+
+    private static String partie(String curseur, int index) {
+        // Le séparateur est le dernier '-' (les millis peuvent être négatives)
+        int sep = curseur == null ? -1 : curseur.lastIndexOf('-');
+        if (sep <= 0 || sep == curseur.length() - 1) {
+            throw new IllegalArgumentException("Curseur invalide : " + curseur);
+        }
+        return index == 0 ? curseur.substring(0, sep) : curseur.substring(sep + 1);
+    }
+}
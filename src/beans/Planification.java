@@ -13,6 +13,15 @@ import java.text.SimpleDateFormat;
  */
 public class Planification {
 
+    /** Durée minimale d'une séance, en minutes */
+    public static final int DUREE_MIN_MINUTES = 15;
+
+    /**
+     * Durée maximale d'une séance, en minutes
+     * Borne aussi la recherche de conflits par plage d'index (date_heure).
+     */
+    public static final int DUREE_MAX_MINUTES = 480;
+
     // Attributs
     private int id;
     private int enseignantId;
@@ -23,6 +32,7 @@ public class Planification {
     private String statut; // PLANIFIE, EN_COURS, TERMINE, ANNULE
     private String notes;
     private Timestamp dateCreation;
+    private int serieId; // > 0 pour une occurrence calculée d'une série récurrente
 
     // Attributs supplémentaires pour l'affichage (joints depuis les autres tables)
     private String enseignantNom;
@@ -122,6 +132,22 @@ public class Planification {
         this.dateCreation = dateCreation;
     }
 
+    public int getSerieId() {
+        return serieId;
+    }
+
+    public void setSerieId(int serieId) {
+        this.serieId = serieId;
+    }
+
+    /**
+     * Indique si la planification est une occurrence d'une série récurrente
+     * (calculée à la lecture, sans ligne propre dans la table planification)
+     */
+    public boolean isOccurrence() {
+        return serieId > 0;
+    }
+
     public String getEnseignantNom() {
         return enseignantNom;
     }
@@ -193,6 +219,30 @@ public class Planification {
         return -1;
     }
 
+    /**
+     * Vérifie les champs obligatoires, la durée et le statut
+     * (l'existence des ressources est vérifiée en base à l'écriture)
+     *
+     * @return Message d'erreur, ou null si la planification est valide
+     */
+    public String valider() {
+        if (enseignantId <= 0 || salleId <= 0 || coursId <= 0) {
+            return "enseignantId, salleId et coursId sont obligatoires";
+        }
+        if (dateHeure == null) {
+            return "dateHeure est obligatoire";
+        }
+        if (duree < DUREE_MIN_MINUTES || duree > DUREE_MAX_MINUTES) {
+            return "La durée doit être comprise entre " + DUREE_MIN_MINUTES + " et "
+                    + DUREE_MAX_MINUTES + " minutes";
+        }
+        if (!"PLANIFIE".equals(statut) && !"EN_COURS".equals(statut) && !"TERMINE".equals(statut)
+                && !"ANNULE".equals(statut)) {
+            return "Statut invalide : " + statut;
+        }
+        return null;
+    }
+
     @Override
     public String toString() {
         return "Planification{" +
@@ -0,0 +1,71 @@
+package beans;
+
+/**
+ * Résultat de la création d'une planification dans un lot
+ * Associe la position de l'élément dans le lot à son issue.
+ * Sert aussi de résultat à une réservation seule (index 0).
+ *
+ * @author Système de Planification Académique
+ * @version 1.0
+ */
+public class ResultatPlanification {
+
+    /** Issues possibles pour un élément du lot */
+    public static final String CREE = "CREE";
+    public static final String CONFLIT = "CONFLIT";
+    public static final String INVALIDE = "INVALIDE";
+    public static final String ERREUR = "ERREUR";
+
+    private final int index;
+    private String statut;
+    private int id;
+    private String message;
+
+    public ResultatPlanification(int index) {
+        this.index = index;
+    }
+
+    public ResultatPlanification(int index, String statut, String message) {
+        this.index = index;
+        this.statut = statut;
+        this.message = message;
+    }
+
+    // Getters et Setters
+    public int getIndex() {
+        return index;
+    }
+
+    public String getStatut() {
+        return statut;
+    }
+
+    public void setStatut(String statut) {
+        this.statut = statut;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public void setId(int id) {
+        this.id = id;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    public boolean isCree() {
+        return CREE.equals(statut);
+    }
+
+    @Override
+    public String toString() {
+        return "ResultatPlanification{index=" + index + ", statut=" + statut + ", id=" + id + "}";
+    }
+}
@@ -0,0 +1,428 @@
+package beans;
+
+import java.sql.Date;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Bean représentant une série de séances récurrentes (cours hebdomadaire)
+ *
+ * La règle suit le modèle RRULE FREQ=WEEKLY : jours de la semaine (BYDAY),
+ * intervalle en semaines (INTERVAL) et période de validité (DTSTART/UNTIL).
+ * Les occurrences ne sont pas stockées : elles sont calculées uniquement pour
+ * la fenêtre demandée. Une occurrence peut être annulée ou surchargée par une
+ * {@link ExceptionSerie}.
+ *
+ * @author Système de Planification Académique
+ * @version 1.0
+ */
+public class SeriePlanification {
+
+    /** Noms des jours dans l'ordre des bits du masque joursSemaine */
+    public static final String[] JOURS = { "LUNDI", "MARDI", "MERCREDI", "JEUDI", "VENDREDI", "SAMEDI",
+            "DIMANCHE" };
+
+    /**
+     * Bit du masque joursSemaine correspondant à un nom de jour (casse indifférente)
+     *
+     * @throws IllegalArgumentException si le jour est inconnu
+     */
+    public static int bitJour(String nom) {
+        String jour = nom.trim().toUpperCase(Locale.ROOT);
+        for (int i = 0; i < JOURS.length; i++) {
+            if (JOURS[i].equals(jour)) {
+                return 1 << i;
+            }
+        }
+        throw new IllegalArgumentException("Jour inconnu : " + jour);
+    }
+
+    // Attributs
+    private int id;
+    private int enseignantId;
+    private int salleId;
+    private int coursId;
+    private Date dateDebut;
+    private Date dateFin;
+    private int joursSemaine; // bit 0 = lundi ... bit 6 = dimanche
+    private int intervalleSemaines;
+    private Time heureDebut;
+    private int duree; // en minutes
+    private String notes;
+    private Timestamp dateCreation;
+    private final Map<LocalDate, ExceptionSerie> exceptions = new TreeMap<>();
+
+    // Attributs supplémentaires pour l'affichage (joints depuis ressource)
+    private String enseignantNom;
+    private String salleNom;
+    private String coursNom;
+
+    /**
+     * Constructeur par défaut
+     */
+    public SeriePlanification() {
+        this.intervalleSemaines = 1;
+    }
+
+    // Getters et Setters
+    public int getId() {
+        return id;
+    }
+
+    public void setId(int id) {
+        this.id = id;
+    }
+
+    public int getEnseignantId() {
+        return enseignantId;
+    }
+
+    public void setEnseignantId(int enseignantId) {
+        this.enseignantId = enseignantId;
+    }
+
+    public int getSalleId() {
+        return salleId;
+    }
+
+    public void setSalleId(int salleId) {
+        this.salleId = salleId;
+    }
+
+    public int getCoursId() {
+        return coursId;
+    }
+
+    public void setCoursId(int coursId) {
+        this.coursId = coursId;
+    }
+
+    public Date getDateDebut() {
+        return dateDebut;
+    }
+
+    public void setDateDebut(Date dateDebut) {
+        this.dateDebut = dateDebut;
+    }
+
+    public Date getDateFin() {
+        return dateFin;
+    }
+
+    public void setDateFin(Date dateFin) {
+        this.dateFin = dateFin;
+    }
+
+    public int getJoursSemaine() {
+        return joursSemaine;
+    }
+
+    public void setJoursSemaine(int joursSemaine) {
+        this.joursSemaine = joursSemaine;
+    }
+
+    public int getIntervalleSemaines() {
+        return intervalleSemaines;
+    }
+
+    public void setIntervalleSemaines(int intervalleSemaines) {
+        this.intervalleSemaines = intervalleSemaines;
+    }
+
+    public Time getHeureDebut() {
+        return heureDebut;
+    }
+
+    public void setHeureDebut(Time heureDebut) {
+        this.heureDebut = heureDebut;
+    }
+
+    public int getDuree() {
+        return duree;
+    }
+
+    public void setDuree(int duree) {
+        this.duree = duree;
+    }
+
+    public String getNotes() {
+        return notes;
+    }
+
+    public void setNotes(String notes) {
+        this.notes = notes;
+    }
+
+    public Timestamp getDateCreation() {
+        return dateCreation;
+    }
+
+    public void setDateCreation(Timestamp dateCreation) {
+        this.dateCreation = dateCreation;
+    }
+
+    public String getEnseignantNom() {
+        return enseignantNom;
+    }
+
+    public void setEnseignantNom(String enseignantNom) {
+        this.enseignantNom = enseignantNom;
+    }
+
+    public String getSalleNom() {
+        return salleNom;
+    }
+
+    public void setSalleNom(String salleNom) {
+        this.salleNom = salleNom;
+    }
+
+    public String getCoursNom() {
+        return coursNom;
+    }
+
+    public void setCoursNom(String coursNom) {
+        this.coursNom = coursNom;
+    }
+
+    // ==================== Exceptions ====================
+
+    public Collection<ExceptionSerie> getExceptions() {
+        return exceptions.values();
+    }
+
+    public ExceptionSerie getException(LocalDate dateOccurrence) {
+        return exceptions.get(dateOccurrence);
+    }
+
+    public void ajouterException(ExceptionSerie exception) {
+        exceptions.put(exception.getDateOccurrence().toLocalDate(), exception);
+    }
+
+    public void retirerException(LocalDate dateOccurrence) {
+        exceptions.remove(dateOccurrence);
+    }
+
+    // ==================== Règle de récurrence ====================
+
+    /**
+     * Vérifie la cohérence de la règle
+     *
+     * @return Message d'erreur, ou null si la série est valide
+     */
+    public String valider() {
+        if (dateDebut == null || dateFin == null || heureDebut == null) {
+            return "Dates de début/fin et heure de début obligatoires";
+        }
+        if (dateFin.before(dateDebut)) {
+            return "La date de fin précède la date de début";
+        }
+        if ((joursSemaine & 0x7F) == 0 || (joursSemaine & ~0x7F) != 0) {
+            return "Au moins un jour de la semaine doit être choisi";
+        }
+        if (intervalleSemaines < 1) {
+            return "L'intervalle doit être d'au moins une semaine";
+        }
+        if (duree < Planification.DUREE_MIN_MINUTES || duree > Planification.DUREE_MAX_MINUTES) {
+            return "La durée doit être comprise entre " + Planification.DUREE_MIN_MINUTES + " et "
+                    + Planification.DUREE_MAX_MINUTES + " minutes";
+        }
+        if (heureDebut.toLocalTime().toSecondOfDay() / 60 + duree > 24 * 60) {
+            return "Une occurrence ne peut pas se terminer après minuit";
+        }
+        return null;
+    }
+
+    /**
+     * Indice de semaine ISO (lundi = début) depuis le lundi 5 janvier 1970
+     */
+    public static long indiceSemaine(LocalDate date) {
+        return Math.floorDiv(date.toEpochDay() - 4, 7);
+    }
+
+    /**
+     * Indique si la règle prévoit une occurrence ce jour-là (hors exceptions)
+     */
+    public boolean estJourPrevu(LocalDate date) {
+        if (date.isBefore(dateDebut.toLocalDate()) || date.isAfter(dateFin.toLocalDate())) {
+            return false;
+        }
+        if ((joursSemaine & (1 << (date.getDayOfWeek().getValue() - 1))) == 0) {
+            return false;
+        }
+        return (indiceSemaine(date) - indiceSemaine(dateDebut.toLocalDate())) % intervalleSemaines == 0;
+    }
+
+    /**
+     * Début (ms) de l'occurrence régulière du jour donné
+     */
+    public long debutOccurrence(LocalDate date) {
+        return Timestamp.valueOf(LocalDateTime.of(date, heureDebut.toLocalTime())).getTime();
+    }
+
+    /**
+     * Indique si une occurrence (régulière ou surchargée) utilise la salle ou l'enseignant
+     */
+    public boolean utilise(int salle, int enseignant) {
+        if (salleId == salle || enseignantId == enseignant) {
+            return true;
+        }
+        for (ExceptionSerie e : exceptions.values()) {
+            if (!e.isAnnulee() && (salleEffective(e) == salle || enseignantEffectif(e) == enseignant)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Indique si une occurrence utilisant la salle ou l'enseignant chevauche [debut, fin)
+     * Seuls les jours couverts par l'intervalle sont examinés.
+     */
+    public boolean chevauche(int salle, int enseignant, long debut, long fin) {
+        return chevauche(salle, enseignant, debut, fin, null);
+    }
+
+    /**
+     * Variante ignorant l'occurrence prévue à la date exclue (celle qu'une
+     * exception est en train de remplacer)
+     */
+    public boolean chevauche(int salle, int enseignant, long debut, long fin, LocalDate exclue) {
+        if (salleId == salle || enseignantId == enseignant) {
+            LocalDate jour = versDate(debut);
+            LocalDate dernier = versDate(fin - 1);
+            for (; !jour.isAfter(dernier); jour = jour.plusDays(1)) {
+                if (estJourPrevu(jour) && !exceptions.containsKey(jour) && !jour.equals(exclue)) {
+                    long s = debutOccurrence(jour);
+                    if (s < fin && s + duree * 60_000L > debut) {
+                        return true;
+                    }
+                }
+            }
+        }
+        for (ExceptionSerie e : exceptions.values()) {
+            if (e.isAnnulee() || e.getDateOccurrence().toLocalDate().equals(exclue)
+                    || (salleEffective(e) != salle && enseignantEffectif(e) != enseignant)) {
+                continue;
+            }
+            long s = debutEffectif(e);
+            if (s < fin && s + dureeEffective(e) * 60_000L > debut) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Calcule les occurrences dont le début tombe dans [debut, fin]
+     * Les occurrences annulées sont renvoyées avec le statut ANNULE.
+     *
+     * @param maintenant Instant de référence pour le statut (PLANIFIE / EN_COURS / TERMINE)
+     */
+    public List<Planification> occurrences(long debut, long fin, long maintenant) {
+        List<Planification> resultat = new ArrayList<>();
+        LocalDate premier = versDate(debut);
+        LocalDate dernier = versDate(fin);
+        if (premier.isBefore(dateDebut.toLocalDate())) {
+            premier = dateDebut.toLocalDate();
+        }
+        if (dernier.isAfter(dateFin.toLocalDate())) {
+            dernier = dateFin.toLocalDate();
+        }
+
+        for (LocalDate jour = premier; !jour.isAfter(dernier); jour = jour.plusDays(1)) {
+            if (!estJourPrevu(jour)) {
+                continue;
+            }
+            ExceptionSerie e = exceptions.get(jour);
+            if (e != null && !e.isAnnulee()) {
+                continue; // traitée avec les surcharges ci-dessous
+            }
+            long s = debutOccurrence(jour);
+            if (s >= debut && s <= fin) {
+                resultat.add(creerOccurrence(s, duree, salleId, enseignantId, notes,
+                        e != null ? "ANNULE" : statutA(s, duree, maintenant)));
+            }
+        }
+
+        for (ExceptionSerie e : exceptions.values()) {
+            if (e.isAnnulee()) {
+                continue;
+            }
+            long s = debutEffectif(e);
+            if (s >= debut && s <= fin) {
+                int d = dureeEffective(e);
+                resultat.add(creerOccurrence(s, d, salleEffective(e), enseignantEffectif(e),
+                        e.getNotes() != null ? e.getNotes() : notes, statutA(s, d, maintenant)));
+            }
+        }
+        return resultat;
+    }
+
+    // ==================== Valeurs effectives d'une exception ====================
+
+    public int salleEffective(ExceptionSerie e) {
+        return e.getSalleId() != null ? e.getSalleId() : salleId;
+    }
+
+    public int enseignantEffectif(ExceptionSerie e) {
+        return e.getEnseignantId() != null ? e.getEnseignantId() : enseignantId;
+    }
+
+    public long debutEffectif(ExceptionSerie e) {
+        return e.getDateHeure() != null ? e.getDateHeure().getTime()
+                : debutOccurrence(e.getDateOccurrence().toLocalDate());
+    }
+
+    public int dureeEffective(ExceptionSerie e) {
+        return e.getDuree() != null ? e.getDuree() : duree;
+    }
+
+    // ==================== Méthodes utilitaires ====================
+
+    private Planification creerOccurrence(long debut, int dureeOccurrence, int salle, int enseignant,
+            String notesOccurrence, String statut) {
+        Planification p = new Planification(enseignant, salle, coursId, new Timestamp(debut), dureeOccurrence);
+        p.setSerieId(id);
+        p.setStatut(statut);
+        p.setNotes(notesOccurrence);
+        p.setDateCreation(dateCreation);
+        p.setCoursNom(coursNom);
+        // Les noms joints ne valent que pour les ressources de la série
+        p.setEnseignantNom(enseignant == enseignantId ? enseignantNom : null);
+        p.setSalleNom(salle == salleId ? salleNom : null);
+        return p;
+    }
+
+    private static String statutA(long debut, int dureeMinutes, long maintenant) {
+        if (maintenant < debut) {
+            return "PLANIFIE";
+        }
+        return maintenant < debut + dureeMinutes * 60_000L ? "EN_COURS" : "TERMINE";
+    }
+
+    private static LocalDate versDate(long ms) {
+        return new Timestamp(ms).toLocalDateTime().toLocalDate();
+    }
+
+    @Override
+    public String toString() {
+        return "SeriePlanification{" +
+                "id=" + id +
+                ", cours='" + coursNom + '\'' +
+                ", du " + dateDebut + " au " + dateFin +
+                ", jours=" + Integer.toBinaryString(joursSemaine) +
+                ", toutesLes=" + intervalleSemaines + " sem." +
+                ", heure=" + heureDebut +
+                ", duree=" + duree +
+                '}';
+    }
+}
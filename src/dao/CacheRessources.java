@@ -0,0 +1,142 @@
+package dao;
+
+import beans.Ressource;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache en lecture des ressources pour RessourceDAO
+ *
+ * La table ressource est lue en une requête et conservée sous forme
+ * d'instantané immuable : index par id, liste complète triée (type, nom) et
+ * listes par type triées par nom. Les lectures ne prennent aucun verrou ;
+ * les écritures de RessourceDAO invalident l'instantané, reconstruit à la
+ * lecture suivante. Une durée de vie bornée couvre les écritures faites par
+ * une autre instance de l'application.
+ *
+ * L'instantané porte aussi les tables d'autocomplétion par type
+ * ({@link PrefixesRessources}), construites à la demande et jetées avec lui.
+ *
+ * Configuration (propriété système) : planification.cache.ressources.ttlSec (60)
+ *
+ * @author Système de Planification Académique
+ * @version 1.0
+ */
+class CacheRessources {
+
+    private static final long DUREE_VIE_MS = Long.getLong("planification.cache.ressources.ttlSec", 60L) * 1000L;
+
+    /**
+     * Chargement complet de la table, fourni par RessourceDAO
+     */
+    interface Chargeur {
+        List<Ressource> chargerTout() throws SQLException;
+    }
+
+    /** Vue immuable de la table à un instant donné */
+    static final class Instantane {
+        final Map<Integer, Ressource> parId;
+        final List<Ressource> toutes;
+        final Map<String, List<Ressource>> parType;
+        final long expiration;
+        /** Tables d'autocomplétion par type, construites à la première demande */
+        private final ConcurrentHashMap<String, PrefixesRessources> prefixes = new ConcurrentHashMap<>();
+
+        Instantane(List<Ressource> ressources, long expiration) {
+            Map<Integer, Ressource> ids = new HashMap<>(ressources.size() * 2);
+            Map<String, List<Ressource>> types = new LinkedHashMap<>();
+            for (Ressource r : ressources) {
+                ids.put(r.getId(), r);
+                types.computeIfAbsent(r.getType(), k -> new ArrayList<>()).add(r);
+            }
+            for (Map.Entry<String, List<Ressource>> e : types.entrySet()) {
+                e.setValue(Collections.unmodifiableList(e.getValue()));
+            }
+            this.parId = Collections.unmodifiableMap(ids);
+            this.toutes = Collections.unmodifiableList(new ArrayList<>(ressources));
+            this.parType = Collections.unmodifiableMap(types);
+            this.expiration = expiration;
+        }
+
+        PrefixesRessources prefixes(String type) {
+            return prefixes.computeIfAbsent(type,
+                    t -> new PrefixesRessources(parType.getOrDefault(t, Collections.emptyList())));
+        }
+    }
+
+    private final Chargeur chargeur;
+    private volatile Instantane instantane;
+    /** Incrémenté à chaque invalidation : un chargement concurrent n'est pas publié */
+    private volatile long generation;
+
+    private final LongAdder succes = new LongAdder();
+    private final LongAdder chargements = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    CacheRessources(Chargeur chargeur) {
+        this.chargeur = chargeur;
+    }
+
+    /**
+     * Instantané courant, rechargé s'il est absent ou expiré
+     */
+    Instantane get() throws SQLException {
+        Instantane courant = instantane;
+        if (courant != null && courant.expiration > System.currentTimeMillis()) {
+            succes.increment();
+            return courant;
+        }
+        synchronized (this) {
+            courant = instantane;
+            if (courant != null && courant.expiration > System.currentTimeMillis()) {
+                succes.increment();
+                return courant;
+            }
+            long generationLue = generation;
+            chargements.increment();
+            Instantane nouveau = new Instantane(chargeur.chargerTout(),
+                    System.currentTimeMillis() + DUREE_VIE_MS);
+            if (generation == generationLue) {
+                instantane = nouveau;
+            }
+            return nouveau;
+        }
+    }
+
+    /**
+     * Invalide l'instantané après une écriture
+     */
+    void invalider() {
+        generation++;
+        instantane = null;
+        invalidations.increment();
+    }
+
+    long getSucces() {
+        return succes.sum();
+    }
+
+    long getChargements() {
+        return chargements.sum();
+    }
+
+    long getInvalidations() {
+        return invalidations.sum();
+    }
+
+    @Override
+    public String toString() {
+        Instantane courant = instantane;
+        return "Cache ressources : " + (courant != null ? courant.toutes.size() + " ressource(s)" : "vide")
+                + ", " + getSucces() + " succès, " + getChargements() + " chargement(s), "
+                + getInvalidations() + " invalidation(s)";
+    }
+}
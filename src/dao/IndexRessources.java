@@ -0,0 +1,233 @@
+package dao;
+
+import beans.Ressource;
+
+import java.sql.SQLException;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Index inversé en mémoire pour la recherche de ressources
+ *
+ * Le nom et la description sont découpés en mots puis normalisés (minuscules,
+ * accents retirés, ligatures œ/æ dépliées) : "Génie", "GENIE" et "genie"
+ * désignent le même terme. Les termes sont rangés dans un arbre trié, ce qui
+ * permet la recherche par préfixe ("bench" trouve "Benchekroun").
+ *
+ * Chaque mot de la requête doit correspondre à un terme de la ressource.
+ * Classement : un mot trouvé dans le nom compte plus qu'un mot trouvé dans
+ * la description, et un mot exact plus qu'un préfixe ; à score égal, ordre
+ * alphabétique du nom.
+ *
+ * L'index est construit depuis l'instantané de {@link CacheRessources} et
+ * reconstruit dès que celui-ci change : il suit ainsi la même durée de vie
+ * (écritures faites par une autre instance) et les mêmes invalidations
+ * (écritures de RessourceDAO) que les listes servies par le cache.
+ *
+ * @author Système de Planification Académique
+ * @version 1.0
+ */
+class IndexRessources {
+
+    private static final Pattern MARQUES = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATEURS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    /** Présence d'un terme dans les champs d'une ressource */
+    private static final int DANS_NOM = 1;
+    private static final int DANS_DESCRIPTION = 2;
+
+    /** Ressource indexée avec son nom normalisé (clé de tri) */
+    private static final class Document {
+        final Ressource ressource;
+        final String nomNormalise;
+
+        Document(Ressource ressource, String nomNormalise) {
+            this.ressource = ressource;
+            this.nomNormalise = nomNormalise;
+        }
+    }
+
+    private final CacheRessources cache;
+    private final ReentrantReadWriteLock verrou = new ReentrantReadWriteLock();
+    /** terme → (id ressource → champs où il apparaît) */
+    private final TreeMap<String, Map<Integer, Integer>> termes = new TreeMap<>();
+    private final Map<Integer, Document> documents = new HashMap<>();
+    /** Instantané dont l'index est tiré ; null tant qu'il n'est pas construit */
+    private volatile CacheRessources.Instantane source;
+
+    IndexRessources(CacheRessources cache) {
+        this.cache = cache;
+    }
+
+    // ==================== Recherche ====================
+
+    /**
+     * Ressources correspondant à tous les mots de la requête, par pertinence
+     * Une requête vide renvoie toutes les ressources.
+     */
+    List<Ressource> rechercher(String requete) throws SQLException {
+        assurerConstruit();
+        List<String> mots = decouper(requete);
+
+        verrou.readLock().lock();
+        try {
+            Map<Integer, Integer> scores = null;
+            for (String mot : mots) {
+                Map<Integer, Integer> scoresMot = scoresPrefixe(mot);
+                if (scores == null) {
+                    scores = scoresMot;
+                } else {
+                    // Intersection : la ressource doit correspondre à chaque mot
+                    scores.keySet().retainAll(scoresMot.keySet());
+                    for (Map.Entry<Integer, Integer> e : scores.entrySet()) {
+                        e.setValue(e.getValue() + scoresMot.get(e.getKey()));
+                    }
+                }
+                if (scores.isEmpty()) {
+                    return new ArrayList<>();
+                }
+            }
+
+            List<Document> trouves = new ArrayList<>();
+            if (scores == null) {
+                trouves.addAll(documents.values());
+                trouves.sort(Comparator.comparing((Document d) -> d.ressource.getType())
+                        .thenComparing(d -> d.nomNormalise));
+            } else {
+                for (Integer id : scores.keySet()) {
+                    trouves.add(documents.get(id));
+                }
+                final Map<Integer, Integer> s = scores;
+                trouves.sort(Comparator.comparing((Document d) -> -s.get(d.ressource.getId()))
+                        .thenComparing(d -> d.nomNormalise)
+                        .thenComparing(d -> d.ressource.getId()));
+            }
+
+            List<Ressource> resultat = new ArrayList<>(trouves.size());
+            for (Document d : trouves) {
+                resultat.add(d.ressource);
+            }
+            return resultat;
+        } finally {
+            verrou.readLock().unlock();
+        }
+    }
+
+    /**
+     * Meilleur score de chaque ressource ayant un terme commençant par le mot :
+     * 4 = nom exact, 3 = nom préfixe, 2 = description exacte, 1 = description préfixe
+     */
+    private Map<Integer, Integer> scoresPrefixe(String mot) {
+        Map<Integer, Integer> scores = new HashMap<>();
+        for (Map.Entry<String, Map<Integer, Integer>> terme : termes
+                .subMap(mot, true, mot + Character.MAX_VALUE, false).entrySet()) {
+            boolean exact = terme.getKey().length() == mot.length();
+            for (Map.Entry<Integer, Integer> posting : terme.getValue().entrySet()) {
+                int score = (posting.getValue() & DANS_NOM) != 0 ? (exact ? 4 : 3) : (exact ? 2 : 1);
+                scores.merge(posting.getKey(), score, Math::max);
+            }
+        }
+        return scores;
+    }
+
+    int taille() {
+        verrou.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            verrou.readLock().unlock();
+        }
+    }
+
+    int nombreTermes() {
+        verrou.readLock().lock();
+        try {
+            return termes.size();
+        } finally {
+            verrou.readLock().unlock();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return source != null ? "Index ressources : " + taille() + " ressource(s), " + nombreTermes() + " terme(s)"
+                : "Index ressources : non construit";
+    }
+
+    // ==================== Normalisation ====================
+
+    /**
+     * Minuscules sans accents ni ligatures : "Génie Œuvre" → "genie oeuvre"
+     */
+    static String normaliser(String texte) {
+        if (texte == null) {
+            return "";
+        }
+        String decompose = Normalizer.normalize(texte, Normalizer.Form.NFD);
+        return MARQUES.matcher(decompose).replaceAll("")
+                .replace("œ", "oe").replace("Œ", "oe").replace("æ", "ae").replace("Æ", "ae")
+                .toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Mots normalisés d'un texte, sans doublon, dans l'ordre d'apparition
+     */
+    static List<String> decouper(String texte) {
+        Set<String> mots = new LinkedHashSet<>();
+        for (String mot : SEPARATEURS.split(normaliser(texte))) {
+            if (!mot.isEmpty()) {
+                mots.add(mot);
+            }
+        }
+        return new ArrayList<>(mots);
+    }
+
+    // ==================== Implémentation ====================
+
+    /**
+     * (Re)construit l'index si l'instantané du cache a changé depuis sa construction
+     */
+    private void assurerConstruit() throws SQLException {
+        CacheRessources.Instantane courant = cache.get();
+        if (source == courant) {
+            return;
+        }
+        verrou.writeLock().lock();
+        try {
+            if (source != courant) {
+                termes.clear();
+                documents.clear();
+                for (Ressource r : courant.toutes) {
+                    ajouterInterne(r);
+                }
+                source = courant;
+            }
+        } finally {
+            verrou.writeLock().unlock();
+        }
+    }
+
+    private void ajouterInterne(Ressource r) {
+        Map<String, Integer> champs = new HashMap<>();
+        for (String mot : decouper(r.getNom())) {
+            champs.merge(mot, DANS_NOM, (a, b) -> a | b);
+        }
+        for (String mot : decouper(r.getDescription())) {
+            champs.merge(mot, DANS_DESCRIPTION, (a, b) -> a | b);
+        }
+        for (Map.Entry<String, Integer> e : champs.entrySet()) {
+            termes.computeIfAbsent(e.getKey(), k -> new HashMap<>()).put(r.getId(), e.getValue());
+        }
+        documents.put(r.getId(), new Document(r, normaliser(r.getNom())));
+    }
+}
@@ -1,10 +1,32 @@
 package dao;
 
+import beans.PagePlanifications;
 import beans.Planification;
+import beans.ResultatPlanification;
+import beans.SeriePlanification;
+import services.CacheSemaines;
+import services.MoteurConflits;
+import services.OrdonnanceurTransitions;
+import services.Statistiques;
+import services.VerrousRessources;
 import utils.DatabaseConnection;
+import utils.Metriques;
+import utils.PlanVerifier;
+import java.io.IOException;
 import java.sql.*;
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
 
 /**
  * DAO pour la gestion des planifications
@@ -15,10 +37,47 @@ import java.util.List;
  */
 public class PlanificationDAO {
 
+    /**
+     * Traitement appliqué à chaque planification lue en flux
+     */
+    public interface TraitementPlanification {
+        void traiter(Planification planification) throws IOException;
+    }
+
+    /** Colonnes et jointures communes aux lectures de planifications */
+    private static final String SQL_SELECT_JOINT = "SELECT p.*, " +
+            "e.nom as enseignant_nom, " +
+            "s.nom as salle_nom, " +
+            "c.nom as cours_nom " +
+            "FROM planification p " +
+            "LEFT JOIN ressource e ON p.enseignant_id = e.id " +
+            "LEFT JOIN ressource s ON p.salle_id = s.id " +
+            "LEFT JOIN ressource c ON p.cours_id = c.id ";
+
+    /** Taille de page maximale acceptée par getPlanificationsPage */
+    public static final int TAILLE_PAGE_MAX = 500;
+
+    private static final Metriques.MesureRequete M_GET_ALL = Metriques.requete("planification", "getAll");
+    private static final Metriques.MesureRequete M_PAGE = Metriques.requete("planification", "page");
+    private static final Metriques.MesureRequete M_PARCOURIR = Metriques.requete("planification", "parcourir");
+    private static final Metriques.MesureRequete M_SEMAINE = Metriques.requete("planification", "lireParSemaine");
+    private static final Metriques.MesureRequete M_GET_BY_ID = Metriques.requete("planification", "getById");
+    private static final Metriques.MesureRequete M_CREER = Metriques.requete("planification", "creer");
+    private static final Metriques.MesureRequete M_BATCH = Metriques.requete("planification", "batch");
+    private static final Metriques.MesureRequete M_MODIFIER = Metriques.requete("planification", "modifier");
+    private static final Metriques.MesureRequete M_SUPPRIMER = Metriques.requete("planification", "supprimer");
+    private static final Metriques.MesureRequete M_CONFLIT = Metriques.requete("planification", "conflitEnBase");
+    private static final Metriques.MesureRequete M_RESERVER = Metriques.requete("planification", "reserverSiLibre");
+
     /**
      * Récupère toutes les planifications avec les informations jointes
+     *
+     * @deprecated charge toute la table en mémoire ; utiliser
+     *             {@link #getPlanificationsPage} ou {@link #parcourirPlanifications}
      */
+    @Deprecated
     public List<Planification> getAllPlanifications() {
+        long depart = System.nanoTime();
         List<Planification> planifications = new ArrayList<>();
         Connection conn = null;
         PreparedStatement pstmt = null;
@@ -27,14 +86,7 @@ public class PlanificationDAO {
         try {
             conn = DatabaseConnection.getConnection();
 
-            String sql = "SELECT p.*, " +
-                    "e.nom as enseignant_nom, " +
-                    "s.nom as salle_nom, " +
-                    "c.nom as cours_nom " +
-                    "FROM planification p " +
-                    "LEFT JOIN ressource e ON p.enseignant_id = e.id " +
-                    "LEFT JOIN ressource s ON p.salle_id = s.id " +
-                    "LEFT JOIN ressource c ON p.cours_id = c.id " +
+            String sql = SQL_SELECT_JOINT +
                     "ORDER BY p.date_heure ASC";
 
             pstmt = conn.prepareStatement(sql);
@@ -43,8 +95,10 @@ public class PlanificationDAO {
             while (rs.next()) {
                 planifications.add(mapResultSetToPlanification(rs));
             }
+            M_GET_ALL.enregistrer(depart, planifications.size());
 
         } catch (Exception e) {
+            M_GET_ALL.echec();
             System.err.println("Erreur getAllPlanifications: " + e.getMessage());
             e.printStackTrace();
         } finally {
@@ -54,13 +108,165 @@ public class PlanificationDAO {
         return planifications;
     }
 
+    /**
+     * Récupère une page de planifications triées par (date_heure, id)
+     * 
+     * @param debut   Borne inférieure incluse sur date_heure (null = aucune)
+     * @param fin     Borne supérieure exclue sur date_heure (null = aucune)
+     * @param curseur Curseur de la page précédente (null = première page)
+     * @param taille  Nombre de lignes (ramené dans [1, TAILLE_PAGE_MAX])
+     * @throws IllegalArgumentException si le curseur est mal formé
+     * @throws SQLException si la lecture échoue (jamais confondue avec une dernière page vide)
+     */
+    public PagePlanifications getPlanificationsPage(Timestamp debut, Timestamp fin, String curseur, int taille)
+            throws SQLException {
+        long depart = System.nanoTime();
+        taille = Math.max(1, Math.min(taille, TAILLE_PAGE_MAX));
+        Timestamp apresDate = curseur != null ? PagePlanifications.dateCurseur(curseur) : null;
+        int apresId = curseur != null ? PagePlanifications.idCurseur(curseur) : 0;
+
+        List<Planification> planifications = new ArrayList<>(taille + 1);
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = DatabaseConnection.getConnection();
+
+            // Ligne supplémentaire : indique s'il existe une page suivante
+            pstmt = conn.prepareStatement(sqlParcours(debut, fin, apresDate) + " LIMIT ?");
+            int idx = lierParcours(pstmt, debut, fin, apresDate, apresId);
+            pstmt.setInt(idx, taille + 1);
+            rs = pstmt.executeQuery();
+
+            while (rs.next()) {
+                planifications.add(mapResultSetToPlanification(rs));
+            }
+            M_PAGE.enregistrer(depart, planifications.size());
+
+        } catch (SQLException | RuntimeException e) {
+            M_PAGE.echec();
+            throw e;
+        } finally {
+            DatabaseConnection.closeResources(conn, pstmt, rs);
+        }
+
+        String suivant = null;
+        if (planifications.size() > taille) {
+            planifications.remove(taille);
+            suivant = PagePlanifications.curseur(planifications.get(taille - 1));
+        }
+        return new PagePlanifications(planifications, suivant);
+    }
+
+    /**
+     * Parcourt en flux les planifications triées par (date_heure, id)
+     * 
+     * Le driver transmet les lignes une à une, ou par petits lots (voir
+     * Dialecte.lireEnFlux), au lieu de charger tout le résultat : la mémoire
+     * utilisée reste constante quelle que soit la période. La connexion est
+     * occupée jusqu'à la fin du parcours.
+     * 
+     * @param debut      Borne inférieure incluse sur date_heure (null = aucune)
+     * @param fin        Borne supérieure exclue sur date_heure (null = aucune)
+     * @param traitement Appelé pour chaque ligne, dans l'ordre
+     * @return Nombre de planifications parcourues
+     */
+    public int parcourirPlanifications(Timestamp debut, Timestamp fin, TraitementPlanification traitement)
+            throws SQLException, IOException {
+        long depart = System.nanoTime();
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+        int nombre = 0;
+
+        try {
+            conn = DatabaseConnection.getConnection();
+            pstmt = conn.prepareStatement(sqlParcours(debut, fin, null),
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            DatabaseConnection.getDialecte().lireEnFlux(pstmt);
+            lierParcours(pstmt, debut, fin, null, 0);
+            rs = pstmt.executeQuery();
+
+            while (rs.next()) {
+                traitement.traiter(mapResultSetToPlanification(rs));
+                nombre++;
+            }
+            M_PARCOURIR.enregistrer(depart, nombre);
+            return nombre;
+
+        } catch (SQLException | IOException | RuntimeException e) {
+            M_PARCOURIR.echec();
+            throw e;
+        } finally {
+            DatabaseConnection.closeResources(conn, pstmt, rs);
+        }
+    }
+
+    /**
+     * Requête de parcours ordonné ; le curseur est exprimé sous une forme
+     * exploitable par l'index date_heure (qui contient implicitement l'id)
+     */
+    private static String sqlParcours(Timestamp debut, Timestamp fin, Timestamp apresDate) {
+        StringBuilder sql = new StringBuilder(SQL_SELECT_JOINT).append("WHERE 1 = 1");
+        if (debut != null) {
+            sql.append(" AND p.date_heure >= ?");
+        }
+        if (fin != null) {
+            sql.append(" AND p.date_heure < ?");
+        }
+        if (apresDate != null) {
+            sql.append(" AND p.date_heure >= ? AND (p.date_heure > ? OR p.id > ?)");
+        }
+        return sql.append(" ORDER BY p.date_heure ASC, p.id ASC").toString();
+    }
+
+    /**
+     * Lie les paramètres de sqlParcours
+     *
+     * @return Index du prochain paramètre libre
+     */
+    private static int lierParcours(PreparedStatement pstmt, Timestamp debut, Timestamp fin, Timestamp apresDate,
+            int apresId) throws SQLException {
+        int idx = 1;
+        if (debut != null) {
+            pstmt.setTimestamp(idx++, debut);
+        }
+        if (fin != null) {
+            pstmt.setTimestamp(idx++, fin);
+        }
+        if (apresDate != null) {
+            pstmt.setTimestamp(idx++, apresDate);
+            pstmt.setTimestamp(idx++, apresDate);
+            pstmt.setInt(idx++, apresId);
+        }
+        return idx;
+    }
+
     /**
      * Récupère les planifications pour une semaine donnée
+     * Les occurrences des séries récurrentes de la semaine y sont incluses.
      * 
      * @param dateDebut Premier jour de la semaine (lundi à 00:00)
      * @param dateFin   Dernier jour de la semaine (vendredi à 23:59)
      */
     public List<Planification> getPlanificationsParSemaine(Timestamp dateDebut, Timestamp dateFin) {
+        try {
+            return lirePlanificationsParSemaine(dateDebut, dateFin);
+        } catch (Exception e) {
+            System.err.println("Erreur getPlanificationsParSemaine: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return new ArrayList<>();
+    }
+
+    /**
+     * Variante de getPlanificationsParSemaine qui propage les erreurs
+     * (utilisée par le cache, qui ne doit pas mémoriser une liste vide sur erreur)
+     */
+    public List<Planification> lirePlanificationsParSemaine(Timestamp dateDebut, Timestamp dateFin)
+            throws SQLException {
+        long depart = System.nanoTime();
         List<Planification> planifications = new ArrayList<>();
         Connection conn = null;
         PreparedStatement pstmt = null;
@@ -69,14 +275,7 @@ public class PlanificationDAO {
         try {
             conn = DatabaseConnection.getConnection();
 
-            String sql = "SELECT p.*, " +
-                    "e.nom as enseignant_nom, " +
-                    "s.nom as salle_nom, " +
-                    "c.nom as cours_nom " +
-                    "FROM planification p " +
-                    "LEFT JOIN ressource e ON p.enseignant_id = e.id " +
-                    "LEFT JOIN ressource s ON p.salle_id = s.id " +
-                    "LEFT JOIN ressource c ON p.cours_id = c.id " +
+            String sql = SQL_SELECT_JOINT +
                     "WHERE p.date_heure >= ? AND p.date_heure <= ? " +
                     "ORDER BY p.date_heure ASC";
 
@@ -89,9 +288,13 @@ public class PlanificationDAO {
                 planifications.add(mapResultSetToPlanification(rs));
             }
 
-        } catch (Exception e) {
-            System.err.println("Erreur getPlanificationsParSemaine: " + e.getMessage());
-            e.printStackTrace();
+            // Occurrences des séries récurrentes, calculées pour cette fenêtre uniquement
+            SeriePlanificationDAO.ajouterOccurrences(conn, planifications, dateDebut, dateFin);
+            M_SEMAINE.enregistrer(depart, planifications.size());
+
+        } catch (SQLException | RuntimeException e) {
+            M_SEMAINE.echec();
+            throw e;
         } finally {
             DatabaseConnection.closeResources(conn, pstmt, rs);
         }
@@ -103,6 +306,7 @@ public class PlanificationDAO {
      * Récupère une planification par son ID
      */
     public Planification getPlanificationById(int id) {
+        long depart = System.nanoTime();
         Connection conn = null;
         PreparedStatement pstmt = null;
         ResultSet rs = null;
@@ -110,25 +314,19 @@ public class PlanificationDAO {
         try {
             conn = DatabaseConnection.getConnection();
 
-            String sql = "SELECT p.*, " +
-                    "e.nom as enseignant_nom, " +
-                    "s.nom as salle_nom, " +
-                    "c.nom as cours_nom " +
-                    "FROM planification p " +
-                    "LEFT JOIN ressource e ON p.enseignant_id = e.id " +
-                    "LEFT JOIN ressource s ON p.salle_id = s.id " +
-                    "LEFT JOIN ressource c ON p.cours_id = c.id " +
+            String sql = SQL_SELECT_JOINT +
                     "WHERE p.id = ?";
 
             pstmt = conn.prepareStatement(sql);
             pstmt.setInt(1, id);
             rs = pstmt.executeQuery();
 
-            if (rs.next()) {
-                return mapResultSetToPlanification(rs);
-            }
+            Planification planification = rs.next() ? mapResultSetToPlanification(rs) : null;
+            M_GET_BY_ID.enregistrer(depart, planification != null ? 1 : 0);
+            return planification;
 
         } catch (Exception e) {
+            M_GET_BY_ID.echec();
             System.err.println("Erreur getPlanificationById: " + e.getMessage());
             e.printStackTrace();
         } finally {
@@ -142,6 +340,7 @@ public class PlanificationDAO {
      * Crée une nouvelle planification
      */
     public boolean creerPlanification(Planification planification) {
+        long depart = System.nanoTime();
         Connection conn = null;
         PreparedStatement pstmt = null;
 
@@ -152,7 +351,7 @@ public class PlanificationDAO {
                     "(enseignant_id, salle_id, cours_id, date_heure, duree, statut, notes) " +
                     "VALUES (?, ?, ?, ?, ?, ?, ?)";
 
-            pstmt = conn.prepareStatement(sql);
+            pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
             pstmt.setInt(1, planification.getEnseignantId());
             pstmt.setInt(2, planification.getSalleId());
             pstmt.setInt(3, planification.getCoursId());
@@ -162,9 +361,22 @@ public class PlanificationDAO {
             pstmt.setString(7, planification.getNotes());
 
             int rows = pstmt.executeUpdate();
+            if (rows > 0) {
+                try (ResultSet cles = pstmt.getGeneratedKeys()) {
+                    if (cles.next()) {
+                        planification.setId(cles.getInt(1));
+                    }
+                }
+                MoteurConflits.getInstance().enregistrer(planification);
+                OrdonnanceurTransitions.getInstance().planifier(planification);
+                Statistiques.getInstance().planificationAjoutee(planification.getStatut());
+                CacheSemaines.getInstance().invalider(planification.getDateHeure());
+            }
+            M_CREER.enregistrer(depart, rows);
             return rows > 0;
 
         } catch (Exception e) {
+            M_CREER.echec();
             System.err.println("Erreur creerPlanification: " + e.getMessage());
             e.printStackTrace();
         } finally {
@@ -174,15 +386,384 @@ public class PlanificationDAO {
         return false;
     }
 
+    /**
+     * Crée un lot de planifications en une seule transaction
+     * 
+     * Chaque élément est validé seul (Planification.valider, puis existence
+     * de ses ressources en base) : un élément invalide est refusé sans
+     * annuler les autres. Les conflits sont vérifiés en mémoire entre les éléments du lot (le
+     * premier élément l'emporte), puis contre les planifications existantes
+     * lues en une seule requête. Les éléments retenus sont insérés par
+     * executeBatch (réécrit en INSERT multi-lignes par le driver).
+     * 
+     * @param planifications Planifications à créer (les id générés y sont renseignés)
+     * @return Un résultat par élément, dans l'ordre du lot
+     */
+    public List<ResultatPlanification> creerPlanificationsBatch(List<Planification> planifications) {
+        long depart = System.nanoTime();
+        List<ResultatPlanification> resultats = new ArrayList<>(planifications.size());
+        List<Integer> candidats = new ArrayList<>();
+
+        // 1. Validation unitaire
+        for (int i = 0; i < planifications.size(); i++) {
+            Planification p = planifications.get(i);
+            ResultatPlanification r = new ResultatPlanification(i);
+            String erreur = p == null ? "Planification manquante" : p.valider();
+            if (erreur != null) {
+                r.setStatut(ResultatPlanification.INVALIDE);
+                r.setMessage(erreur);
+            } else {
+                candidats.add(i);
+            }
+            resultats.add(r);
+        }
+
+        if (candidats.isEmpty()) {
+            return resultats;
+        }
+
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+        List<Integer> inseres = new ArrayList<>();
+
+        try {
+            conn = DatabaseConnection.getConnection();
+            conn.setAutoCommit(false);
+
+            // 2. Ressources du lot verrouillées (comme reserverSiLibre) ; les éléments
+            //    dont une ressource n'existe pas sont refusés seuls, avant l'insertion
+            Set<Integer> ressources = new TreeSet<>();
+            Set<Integer> cours = new TreeSet<>();
+            for (int i : candidats) {
+                ressources.add(planifications.get(i).getSalleId());
+                ressources.add(planifications.get(i).getEnseignantId());
+                cours.add(planifications.get(i).getCoursId());
+            }
+            Set<Integer> existantes = verrouillerRessources(conn, ressources);
+            existantes.addAll(ressourcesExistantes(conn, cours));
+            for (Iterator<Integer> it = candidats.iterator(); it.hasNext();) {
+                int i = it.next();
+                Planification p = planifications.get(i);
+                if (!existantes.contains(p.getSalleId()) || !existantes.contains(p.getEnseignantId())
+                        || !existantes.contains(p.getCoursId())) {
+                    resultats.get(i).setStatut(ResultatPlanification.INVALIDE);
+                    resultats.get(i).setMessage("Salle, enseignant ou cours introuvable");
+                    it.remove();
+                }
+            }
+            if (candidats.isEmpty()) {
+                conn.rollback();
+                return resultats;
+            }
+
+            // Occupation des ressources du lot en une requête
+            Map<Integer, NavigableMap<Long, Long>> occupationSalles = new HashMap<>();
+            Map<Integer, NavigableMap<Long, Long>> occupationEnseignants = new HashMap<>();
+            chargerOccupation(conn, planifications, candidats, occupationSalles, occupationEnseignants);
+            List<SeriePlanification> series = lireSeriesDuLot(conn, planifications, candidats);
+
+            // 3. Conflits contre l'existant et entre éléments du lot
+            for (int i : candidats) {
+                Planification p = planifications.get(i);
+                long debut = p.getDateHeure().getTime();
+                long fin = debut + p.getDuree() * 60_000L;
+                NavigableMap<Long, Long> salle = occupationSalles.computeIfAbsent(p.getSalleId(),
+                        k -> new TreeMap<>());
+                NavigableMap<Long, Long> enseignant = occupationEnseignants.computeIfAbsent(p.getEnseignantId(),
+                        k -> new TreeMap<>());
+
+                if (chevauche(salle, debut, fin) || chevauche(enseignant, debut, fin)
+                        || chevaucheSerie(series, p.getSalleId(), p.getEnseignantId(), debut, fin)) {
+                    resultats.get(i).setStatut(ResultatPlanification.CONFLIT);
+                    resultats.get(i).setMessage("La salle ou l'enseignant est déjà réservé(e) à cette heure");
+                } else {
+                    occuper(salle, debut, fin);
+                    occuper(enseignant, debut, fin);
+                    inseres.add(i);
+                }
+            }
+
+            // 4. Insertion groupée
+            if (!inseres.isEmpty()) {
+                String sql = "INSERT INTO planification " +
+                        "(enseignant_id, salle_id, cours_id, date_heure, duree, statut, notes) " +
+                        "VALUES (?, ?, ?, ?, ?, ?, ?)";
+                pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
+                for (int i : inseres) {
+                    Planification p = planifications.get(i);
+                    pstmt.setInt(1, p.getEnseignantId());
+                    pstmt.setInt(2, p.getSalleId());
+                    pstmt.setInt(3, p.getCoursId());
+                    pstmt.setTimestamp(4, p.getDateHeure());
+                    pstmt.setInt(5, p.getDuree());
+                    pstmt.setString(6, p.getStatut() != null ? p.getStatut() : "PLANIFIE");
+                    pstmt.setString(7, p.getNotes());
+                    pstmt.addBatch();
+                }
+                pstmt.executeBatch();
+
+                rs = pstmt.getGeneratedKeys();
+                for (int i : inseres) {
+                    if (rs.next()) {
+                        planifications.get(i).setId(rs.getInt(1));
+                    }
+                }
+            }
+
+            conn.commit();
+
+            MoteurConflits moteur = MoteurConflits.getInstance();
+            CacheSemaines cache = CacheSemaines.getInstance();
+            OrdonnanceurTransitions transitions = OrdonnanceurTransitions.getInstance();
+            Statistiques statistiques = Statistiques.getInstance();
+            for (int i : inseres) {
+                Planification p = planifications.get(i);
+                resultats.get(i).setStatut(ResultatPlanification.CREE);
+                resultats.get(i).setId(p.getId());
+                moteur.enregistrer(p);
+                transitions.planifier(p);
+                statistiques.planificationAjoutee(p.getStatut());
+                cache.invalider(p.getDateHeure());
+            }
+            M_BATCH.enregistrer(depart, inseres.size());
+
+        } catch (Exception e) {
+            M_BATCH.echec();
+            System.err.println("Erreur creerPlanificationsBatch: " + e.getMessage());
+            e.printStackTrace();
+            annuler(conn);
+            for (int i : inseres) {
+                resultats.get(i).setStatut(ResultatPlanification.ERREUR);
+                resultats.get(i).setMessage("Lot annulé : " + e.getMessage());
+            }
+            for (int i : candidats) {
+                if (resultats.get(i).getStatut() == null) {
+                    resultats.get(i).setStatut(ResultatPlanification.ERREUR);
+                    resultats.get(i).setMessage("Lot annulé : " + e.getMessage());
+                }
+            }
+        } finally {
+            DatabaseConnection.closeResources(conn, pstmt, rs);
+        }
+
+        return resultats;
+    }
+
+    /**
+     * Lit en une requête les créneaux occupés des salles et enseignants du lot
+     * sur la période couverte par le lot
+     */
+    private static void chargerOccupation(Connection conn, List<Planification> planifications, List<Integer> candidats,
+            Map<Integer, NavigableMap<Long, Long>> salles, Map<Integer, NavigableMap<Long, Long>> enseignants)
+            throws SQLException {
+        Set<Integer> salleIds = new LinkedHashSet<>();
+        Set<Integer> enseignantIds = new LinkedHashSet<>();
+        long debutMin = Long.MAX_VALUE;
+        long finMax = Long.MIN_VALUE;
+        for (int i : candidats) {
+            Planification p = planifications.get(i);
+            salleIds.add(p.getSalleId());
+            enseignantIds.add(p.getEnseignantId());
+            debutMin = Math.min(debutMin, p.getDateHeure().getTime());
+            finMax = Math.max(finMax, p.getDateHeure().getTime() + p.getDuree() * 60_000L);
+        }
+
+        String sql = "SELECT salle_id, enseignant_id, date_heure, duree FROM planification " +
+                "WHERE statut != 'ANNULE' AND date_heure > ? AND date_heure < ? " +
+                "AND (salle_id IN (" + marqueurs(salleIds.size()) + ") " +
+                "OR enseignant_id IN (" + marqueurs(enseignantIds.size()) + "))";
+
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            int idx = 1;
+            pstmt.setTimestamp(idx++, new Timestamp(debutMin - Planification.DUREE_MAX_MINUTES * 60_000L));
+            pstmt.setTimestamp(idx++, new Timestamp(finMax));
+            for (int id : salleIds) {
+                pstmt.setInt(idx++, id);
+            }
+            for (int id : enseignantIds) {
+                pstmt.setInt(idx++, id);
+            }
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    long debut = rs.getTimestamp("date_heure").getTime();
+                    long fin = debut + rs.getInt("duree") * 60_000L;
+                    int salleId = rs.getInt("salle_id");
+                    int enseignantId = rs.getInt("enseignant_id");
+                    if (salleIds.contains(salleId)) {
+                        occuper(salles.computeIfAbsent(salleId, k -> new TreeMap<>()), debut, fin);
+                    }
+                    if (enseignantIds.contains(enseignantId)) {
+                        occuper(enseignants.computeIfAbsent(enseignantId, k -> new TreeMap<>()), debut, fin);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Lit les séries récurrentes pouvant avoir une occurrence sur la période du lot
+     */
+    private static List<SeriePlanification> lireSeriesDuLot(Connection conn, List<Planification> planifications,
+            List<Integer> candidats) throws SQLException {
+        long debutMin = Long.MAX_VALUE;
+        long finMax = Long.MIN_VALUE;
+        for (int i : candidats) {
+            Planification p = planifications.get(i);
+            debutMin = Math.min(debutMin, p.getDateHeure().getTime());
+            finMax = Math.max(finMax, p.getDateHeure().getTime() + p.getDuree() * 60_000L);
+        }
+        return SeriePlanificationDAO.lireSeries(conn, new Timestamp(debutMin), new Timestamp(finMax));
+    }
+
+    /**
+     * Vérifie en base les créneaux d'une occurrence de série (surcharge ou
+     * rétablissement), dans la transaction de SeriePlanificationDAO qui a
+     * déjà verrouillé les ressources
+     *
+     * @param serieId Série écrite : ses autres occurrences comptent, sauf
+     *                celle de la date exclue
+     * @return true si un créneau chevauche une planification ou une occurrence de série
+     */
+    static boolean creneauxOccupes(Connection conn, List<Planification> creneaux, int serieId,
+            LocalDate exclue) throws SQLException {
+        if (creneaux.isEmpty()) {
+            return false;
+        }
+        List<Integer> tous = new ArrayList<>(creneaux.size());
+        for (int i = 0; i < creneaux.size(); i++) {
+            tous.add(i);
+        }
+        Map<Integer, NavigableMap<Long, Long>> occupationSalles = new HashMap<>();
+        Map<Integer, NavigableMap<Long, Long>> occupationEnseignants = new HashMap<>();
+        chargerOccupation(conn, creneaux, tous, occupationSalles, occupationEnseignants);
+        List<SeriePlanification> series = lireSeriesDuLot(conn, creneaux, tous);
+
+        for (Planification p : creneaux) {
+            long debut = p.getDateHeure().getTime();
+            long fin = debut + p.getDuree() * 60_000L;
+            NavigableMap<Long, Long> salle = occupationSalles.get(p.getSalleId());
+            NavigableMap<Long, Long> enseignant = occupationEnseignants.get(p.getEnseignantId());
+            if ((salle != null && chevauche(salle, debut, fin))
+                    || (enseignant != null && chevauche(enseignant, debut, fin))) {
+                return true;
+            }
+            for (SeriePlanification serie : series) {
+                boolean conflit = serie.getId() == serieId
+                        ? serie.chevauche(p.getSalleId(), p.getEnseignantId(), debut, fin, exclue)
+                        : serie.chevauche(p.getSalleId(), p.getEnseignantId(), debut, fin);
+                if (conflit) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Vérifie en base une nouvelle série (sans exception), dans la transaction
+     * de SeriePlanificationDAO qui a déjà verrouillé sa salle et son enseignant
+     *
+     * Les occurrences ne sont pas développées : chaque planification des deux
+     * ressources sur la période est confrontée à la règle de la série, puis
+     * chaque série de la période à la série entière
+     * (MoteurConflits.seriesEnConflit).
+     *
+     * @return true si une occurrence chevauche une planification ou une autre série
+     */
+    static boolean serieOccupee(Connection conn, SeriePlanification serie) throws SQLException {
+        Timestamp debut = Timestamp.valueOf(serie.getDateDebut().toLocalDate().atStartOfDay());
+        Timestamp fin = Timestamp.valueOf(serie.getDateFin().toLocalDate().plusDays(1).atStartOfDay());
+
+        String sql = "SELECT salle_id, enseignant_id, date_heure, duree FROM planification " +
+                "WHERE statut != 'ANNULE' AND date_heure > ? AND date_heure < ? " +
+                "AND (salle_id = ? OR enseignant_id = ?)";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setTimestamp(1, new Timestamp(debut.getTime() - Planification.DUREE_MAX_MINUTES * 60_000L));
+            pstmt.setTimestamp(2, fin);
+            pstmt.setInt(3, serie.getSalleId());
+            pstmt.setInt(4, serie.getEnseignantId());
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    long s = rs.getTimestamp("date_heure").getTime();
+                    if (serie.chevauche(rs.getInt("salle_id"), rs.getInt("enseignant_id"), s,
+                            s + rs.getInt("duree") * 60_000L)) {
+                        return true;
+                    }
+                }
+            }
+        }
+
+        for (SeriePlanification autre : SeriePlanificationDAO.lireSeries(conn, debut, fin)) {
+            if (autre.getId() != serie.getId() && MoteurConflits.seriesEnConflit(serie, autre)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean chevaucheSerie(List<SeriePlanification> series, int salleId, int enseignantId,
+            long debut, long fin) {
+        for (SeriePlanification serie : series) {
+            if (serie.chevauche(salleId, enseignantId, debut, fin)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Indique si un créneau occupé (début → fin) chevauche [debut, fin)
+     * Seuls les créneaux commencés moins de DUREE_MAX avant fin sont examinés.
+     */
+    private static boolean chevauche(NavigableMap<Long, Long> occupation, long debut, long fin) {
+        long borne = debut - Planification.DUREE_MAX_MINUTES * 60_000L;
+        for (Map.Entry<Long, Long> creneau : occupation.headMap(fin, false).descendingMap().entrySet()) {
+            if (creneau.getKey() <= borne) {
+                return false;
+            }
+            if (creneau.getValue() > debut) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Ajoute un créneau occupé (en gardant la fin la plus tardive pour un même début) */
+    private static void occuper(NavigableMap<Long, Long> occupation, long debut, long fin) {
+        occupation.merge(debut, fin, Math::max);
+    }
+
+    private static String marqueurs(int n) {
+        StringBuilder sb = new StringBuilder(n * 2);
+        for (int i = 0; i < n; i++) {
+            sb.append(i == 0 ? "?" : ",?");
+        }
+        return sb.toString();
+    }
+
+    private static void annuler(Connection conn) {
+        if (conn != null) {
+            try {
+                conn.rollback();
+            } catch (SQLException e) {
+                System.err.println("Erreur lors du rollback : " + e.getMessage());
+            }
+        }
+    }
+
     /**
      * Met à jour une planification existante
      */
     public boolean modifierPlanification(Planification planification) {
+        long depart = System.nanoTime();
         Connection conn = null;
         PreparedStatement pstmt = null;
 
         try {
             conn = DatabaseConnection.getConnection();
+            Planification ancienne = lireEtatActuel(conn, planification.getId());
 
             String sql = "UPDATE planification SET " +
                     "enseignant_id = ?, salle_id = ?, cours_id = ?, " +
@@ -200,9 +781,20 @@ public class PlanificationDAO {
             pstmt.setInt(8, planification.getId());
 
             int rows = pstmt.executeUpdate();
+            if (rows > 0) {
+                MoteurConflits.getInstance().enregistrer(planification);
+                OrdonnanceurTransitions.getInstance().planifier(planification);
+                if (ancienne != null) {
+                    Statistiques.getInstance().statutChange(ancienne.getStatut(), planification.getStatut(), 1);
+                    CacheSemaines.getInstance().invalider(ancienne.getDateHeure());
+                }
+                CacheSemaines.getInstance().invalider(planification.getDateHeure());
+            }
+            M_MODIFIER.enregistrer(depart, rows);
             return rows > 0;
 
         } catch (Exception e) {
+            M_MODIFIER.echec();
             System.err.println("Erreur modifierPlanification: " + e.getMessage());
             e.printStackTrace();
         } finally {
@@ -216,11 +808,13 @@ public class PlanificationDAO {
      * Supprime une planification
      */
     public boolean supprimerPlanification(int id) {
+        long depart = System.nanoTime();
         Connection conn = null;
         PreparedStatement pstmt = null;
 
         try {
             conn = DatabaseConnection.getConnection();
+            Planification ancienne = lireEtatActuel(conn, id);
 
             String sql = "DELETE FROM planification WHERE id = ?";
 
@@ -228,9 +822,19 @@ public class PlanificationDAO {
             pstmt.setInt(1, id);
 
             int rows = pstmt.executeUpdate();
+            if (rows > 0) {
+                MoteurConflits.getInstance().retirer(id);
+                OrdonnanceurTransitions.getInstance().retirer(id);
+                if (ancienne != null) {
+                    Statistiques.getInstance().planificationRetiree(ancienne.getStatut());
+                    CacheSemaines.getInstance().invalider(ancienne.getDateHeure());
+                }
+            }
+            M_SUPPRIMER.enregistrer(depart, rows);
             return rows > 0;
 
         } catch (Exception e) {
+            M_SUPPRIMER.echec();
             System.err.println("Erreur supprimerPlanification: " + e.getMessage());
             e.printStackTrace();
         } finally {
@@ -240,62 +844,304 @@ public class PlanificationDAO {
         return false;
     }
 
+    /**
+     * Date/heure et statut actuellement enregistrés (semaine à invalider et
+     * compteur de statut à décrémenter avant une modification), null si absente
+     */
+    private static Planification lireEtatActuel(Connection conn, int id) throws SQLException {
+        String sql = "SELECT date_heure, statut FROM planification WHERE id = ?";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, id);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (!rs.next()) {
+                    return null;
+                }
+                Planification p = new Planification();
+                p.setId(id);
+                p.setDateHeure(rs.getTimestamp("date_heure"));
+                p.setStatut(rs.getString("statut"));
+                return p;
+            }
+        }
+    }
+
     /**
      * Vérifie s'il y a un conflit d'horaire pour une salle ou un enseignant
+     * Utilise le moteur de conflits en mémoire ; la base n'est interrogée que
+     * si le moteur n'a pas pu être chargé.
      */
     public boolean verifierConflit(int salleId, int enseignantId, Timestamp dateHeure, int duree,
             int planificationIdExistant) {
+        MoteurConflits moteur = MoteurConflits.getInstance();
+        if (moteur.assurerCharge()) {
+            return moteur.aConflit(salleId, enseignantId, dateHeure, duree, planificationIdExistant);
+        }
+        return verifierConflitEnBase(salleId, enseignantId, dateHeure, duree, planificationIdExistant);
+    }
+
+    /**
+     * Requête de conflit : une sonde par index (salle puis enseignant).
+     * Chaque branche est un parcours de plage sur (ressource, date_heure, date_fin) :
+     * date_heure est bornée des deux côtés grâce à la durée maximale d'une séance.
+     */
+    static final String SQL_CONFLIT = "(SELECT id FROM planification " +
+            "WHERE salle_id = ? AND date_heure > ? AND date_heure < ? AND date_fin > ? " +
+            "AND statut != 'ANNULE' AND id != ? LIMIT 1) " +
+            "UNION ALL " +
+            "(SELECT id FROM planification " +
+            "WHERE enseignant_id = ? AND date_heure > ? AND date_heure < ? AND date_fin > ? " +
+            "AND statut != 'ANNULE' AND id != ? LIMIT 1) " +
+            "LIMIT 1";
+
+    /**
+     * Vérifie un conflit d'horaire directement en base (planifications et séries)
+     */
+    public boolean verifierConflitEnBase(int salleId, int enseignantId, Timestamp dateHeure, int duree,
+            int planificationIdExistant) {
+        long depart = System.nanoTime();
+        Connection conn = null;
+
+        try {
+            conn = DatabaseConnection.getConnection();
+            boolean conflit = conflitEnBase(conn, salleId, enseignantId, dateHeure, duree, planificationIdExistant);
+            M_CONFLIT.enregistrer(depart, conflit ? 1 : 0);
+            return conflit;
+
+        } catch (Exception e) {
+            M_CONFLIT.echec();
+            System.err.println("Erreur verifierConflit: " + e.getMessage());
+            e.printStackTrace();
+        } finally {
+            DatabaseConnection.closeConnection(conn);
+        }
+
+        return false;
+    }
+
+    /**
+     * Conflit avec une planification ou une occurrence de série, lu sur la connexion donnée
+     */
+    private static boolean conflitEnBase(Connection conn, int salleId, int enseignantId, Timestamp dateHeure,
+            int duree, int planificationIdExistant) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(SQL_CONFLIT)) {
+            lierParametresConflit(pstmt, salleId, enseignantId, dateHeure, duree, planificationIdExistant);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    return true;
+                }
+            }
+        }
+
+        // Séries récurrentes ayant une occurrence sur le créneau
+        long debut = dateHeure.getTime();
+        long fin = debut + duree * 60_000L;
+        return chevaucheSerie(SeriePlanificationDAO.lireSeries(conn, dateHeure, new Timestamp(fin)),
+                salleId, enseignantId, debut, fin);
+    }
+
+    /**
+     * Réserve le créneau s'il est libre : vérification et écriture atomiques
+     *
+     * verifierConflit puis creerPlanification utilisent deux connexions : deux
+     * réservations simultanées du même créneau passent toutes deux la
+     * vérification. Ici, les réservations qui partagent une salle ou un
+     * enseignant sont sérialisées, par les verrous de l'instance
+     * ({@link VerrousRessources}) puis par un SELECT ... FOR UPDATE sur les
+     * lignes ressource de la salle et de l'enseignant (autres instances du
+     * cluster) ; le conflit est relu en base dans la même transaction que
+     * l'INSERT ou l'UPDATE. Les réservations sans ressource commune ne
+     * s'attendent pas.
+     *
+     * @param planification Planification à créer (id 0) ou à modifier ; l'id généré y est renseigné
+     * @return CREE (création ou modification enregistrée), CONFLIT ou ERREUR
+     */
+    public ResultatPlanification reserverSiLibre(Planification planification) {
+        long depart = System.nanoTime();
+        ResultatPlanification resultat = new ResultatPlanification(0);
+        int salleId = planification.getSalleId();
+        int enseignantId = planification.getEnseignantId();
+        boolean creation = planification.getId() <= 0;
+
+        // Le moteur en mémoire ignore les suppressions et déplacements faits par les
+        // autres instances : un conflit qu'il signale n'est qu'un indice. Confirmé en
+        // base, il permet de refuser sans prendre de verrou ; sinon la réservation
+        // suit le chemin verrouillé, qui relit la base.
+        MoteurConflits moteur = MoteurConflits.getInstance();
+        if (moteur.assurerCharge() && moteur.aConflit(salleId, enseignantId, planification.getDateHeure(),
+                planification.getDuree(), planification.getId())
+                && verifierConflitEnBase(salleId, enseignantId, planification.getDateHeure(),
+                        planification.getDuree(), planification.getId())) {
+            M_RESERVER.enregistrer(depart, 0);
+            return refuser(resultat);
+        }
+
+        VerrousRessources verrous = VerrousRessources.getInstance();
+        VerrousRessources.Jeton jeton = verrous.verrouiller(salleId, enseignantId);
         Connection conn = null;
         PreparedStatement pstmt = null;
         ResultSet rs = null;
 
         try {
             conn = DatabaseConnection.getConnection();
+            conn.setAutoCommit(false);
+            // Pris avant toute lecture : sous REPEATABLE READ, l'instantané de la
+            // requête de conflit suit donc la validation de la réservation précédente
+            verrouillerRessources(conn, new LinkedHashSet<>(Arrays.asList(salleId, enseignantId)));
 
-            // Calculer l'heure de fin
-            Timestamp dateFin = new Timestamp(dateHeure.getTime() + (duree * 60 * 1000L));
-
-            String sql = "SELECT COUNT(*) as count FROM planification " +
-                    "WHERE (salle_id = ? OR enseignant_id = ?) " +
-                    "AND statut != 'ANNULE' " +
-                    "AND id != ? " +
-                    "AND ( " +
-                    "  (date_heure <= ? AND DATE_ADD(date_heure, INTERVAL duree MINUTE) > ?) " +
-                    "  OR (date_heure < ? AND DATE_ADD(date_heure, INTERVAL duree MINUTE) >= ?) " +
-                    "  OR (date_heure >= ? AND date_heure < ?) " +
-                    ")";
+            if (conflitEnBase(conn, salleId, enseignantId, planification.getDateHeure(), planification.getDuree(),
+                    planification.getId())) {
+                conn.rollback();
+                M_RESERVER.enregistrer(depart, 0);
+                return refuser(resultat);
+            }
 
-            pstmt = conn.prepareStatement(sql);
-            pstmt.setInt(1, salleId);
-            pstmt.setInt(2, enseignantId);
-            pstmt.setInt(3, planificationIdExistant);
-            pstmt.setTimestamp(4, dateHeure);
-            pstmt.setTimestamp(5, dateHeure);
-            pstmt.setTimestamp(6, dateFin);
-            pstmt.setTimestamp(7, dateFin);
-            pstmt.setTimestamp(8, dateHeure);
-            pstmt.setTimestamp(9, dateFin);
+            Planification ancienne = null;
+            if (creation) {
+                String sql = "INSERT INTO planification " +
+                        "(enseignant_id, salle_id, cours_id, date_heure, duree, statut, notes) " +
+                        "VALUES (?, ?, ?, ?, ?, ?, ?)";
+                pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
+            } else {
+                ancienne = lireEtatActuel(conn, planification.getId());
+                if (ancienne == null) {
+                    conn.rollback();
+                    resultat.setStatut(ResultatPlanification.ERREUR);
+                    resultat.setMessage("Planification introuvable");
+                    M_RESERVER.enregistrer(depart, 0);
+                    return resultat;
+                }
+                String sql = "UPDATE planification SET " +
+                        "enseignant_id = ?, salle_id = ?, cours_id = ?, " +
+                        "date_heure = ?, duree = ?, statut = ?, notes = ? " +
+                        "WHERE id = ?";
+                pstmt = conn.prepareStatement(sql);
+                pstmt.setInt(8, planification.getId());
+            }
+            pstmt.setInt(1, enseignantId);
+            pstmt.setInt(2, salleId);
+            pstmt.setInt(3, planification.getCoursId());
+            pstmt.setTimestamp(4, planification.getDateHeure());
+            pstmt.setInt(5, planification.getDuree());
+            pstmt.setString(6, planification.getStatut());
+            pstmt.setString(7, planification.getNotes());
+            pstmt.executeUpdate();
 
-            rs = pstmt.executeQuery();
+            if (creation) {
+                rs = pstmt.getGeneratedKeys();
+                if (rs.next()) {
+                    planification.setId(rs.getInt(1));
+                }
+            }
+            conn.commit();
 
-            if (rs.next()) {
-                return rs.getInt("count") > 0;
+            // Avant de rendre les verrous : la réservation suivante de l'instance voit ce créneau en mémoire
+            moteur.enregistrer(planification);
+            OrdonnanceurTransitions.getInstance().planifier(planification);
+            if (creation) {
+                Statistiques.getInstance().planificationAjoutee(planification.getStatut());
+            } else {
+                Statistiques.getInstance().statutChange(ancienne.getStatut(), planification.getStatut(), 1);
+                CacheSemaines.getInstance().invalider(ancienne.getDateHeure());
             }
+            CacheSemaines.getInstance().invalider(planification.getDateHeure());
+
+            resultat.setStatut(ResultatPlanification.CREE);
+            resultat.setId(planification.getId());
+            M_RESERVER.enregistrer(depart, 1);
 
         } catch (Exception e) {
-            System.err.println("Erreur verifierConflit: " + e.getMessage());
+            M_RESERVER.echec();
+            System.err.println("Erreur reserverSiLibre: " + e.getMessage());
             e.printStackTrace();
+            annuler(conn);
+            resultat.setStatut(ResultatPlanification.ERREUR);
+            resultat.setMessage(e.getMessage());
         } finally {
             DatabaseConnection.closeResources(conn, pstmt, rs);
+            verrous.liberer(jeton);
         }
 
-        return false;
+        return resultat;
+    }
+
+    private static ResultatPlanification refuser(ResultatPlanification resultat) {
+        resultat.setStatut(ResultatPlanification.CONFLIT);
+        resultat.setMessage("La salle ou l'enseignant est déjà réservé(e) à cette heure");
+        return resultat;
+    }
+
+    /**
+     * Verrouille les lignes ressource données jusqu'à la fin de la transaction
+     * (ordre croissant des clés : pas d'interblocage entre réservations)
+     *
+     * @return Identifiants des ressources trouvées (donc verrouillées)
+     */
+    static Set<Integer> verrouillerRessources(Connection conn, Set<Integer> ressourceIds) throws SQLException {
+        return lireIdsRessources(conn, ressourceIds, " ORDER BY id FOR UPDATE");
+    }
+
+    /**
+     * Identifiants existants parmi ceux donnés, sans verrou
+     */
+    private static Set<Integer> ressourcesExistantes(Connection conn, Set<Integer> ressourceIds) throws SQLException {
+        return lireIdsRessources(conn, ressourceIds, "");
+    }
+
+    private static Set<Integer> lireIdsRessources(Connection conn, Set<Integer> ressourceIds, String suffixe)
+            throws SQLException {
+        Set<Integer> trouves = new HashSet<>();
+        String sql = "SELECT id FROM ressource WHERE id IN (" + marqueurs(ressourceIds.size()) + ")" + suffixe;
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            int i = 1;
+            for (int id : ressourceIds) {
+                pstmt.setInt(i++, id);
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    trouves.add(rs.getInt(1));
+                }
+            }
+        }
+        return trouves;
+    }
+
+    /**
+     * Lie les paramètres de SQL_CONFLIT pour le créneau [dateHeure, dateHeure + duree)
+     */
+    private static void lierParametresConflit(PreparedStatement pstmt, int salleId, int enseignantId,
+            Timestamp dateHeure, int duree, int planificationIdExistant) throws SQLException {
+        Timestamp dateFin = new Timestamp(dateHeure.getTime() + (duree * 60 * 1000L));
+        // Une séance qui chevauche a commencé au plus DUREE_MAX avant le début demandé
+        Timestamp debutMin = new Timestamp(dateHeure.getTime() - (Planification.DUREE_MAX_MINUTES * 60 * 1000L));
+
+        int i = 1;
+        for (int ressourceId : new int[] { salleId, enseignantId }) {
+            pstmt.setInt(i++, ressourceId);
+            pstmt.setTimestamp(i++, debutMin);
+            pstmt.setTimestamp(i++, dateFin);
+            pstmt.setTimestamp(i++, dateHeure);
+            pstmt.setInt(i++, planificationIdExistant);
+        }
+    }
+
+    /**
+     * Vérifie par EXPLAIN que les requêtes de lecture du calendrier sont indexées
+     */
+    public static void verifierPlans() {
+        Timestamp maintenant = new Timestamp(System.currentTimeMillis());
+        Timestamp debutMin = new Timestamp(maintenant.getTime() - Planification.DUREE_MAX_MINUTES * 60_000L);
+        Timestamp fin = new Timestamp(maintenant.getTime() + 60 * 60_000L);
+        PlanVerifier.verifier("verifierConflit", SQL_CONFLIT,
+                1, debutMin, fin, maintenant, 0, 1, debutMin, fin, maintenant, 0);
+        PlanVerifier.verifier("getPlanificationsPage", sqlParcours(null, null, maintenant) + " LIMIT 51",
+                maintenant, maintenant, 0);
     }
 
     /**
      * Mappe un ResultSet vers un objet Planification
+     * (visible du paquet pour les micro-benchmarks)
      */
-    private Planification mapResultSetToPlanification(ResultSet rs) throws SQLException {
+    static Planification mapResultSetToPlanification(ResultSet rs) throws SQLException {
         Planification p = new Planification();
         p.setId(rs.getInt("id"));
         p.setEnseignantId(rs.getInt("enseignant_id"));
@@ -0,0 +1,113 @@
+package dao;
+
+import beans.Ressource;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Table de préfixes pour l'autocomplétion des ressources d'un type
+ *
+ * Construite une fois par instantané de {@link CacheRessources} : deux
+ * tableaux triés de clés normalisées (voir {@link IndexRessources#normaliser}),
+ * l'un sur le nom complet, l'autre sur chaque mot suivant du nom. Une requête
+ * est une recherche dichotomique suivie d'un parcours séquentiel ; aucune
+ * structure n'est allouée hormis la liste résultat.
+ *
+ * Les noms commençant par le préfixe sont proposés avant ceux dont un mot
+ * intérieur le commence ("info" : "Informatique 1" avant "Génie Informatique").
+ *
+ * @author Système de Planification Académique
+ * @version 1.0
+ */
+final class PrefixesRessources {
+
+    /** Clés triées et ressource correspondante, à la même position */
+    private final String[] clesNom;
+    private final Ressource[] ressourcesNom;
+    private final String[] clesMot;
+    private final Ressource[] ressourcesMot;
+
+    PrefixesRessources(List<Ressource> ressources) {
+        List<Object[]> noms = new ArrayList<>(ressources.size());
+        List<Object[]> mots = new ArrayList<>();
+        for (Ressource r : ressources) {
+            String nom = IndexRessources.normaliser(r.getNom()).trim();
+            noms.add(new Object[] { nom, r });
+            List<String> decoupe = IndexRessources.decouper(r.getNom());
+            for (int i = 1; i < decoupe.size(); i++) {
+                mots.add(new Object[] { decoupe.get(i), r });
+            }
+        }
+        Comparator<Object[]> ordre = Comparator.comparing(e -> (String) e[0]);
+        noms.sort(ordre);
+        mots.sort(ordre);
+
+        clesNom = new String[noms.size()];
+        ressourcesNom = new Ressource[noms.size()];
+        remplir(noms, clesNom, ressourcesNom);
+        clesMot = new String[mots.size()];
+        ressourcesMot = new Ressource[mots.size()];
+        remplir(mots, clesMot, ressourcesMot);
+    }
+
+    private static void remplir(List<Object[]> entrees, String[] cles, Ressource[] ressources) {
+        for (int i = 0; i < cles.length; i++) {
+            cles[i] = (String) entrees.get(i)[0];
+            ressources[i] = (Ressource) entrees.get(i)[1];
+        }
+    }
+
+    /**
+     * Au plus {@code limite} ressources dont le nom ou un mot du nom commence
+     * par le préfixe (déjà normalisé)
+     *
+     * @param disponible Filtre sur la disponibilité, null pour ne pas filtrer
+     */
+    List<Ressource> chercher(String prefixe, int limite, Boolean disponible) {
+        List<Ressource> resultat = new ArrayList<>(Math.min(limite, 16));
+        collecter(clesNom, ressourcesNom, prefixe, limite, disponible, resultat);
+        if (resultat.size() < limite) {
+            collecter(clesMot, ressourcesMot, prefixe, limite, disponible, resultat);
+        }
+        return resultat;
+    }
+
+    private static void collecter(String[] cles, Ressource[] ressources, String prefixe, int limite,
+            Boolean disponible, List<Ressource> resultat) {
+        for (int i = premiereCle(cles, prefixe); i < cles.length && resultat.size() < limite; i++) {
+            if (!cles[i].startsWith(prefixe)) {
+                break;
+            }
+            Ressource r = ressources[i];
+            if ((disponible == null || r.isDisponibilite() == disponible) && !contient(resultat, r)) {
+                resultat.add(r);
+            }
+        }
+    }
+
+    /** Position de la première clé ≥ préfixe */
+    private static int premiereCle(String[] cles, String prefixe) {
+        int i = Arrays.binarySearch(cles, prefixe);
+        if (i < 0) {
+            return -i - 1;
+        }
+        // Clés égales : remonter à la première
+        while (i > 0 && cles[i - 1].equals(prefixe)) {
+            i--;
+        }
+        return i;
+    }
+
+    /** Liste courte (bornée par la limite) : recherche linéaire par identité */
+    private static boolean contient(List<Ressource> resultat, Ressource r) {
+        for (int i = 0; i < resultat.size(); i++) {
+            if (resultat.get(i) == r) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -1,54 +1,59 @@
 package dao;
 
 import beans.Ressource;
+import services.CacheSemaines;
+import services.MoteurConflits;
+import services.Statistiques;
 import utils.DatabaseConnection;
+import utils.Metriques;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
  * Data Access Object pour la gestion des ressources
  * Implémente toutes les opérations CRUD sur la table ressource
  * 
+ * Les lectures passent par un cache partagé (voir {@link CacheRessources}) :
+ * les listes renvoyées sont des instantanés non modifiables, à ne pas
+ * altérer. Les écritures invalident le cache.
+ * 
  * @author Système de Planification Académique
  * @version 1.0
  */
 public class RessourceDAO {
 
+    /** Cache partagé par toutes les instances du DAO */
+    private static final CacheRessources CACHE = new CacheRessources(RessourceDAO::chargerTout);
+
+    /** Index de recherche plein texte, reconstruit avec l'instantané du cache */
+    private static final IndexRessources INDEX = new IndexRessources(CACHE);
+
+    private static final Metriques.MesureRequete M_CHARGER = Metriques.requete("ressource", "chargerTout");
+    private static final Metriques.MesureRequete M_AJOUTER = Metriques.requete("ressource", "add");
+    private static final Metriques.MesureRequete M_MODIFIER = Metriques.requete("ressource", "update");
+    private static final Metriques.MesureRequete M_SUPPRIMER = Metriques.requete("ressource", "delete");
+
     // ==================== Méthodes de récupération (SELECT) ====================
 
     /**
      * Récupère toutes les ressources
      */
     public List<Ressource> getAllRessources() {
-        List<Ressource> ressources = new ArrayList<>();
-        Connection conn = null;
-        PreparedStatement pstmt = null;
-        ResultSet rs = null;
-
         try {
-            conn = DatabaseConnection.getConnection();
-            String sql = "SELECT * FROM ressource ORDER BY type, nom";
-            pstmt = conn.prepareStatement(sql);
-            rs = pstmt.executeQuery();
-
-            while (rs.next()) {
-                ressources.add(extractRessourceFromResultSet(rs)); // Assuming extractRessourceFromResultSet is the
-                                                                   // correct method name
-            }
-
+            return CACHE.get().toutes;
         } catch (Exception e) {
             System.err.println("Erreur getAllRessources: " + e.getMessage());
             e.printStackTrace();
-        } finally {
-            DatabaseConnection.closeResources(conn, pstmt, rs);
         }
 
-        return ressources;
+        return new ArrayList<>();
     }
 
     /**
@@ -57,31 +62,14 @@ public class RessourceDAO {
      * @param type Le type de ressource (ENSEIGNANT, SALLE, COURS)
      */
     public List<Ressource> getRessourcesParType(String type) {
-        List<Ressource> ressources = new ArrayList<>();
-        Connection conn = null;
-        PreparedStatement pstmt = null;
-        ResultSet rs = null;
-
         try {
-            conn = DatabaseConnection.getConnection();
-            String sql = "SELECT * FROM ressource WHERE type = ? ORDER BY nom";
-            pstmt = conn.prepareStatement(sql);
-            pstmt.setString(1, type);
-            rs = pstmt.executeQuery();
-
-            while (rs.next()) {
-                ressources.add(extractRessourceFromResultSet(rs)); // Assuming extractRessourceFromResultSet is the
-                                                                   // correct method name
-            }
-
+            return CACHE.get().parType.getOrDefault(type, Collections.emptyList());
         } catch (Exception e) {
             System.err.println("Erreur getRessourcesParType: " + e.getMessage());
             e.printStackTrace();
-        } finally {
-            DatabaseConnection.closeResources(conn, pstmt, rs);
         }
 
-        return ressources;
+        return new ArrayList<>();
     }
 
     /**
@@ -92,27 +80,9 @@ public class RessourceDAO {
      * @throws SQLException si une erreur SQL survient
      */
     public Ressource getRessourceById(int id) throws SQLException {
-        Ressource ressource = null;
-        Connection conn = null;
-        PreparedStatement pstmt = null;
-        ResultSet rs = null;
-
-        try {
-            conn = DatabaseConnection.getConnection();
-            String sql = "SELECT * FROM ressource WHERE id = ?";
-            pstmt = conn.prepareStatement(sql);
-            pstmt.setInt(1, id);
-            rs = pstmt.executeQuery();
-
-            if (rs.next()) {
-                ressource = extractRessourceFromResultSet(rs);
-            }
-
-        } finally {
-            DatabaseConnection.closeResources(conn, pstmt, rs);
-        }
-
-        return ressource;
+        Ressource r = CACHE.get().parId.get(id);
+        // Copie : l'appelant peut modifier la ressource avant de l'enregistrer
+        return r == null ? null : copie(r);
     }
 
     /**
@@ -123,62 +93,41 @@ public class RessourceDAO {
      * @throws SQLException si une erreur SQL survient
      */
     public List<Ressource> getRessourcesByType(String type) throws SQLException {
-        List<Ressource> ressources = new ArrayList<>();
-        Connection conn = null;
-        PreparedStatement pstmt = null;
-        ResultSet rs = null;
-
-        try {
-            conn = DatabaseConnection.getConnection();
-            String sql = "SELECT * FROM ressource WHERE type = ? ORDER BY nom";
-            pstmt = conn.prepareStatement(sql);
-            pstmt.setString(1, type);
-            rs = pstmt.executeQuery();
-
-            while (rs.next()) {
-                ressources.add(extractRessourceFromResultSet(rs));
-            }
-
-        } finally {
-            DatabaseConnection.closeResources(conn, pstmt, rs);
-        }
-
-        return ressources;
+        return CACHE.get().parType.getOrDefault(type, Collections.emptyList());
     }
 
     /**
      * Recherche des ressources par mot-clé dans le nom ou la description
+     * Insensible à la casse et aux accents ; chaque mot est un préfixe
+     * ("gen info" trouve "Génie Informatique"). Les correspondances dans le
+     * nom sont classées avant celles dans la description.
      * 
      * @param keyword Mot-clé de recherche
-     * @return Liste des ressources correspondantes
+     * @return Liste des ressources correspondantes, par pertinence
      * @throws SQLException si une erreur SQL survient
      */
     public List<Ressource> searchRessources(String keyword) throws SQLException {
-        List<Ressource> ressources = new ArrayList<>();
-        Connection conn = null;
-        PreparedStatement pstmt = null;
-        ResultSet rs = null;
-
-        try {
-            conn = DatabaseConnection.getConnection();
-            String sql = "SELECT * FROM ressource " +
-                    "WHERE nom LIKE ? OR description LIKE ? " +
-                    "ORDER BY type, nom";
-            pstmt = conn.prepareStatement(sql);
-            String searchPattern = "%" + keyword + "%";
-            pstmt.setString(1, searchPattern);
-            pstmt.setString(2, searchPattern);
-            rs = pstmt.executeQuery();
-
-            while (rs.next()) {
-                ressources.add(extractRessourceFromResultSet(rs));
-            }
+        return INDEX.rechercher(keyword);
+    }
 
-        } finally {
-            DatabaseConnection.closeResources(conn, pstmt, rs);
+    /**
+     * Autocomplétion : ressources d'un type dont le nom (ou un mot du nom)
+     * commence par le préfixe, insensible à la casse et aux accents
+     * Servie depuis le cache, sans requête en base.
+     * 
+     * @param type Type de ressource (ENSEIGNANT, SALLE, COURS)
+     * @param prefixe Début de saisie ; vide pour les premières ressources par ordre alphabétique
+     * @param limite Nombre maximal de résultats
+     * @param disponible Filtre sur la disponibilité, null pour ne pas filtrer
+     * @return Liste des ressources correspondantes
+     * @throws SQLException si le rechargement du cache échoue
+     */
+    public List<Ressource> autocompleter(String type, String prefixe, int limite, Boolean disponible)
+            throws SQLException {
+        if (limite <= 0) {
+            return new ArrayList<>();
         }
-
-        return ressources;
+        return CACHE.get().prefixes(type).chercher(IndexRessources.normaliser(prefixe).trim(), limite, disponible);
     }
 
     // ==================== Méthodes de modification (INSERT, UPDATE, DELETE)
@@ -192,24 +141,38 @@ public class RessourceDAO {
      * @throws SQLException si une erreur SQL survient
      */
     public boolean addRessource(Ressource ressource) throws SQLException {
+        long depart = System.nanoTime();
         Connection conn = null;
         PreparedStatement pstmt = null;
+        ResultSet rs = null;
 
         try {
             conn = DatabaseConnection.getConnection();
             String sql = "INSERT INTO ressource (nom, type, disponibilite, description) " +
                     "VALUES (?, ?, ?, ?)";
-            pstmt = conn.prepareStatement(sql);
+            pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
             pstmt.setString(1, ressource.getNom());
             pstmt.setString(2, ressource.getType());
             pstmt.setBoolean(3, ressource.isDisponibilite());
             pstmt.setString(4, ressource.getDescription());
 
             int rowsAffected = pstmt.executeUpdate();
+            if (rowsAffected > 0) {
+                CACHE.invalider();
+                rs = pstmt.getGeneratedKeys();
+                if (rs.next()) {
+                    ressource.setId(rs.getInt(1));
+                }
+                Statistiques.getInstance().ressourceAjoutee(ressource.getType(), ressource.isDisponibilite());
+            }
+            M_AJOUTER.enregistrer(depart, rowsAffected);
             return rowsAffected > 0;
 
+        } catch (SQLException | RuntimeException e) {
+            M_AJOUTER.echec();
+            throw e;
         } finally {
-            DatabaseConnection.closeResources(conn, pstmt, null);
+            DatabaseConnection.closeResources(conn, pstmt, rs);
         }
     }
 
@@ -221,10 +184,13 @@ public class RessourceDAO {
      * @throws SQLException si une erreur SQL survient
      */
     public boolean updateRessource(Ressource ressource) throws SQLException {
+        long depart = System.nanoTime();
         Connection conn = null;
         PreparedStatement pstmt = null;
 
         try {
+            // Valeurs précédentes pour les compteurs (dérive rattrapée par la réconciliation)
+            Ressource ancienne = CACHE.get().parId.get(ressource.getId());
             conn = DatabaseConnection.getConnection();
             String sql = "UPDATE ressource SET nom = ?, type = ?, disponibilite = ?, " +
                     "description = ? WHERE id = ?";
@@ -236,8 +202,21 @@ public class RessourceDAO {
             pstmt.setInt(5, ressource.getId());
 
             int rowsAffected = pstmt.executeUpdate();
+            if (rowsAffected > 0) {
+                CACHE.invalider();
+                if (ancienne != null) {
+                    Statistiques.getInstance().ressourceModifiee(ancienne.getType(), ancienne.isDisponibilite(),
+                            ressource.getType(), ressource.isDisponibilite());
+                }
+                // Les noms joints des semaines déjà en cache peuvent avoir changé
+                CacheSemaines.getInstance().vider();
+            }
+            M_MODIFIER.enregistrer(depart, rowsAffected);
             return rowsAffected > 0;
 
+        } catch (SQLException | RuntimeException e) {
+            M_MODIFIER.echec();
+            throw e;
         } finally {
             DatabaseConnection.closeResources(conn, pstmt, null);
         }
@@ -251,18 +230,42 @@ public class RessourceDAO {
      * @throws SQLException si une erreur SQL survient
      */
     public boolean deleteRessource(int id) throws SQLException {
+        long depart = System.nanoTime();
         Connection conn = null;
         PreparedStatement pstmt = null;
 
         try {
+            Ressource ancienne = CACHE.get().parId.get(id);
             conn = DatabaseConnection.getConnection();
             String sql = "DELETE FROM ressource WHERE id = ?";
             pstmt = conn.prepareStatement(sql);
             pstmt.setInt(1, id);
 
             int rowsAffected = pstmt.executeUpdate();
+            if (rowsAffected > 0) {
+                CACHE.invalider();
+                if (ancienne != null) {
+                    Statistiques.getInstance().ressourceRetiree(ancienne.getType(), ancienne.isDisponibilite());
+                }
+                // Les planifications et séries de la ressource sont supprimées en cascade
+                CacheSemaines.getInstance().vider();
+                try {
+                    MoteurConflits.getInstance().charger();
+                } catch (SQLException e) {
+                    System.err.println("Rechargement du moteur de conflits impossible : " + e.getMessage());
+                }
+                try {
+                    Statistiques.getInstance().reconcilier();
+                } catch (SQLException e) {
+                    System.err.println("Réconciliation des statistiques impossible : " + e.getMessage());
+                }
+            }
+            M_SUPPRIMER.enregistrer(depart, rowsAffected);
             return rowsAffected > 0;
 
+        } catch (SQLException | RuntimeException e) {
+            M_SUPPRIMER.echec();
+            throw e;
         } finally {
             DatabaseConnection.closeResources(conn, pstmt, null);
         }
@@ -278,25 +281,8 @@ public class RessourceDAO {
      * @throws SQLException si une erreur SQL survient
      */
     public boolean checkDisponibilite(int id) throws SQLException {
-        Connection conn = null;
-        PreparedStatement pstmt = null;
-        ResultSet rs = null;
-
-        try {
-            conn = DatabaseConnection.getConnection();
-            String sql = "SELECT disponibilite FROM ressource WHERE id = ?";
-            pstmt = conn.prepareStatement(sql);
-            pstmt.setInt(1, id);
-            rs = pstmt.executeQuery();
-
-            if (rs.next()) {
-                return rs.getBoolean("disponibilite");
-            }
-            return false;
-
-        } finally {
-            DatabaseConnection.closeResources(conn, pstmt, rs);
-        }
+        Ressource r = CACHE.get().parId.get(id);
+        return r != null && r.isDisponibilite();
     }
 
     /**
@@ -306,35 +292,66 @@ public class RessourceDAO {
      * @throws SQLException si une erreur SQL survient
      */
     public int countRessources() throws SQLException {
+        return CACHE.get().toutes.size();
+    }
+
+    /**
+     * Statistiques du cache des ressources (pour les journaux)
+     */
+    public static String getStatistiquesCache() {
+        return CACHE + "\n" + INDEX;
+    }
+
+    /**
+     * Copie indépendante d'une ressource (le cache ne partage pas ses objets
+     * avec les appelants)
+     */
+    private static Ressource copie(Ressource r) {
+        return new Ressource(r.getId(), r.getNom(), r.getType(), r.isDisponibilite(), r.getDescription(),
+                r.getDateCreation(), r.getDateModification());
+    }
+
+    /**
+     * Lit toute la table pour le cache, triée par type puis nom
+     */
+    private static List<Ressource> chargerTout() throws SQLException {
+        long depart = System.nanoTime();
+        List<Ressource> ressources = new ArrayList<>();
         Connection conn = null;
         PreparedStatement pstmt = null;
         ResultSet rs = null;
 
         try {
             conn = DatabaseConnection.getConnection();
-            String sql = "SELECT COUNT(*) as total FROM ressource";
+            String sql = "SELECT * FROM ressource ORDER BY type, nom";
             pstmt = conn.prepareStatement(sql);
             rs = pstmt.executeQuery();
 
-            if (rs.next()) {
-                return rs.getInt("total");
+            while (rs.next()) {
+                ressources.add(extractRessourceFromResultSet(rs));
             }
-            return 0;
+            M_CHARGER.enregistrer(depart, ressources.size());
 
+        } catch (SQLException | RuntimeException e) {
+            M_CHARGER.echec();
+            throw e;
         } finally {
             DatabaseConnection.closeResources(conn, pstmt, rs);
         }
+
+        return ressources;
     }
 
     /**
      * Extrait un objet Ressource à partir d'un ResultSet
-     * Méthode utilitaire privée pour éviter la duplication de code
+     * Méthode utilitaire pour éviter la duplication de code (visible du
+     * paquet pour les micro-benchmarks)
      * 
      * @param rs ResultSet positionné sur une ligne
      * @return Objet Ressource créé à partir des données
      * @throws SQLException si une erreur de lecture survient
      */
-    private Ressource extractRessourceFromResultSet(ResultSet rs) throws SQLException {
+    static Ressource extractRessourceFromResultSet(ResultSet rs) throws SQLException {
         return new Ressource(
                 rs.getInt("id"),
                 rs.getString("nom"),
@@ -0,0 +1,462 @@
+package dao;
+
+import beans.ExceptionSerie;
+import beans.Planification;
+import beans.ResultatPlanification;
+import beans.SeriePlanification;
+import services.CacheSemaines;
+import services.MoteurConflits;
+import services.VerrousRessources;
+import utils.DatabaseConnection;
+import java.sql.*;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * DAO pour la gestion des séries de séances récurrentes et de leurs exceptions
+ * Les occurrences ne sont jamais écrites en base : elles sont calculées pour
+ * la fenêtre demandée à partir de la règle et des exceptions.
+ *
+ * Les écritures qui occupent des créneaux (création, surcharge ou
+ * rétablissement d'une occurrence) suivent le chemin de
+ * PlanificationDAO.reserverSiLibre : verrous de l'instance sur la salle et
+ * l'enseignant, SELECT ... FOR UPDATE sur leurs lignes ressource, puis
+ * conflit relu en base dans la même transaction que l'écriture.
+ *
+ * @author Système de Planification Académique
+ * @version 1.0
+ */
+public class SeriePlanificationDAO {
+
+    /**
+     * Écart maximal (en jours) entre une occurrence surchargée et sa date prévue.
+     * Les fenêtres de lecture sont élargies d'autant pour ne pas manquer une
+     * occurrence déplacée dans la fenêtre depuis une date voisine.
+     */
+    public static final int DECALAGE_MAX_JOURS = 7;
+
+    private static final long MARGE_MS = DECALAGE_MAX_JOURS * 24L * 3600_000L;
+
+    private static final String SQL_SERIES = "SELECT s.*, " +
+            "e.nom as enseignant_nom, " +
+            "sa.nom as salle_nom, " +
+            "c.nom as cours_nom " +
+            "FROM serie_planification s " +
+            "LEFT JOIN ressource e ON s.enseignant_id = e.id " +
+            "LEFT JOIN ressource sa ON s.salle_id = sa.id " +
+            "LEFT JOIN ressource c ON s.cours_id = c.id";
+
+    private static final String SQL_EXCEPTIONS = "SELECT x.* FROM serie_exception x " +
+            "JOIN serie_planification s ON s.id = x.serie_id";
+
+    /**
+     * Récupère une série (avec ses exceptions) par son ID
+     */
+    public SeriePlanification getSerieById(int id) {
+        Connection conn = null;
+
+        try {
+            conn = DatabaseConnection.getConnection();
+            List<SeriePlanification> series = lireSeriesFiltrees(conn, " WHERE s.id = ?", id);
+            return series.isEmpty() ? null : series.get(0);
+
+        } catch (Exception e) {
+            System.err.println("Erreur getSerieById: " + e.getMessage());
+            e.printStackTrace();
+        } finally {
+            DatabaseConnection.closeConnection(conn);
+        }
+
+        return null;
+    }
+
+    /**
+     * Récupère toutes les séries
+     */
+    public List<SeriePlanification> getAllSeries() {
+        Connection conn = null;
+
+        try {
+            conn = DatabaseConnection.getConnection();
+            return lireSeriesFiltrees(conn, null);
+
+        } catch (Exception e) {
+            System.err.println("Erreur getAllSeries: " + e.getMessage());
+            e.printStackTrace();
+        } finally {
+            DatabaseConnection.closeConnection(conn);
+        }
+
+        return new ArrayList<>();
+    }
+
+    /**
+     * Crée une nouvelle série si aucune de ses occurrences n'est en conflit
+     * (l'id généré est renseigné), sans développer ses occurrences
+     *
+     * @return CREE, CONFLIT ou ERREUR
+     */
+    public ResultatPlanification creerSerie(SeriePlanification serie) {
+        return ecrireSiLibre("creerSerie", serie.getSalleId(), serie.getEnseignantId(),
+                conn -> PlanificationDAO.serieOccupee(conn, serie),
+                conn -> {
+                    String sql = "INSERT INTO serie_planification " +
+                            "(enseignant_id, salle_id, cours_id, date_debut, date_fin, jours_semaine, " +
+                            "intervalle_semaines, heure_debut, duree, notes) " +
+                            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+                    try (PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+                        pstmt.setInt(1, serie.getEnseignantId());
+                        pstmt.setInt(2, serie.getSalleId());
+                        pstmt.setInt(3, serie.getCoursId());
+                        pstmt.setDate(4, serie.getDateDebut());
+                        pstmt.setDate(5, serie.getDateFin());
+                        pstmt.setInt(6, serie.getJoursSemaine());
+                        pstmt.setInt(7, serie.getIntervalleSemaines());
+                        pstmt.setTime(8, serie.getHeureDebut());
+                        pstmt.setInt(9, serie.getDuree());
+                        pstmt.setString(10, serie.getNotes());
+                        pstmt.executeUpdate();
+                        try (ResultSet cles = pstmt.getGeneratedKeys()) {
+                            if (cles.next()) {
+                                serie.setId(cles.getInt(1));
+                            }
+                        }
+                    }
+                    return true;
+                },
+                () -> {
+                    MoteurConflits.getInstance().enregistrerSerie(serie);
+                    invaliderCache(serie.getDateDebut(), serie.getDateFin());
+                });
+    }
+
+    /**
+     * Supprime une série (ses exceptions sont supprimées en cascade)
+     */
+    public boolean supprimerSerie(int id) {
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+
+        try {
+            conn = DatabaseConnection.getConnection();
+            List<SeriePlanification> existante = lireSeriesFiltrees(conn, " WHERE s.id = ?", id);
+
+            String sql = "DELETE FROM serie_planification WHERE id = ?";
+
+            pstmt = conn.prepareStatement(sql);
+            pstmt.setInt(1, id);
+
+            int rows = pstmt.executeUpdate();
+            if (rows > 0) {
+                MoteurConflits.getInstance().retirerSerie(id);
+                if (!existante.isEmpty()) {
+                    invaliderCache(existante.get(0).getDateDebut(), existante.get(0).getDateFin());
+                }
+            }
+            return rows > 0;
+
+        } catch (Exception e) {
+            System.err.println("Erreur supprimerSerie: " + e.getMessage());
+            e.printStackTrace();
+        } finally {
+            DatabaseConnection.closeResources(conn, pstmt, null);
+        }
+
+        return false;
+    }
+
+    /**
+     * Enregistre (ou remplace) l'exception d'une occurrence ; une occurrence
+     * surchargée doit être libre (l'occurrence qu'elle remplace est ignorée)
+     * La série passée en paramètre est mise à jour puis republiée au moteur.
+     *
+     * @return CREE, CONFLIT ou ERREUR
+     */
+    public ResultatPlanification enregistrerException(SeriePlanification serie, ExceptionSerie exception) {
+        List<Planification> creneaux = exception.isAnnulee() ? Collections.emptyList()
+                : Collections.singletonList(creneau(serie.salleEffective(exception),
+                        serie.enseignantEffectif(exception), serie.debutEffectif(exception),
+                        serie.dureeEffective(exception)));
+
+        return ecrireSiLibre("enregistrerException", serie.salleEffective(exception),
+                serie.enseignantEffectif(exception),
+                conn -> PlanificationDAO.creneauxOccupes(conn, creneaux, serie.getId(),
+                        exception.getDateOccurrence().toLocalDate()),
+                conn -> {
+                    String sql = "INSERT INTO serie_exception " +
+                            "(serie_id, date_occurrence, annulee, date_heure, duree, salle_id, enseignant_id, notes) " +
+                            "VALUES (?, ?, ?, ?, ?, ?, ?, ?) " +
+                            "ON DUPLICATE KEY UPDATE annulee = VALUES(annulee), date_heure = VALUES(date_heure), " +
+                            "duree = VALUES(duree), salle_id = VALUES(salle_id), " +
+                            "enseignant_id = VALUES(enseignant_id), notes = VALUES(notes)";
+                    try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                        pstmt.setInt(1, serie.getId());
+                        pstmt.setDate(2, exception.getDateOccurrence());
+                        pstmt.setBoolean(3, exception.isAnnulee());
+                        pstmt.setTimestamp(4, exception.getDateHeure());
+                        pstmt.setObject(5, exception.getDuree(), Types.INTEGER);
+                        pstmt.setObject(6, exception.getSalleId(), Types.INTEGER);
+                        pstmt.setObject(7, exception.getEnseignantId(), Types.INTEGER);
+                        pstmt.setString(8, exception.getNotes());
+                        pstmt.executeUpdate();
+                    }
+                    return true;
+                },
+                () -> {
+                    exception.setSerieId(serie.getId());
+                    serie.ajouterException(exception);
+                    MoteurConflits.getInstance().enregistrerSerie(serie);
+                    invaliderCache(exception.getDateOccurrence(), exception.getDateOccurrence());
+                });
+    }
+
+    /**
+     * Supprime l'exception d'une occurrence : l'occurrence redevient régulière
+     * et ne doit pas recouvrir une séance créée entre-temps
+     *
+     * @return CREE, CONFLIT, INVALIDE (exception introuvable) ou ERREUR
+     */
+    public ResultatPlanification supprimerException(SeriePlanification serie, Date dateOccurrence) {
+        LocalDate date = dateOccurrence.toLocalDate();
+        List<Planification> creneaux = serie.estJourPrevu(date)
+                ? Collections.singletonList(creneau(serie.getSalleId(), serie.getEnseignantId(),
+                        serie.debutOccurrence(date), serie.getDuree()))
+                : Collections.emptyList();
+
+        return ecrireSiLibre("supprimerException", serie.getSalleId(), serie.getEnseignantId(),
+                conn -> PlanificationDAO.creneauxOccupes(conn, creneaux, serie.getId(), date),
+                conn -> {
+                    String sql = "DELETE FROM serie_exception WHERE serie_id = ? AND date_occurrence = ?";
+                    try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                        pstmt.setInt(1, serie.getId());
+                        pstmt.setDate(2, dateOccurrence);
+                        return pstmt.executeUpdate() > 0;
+                    }
+                },
+                () -> {
+                    serie.retirerException(date);
+                    MoteurConflits.getInstance().enregistrerSerie(serie);
+                    invaliderCache(dateOccurrence, dateOccurrence);
+                });
+    }
+
+    // ==================== Écriture sous verrou ====================
+
+    /** Recherche de conflit en base, dans la transaction de ecrireSiLibre */
+    private interface Verification {
+        /** @return true si un créneau écrit est déjà occupé */
+        boolean occupe(Connection conn) throws SQLException;
+    }
+
+    /** Écriture d'une série ou d'une exception, dans la transaction de ecrireSiLibre */
+    private interface Ecriture {
+        /** @return false si la ligne visée n'existe pas (la transaction est annulée) */
+        boolean ecrire(Connection conn) throws SQLException;
+    }
+
+    /**
+     * Écrit si les créneaux sont libres : verrous de l'instance, verrous de
+     * ligne sur la salle et l'enseignant, conflit relu en base puis écriture,
+     * le tout dans une transaction
+     *
+     * @param publier Mise à jour du moteur et du cache, faite avant de rendre les verrous
+     */
+    private static ResultatPlanification ecrireSiLibre(String operation, int salleId, int enseignantId,
+            Verification verification, Ecriture ecriture, Runnable publier) {
+        ResultatPlanification resultat = new ResultatPlanification(0);
+        VerrousRessources verrous = VerrousRessources.getInstance();
+        VerrousRessources.Jeton jeton = verrous.verrouiller(salleId, enseignantId);
+        Connection conn = null;
+
+        try {
+            conn = DatabaseConnection.getConnection();
+            conn.setAutoCommit(false);
+            PlanificationDAO.verrouillerRessources(conn, new TreeSet<>(Arrays.asList(salleId, enseignantId)));
+
+            if (verification.occupe(conn)) {
+                conn.rollback();
+                resultat.setStatut(ResultatPlanification.CONFLIT);
+                resultat.setMessage("La salle ou l'enseignant est déjà réservé(e) à cette heure");
+                return resultat;
+            }
+            if (!ecriture.ecrire(conn)) {
+                conn.rollback();
+                resultat.setStatut(ResultatPlanification.INVALIDE);
+                resultat.setMessage("Exception introuvable");
+                return resultat;
+            }
+            conn.commit();
+
+            publier.run();
+            resultat.setStatut(ResultatPlanification.CREE);
+
+        } catch (Exception e) {
+            System.err.println("Erreur " + operation + ": " + e.getMessage());
+            e.printStackTrace();
+            if (conn != null) {
+                try {
+                    conn.rollback();
+                } catch (SQLException ex) {
+                    System.err.println("Erreur lors du rollback : " + ex.getMessage());
+                }
+            }
+            resultat.setStatut(ResultatPlanification.ERREUR);
+            resultat.setMessage(e.getMessage());
+        } finally {
+            DatabaseConnection.closeConnection(conn);
+            verrous.liberer(jeton);
+        }
+
+        return resultat;
+    }
+
+    /** Créneau à vérifier, sous la forme attendue par PlanificationDAO.creneauxOccupes */
+    private static Planification creneau(int salleId, int enseignantId, long debut, int duree) {
+        Planification p = new Planification();
+        p.setSalleId(salleId);
+        p.setEnseignantId(enseignantId);
+        p.setDateHeure(new Timestamp(debut));
+        p.setDuree(duree);
+        return p;
+    }
+
+    /**
+     * Invalide les semaines du calendrier où une occurrence de la période
+     * (éventuellement déplacée) peut apparaître
+     */
+    private static void invaliderCache(Date debut, Date fin) {
+        CacheSemaines.getInstance().invaliderPeriode(debut.toLocalDate().minusDays(DECALAGE_MAX_JOURS),
+                fin.toLocalDate().plusDays(DECALAGE_MAX_JOURS));
+    }
+
+    // ==================== Lecture par fenêtre ====================
+
+    /**
+     * Lit les séries dont la période peut produire une occurrence dans [debut, fin]
+     * (fenêtre élargie de DECALAGE_MAX_JOURS pour les occurrences déplacées).
+     * Sans bornes, toutes les séries sont lues.
+     *
+     * @param conn Connexion de l'appelant (non fermée)
+     */
+    public static List<SeriePlanification> lireSeries(Connection conn, Timestamp debut, Timestamp fin)
+            throws SQLException {
+        if (debut == null || fin == null) {
+            return lireSeriesFiltrees(conn, null);
+        }
+        return lireSeriesFiltrees(conn, " WHERE s.date_debut <= ? AND s.date_fin >= ?",
+                new Date(fin.getTime() + MARGE_MS), new Date(debut.getTime() - MARGE_MS));
+    }
+
+    /**
+     * Ajoute à une liste de planifications les occurrences de séries débutant
+     * dans [debut, fin], puis trie la liste par date/heure
+     *
+     * @param conn Connexion de l'appelant (non fermée)
+     */
+    static void ajouterOccurrences(Connection conn, List<Planification> planifications, Timestamp debut,
+            Timestamp fin) throws SQLException {
+        List<SeriePlanification> series = lireSeries(conn, debut, fin);
+        if (series.isEmpty()) {
+            return;
+        }
+        long maintenant = System.currentTimeMillis();
+        for (SeriePlanification serie : series) {
+            planifications.addAll(serie.occurrences(debut.getTime(), fin.getTime(), maintenant));
+        }
+        planifications.sort(Comparator.comparing(Planification::getDateHeure));
+    }
+
+    private static List<SeriePlanification> lireSeriesFiltrees(Connection conn, String filtre, Object... params)
+            throws SQLException {
+        Map<Integer, SeriePlanification> series = new LinkedHashMap<>();
+
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                SQL_SERIES + (filtre != null ? filtre : "") + " ORDER BY s.id")) {
+            lierParametres(pstmt, filtre, params);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    SeriePlanification s = mapResultSetToSerie(rs);
+                    series.put(s.getId(), s);
+                }
+            }
+        }
+
+        if (series.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                SQL_EXCEPTIONS + (filtre != null ? filtre : ""))) {
+            lierParametres(pstmt, filtre, params);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    SeriePlanification s = series.get(rs.getInt("serie_id"));
+                    if (s != null) {
+                        s.ajouterException(mapResultSetToException(rs));
+                    }
+                }
+            }
+        }
+
+        return new ArrayList<>(series.values());
+    }
+
+    private static void lierParametres(PreparedStatement pstmt, String filtre, Object[] params)
+            throws SQLException {
+        if (filtre == null) {
+            return;
+        }
+        for (int i = 0; i < params.length; i++) {
+            pstmt.setObject(i + 1, params[i]);
+        }
+    }
+
+    /**
+     * Mappe un ResultSet vers un objet SeriePlanification
+     */
+    private static SeriePlanification mapResultSetToSerie(ResultSet rs) throws SQLException {
+        SeriePlanification s = new SeriePlanification();
+        s.setId(rs.getInt("id"));
+        s.setEnseignantId(rs.getInt("enseignant_id"));
+        s.setSalleId(rs.getInt("salle_id"));
+        s.setCoursId(rs.getInt("cours_id"));
+        s.setDateDebut(rs.getDate("date_debut"));
+        s.setDateFin(rs.getDate("date_fin"));
+        s.setJoursSemaine(rs.getInt("jours_semaine"));
+        s.setIntervalleSemaines(rs.getInt("intervalle_semaines"));
+        s.setHeureDebut(rs.getTime("heure_debut"));
+        s.setDuree(rs.getInt("duree"));
+        s.setNotes(rs.getString("notes"));
+        s.setDateCreation(rs.getTimestamp("date_creation"));
+
+        // Informations jointes
+        s.setEnseignantNom(rs.getString("enseignant_nom"));
+        s.setSalleNom(rs.getString("salle_nom"));
+        s.setCoursNom(rs.getString("cours_nom"));
+
+        return s;
+    }
+
+    /**
+     * Mappe un ResultSet vers un objet ExceptionSerie
+     */
+    private static ExceptionSerie mapResultSetToException(ResultSet rs) throws SQLException {
+        ExceptionSerie e = new ExceptionSerie();
+        e.setSerieId(rs.getInt("serie_id"));
+        e.setDateOccurrence(rs.getDate("date_occurrence"));
+        e.setAnnulee(rs.getBoolean("annulee"));
+        e.setDateHeure(rs.getTimestamp("date_heure"));
+        e.setDuree(rs.getObject("duree", Integer.class));
+        e.setSalleId(rs.getObject("salle_id", Integer.class));
+        e.setEnseignantId(rs.getObject("enseignant_id", Integer.class));
+        e.setNotes(rs.getString("notes"));
+        return e;
+    }
+}
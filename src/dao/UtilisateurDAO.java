@@ -2,6 +2,7 @@ package dao;
 
 import beans.Utilisateur;
 import utils.DatabaseConnection;
+import utils.Metriques;
 
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
@@ -19,6 +20,9 @@ import java.sql.ResultSet;
  */
 public class UtilisateurDAO {
 
+    private static final Metriques.MesureRequete M_AUTHENTIFIER = Metriques.requete("utilisateur", "authentifier");
+    private static final Metriques.MesureRequete M_PAR_EMAIL = Metriques.requete("utilisateur", "findByEmail");
+
     /**
      * Tente d'authentifier un utilisateur avec son email et son mot de passe.
      *
@@ -37,6 +41,7 @@ public class UtilisateurDAO {
             return null;
         }
 
+        long depart = System.nanoTime();
         Connection conn = null;
         PreparedStatement pstmt = null;
         ResultSet rs = null;
@@ -50,11 +55,12 @@ public class UtilisateurDAO {
             pstmt.setString(2, passwordHash);
             rs = pstmt.executeQuery();
 
-            if (rs.next()) {
-                return extraireUtilisateur(rs);
-            }
+            Utilisateur utilisateur = rs.next() ? extraireUtilisateur(rs) : null;
+            M_AUTHENTIFIER.enregistrer(depart, utilisateur != null ? 1 : 0);
+            return utilisateur;
 
         } catch (Exception e) {
+            M_AUTHENTIFIER.echec();
             System.err.println("Erreur authentification: " + e.getMessage());
             e.printStackTrace();
         } finally {
@@ -74,6 +80,7 @@ public class UtilisateurDAO {
         if (email == null || email.isEmpty())
             return null;
 
+        long depart = System.nanoTime();
         Connection conn = null;
         PreparedStatement pstmt = null;
         ResultSet rs = null;
@@ -85,11 +92,12 @@ public class UtilisateurDAO {
             pstmt.setString(1, email.trim().toLowerCase());
             rs = pstmt.executeQuery();
 
-            if (rs.next()) {
-                return extraireUtilisateur(rs);
-            }
+            Utilisateur utilisateur = rs.next() ? extraireUtilisateur(rs) : null;
+            M_PAR_EMAIL.enregistrer(depart, utilisateur != null ? 1 : 0);
+            return utilisateur;
 
         } catch (Exception e) {
+            M_PAR_EMAIL.echec();
             System.err.println("Erreur findByEmail: " + e.getMessage());
             e.printStackTrace();
         } finally {
@@ -0,0 +1,100 @@
+package listeners;
+
+import jakarta.servlet.ServletContextEvent;
+import jakarta.servlet.ServletContextListener;
+import beans.PlanificationTimer;
+import dao.PlanificationDAO;
+import services.ElectionCluster;
+import services.ExpressionCron;
+import services.JournalAudit;
+import services.MoteurConflits;
+import services.OrdonnanceurTransitions;
+import services.PlanificateurTaches;
+import services.Statistiques;
+import utils.DatabaseConnection;
+import utils.InstrumentationJdbc;
+import utils.SchemaMigrator;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Écouteur du cycle de vie de l'application
+ * Au démarrage : applique les migrations de schéma, vérifie les plans
+ * d'exécution des requêtes critiques, prépare les structures en mémoire,
+ * lance le journal d'audit, l'ordonnanceur des transitions de statut et le
+ * planificateur des tâches périodiques (tâches de maintenance exclusives :
+ * un seul serveur du cluster les exécute ; les transitions de statut
+ * suivent le bail de l'ordonnanceur).
+ * À l'arrêt : arrête planificateur, élection (baux libérés) et ordonnanceur,
+ * écrit les dernières traces d'audit puis libère le pool de connexions.
+ *
+ * @author Système de Planification Académique
+ * @version 1.0
+ */
+public class ApplicationListener implements ServletContextListener {
+
+    @Override
+    public void contextInitialized(ServletContextEvent sce) {
+        try {
+            SchemaMigrator.migrer();
+            PlanificationDAO.verifierPlans();
+            OrdonnanceurTransitions.verifierPlans();
+        } catch (Exception e) {
+            System.err.println("✗ ERREUR migration du schéma : " + e.getMessage());
+            e.printStackTrace();
+        }
+
+        JournalAudit.getInstance().demarrer();
+        // En cas d'échec, le moteur sera chargé au premier contrôle de conflit
+        MoteurConflits.getInstance().assurerCharge();
+        // Idem : chargées à la première consultation
+        Statistiques.getInstance().assurerCharge();
+        // Se synchronise avec la base dans son propre thread (nouvel essai si indisponible)
+        OrdonnanceurTransitions.getInstance().demarrer();
+        demarrerTaches();
+        System.out.println("✓ Application démarrée");
+    }
+
+    @Override
+    public void contextDestroyed(ServletContextEvent sce) {
+        PlanificateurTaches.getInstance().arreter();
+        ElectionCluster.getInstance().arreter();
+        OrdonnanceurTransitions.getInstance().arreter();
+        // Après les autres services : leurs dernières traces sont écrites
+        JournalAudit.getInstance().arreter();
+        InstrumentationJdbc.arreter();
+        DatabaseConnection.shutdown();
+        System.out.println("Application arrêtée");
+    }
+
+    /**
+     * Enregistre les tâches périodiques puis démarre le planificateur
+     */
+    private void demarrerTaches() {
+        PlanificateurTaches planificateur = PlanificateurTaches.getInstance();
+        PlanificationTimer timer = new PlanificationTimer();
+
+        planificateur.enregistrerExclusive("rapport", ExpressionCron.analyser(PlanificationTimer.CRON_RAPPORT),
+                30, TimeUnit.SECONDS, timer::executerTachePlanifiee);
+        // Sous le bail de l'ordonnanceur : rattrape les statuts des séances absentes
+        // de sa file (écrites par un autre serveur ou directement en base)
+        planificateur.enregistrerExclusive(OrdonnanceurTransitions.BAIL,
+                PlanificateurTaches.periodique(5, TimeUnit.MINUTES), 30, TimeUnit.SECONDS,
+                () -> OrdonnanceurTransitions.getInstance().rattraper());
+        // Non exclusive : chaque serveur recharge sa propre file d'échéances
+        planificateur.enregistrer("rechargement-transitions",
+                PlanificateurTaches.periodique(6, TimeUnit.HOURS), 5, TimeUnit.MINUTES,
+                () -> OrdonnanceurTransitions.getInstance().recharger());
+        // Non exclusive : chaque serveur relit son moteur de conflits, qui ne voit
+        // pas les écritures des autres serveurs (retard maximal : période + gigue)
+        planificateur.enregistrer("rechargement-moteur",
+                PlanificateurTaches.periodique(10, TimeUnit.MINUTES), 1, TimeUnit.MINUTES,
+                () -> MoteurConflits.getInstance().charger());
+        // Non exclusive : chaque serveur tient ses propres compteurs
+        planificateur.enregistrer("reconciliation-statistiques",
+                PlanificateurTaches.periodique(10, TimeUnit.MINUTES), 1, TimeUnit.MINUTES,
+                () -> Statistiques.getInstance().reconcilier());
+        ElectionCluster.getInstance().demarrer();
+        planificateur.demarrer();
+    }
+}
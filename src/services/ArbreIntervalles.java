@@ -0,0 +1,211 @@
+package services;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Arbre d'intervalles [début, fin) pour une ressource (salle ou enseignant)
+ *
+ * Implémenté comme un treap ordonné sur (début, id) et augmenté, dans chaque
+ * nœud, de la fin maximale de son sous-arbre. La recherche de chevauchement
+ * élague les sous-arbres dont la fin maximale précède l'intervalle cherché :
+ * O(log n) en moyenne pour l'insertion, la suppression et la détection.
+ *
+ * Non thread-safe : la synchronisation est assurée par {@link MoteurConflits}.
+ *
+ * @author Système de Planification Académique
+ * @version 1.0
+ */
+class ArbreIntervalles {
+
+    /** Reçoit les intervalles énumérés par {@link ArbreIntervalles#parcourir} */
+    interface Visiteur {
+        void visiter(long debut, long fin);
+    }
+
+    private static final class Noeud {
+        final int id;
+        final long debut;
+        final long fin;
+        final int priorite;
+        long finMax;
+        Noeud gauche;
+        Noeud droite;
+
+        Noeud(int id, long debut, long fin) {
+            this.id = id;
+            this.debut = debut;
+            this.fin = fin;
+            this.finMax = fin;
+            this.priorite = ThreadLocalRandom.current().nextInt();
+        }
+    }
+
+    private Noeud racine;
+    private int taille;
+
+    /**
+     * Ajoute l'intervalle [debut, fin) d'une planification
+     */
+    void inserer(int id, long debut, long fin) {
+        racine = inserer(racine, new Noeud(id, debut, fin));
+        taille++;
+    }
+
+    /**
+     * Retire l'intervalle d'une planification (début nécessaire pour la localiser)
+     *
+     * @return true si l'intervalle était présent
+     */
+    boolean supprimer(int id, long debut) {
+        int avant = taille;
+        racine = supprimer(racine, id, debut);
+        return taille < avant;
+    }
+
+    /**
+     * Indique si un intervalle de l'arbre chevauche [debut, fin)
+     *
+     * @param exclureId Planification ignorée (celle en cours de modification)
+     */
+    boolean chevauche(long debut, long fin, int exclureId) {
+        return chevauche(racine, debut, fin, exclureId);
+    }
+
+    /**
+     * Énumère les intervalles qui chevauchent [debut, fin), par début croissant
+     */
+    void parcourir(long debut, long fin, Visiteur visiteur) {
+        parcourir(racine, debut, fin, visiteur);
+    }
+
+    int taille() {
+        return taille;
+    }
+
+    boolean estVide() {
+        return taille == 0;
+    }
+
+    // ==================== Implémentation du treap ====================
+
+    private static int comparer(long debutA, int idA, long debutB, int idB) {
+        int c = Long.compare(debutA, debutB);
+        return c != 0 ? c : Integer.compare(idA, idB);
+    }
+
+    private static void mettreAJour(Noeud n) {
+        long max = n.fin;
+        if (n.gauche != null && n.gauche.finMax > max) {
+            max = n.gauche.finMax;
+        }
+        if (n.droite != null && n.droite.finMax > max) {
+            max = n.droite.finMax;
+        }
+        n.finMax = max;
+    }
+
+    private static Noeud rotationDroite(Noeud n) {
+        Noeud g = n.gauche;
+        n.gauche = g.droite;
+        g.droite = n;
+        mettreAJour(n);
+        mettreAJour(g);
+        return g;
+    }
+
+    private static Noeud rotationGauche(Noeud n) {
+        Noeud d = n.droite;
+        n.droite = d.gauche;
+        d.gauche = n;
+        mettreAJour(n);
+        mettreAJour(d);
+        return d;
+    }
+
+    private static Noeud inserer(Noeud n, Noeud nouveau) {
+        if (n == null) {
+            return nouveau;
+        }
+        if (comparer(nouveau.debut, nouveau.id, n.debut, n.id) < 0) {
+            n.gauche = inserer(n.gauche, nouveau);
+            if (n.gauche.priorite > n.priorite) {
+                return rotationDroite(n);
+            }
+        } else {
+            n.droite = inserer(n.droite, nouveau);
+            if (n.droite.priorite > n.priorite) {
+                return rotationGauche(n);
+            }
+        }
+        mettreAJour(n);
+        return n;
+    }
+
+    private Noeud supprimer(Noeud n, int id, long debut) {
+        if (n == null) {
+            return null;
+        }
+        int c = comparer(debut, id, n.debut, n.id);
+        if (c < 0) {
+            n.gauche = supprimer(n.gauche, id, debut);
+        } else if (c > 0) {
+            n.droite = supprimer(n.droite, id, debut);
+        } else {
+            taille--;
+            return fusionner(n.gauche, n.droite);
+        }
+        mettreAJour(n);
+        return n;
+    }
+
+    private static Noeud fusionner(Noeud a, Noeud b) {
+        if (a == null) {
+            return b;
+        }
+        if (b == null) {
+            return a;
+        }
+        if (a.priorite > b.priorite) {
+            a.droite = fusionner(a.droite, b);
+            mettreAJour(a);
+            return a;
+        }
+        b.gauche = fusionner(a, b.gauche);
+        mettreAJour(b);
+        return b;
+    }
+
+    private static void parcourir(Noeud n, long debut, long fin, Visiteur visiteur) {
+        while (n != null && n.finMax > debut) {
+            parcourir(n.gauche, debut, fin, visiteur);
+            if (n.debut >= fin) {
+                return;
+            }
+            if (n.fin > debut) {
+                visiteur.visiter(n.debut, n.fin);
+            }
+            n = n.droite;
+        }
+    }
+
+    private static boolean chevauche(Noeud n, long debut, long fin, int exclureId) {
+        while (n != null) {
+            // Aucun intervalle de ce sous-arbre ne se termine après le début cherché
+            if (n.finMax <= debut) {
+                return false;
+            }
+            if (n.gauche != null && n.gauche.finMax > debut && chevauche(n.gauche, debut, fin, exclureId)) {
+                return true;
+            }
+            if (n.debut >= fin) {
+                // Le sous-arbre droit commence encore plus tard
+                return false;
+            }
+            if (n.fin > debut && n.id != exclureId) {
+                return true;
+            }
+            n = n.droite;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,267 @@
+package services;
+
+import beans.Planification;
+import dao.PlanificationDAO;
+
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache des planifications de la vue semaine du calendrier
+ *
+ * Les résultats sont indexés par le lundi de la semaine (ISO) et évincés
+ * par ancienneté d'accès (LRU) au-delà de la capacité, ou après leur durée
+ * de vie. Les écritures (PlanificationDAO, SeriePlanificationDAO,
+ * PlanificationTimer) invalident uniquement les semaines qu'elles touchent.
+ *
+ * Plusieurs requêtes simultanées sur une même semaine absente attendent le
+ * résultat d'une seule lecture en base. Une lecture en cours au moment d'une
+ * invalidation n'est pas mise en cache : la requête suivante relit la base.
+ *
+ * Configuration (propriétés système) :
+ * planification.cache.semaines.max (64), planification.cache.semaines.ttlSec (300)
+ *
+ * @author Système de Planification Académique
+ * @version 1.0
+ */
+public class CacheSemaines {
+
+    private static final int CAPACITE = Integer.getInteger("planification.cache.semaines.max", 64);
+    private static final long DUREE_VIE_MS = Long.getLong("planification.cache.semaines.ttlSec", 300L) * 1000L;
+
+    private static final CacheSemaines INSTANCE = new CacheSemaines();
+
+    /** Résultat mis en cache pour une semaine */
+    private static final class Entree {
+        final List<Planification> planifications;
+        final long expiration;
+
+        Entree(List<Planification> planifications, long expiration) {
+            this.planifications = planifications;
+            this.expiration = expiration;
+        }
+    }
+
+    /** Ordre d'accès : le premier élément est le moins récemment utilisé */
+    private final LinkedHashMap<LocalDate, Entree> entrees = new LinkedHashMap<LocalDate, Entree>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<LocalDate, Entree> eldest) {
+            if (size() > CAPACITE) {
+                evictions.increment();
+                return true;
+            }
+            return false;
+        }
+    };
+
+    /** Lectures en cours, partagées par les requêtes concurrentes */
+    private final ConcurrentHashMap<LocalDate, CompletableFuture<List<Planification>>> enCours = new ConcurrentHashMap<>();
+
+    private final PlanificationDAO planificationDAO = new PlanificationDAO();
+
+    private final LongAdder succes = new LongAdder();
+    private final LongAdder echecs = new LongAdder();
+    private final LongAdder fusionnees = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    private CacheSemaines() {
+    }
+
+    public static CacheSemaines getInstance() {
+        return INSTANCE;
+    }
+
+    // ==================== Lecture ====================
+
+    /**
+     * Planifications du lundi 00:00 au vendredi 23:59:59 de la semaine
+     *
+     * @param lundi Lundi de la semaine (voir {@link #lundi(LocalDate)})
+     * @return Liste non modifiable, partagée entre les requêtes
+     * @throws SQLException si la lecture en base échoue (rien n'est mis en cache)
+     */
+    public List<Planification> getSemaine(LocalDate lundi) throws SQLException {
+        long maintenant = System.currentTimeMillis();
+        synchronized (entrees) {
+            Entree entree = entrees.get(lundi);
+            if (entree != null) {
+                if (entree.expiration > maintenant) {
+                    succes.increment();
+                    return entree.planifications;
+                }
+                entrees.remove(lundi);
+            }
+        }
+        echecs.increment();
+
+        CompletableFuture<List<Planification>> nouvelle = new CompletableFuture<>();
+        CompletableFuture<List<Planification>> existante = enCours.putIfAbsent(lundi, nouvelle);
+        if (existante != null) {
+            fusionnees.increment();
+            return attendre(existante);
+        }
+
+        try {
+            List<Planification> planifications = Collections.unmodifiableList(lire(lundi));
+            // Mise en cache seulement si aucune invalidation n'a retiré cette lecture entre-temps
+            synchronized (entrees) {
+                if (enCours.remove(lundi, nouvelle)) {
+                    entrees.put(lundi, new Entree(planifications, System.currentTimeMillis() + DUREE_VIE_MS));
+                }
+            }
+            nouvelle.complete(planifications);
+            return planifications;
+        } catch (SQLException | RuntimeException e) {
+            enCours.remove(lundi, nouvelle);
+            nouvelle.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private List<Planification> lire(LocalDate lundi) throws SQLException {
+        Timestamp debut = Timestamp.valueOf(lundi.atStartOfDay());
+        Timestamp fin = Timestamp.valueOf(lundi.plusDays(4).atTime(LocalTime.of(23, 59, 59)));
+        return planificationDAO.lirePlanificationsParSemaine(debut, fin);
+    }
+
+    private static List<Planification> attendre(CompletableFuture<List<Planification>> lecture)
+            throws SQLException {
+        try {
+            return lecture.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Lecture de la semaine interrompue", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof SQLException) {
+                throw (SQLException) e.getCause();
+            }
+            throw new SQLException("Lecture de la semaine en échec", e.getCause());
+        }
+    }
+
+    // ==================== Invalidation ====================
+
+    /**
+     * Invalide la semaine contenant la date/heure donnée
+     */
+    public void invalider(Timestamp dateHeure) {
+        if (dateHeure != null) {
+            invaliderSemaine(lundi(dateHeure.toLocalDateTime().toLocalDate()));
+        }
+    }
+
+    /**
+     * Invalide toutes les semaines intersectant [debut, fin] (dates incluses)
+     */
+    public void invaliderPeriode(LocalDate debut, LocalDate fin) {
+        LocalDate premier = lundi(debut);
+        List<LocalDate> cibles = new ArrayList<>();
+        synchronized (entrees) {
+            for (LocalDate semaine : entrees.keySet()) {
+                if (!semaine.isBefore(premier) && !semaine.isAfter(fin)) {
+                    cibles.add(semaine);
+                }
+            }
+        }
+        for (LocalDate semaine : enCours.keySet()) {
+            if (!semaine.isBefore(premier) && !semaine.isAfter(fin)) {
+                cibles.add(semaine);
+            }
+        }
+        for (LocalDate semaine : cibles) {
+            invaliderSemaine(semaine);
+        }
+    }
+
+    private void invaliderSemaine(LocalDate lundi) {
+        enCours.remove(lundi);
+        synchronized (entrees) {
+            entrees.remove(lundi);
+        }
+        invalidations.increment();
+    }
+
+    /**
+     * Vide complètement le cache
+     */
+    public void vider() {
+        enCours.clear();
+        synchronized (entrees) {
+            entrees.clear();
+        }
+        invalidations.increment();
+    }
+
+    /**
+     * Lundi de la semaine ISO contenant la date
+     */
+    public static LocalDate lundi(LocalDate date) {
+        return date.with(DayOfWeek.MONDAY);
+    }
+
+    // ==================== Statistiques ====================
+
+    public long getSucces() {
+        return succes.sum();
+    }
+
+    public long getEchecs() {
+        return echecs.sum();
+    }
+
+    /** Requêtes servies par la lecture en cours d'une autre requête */
+    public long getFusionnees() {
+        return fusionnees.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    public long getInvalidations() {
+        return invalidations.sum();
+    }
+
+    public int getTaille() {
+        synchronized (entrees) {
+            purgerExpirees();
+            return entrees.size();
+        }
+    }
+
+    private void purgerExpirees() {
+        long maintenant = System.currentTimeMillis();
+        Iterator<Entree> it = entrees.values().iterator();
+        while (it.hasNext()) {
+            if (it.next().expiration <= maintenant) {
+                it.remove();
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        long s = getSucces();
+        long e = getEchecs();
+        return String.format("Cache semaines : %d entrée(s), %d succès, %d échec(s) (%.1f %%), "
+                + "%d fusionnée(s), %d éviction(s), %d invalidation(s)",
+                getTaille(), s, e, s + e == 0 ? 0.0 : 100.0 * s / (s + e), getFusionnees(), getEvictions(),
+                getInvalidations());
+    }
+}
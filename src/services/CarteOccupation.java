@@ -0,0 +1,218 @@
+package services;
+
+import beans.SeriePlanification;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Occupation des ressources par quart d'heure, une table de bits par
+ * ressource et par semaine
+ *
+ * Le bit p d'une semaine couvre le quart d'heure p compté depuis le lundi
+ * 0 h (heure locale) : 7 × 96 = 672 bits, soit 11 long. Une séance marque
+ * tous les quarts d'heure qu'elle touche, même partiellement : un quart
+ * d'heure libre dans la table l'est donc toujours réellement.
+ *
+ * Les tables sont construites à la demande par {@link MoteurConflits} et
+ * gardées dans un cache LRU. Une séance ajoutée est reportée dans les tables
+ * présentes ; une séance retirée ou déplacée invalide les semaines qu'elle
+ * touchait (reconstruites à la lecture suivante).
+ *
+ * Les méthodes d'instance sont synchronisées (lectures concurrentes sous le
+ * verrou de lecture du moteur) ; les méthodes statiques opèrent sur des
+ * tables isolées.
+ *
+ * Configuration (propriété système) : planification.occupation.max (20000
+ * semaines-ressources, environ 3 Mo)
+ *
+ * @author Système de Planification Académique
+ * @version 1.0
+ */
+class CarteOccupation {
+
+    static final int MINUTES_QUART = 15;
+    static final int QUARTS_PAR_JOUR = 24 * 60 / MINUTES_QUART;
+    static final int QUARTS_PAR_SEMAINE = 7 * QUARTS_PAR_JOUR;
+    static final int MOTS = (QUARTS_PAR_SEMAINE + 63) / 64;
+
+    private static final int CAPACITE = Integer.getInteger("planification.occupation.max", 20000);
+
+    /** Clé : identifiant de ressource (32 bits hauts) et indice de semaine (32 bits bas) */
+    private final LinkedHashMap<Long, long[]> semaines = new LinkedHashMap<Long, long[]>(256, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, long[]> eldest) {
+            return size() > CAPACITE;
+        }
+    };
+
+    // ==================== Cache ====================
+
+    synchronized long[] get(int ressourceId, long semaine) {
+        return semaines.get(cle(ressourceId, semaine));
+    }
+
+    synchronized void mettre(int ressourceId, long semaine, long[] bits) {
+        semaines.put(cle(ressourceId, semaine), bits);
+    }
+
+    /**
+     * Reporte [debut, fin) dans les semaines présentes de la ressource
+     */
+    synchronized void ajouter(int ressourceId, long debut, long fin) {
+        for (long s = semaine(debut); s <= semaine(fin - 1); s++) {
+            long[] bits = semaines.get(cle(ressourceId, s));
+            if (bits != null) {
+                marquer(bits, s, debut, fin);
+            }
+        }
+    }
+
+    /**
+     * Oublie les semaines de la ressource touchées par [debut, fin)
+     */
+    synchronized void invalider(int ressourceId, long debut, long fin) {
+        for (long s = semaine(debut); s <= semaine(fin - 1); s++) {
+            semaines.remove(cle(ressourceId, s));
+        }
+    }
+
+    /**
+     * Oublie toutes les semaines d'une ressource (série créée ou supprimée)
+     */
+    synchronized void invaliderRessource(int ressourceId) {
+        for (Iterator<Long> it = semaines.keySet().iterator(); it.hasNext();) {
+            if ((int) (it.next() >>> 32) == ressourceId) {
+                it.remove();
+            }
+        }
+    }
+
+    synchronized void vider() {
+        semaines.clear();
+    }
+
+    synchronized int taille() {
+        return semaines.size();
+    }
+
+    private static long cle(int ressourceId, long semaine) {
+        return ((long) ressourceId << 32) | (semaine & 0xFFFFFFFFL);
+    }
+
+    // ==================== Temps ====================
+
+    /**
+     * Indice de semaine (voir {@link SeriePlanification#indiceSemaine}) d'un instant
+     */
+    static long semaine(long instant) {
+        return SeriePlanification.indiceSemaine(local(instant).toLocalDate());
+    }
+
+    static LocalDate lundi(long semaine) {
+        return LocalDate.ofEpochDay(semaine * 7 + 4);
+    }
+
+    /**
+     * Quart d'heure d'un instant dans la semaine (peut sortir de [0, 672] hors de la semaine)
+     */
+    static long quart(long semaine, long instant, boolean arrondiSuperieur) {
+        long minutes = ChronoUnit.MINUTES.between(lundi(semaine).atStartOfDay(), local(instant));
+        long q = Math.floorDiv(minutes, MINUTES_QUART);
+        if (arrondiSuperieur && (minutes % MINUTES_QUART != 0 || instant % 60_000L != 0)) {
+            q++;
+        }
+        return q;
+    }
+
+    static LocalDateTime debutQuart(long semaine, int quart) {
+        return lundi(semaine).atStartOfDay().plusMinutes((long) quart * MINUTES_QUART);
+    }
+
+    private static LocalDateTime local(long instant) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(instant), ZoneId.systemDefault());
+    }
+
+    // ==================== Opérations sur les tables ====================
+
+    /**
+     * Marque les quarts d'heure de la semaine touchés par [debut, fin)
+     */
+    static void marquer(long[] bits, long semaine, long debut, long fin) {
+        int de = (int) Math.max(0, quart(semaine, debut, false));
+        int a = (int) Math.min(QUARTS_PAR_SEMAINE, quart(semaine, fin, true));
+        marquerPlage(bits, de, a);
+    }
+
+    /**
+     * Met à 1 les bits [de, a)
+     */
+    static void marquerPlage(long[] bits, int de, int a) {
+        for (int p = de; p < a;) {
+            int mot = p >>> 6;
+            int fin = Math.min(a, (mot + 1) << 6);
+            int n = fin - p;
+            long masque = n == 64 ? -1L : ((1L << n) - 1) << (p & 63);
+            bits[mot] |= masque;
+            p = fin;
+        }
+    }
+
+    /**
+     * Débuts possibles d'un créneau de n quarts d'heure : le bit p du résultat
+     * vaut 1 si les bits p à p + n - 1 sont tous libres dans la semaine
+     */
+    static long[] debutsLibres(long[] occupe, int n) {
+        long[] libres = new long[MOTS];
+        for (int i = 0; i < MOTS; i++) {
+            libres[i] = ~occupe[i];
+        }
+        libres[MOTS - 1] &= dernierMot();
+
+        // Doublement : après chaque étape, bit p = longueur libre >= longueur depuis p
+        long[] decale = new long[MOTS];
+        int longueur = 1;
+        while (longueur < n) {
+            int pas = Math.min(longueur, n - longueur);
+            decalerVersBas(libres, pas, decale);
+            for (int i = 0; i < MOTS; i++) {
+                libres[i] &= decale[i];
+            }
+            longueur += pas;
+        }
+        return libres;
+    }
+
+    /**
+     * dst = src décalé de n bits vers les indices bas (les bits entrants valent 0)
+     */
+    static void decalerVersBas(long[] src, int n, long[] dst) {
+        int mots = n >>> 6;
+        int bitsRestants = n & 63;
+        for (int i = 0; i < MOTS; i++) {
+            int j = i + mots;
+            long bas = j < MOTS ? src[j] : 0L;
+            long haut = j + 1 < MOTS ? src[j + 1] : 0L;
+            dst[i] = bitsRestants == 0 ? bas : (bas >>> bitsRestants) | (haut << (64 - bitsRestants));
+        }
+    }
+
+    /** Bits valides du dernier mot (672 = 10 × 64 + 32) */
+    private static long dernierMot() {
+        int reste = QUARTS_PAR_SEMAINE & 63;
+        return reste == 0 ? -1L : (1L << reste) - 1;
+    }
+
+    static long[] copie(long[] bits) {
+        return Arrays.copyOf(bits, MOTS);
+    }
+}
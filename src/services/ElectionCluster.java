@@ -0,0 +1,254 @@
+package services;
+
+import utils.DatabaseConnection;
+
+import java.lang.management.ManagementFactory;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Élection d'un seul serveur par tâche planifiée exclusive
+ *
+ * Chaque tâche exclusive a une ligne dans job_lease : propriétaire et date
+ * d'expiration du bail, calculée par l'horloge de la base (les horloges des
+ * serveurs n'interviennent pas). Un battement de cœur renouvelle toutes les
+ * DUREE_BAIL_MS / 3 les baux détenus et tente de prendre ceux qui ont
+ * expiré : si le titulaire meurt, un autre serveur reprend la tâche au plus
+ * DUREE_BAIL_MS plus tard. À l'arrêt propre, les baux sont libérés tout de
+ * suite.
+ *
+ * Localement, un bail n'est considéré comme détenu que jusqu'à
+ * (début du renouvellement + DUREE_BAIL_MS - MARGE_MS) : le serveur cesse de
+ * se croire titulaire avant que la base ne laisse un autre le prendre.
+ *
+ * Configuration :
+ * -Dplanification.cluster.noeud=nom (défaut : pid@hôte de la JVM)
+ * -Dplanification.cluster.bailMs=15000
+ *
+ * @author Système de Planification Académique
+ * @version 1.0
+ */
+public class ElectionCluster {
+
+    private static final long DUREE_BAIL_MS = Long.getLong("planification.cluster.bailMs", 15_000L);
+    private static final long MARGE_MS = DUREE_BAIL_MS / 5;
+    private static final long BATTEMENT_MS = DUREE_BAIL_MS / 3;
+
+    /**
+     * Renouvellement, ou reprise d'un bail expiré. date_acquisition est
+     * affectée en premier : MySQL évalue les SET de gauche à droite.
+     * Le pilote renvoie le nombre de lignes trouvées : 1 = bail détenu.
+     */
+    private static final String SQL_PRENDRE = "UPDATE job_lease SET " +
+            "date_acquisition = CASE WHEN proprietaire = ? THEN date_acquisition ELSE NOW(3) END, " +
+            "proprietaire = ?, " +
+            "expiration = " + DatabaseConnection.getDialecte().ajouterMicrosecondes("NOW(3)", "?") + " " +
+            "WHERE nom = ? AND (proprietaire = ? OR expiration < NOW(3))";
+
+    /** Première prise d'une tâche jamais exécutée : la clé primaire départage les serveurs */
+    private static final String SQL_CREER = "INSERT IGNORE INTO job_lease " +
+            "(nom, proprietaire, expiration, date_acquisition) " +
+            "VALUES (?, ?, " + DatabaseConnection.getDialecte().ajouterMicrosecondes("NOW(3)", "?") + ", NOW(3))";
+
+    private static final String SQL_LIBERER = "DELETE FROM job_lease WHERE nom = ? AND proprietaire = ?";
+
+    private static final ElectionCluster INSTANCE = new ElectionCluster();
+
+    private final String noeud = System.getProperty("planification.cluster.noeud",
+            ManagementFactory.getRuntimeMXBean().getName());
+
+    /** Tâches soumises à l'élection */
+    private final Set<String> surveillees = ConcurrentHashMap.newKeySet();
+    /** Fin de validité locale (ms epoch) des baux détenus */
+    private final ConcurrentHashMap<String, Long> validites = new ConcurrentHashMap<>();
+
+    private volatile ScheduledExecutorService executeur;
+
+    private final LongAdder acquisitions = new LongAdder();
+    private final LongAdder pertes = new LongAdder();
+    private final LongAdder erreurs = new LongAdder();
+
+    private ElectionCluster() {
+    }
+
+    public static ElectionCluster getInstance() {
+        return INSTANCE;
+    }
+
+    // ==================== Cycle de vie ====================
+
+    /**
+     * Lance le battement de cœur (premier passage immédiat)
+     */
+    public synchronized void demarrer() {
+        if (executeur != null) {
+            return;
+        }
+        ScheduledThreadPoolExecutor ex = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread t = new Thread(r, "election-cluster");
+            t.setDaemon(true);
+            return t;
+        });
+        executeur = ex;
+        ex.scheduleWithFixedDelay(this::battre, 0, BATTEMENT_MS, TimeUnit.MILLISECONDS);
+        System.out.println("✓ Élection cluster démarrée (nœud " + noeud + ", bail " + DUREE_BAIL_MS / 1000 + " s)");
+    }
+
+    /**
+     * Arrête le battement de cœur et libère les baux détenus, pour qu'un
+     * autre serveur reprenne les tâches sans attendre leur expiration
+     */
+    public synchronized void arreter() {
+        ScheduledExecutorService ex = executeur;
+        executeur = null;
+        if (ex == null) {
+            return;
+        }
+        ex.shutdown();
+        try {
+            ex.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        List<String> detenus = new ArrayList<>(validites.keySet());
+        validites.clear();
+        if (detenus.isEmpty()) {
+            return;
+        }
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        try {
+            conn = DatabaseConnection.getConnection();
+            pstmt = conn.prepareStatement(SQL_LIBERER);
+            for (String nom : detenus) {
+                pstmt.setString(1, nom);
+                pstmt.setString(2, noeud);
+                pstmt.executeUpdate();
+            }
+            System.out.println("Baux libérés : " + detenus);
+        } catch (SQLException e) {
+            System.err.println("Libération des baux impossible (expiration dans "
+                    + DUREE_BAIL_MS / 1000 + " s) : " + e.getMessage());
+        } finally {
+            DatabaseConnection.closeResources(conn, pstmt, null);
+        }
+    }
+
+    // ==================== Élection ====================
+
+    /**
+     * Soumet une tâche à l'élection ; son bail est disputé dès le prochain battement
+     */
+    public void surveiller(String nom) {
+        surveillees.add(nom);
+    }
+
+    /**
+     * Vrai si ce serveur détient le bail de la tâche
+     */
+    public boolean estTitulaire(String nom) {
+        Long validite = validites.get(nom);
+        return validite != null && validite > System.currentTimeMillis();
+    }
+
+    /**
+     * Renouvelle ou tente de prendre le bail de chaque tâche surveillée,
+     * sur une seule connexion
+     */
+    private void battre() {
+        if (surveillees.isEmpty()) {
+            return;
+        }
+        Connection conn = null;
+        try {
+            conn = DatabaseConnection.getConnection();
+            for (String nom : surveillees) {
+                long debut = System.currentTimeMillis();
+                boolean detenu = prendre(conn, nom);
+                boolean avant = validites.containsKey(nom);
+                if (detenu) {
+                    validites.put(nom, debut + DUREE_BAIL_MS - MARGE_MS);
+                    if (!avant) {
+                        acquisitions.increment();
+                        System.out.println("✓ Bail " + nom + " acquis par " + noeud);
+                    }
+                } else if (avant) {
+                    validites.remove(nom);
+                    pertes.increment();
+                    System.err.println("Bail " + nom + " perdu par " + noeud);
+                }
+            }
+        } catch (SQLException e) {
+            // Les baux détenus expirent d'eux-mêmes localement
+            erreurs.increment();
+            System.err.println("Erreur battement de cœur du cluster : " + e.getMessage());
+        } catch (RuntimeException e) {
+            erreurs.increment();
+            System.err.println("Erreur battement de cœur du cluster : " + e.getMessage());
+            e.printStackTrace();
+        } finally {
+            DatabaseConnection.closeResources(conn, null, null);
+        }
+    }
+
+    private boolean prendre(Connection conn, String nom) throws SQLException {
+        long dureeMicros = DUREE_BAIL_MS * 1000L;
+        try (PreparedStatement pstmt = conn.prepareStatement(SQL_PRENDRE)) {
+            pstmt.setString(1, noeud);
+            pstmt.setString(2, noeud);
+            pstmt.setLong(3, dureeMicros);
+            pstmt.setString(4, nom);
+            pstmt.setString(5, noeud);
+            if (pstmt.executeUpdate() > 0) {
+                return true;
+            }
+        }
+        try (PreparedStatement pstmt = conn.prepareStatement(SQL_CREER)) {
+            pstmt.setString(1, nom);
+            pstmt.setString(2, noeud);
+            pstmt.setLong(3, dureeMicros);
+            return pstmt.executeUpdate() > 0;
+        }
+    }
+
+    // ==================== Statistiques ====================
+
+    public String getNoeud() {
+        return noeud;
+    }
+
+    public long getAcquisitions() {
+        return acquisitions.sum();
+    }
+
+    public long getPertes() {
+        return pertes.sum();
+    }
+
+    public long getErreurs() {
+        return erreurs.sum();
+    }
+
+    @Override
+    public String toString() {
+        List<String> detenus = new ArrayList<>();
+        for (String nom : surveillees) {
+            if (estTitulaire(nom)) {
+                detenus.add(nom);
+            }
+        }
+        return "Cluster (nœud " + noeud + ") : titulaire de " + detenus + " sur " + surveillees.size()
+                + " tâche(s) exclusive(s), " + getAcquisitions() + " acquisition(s), " + getPertes()
+                + " perte(s), " + getErreurs() + " erreur(s)";
+    }
+}
@@ -0,0 +1,174 @@
+package services;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Expression cron à cinq champs : minute heure jour-du-mois mois jour-de-semaine
+ *
+ * Chaque champ accepte *, une valeur, un intervalle (8-18), une liste
+ * (0,15,30) et un pas (*&#47;5, 8-18/2). Jour de semaine : 0 ou 7 = dimanche.
+ * Comme dans cron, si le jour du mois et le jour de semaine sont tous deux
+ * restreints, une date convient dès qu'elle satisfait l'un des deux.
+ *
+ * Chaque champ est compilé en masque de bits ; la recherche de la prochaine
+ * échéance saute directement au mois, jour, heure puis minute suivants.
+ *
+ * @author Système de Planification Académique
+ * @version 1.0
+ */
+public final class ExpressionCron implements PlanificateurTaches.Declencheur {
+
+    /** Au-delà, l'expression est considérée comme sans échéance (ex. 31 février) */
+    private static final int ANNEES_MAX = 5;
+
+    private final String expression;
+    private final long minutes;
+    private final long heures;
+    private final long joursMois;
+    private final long mois;
+    private final long joursSemaine;
+    private final boolean jourMoisLibre;
+    private final boolean jourSemaineLibre;
+    private final ZoneId zone;
+
+    private ExpressionCron(String expression, ZoneId zone) {
+        String[] champs = expression.trim().split("\\s+");
+        if (champs.length != 5) {
+            throw new IllegalArgumentException("Expression cron à 5 champs attendue : " + expression);
+        }
+        this.expression = expression.trim();
+        this.zone = zone;
+        minutes = champ(champs[0], 0, 59);
+        heures = champ(champs[1], 0, 23);
+        joursMois = champ(champs[2], 1, 31);
+        mois = champ(champs[3], 1, 12);
+        long semaine = champ(champs[4], 0, 7);
+        // 7 = dimanche = 0
+        if ((semaine & (1L << 7)) != 0) {
+            semaine |= 1L;
+        }
+        joursSemaine = semaine;
+        jourMoisLibre = champs[2].startsWith("*");
+        jourSemaineLibre = champs[4].startsWith("*");
+    }
+
+    /**
+     * Analyse une expression dans le fuseau du serveur
+     *
+     * @throws IllegalArgumentException si l'expression est mal formée
+     */
+    public static ExpressionCron analyser(String expression) {
+        return new ExpressionCron(expression, ZoneId.systemDefault());
+    }
+
+    @Override
+    public long prochaineExecution(long apres) {
+        LocalDateTime t = LocalDateTime.ofInstant(java.time.Instant.ofEpochMilli(apres), zone)
+                .truncatedTo(ChronoUnit.MINUTES).plusMinutes(1);
+        LocalDateTime limite = t.plusYears(ANNEES_MAX);
+
+        while (t.isBefore(limite)) {
+            if (!contient(mois, t.getMonthValue())) {
+                t = t.withDayOfMonth(1).toLocalDate().atStartOfDay().plusMonths(1);
+                continue;
+            }
+            if (!jourConvient(t)) {
+                t = t.toLocalDate().atStartOfDay().plusDays(1);
+                continue;
+            }
+            if (!contient(heures, t.getHour())) {
+                t = t.truncatedTo(ChronoUnit.HOURS).plusHours(1);
+                continue;
+            }
+            if (!contient(minutes, t.getMinute())) {
+                t = t.plusMinutes(1);
+                continue;
+            }
+            // Heure répétée au passage à l'heure d'hiver : atZone retient le premier
+            // décalage ; si apres est déjà dans la seconde occurrence, prendre celle-ci
+            ZonedDateTime candidat = t.atZone(zone);
+            if (candidat.toInstant().toEpochMilli() <= apres) {
+                candidat = candidat.withLaterOffsetAtOverlap();
+            }
+            long instant = candidat.toInstant().toEpochMilli();
+            if (instant > apres) {
+                return instant;
+            }
+            t = t.plusMinutes(1);
+        }
+        throw new IllegalStateException("Aucune échéance dans les " + ANNEES_MAX + " ans : " + expression);
+    }
+
+    private boolean jourConvient(LocalDateTime t) {
+        boolean dansMois = contient(joursMois, t.getDayOfMonth());
+        DayOfWeek jour = t.getDayOfWeek();
+        boolean dansSemaine = contient(joursSemaine, jour.getValue() % 7);
+        if (jourMoisLibre || jourSemaineLibre) {
+            return dansMois && dansSemaine;
+        }
+        return dansMois || dansSemaine;
+    }
+
+    private static boolean contient(long masque, int valeur) {
+        return (masque & (1L << valeur)) != 0;
+    }
+
+    /**
+     * Compile un champ en masque de bits (bit n = valeur n autorisée)
+     */
+    private static long champ(String texte, int min, int max) {
+        long masque = 0;
+        for (String partie : texte.split(",")) {
+            int pas = 1;
+            int barre = partie.indexOf('/');
+            if (barre >= 0) {
+                pas = entier(partie.substring(barre + 1), 1, max);
+                partie = partie.substring(0, barre);
+            }
+            int debut;
+            int fin;
+            if (partie.equals("*")) {
+                debut = min;
+                fin = max;
+            } else {
+                int tiret = partie.indexOf('-');
+                if (tiret >= 0) {
+                    debut = entier(partie.substring(0, tiret), min, max);
+                    fin = entier(partie.substring(tiret + 1), min, max);
+                } else {
+                    debut = entier(partie, min, max);
+                    fin = barre >= 0 ? max : debut;
+                }
+            }
+            if (debut > fin) {
+                throw new IllegalArgumentException("Intervalle cron invalide : " + partie);
+            }
+            for (int v = debut; v <= fin; v += pas) {
+                masque |= 1L << v;
+            }
+        }
+        return masque;
+    }
+
+    private static int entier(String texte, int min, int max) {
+        int v;
+        try {
+            v = Integer.parseInt(texte);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Valeur cron invalide : " + texte);
+        }
+        if (v < min || v > max) {
+            throw new IllegalArgumentException("Valeur cron hors de [" + min + ", " + max + "] : " + texte);
+        }
+        return v;
+    }
+
+    @Override
+    public String toString() {
+        return "cron(" + expression + ")";
+    }
+}
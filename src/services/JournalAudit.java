@@ -0,0 +1,357 @@
+package services;
+
+import utils.DatabaseConnection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Écriture asynchrone et groupée dans la table logs
+ *
+ * Les appelants déposent leurs entrées dans un anneau borné sans verrou
+ * et repartent aussitôt, sans emprunter de connexion. Un thread dédié les
+ * écrit par INSERT multi-lignes : dès que TAILLE_LOT entrées attendent, ou
+ * au plus tard toutes les INTERVALLE_MS. L'heure de chaque entrée est
+ * celle de l'appel, pas celle de l'écriture.
+ *
+ * Anneau plein, selon -Dplanification.audit.debordement :
+ * - BLOQUER (défaut) : l'appelant attend une place, au plus ATTENTE_MAX_MS ;
+ * - REJETER : l'entrée est abandonnée ;
+ * - ECHANTILLONNER : au-delà de la moitié de l'anneau, une entrée sur
+ *   TAUX_ECHANTILLON est conservée ; anneau plein, l'entrée est abandonnée.
+ * Les entrées abandonnées sont comptées.
+ *
+ * L'arrêt (ApplicationListener) écrit tout ce qui reste avant de rendre la main.
+ *
+ * @author Système de Planification Académique
+ * @version 1.0
+ */
+public class JournalAudit {
+
+    /** Comportement quand l'anneau est plein */
+    public enum Debordement {
+        BLOQUER, REJETER, ECHANTILLONNER
+    }
+
+    private static final int CAPACITE = Integer.getInteger("planification.audit.capacite", 8192);
+    private static final int TAILLE_LOT = Integer.getInteger("planification.audit.lot", 256);
+    private static final long INTERVALLE_MS = Long.getLong("planification.audit.intervalleMs", 200L);
+    private static final long ATTENTE_MAX_MS = Long.getLong("planification.audit.attenteMaxMs", 1000L);
+    private static final int TAUX_ECHANTILLON = Integer.getInteger("planification.audit.echantillon", 10);
+    private static final Debordement DEBORDEMENT = Debordement
+            .valueOf(System.getProperty("planification.audit.debordement", "BLOQUER"));
+
+    /** Abandon d'un lot après autant d'échecs d'écriture consécutifs */
+    private static final int ESSAIS_MAX = 3;
+    /** Délai maximal d'écriture à l'arrêt */
+    private static final long DELAI_ARRET_MS = 10_000L;
+
+    private static final JournalAudit INSTANCE = new JournalAudit();
+
+    /** Entrée en attente d'écriture */
+    private static final class Entree {
+        final String action;
+        final String details;
+        final long instant;
+
+        Entree(String action, String details, long instant) {
+            this.action = action;
+            this.details = details;
+            this.instant = instant;
+        }
+    }
+
+    /**
+     * Anneau borné multi-producteurs / consommateur unique, sans verrou
+     *
+     * Chaque case porte un numéro de séquence : égal à la position d'écriture
+     * quand elle est libre, à position + 1 une fois remplie. Les producteurs se
+     * disputent la position par compareAndSet ; le consommateur libère la case
+     * en avançant sa séquence d'un tour.
+     */
+    static final class Anneau {
+        private final int masque;
+        private final Object[] cases;
+        private final AtomicLongArray sequences;
+        private final AtomicLong ecriture = new AtomicLong();
+        private volatile long lecture;
+
+        Anneau(int capaciteDemandee) {
+            int capacite = Integer.highestOneBit(Math.max(2, capaciteDemandee - 1)) << 1;
+            masque = capacite - 1;
+            cases = new Object[capacite];
+            sequences = new AtomicLongArray(capacite);
+            for (int i = 0; i < capacite; i++) {
+                sequences.set(i, i);
+            }
+        }
+
+        /**
+         * @return false si l'anneau est plein
+         */
+        boolean offrir(Object element) {
+            while (true) {
+                long position = ecriture.get();
+                int indice = (int) (position & masque);
+                long ecart = sequences.get(indice) - position;
+                if (ecart == 0) {
+                    if (ecriture.compareAndSet(position, position + 1)) {
+                        cases[indice] = element;
+                        sequences.lazySet(indice, position + 1);
+                        return true;
+                    }
+                } else if (ecart < 0) {
+                    return false;
+                }
+            }
+        }
+
+        /**
+         * Consommateur unique : null si l'anneau est vide
+         */
+        Object prendre() {
+            long position = lecture;
+            int indice = (int) (position & masque);
+            if (sequences.get(indice) != position + 1) {
+                return null;
+            }
+            Object element = cases[indice];
+            cases[indice] = null;
+            sequences.lazySet(indice, position + cases.length);
+            lecture = position + 1;
+            return element;
+        }
+
+        /** Nombre approximatif d'éléments en attente */
+        int taille() {
+            return (int) Math.max(0, ecriture.get() - lecture);
+        }
+
+        int capacite() {
+            return cases.length;
+        }
+    }
+
+    private final Anneau anneau = new Anneau(CAPACITE);
+    private final AtomicLong compteurEchantillon = new AtomicLong();
+
+    private volatile Thread ecrivain;
+    private volatile boolean arret = false;
+
+    private final LongAdder enfilees = new LongAdder();
+    private final LongAdder ecrites = new LongAdder();
+    private final LongAdder rejetees = new LongAdder();
+    private final LongAdder lots = new LongAdder();
+    private final LongAdder echecs = new LongAdder();
+
+    private JournalAudit() {
+    }
+
+    public static JournalAudit getInstance() {
+        return INSTANCE;
+    }
+
+    // ==================== Cycle de vie ====================
+
+    public synchronized void demarrer() {
+        if (ecrivain != null) {
+            return;
+        }
+        arret = false;
+        Thread t = new Thread(this::boucler, "journal-audit");
+        t.setDaemon(true);
+        ecrivain = t;
+        t.start();
+        System.out.println("✓ Journal d'audit démarré (anneau " + anneau.capacite() + ", lot " + TAILLE_LOT
+                + ", " + INTERVALLE_MS + " ms, débordement " + DEBORDEMENT + ")");
+    }
+
+    /**
+     * Écrit les entrées en attente puis arrête le thread d'écriture
+     */
+    public synchronized void arreter() {
+        Thread t = ecrivain;
+        if (t == null) {
+            return;
+        }
+        arret = true;
+        LockSupport.unpark(t);
+        try {
+            t.join(DELAI_ARRET_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        ecrivain = null;
+        if (anneau.taille() > 0) {
+            System.err.println("Journal d'audit : " + anneau.taille() + " entrée(s) non écrite(s) à l'arrêt");
+        }
+    }
+
+    // ==================== Dépôt ====================
+
+    /**
+     * Dépose une entrée ; ne fait jamais d'accès à la base dans le thread appelant
+     *
+     * @param action  Code de l'action (colonne action)
+     * @param details Texte libre (colonne details)
+     * @return false si l'entrée a été abandonnée (anneau plein ou échantillonnage)
+     */
+    public boolean journaliser(String action, String details) {
+        Entree entree = new Entree(action, details, System.currentTimeMillis());
+
+        if (DEBORDEMENT == Debordement.ECHANTILLONNER && anneau.taille() > anneau.capacite() / 2
+                && compteurEchantillon.incrementAndGet() % TAUX_ECHANTILLON != 0) {
+            rejetees.increment();
+            return false;
+        }
+
+        boolean depose = anneau.offrir(entree);
+        if (!depose && DEBORDEMENT == Debordement.BLOQUER && ecrivain != null) {
+            long limite = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(ATTENTE_MAX_MS);
+            while (!depose && System.nanoTime() < limite && ecrivain != null) {
+                LockSupport.unpark(ecrivain);
+                LockSupport.parkNanos(50_000L);
+                depose = anneau.offrir(entree);
+            }
+        }
+        if (!depose) {
+            rejetees.increment();
+            return false;
+        }
+
+        enfilees.increment();
+        Thread t = ecrivain;
+        if (t != null && anneau.taille() >= TAILLE_LOT) {
+            LockSupport.unpark(t);
+        }
+        return true;
+    }
+
+    // ==================== Écriture ====================
+
+    private void boucler() {
+        List<Entree> lot = new ArrayList<>(TAILLE_LOT);
+        int essais = 0;
+        while (true) {
+            boolean arretDemande = arret;
+            if (lot.isEmpty()) {
+                remplir(lot);
+            }
+            if (lot.isEmpty()) {
+                if (arretDemande) {
+                    return;
+                }
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(INTERVALLE_MS));
+                continue;
+            }
+
+            try {
+                ecrire(lot);
+                ecrites.add(lot.size());
+                lots.increment();
+                lot.clear();
+                essais = 0;
+            } catch (SQLException e) {
+                echecs.increment();
+                if (++essais >= ESSAIS_MAX || arretDemande) {
+                    System.err.println("Journal d'audit : " + lot.size() + " entrée(s) perdue(s) : " + e.getMessage());
+                    rejetees.add(lot.size());
+                    lot.clear();
+                    essais = 0;
+                } else {
+                    System.err.println("Journal d'audit : écriture impossible (nouvel essai) : " + e.getMessage());
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(INTERVALLE_MS));
+                }
+            } catch (RuntimeException e) {
+                echecs.increment();
+                rejetees.add(lot.size());
+                lot.clear();
+                System.err.println("Erreur journal d'audit : " + e.getMessage());
+                e.printStackTrace();
+            }
+
+            // Lot incomplet : attendre que d'autres entrées s'accumulent
+            if (!arret && anneau.taille() < TAILLE_LOT) {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(INTERVALLE_MS));
+            }
+        }
+    }
+
+    private void remplir(List<Entree> lot) {
+        while (lot.size() < TAILLE_LOT) {
+            Entree e = (Entree) anneau.prendre();
+            if (e == null) {
+                return;
+            }
+            lot.add(e);
+        }
+    }
+
+    /**
+     * INSERT multi-lignes, une seule connexion et un seul aller-retour par lot
+     */
+    private static void ecrire(List<Entree> lot) throws SQLException {
+        StringBuilder sql = new StringBuilder("INSERT INTO logs (action, details, date_action) VALUES ");
+        for (int i = 0; i < lot.size(); i++) {
+            sql.append(i > 0 ? ",(?,?,?)" : "(?,?,?)");
+        }
+
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        try {
+            conn = DatabaseConnection.getConnection();
+            pstmt = conn.prepareStatement(sql.toString());
+            int p = 1;
+            for (Entree e : lot) {
+                pstmt.setString(p++, e.action);
+                pstmt.setString(p++, e.details);
+                pstmt.setTimestamp(p++, new Timestamp(e.instant));
+            }
+            pstmt.executeUpdate();
+        } finally {
+            DatabaseConnection.closeResources(conn, pstmt, null);
+        }
+    }
+
+    // ==================== Statistiques ====================
+
+    public int getEnAttente() {
+        return anneau.taille();
+    }
+
+    public long getEnfilees() {
+        return enfilees.sum();
+    }
+
+    public long getEcrites() {
+        return ecrites.sum();
+    }
+
+    public long getRejetees() {
+        return rejetees.sum();
+    }
+
+    public long getLots() {
+        return lots.sum();
+    }
+
+    public long getEchecs() {
+        return echecs.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "Journal d'audit : " + getEnfilees() + " entrée(s) déposée(s), " + getEcrites() + " écrite(s) en "
+                + getLots() + " lot(s), " + getRejetees() + " abandonnée(s), " + getEnAttente() + " en attente, "
+                + getEchecs() + " échec(s) d'écriture";
+    }
+}
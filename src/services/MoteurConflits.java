@@ -0,0 +1,615 @@
+package services;
+
+import beans.ExceptionSerie;
+import beans.Planification;
+import beans.SeriePlanification;
+import dao.SeriePlanificationDAO;
+import utils.DatabaseConnection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Moteur de détection des conflits d'horaire en mémoire
+ *
+ * Maintient un arbre d'intervalles par salle et par enseignant contenant
+ * toutes les planifications non annulées. Il est chargé depuis la base (au
+ * démarrage ou au premier usage) puis tenu à jour par les écritures de
+ * PlanificationDAO : la vérification d'un conflit ne fait alors plus aucun
+ * aller-retour vers la base.
+ *
+ * Seules les écritures de ce serveur sont vues au fil de l'eau : celles d'un
+ * autre serveur du cluster (ou faites directement en base) n'apparaissent
+ * qu'au rechargement périodique (toutes les 10 minutes, gigue d'une minute
+ * comprise, voir ApplicationListener). Le moteur peut donc avoir jusqu'à
+ * 11 minutes de retard sur la base : une séance créée ailleurs n'y est pas
+ * encore, un créneau libéré ailleurs y paraît encore occupé. Les réponses
+ * consultatives (check-conflict, recherche de créneaux libres) héritent de
+ * ce retard ; les réservations, lots et séries revérifient en base sous
+ * verrou avant d'écrire.
+ *
+ * Les transitions automatiques PLANIFIE → EN_COURS → TERMINE ne changent pas
+ * l'appartenance au moteur (seul ANNULE en sort) et ne nécessitent donc
+ * aucune mise à jour.
+ *
+ * Les séries récurrentes sont indexées par ressource sans développer leurs
+ * occurrences : un créneau est confronté à la règle de chaque série
+ * concernée, et deux séries sont comparées en résolvant directement la
+ * congruence de leurs semaines ({@link #seriesEnConflit}, utilisée par
+ * SeriePlanificationDAO à la création d'une série).
+ *
+ * Pour la recherche de créneaux libres, le moteur fournit aussi l'occupation
+ * d'une ressource par quart d'heure sur une semaine ({@link CarteOccupation}),
+ * construite à la demande depuis les arbres et les séries puis tenue à jour
+ * par les mêmes écritures.
+ *
+ * @author Système de Planification Académique
+ * @version 1.0
+ */
+public class MoteurConflits {
+
+    private static final MoteurConflits INSTANCE = new MoteurConflits();
+
+    /** Intervalle indexé d'une planification */
+    private static final class Entree {
+        final int salleId;
+        final int enseignantId;
+        final long debut;
+        final long fin;
+
+        Entree(int salleId, int enseignantId, long debut, long fin) {
+            this.salleId = salleId;
+            this.enseignantId = enseignantId;
+            this.debut = debut;
+            this.fin = fin;
+        }
+    }
+
+    private final ReentrantReadWriteLock verrou = new ReentrantReadWriteLock();
+    private Map<Integer, ArbreIntervalles> parSalle = new HashMap<>();
+    private Map<Integer, ArbreIntervalles> parEnseignant = new HashMap<>();
+    private Map<Integer, Entree> parId = new HashMap<>();
+    private Map<Integer, SeriePlanification> series = new HashMap<>();
+    private Map<Integer, List<SeriePlanification>> seriesParSalle = new HashMap<>();
+    private Map<Integer, List<SeriePlanification>> seriesParEnseignant = new HashMap<>();
+    private final CarteOccupation carte = new CarteOccupation();
+    private volatile boolean charge = false;
+    /** Mises à jour publiées pendant un chargement, rejouées sur l'état relu (null hors chargement) */
+    private List<Runnable> journal;
+
+    private MoteurConflits() {
+    }
+
+    public static MoteurConflits getInstance() {
+        return INSTANCE;
+    }
+
+    // ==================== Chargement ====================
+
+    /**
+     * (Re)charge toutes les planifications non annulées et les séries depuis la base
+     *
+     * La lecture se fait hors verrou : les vérifications continuent sur l'état
+     * précédent, et les mises à jour publiées pendant la lecture sont notées
+     * puis rejouées sur l'état relu (elles sont idempotentes).
+     *
+     * @throws SQLException si la lecture échoue (l'état précédent reste alors en service)
+     */
+    public synchronized void charger() throws SQLException {
+        verrou.writeLock().lock();
+        journal = new ArrayList<>();
+        verrou.writeLock().unlock();
+
+        Map<Integer, Entree> lues = new HashMap<>();
+        List<SeriePlanification> seriesLues;
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = DatabaseConnection.getConnection();
+            String sql = "SELECT id, salle_id, enseignant_id, date_heure, duree " +
+                    "FROM planification WHERE statut != 'ANNULE'";
+            pstmt = conn.prepareStatement(sql);
+            rs = pstmt.executeQuery();
+            while (rs.next()) {
+                long debut = rs.getTimestamp("date_heure").getTime();
+                lues.put(rs.getInt("id"), new Entree(rs.getInt("salle_id"), rs.getInt("enseignant_id"),
+                        debut, debut + rs.getInt("duree") * 60_000L));
+            }
+            seriesLues = SeriePlanificationDAO.lireSeries(conn, null, null);
+
+        } catch (SQLException e) {
+            verrou.writeLock().lock();
+            journal = null;
+            verrou.writeLock().unlock();
+            throw e;
+        } finally {
+            DatabaseConnection.closeResources(conn, pstmt, rs);
+        }
+
+        verrou.writeLock().lock();
+        try {
+            parSalle = new HashMap<>();
+            parEnseignant = new HashMap<>();
+            parId = new HashMap<>();
+            for (Map.Entry<Integer, Entree> ligne : lues.entrySet()) {
+                Entree e = ligne.getValue();
+                ajouter(ligne.getKey(), e.salleId, e.enseignantId, e.debut, e.fin);
+            }
+
+            series = new HashMap<>();
+            seriesParSalle = new HashMap<>();
+            seriesParEnseignant = new HashMap<>();
+            for (SeriePlanification serie : seriesLues) {
+                indexerSerie(serie);
+            }
+            carte.vider();
+            charge = true;
+            for (Runnable maj : journal) {
+                maj.run();
+            }
+            System.out.println("✓ Moteur de conflits chargé : " + parId.size() + " planification(s), "
+                    + series.size() + " série(s)" + (journal.isEmpty() ? "" : ", "
+                    + journal.size() + " mise(s) à jour rejouée(s)"));
+        } finally {
+            journal = null;
+            verrou.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Charge le moteur s'il ne l'est pas encore
+     *
+     * @return true si le moteur est utilisable
+     */
+    public boolean assurerCharge() {
+        if (charge) {
+            return true;
+        }
+        synchronized (this) {
+            if (!charge) {
+                try {
+                    charger();
+                } catch (SQLException e) {
+                    System.err.println("Moteur de conflits indisponible : " + e.getMessage());
+                }
+            }
+        }
+        return charge;
+    }
+
+    public boolean estCharge() {
+        return charge;
+    }
+
+    // ==================== Mises à jour (appelées par PlanificationDAO) ====================
+
+    /**
+     * Enregistre l'état courant d'une planification créée ou modifiée
+     * Une planification ANNULE est retirée du moteur.
+     */
+    public void enregistrer(Planification p) {
+        if (p.getId() <= 0 || p.getDateHeure() == null) {
+            return;
+        }
+        int id = p.getId();
+        int salleId = p.getSalleId();
+        int enseignantId = p.getEnseignantId();
+        long debut = p.getDateHeure().getTime();
+        long fin = debut + p.getDuree() * 60_000L;
+        boolean annulee = "ANNULE".equals(p.getStatut());
+        publier(() -> {
+            retirerInterne(id);
+            if (!annulee) {
+                ajouter(id, salleId, enseignantId, debut, fin);
+                carte.ajouter(salleId, debut, fin);
+                carte.ajouter(enseignantId, debut, fin);
+            }
+        });
+    }
+
+    /**
+     * Retire une planification supprimée
+     */
+    public void retirer(int id) {
+        publier(() -> retirerInterne(id));
+    }
+
+    /**
+     * Enregistre l'état courant d'une série créée ou dont les exceptions ont changé
+     * La série ne doit plus être modifiée par l'appelant après l'appel.
+     */
+    public void enregistrerSerie(SeriePlanification serie) {
+        if (serie.getId() <= 0) {
+            return;
+        }
+        publier(() -> {
+            invaliderSerie(series.get(serie.getId()));
+            invaliderSerie(serie);
+            retirerSerieInterne(serie.getId());
+            indexerSerie(serie);
+        });
+    }
+
+    /**
+     * Retire une série supprimée
+     */
+    public void retirerSerie(int id) {
+        publier(() -> {
+            invaliderSerie(series.get(id));
+            retirerSerieInterne(id);
+        });
+    }
+
+    /**
+     * Applique une mise à jour sous le verrou d'écriture si le moteur est
+     * chargé, et la note si un chargement est en cours (elle sera rejouée sur
+     * l'état relu, qui peut ne pas la contenir)
+     */
+    private void publier(Runnable maj) {
+        verrou.writeLock().lock();
+        try {
+            if (journal != null) {
+                journal.add(maj);
+            }
+            if (charge) {
+                maj.run();
+            }
+        } finally {
+            verrou.writeLock().unlock();
+        }
+    }
+
+    // ==================== Détection ====================
+
+    /**
+     * Vérifie si la salle ou l'enseignant est déjà occupé sur le créneau
+     *
+     * @param exclureId Planification à ignorer (0 pour une création)
+     * @return true en cas de conflit
+     * @throws IllegalStateException si le moteur n'est pas chargé
+     */
+    public boolean aConflit(int salleId, int enseignantId, Timestamp dateHeure, int duree, int exclureId) {
+        if (!charge) {
+            throw new IllegalStateException("Moteur de conflits non chargé");
+        }
+        long debut = dateHeure.getTime();
+        long fin = debut + duree * 60_000L;
+
+        verrou.readLock().lock();
+        try {
+            ArbreIntervalles salle = parSalle.get(salleId);
+            if (salle != null && salle.chevauche(debut, fin, exclureId)) {
+                return true;
+            }
+            ArbreIntervalles enseignant = parEnseignant.get(enseignantId);
+            if (enseignant != null && enseignant.chevauche(debut, fin, exclureId)) {
+                return true;
+            }
+            return conflitAvecSeries(salleId, enseignantId, debut, fin, 0);
+        } finally {
+            verrou.readLock().unlock();
+        }
+    }
+
+    // ==================== Occupation ====================
+
+    /**
+     * Occupation par quart d'heure de chaque ressource sur une semaine
+     *
+     * @param semaine Indice de semaine ({@link SeriePlanification#indiceSemaine})
+     * @return Une table de {@link CarteOccupation#MOTS} long par ressource (copies)
+     * @throws IllegalStateException si le moteur n'est pas chargé
+     */
+    long[][] occupations(int[] ressourceIds, long semaine) {
+        if (!charge) {
+            throw new IllegalStateException("Moteur de conflits non chargé");
+        }
+        long[][] resultat = new long[ressourceIds.length][];
+        verrou.readLock().lock();
+        try {
+            for (int i = 0; i < ressourceIds.length; i++) {
+                resultat[i] = CarteOccupation.copie(occupation(ressourceIds[i], semaine));
+            }
+            return resultat;
+        } finally {
+            verrou.readLock().unlock();
+        }
+    }
+
+    /**
+     * Nombre de semaines-ressources d'occupation en cache
+     */
+    public int semainesEnCache() {
+        return carte.taille();
+    }
+
+    /**
+     * Nombre de séries indexées
+     */
+    public int nombreSeries() {
+        verrou.readLock().lock();
+        try {
+            return series.size();
+        } finally {
+            verrou.readLock().unlock();
+        }
+    }
+
+    /**
+     * Nombre de planifications indexées
+     */
+    public int taille() {
+        verrou.readLock().lock();
+        try {
+            return parId.size();
+        } finally {
+            verrou.readLock().unlock();
+        }
+    }
+
+    // ==================== Méthodes utilitaires ====================
+
+    private void ajouter(int id, int salleId, int enseignantId, long debut, long fin) {
+        parId.put(id, new Entree(salleId, enseignantId, debut, fin));
+        parSalle.computeIfAbsent(salleId, k -> new ArbreIntervalles()).inserer(id, debut, fin);
+        parEnseignant.computeIfAbsent(enseignantId, k -> new ArbreIntervalles()).inserer(id, debut, fin);
+    }
+
+    private void retirerInterne(int id) {
+        Entree e = parId.remove(id);
+        if (e == null) {
+            return;
+        }
+        retirerDeArbre(parSalle, e.salleId, id, e.debut);
+        retirerDeArbre(parEnseignant, e.enseignantId, id, e.debut);
+        carte.invalider(e.salleId, e.debut, e.fin);
+        carte.invalider(e.enseignantId, e.debut, e.fin);
+    }
+
+    private static void retirerDeArbre(Map<Integer, ArbreIntervalles> arbres, int cle, int id, long debut) {
+        ArbreIntervalles arbre = arbres.get(cle);
+        if (arbre != null) {
+            arbre.supprimer(id, debut);
+            if (arbre.estVide()) {
+                arbres.remove(cle);
+            }
+        }
+    }
+
+    /**
+     * Occupation d'une ressource sur une semaine, construite si absente du cache
+     * (appelé sous le verrou de lecture : deux constructions concurrentes d'une
+     * même semaine produisent la même table)
+     */
+    private long[] occupation(int ressourceId, long semaine) {
+        long[] bits = carte.get(ressourceId, semaine);
+        if (bits != null) {
+            return bits;
+        }
+        long[] nouvelle = new long[CarteOccupation.MOTS];
+        LocalDate lundi = CarteOccupation.lundi(semaine);
+        long debut = Timestamp.valueOf(lundi.atStartOfDay()).getTime();
+        long fin = Timestamp.valueOf(lundi.plusDays(7).atStartOfDay()).getTime();
+        ArbreIntervalles.Visiteur marqueur = (d, f) -> CarteOccupation.marquer(nouvelle, semaine, d, f);
+
+        ArbreIntervalles arbre = parSalle.get(ressourceId);
+        if (arbre != null) {
+            arbre.parcourir(debut, fin, marqueur);
+        }
+        arbre = parEnseignant.get(ressourceId);
+        if (arbre != null) {
+            arbre.parcourir(debut, fin, marqueur);
+        }
+
+        Set<SeriePlanification> concernees = new LinkedHashSet<>();
+        concernees.addAll(seriesParSalle.getOrDefault(ressourceId, new ArrayList<>()));
+        concernees.addAll(seriesParEnseignant.getOrDefault(ressourceId, new ArrayList<>()));
+        for (SeriePlanification serie : concernees) {
+            if (serie.getSalleId() == ressourceId || serie.getEnseignantId() == ressourceId) {
+                long dureeMs = serie.getDuree() * 60_000L;
+                // La veille du lundi : une occurrence tardive peut déborder sur la semaine
+                for (int jour = -1; jour < 7; jour++) {
+                    LocalDate date = lundi.plusDays(jour);
+                    if (serie.estJourPrevu(date) && serie.getException(date) == null) {
+                        long d = serie.debutOccurrence(date);
+                        CarteOccupation.marquer(nouvelle, semaine, d, d + dureeMs);
+                    }
+                }
+            }
+            for (ExceptionSerie e : serie.getExceptions()) {
+                if (!e.isAnnulee() && (serie.salleEffective(e) == ressourceId
+                        || serie.enseignantEffectif(e) == ressourceId)) {
+                    long d = serie.debutEffectif(e);
+                    long f = d + serie.dureeEffective(e) * 60_000L;
+                    if (d < fin && f > debut) {
+                        CarteOccupation.marquer(nouvelle, semaine, d, f);
+                    }
+                }
+            }
+        }
+        carte.mettre(ressourceId, semaine, nouvelle);
+        return nouvelle;
+    }
+
+    /** Oublie l'occupation des ressources d'une série (null accepté) */
+    private void invaliderSerie(SeriePlanification serie) {
+        if (serie == null) {
+            return;
+        }
+        for (int salleId : ressources(serie, true)) {
+            carte.invaliderRessource(salleId);
+        }
+        for (int enseignantId : ressources(serie, false)) {
+            carte.invaliderRessource(enseignantId);
+        }
+    }
+
+    // ==================== Séries ====================
+
+    /**
+     * Indique si une série (autre que exclureSerieId) occupe la salle ou l'enseignant sur [debut, fin)
+     */
+    private boolean conflitAvecSeries(int salleId, int enseignantId, long debut, long fin, int exclureSerieId) {
+        return serieChevauche(seriesParSalle.get(salleId), salleId, enseignantId, debut, fin, exclureSerieId)
+                || serieChevauche(seriesParEnseignant.get(enseignantId), salleId, enseignantId, debut, fin,
+                        exclureSerieId);
+    }
+
+    private static boolean serieChevauche(List<SeriePlanification> candidates, int salleId, int enseignantId,
+            long debut, long fin, int exclureSerieId) {
+        if (candidates == null) {
+            return false;
+        }
+        for (SeriePlanification serie : candidates) {
+            if (serie.getId() != exclureSerieId && serie.chevauche(salleId, enseignantId, debut, fin)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Conflit entre deux séries, sans développer leurs occurrences
+     *
+     * Pour les créneaux réguliers, les semaines communes vérifient
+     * k ≡ phaseA (mod intervalleA) et k ≡ phaseB (mod intervalleB) : on cherche
+     * la première solution puis on avance de ppcm(intervalleA, intervalleB)
+     * semaines, en ne s'arrêtant que sur les dates portant une exception.
+     */
+    public static boolean seriesEnConflit(SeriePlanification a, SeriePlanification b) {
+        // Occurrences surchargées de chaque série contre toute l'autre série
+        for (ExceptionSerie e : a.getExceptions()) {
+            if (!e.isAnnulee() && b.chevauche(a.salleEffective(e), a.enseignantEffectif(e), a.debutEffectif(e),
+                    a.debutEffectif(e) + a.dureeEffective(e) * 60_000L)) {
+                return true;
+            }
+        }
+        for (ExceptionSerie e : b.getExceptions()) {
+            if (!e.isAnnulee() && a.chevauche(b.salleEffective(e), b.enseignantEffectif(e), b.debutEffectif(e),
+                    b.debutEffectif(e) + b.dureeEffective(e) * 60_000L)) {
+                return true;
+            }
+        }
+
+        // Créneaux réguliers : ressources de base communes et jours communs
+        if (a.getSalleId() != b.getSalleId() && a.getEnseignantId() != b.getEnseignantId()) {
+            return false;
+        }
+        int joursCommuns = a.getJoursSemaine() & b.getJoursSemaine();
+        int minuteA = a.getHeureDebut().toLocalTime().toSecondOfDay() / 60;
+        int minuteB = b.getHeureDebut().toLocalTime().toSecondOfDay() / 60;
+        if (joursCommuns == 0 || minuteA >= minuteB + b.getDuree() || minuteB >= minuteA + a.getDuree()) {
+            return false;
+        }
+
+        LocalDate debut = max(a.getDateDebut().toLocalDate(), b.getDateDebut().toLocalDate());
+        LocalDate fin = min(a.getDateFin().toLocalDate(), b.getDateFin().toLocalDate());
+        if (debut.isAfter(fin)) {
+            return false;
+        }
+
+        long ia = a.getIntervalleSemaines();
+        long ib = b.getIntervalleSemaines();
+        long phaseA = SeriePlanification.indiceSemaine(a.getDateDebut().toLocalDate());
+        long phaseB = SeriePlanification.indiceSemaine(b.getDateDebut().toLocalDate());
+        long kMin = SeriePlanification.indiceSemaine(debut);
+        long kMax = SeriePlanification.indiceSemaine(fin);
+        long ppcm = ia / pgcd(ia, ib) * ib;
+
+        // Première semaine ≥ kMin de la série a, puis recherche de la phase de b
+        long k = kMin + Math.floorMod(phaseA - kMin, ia);
+        long limite = k + ppcm;
+        while (k < limite && Math.floorMod(k - phaseB, ib) != 0) {
+            k += ia;
+        }
+        if (k >= limite) {
+            return false; // congruences incompatibles
+        }
+
+        for (; k <= kMax; k += ppcm) {
+            LocalDate lundi = LocalDate.ofEpochDay(k * 7 + 4);
+            for (int jour = 0; jour < 7; jour++) {
+                if ((joursCommuns & (1 << jour)) == 0) {
+                    continue;
+                }
+                LocalDate date = lundi.plusDays(jour);
+                if (a.estJourPrevu(date) && b.estJourPrevu(date)
+                        && a.getException(date) == null && b.getException(date) == null) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private void indexerSerie(SeriePlanification serie) {
+        series.put(serie.getId(), serie);
+        for (int salleId : ressources(serie, true)) {
+            seriesParSalle.computeIfAbsent(salleId, k -> new ArrayList<>()).add(serie);
+        }
+        for (int enseignantId : ressources(serie, false)) {
+            seriesParEnseignant.computeIfAbsent(enseignantId, k -> new ArrayList<>()).add(serie);
+        }
+    }
+
+    private void retirerSerieInterne(int id) {
+        SeriePlanification serie = series.remove(id);
+        if (serie == null) {
+            return;
+        }
+        for (int salleId : ressources(serie, true)) {
+            retirerDeListe(seriesParSalle, salleId, serie);
+        }
+        for (int enseignantId : ressources(serie, false)) {
+            retirerDeListe(seriesParEnseignant, enseignantId, serie);
+        }
+    }
+
+    /** Salles (ou enseignants) utilisés par la série, surcharges comprises */
+    private static Set<Integer> ressources(SeriePlanification serie, boolean salles) {
+        Set<Integer> ids = new LinkedHashSet<>();
+        ids.add(salles ? serie.getSalleId() : serie.getEnseignantId());
+        for (ExceptionSerie e : serie.getExceptions()) {
+            if (!e.isAnnulee()) {
+                ids.add(salles ? serie.salleEffective(e) : serie.enseignantEffectif(e));
+            }
+        }
+        return ids;
+    }
+
+    private static void retirerDeListe(Map<Integer, List<SeriePlanification>> index, int cle,
+            SeriePlanification serie) {
+        List<SeriePlanification> liste = index.get(cle);
+        if (liste != null) {
+            liste.remove(serie);
+            if (liste.isEmpty()) {
+                index.remove(cle);
+            }
+        }
+    }
+
+    private static long pgcd(long a, long b) {
+        return b == 0 ? a : pgcd(b, a % b);
+    }
+
+    private static LocalDate max(LocalDate a, LocalDate b) {
+        return a.isAfter(b) ? a : b;
+    }
+
+    private static LocalDate min(LocalDate a, LocalDate b) {
+        return a.isBefore(b) ? a : b;
+    }
+}
@@ -0,0 +1,499 @@
+package services;
+
+import beans.Planification;
+import utils.DatabaseConnection;
+import utils.PlanVerifier;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Transitions de statut des planifications à l'heure exacte
+ *
+ * Chaque séance à venir a deux échéances : début (PLANIFIE → EN_COURS) et
+ * fin (EN_COURS → TERMINE), rangées dans une DelayQueue. Un thread dédié
+ * attend la prochaine échéance, regroupe toutes celles arrivées à terme et
+ * les applique par UPDATE ... WHERE id IN (...) : la base ne travaille que
+ * pour les séances qui changent réellement de statut, à la seconde près.
+ *
+ * La file est remplie depuis la base au démarrage, puis tenue à jour par les
+ * écritures de PlanificationDAO. Une modification remplace les échéances
+ * précédentes de la séance (numéro de version) ; une suppression les annule.
+ *
+ * En cluster, chaque serveur tient sa file mais seul le titulaire du bail
+ * {@link #BAIL} (ElectionCluster) applique les transitions ; les autres
+ * abandonnent leurs échéances arrivées à terme. À la prise du bail, le
+ * serveur rattrape les statuts en retard et recharge sa file : il récupère
+ * ainsi les séances écrites par les autres serveurs. Les UPDATE ciblés
+ * revérifient l'heure en base (date_heure ou date_fin passée) : une échéance
+ * périmée (séance déplacée par un autre serveur) ne change rien. Une
+ * échéance sans effet est retentée après DELAI_HORLOGE_MS, au cas où
+ * l'horloge de la base serait légèrement en retard sur celle du serveur.
+ *
+ * Séance manquée : une séance encore PLANIFIE dont la fin est déjà passée
+ * (serveur arrêté ou base indisponible pendant toute la séance) passe
+ * directement à TERMINE, au rattrapage comme à l'échéance de fin. C'est un
+ * changement par rapport à l'ancien timer, qui ne terminait que les séances
+ * EN_COURS et laissait celles-ci PLANIFIE indéfiniment. Ce passage direct est
+ * compté à part dans les statistiques (PLANIFIE → TERMINE).
+ *
+ * Les occurrences de séries ne sont pas stockées : leur statut est calculé
+ * à la lecture et n'a pas besoin de transition.
+ *
+ * @author Système de Planification Académique
+ * @version 1.0
+ */
+public class OrdonnanceurTransitions {
+
+    private static final String EN_COURS = "EN_COURS";
+    private static final String TERMINE = "TERMINE";
+
+    /** Nombre maximal d'identifiants par UPDATE ... IN (...) */
+    private static final int TAILLE_LOT = 500;
+    /** Délai avant une nouvelle tentative après une erreur SQL */
+    private static final long DELAI_REPRISE_MS = 30_000L;
+    /** Attente maximale entre deux vérifications du bail */
+    private static final long DELAI_BAIL_MS = 1_000L;
+    /** Délai avant de retenter une échéance restée sans effet (écart d'horloge avec la base) */
+    private static final long DELAI_HORLOGE_MS = 2_000L;
+    /** Nombre d'essais d'une échéance restée sans effet */
+    private static final int ESSAIS_MAX = 3;
+
+    /** Bail (job_lease) du serveur qui applique les transitions */
+    public static final String BAIL = "transitions";
+
+    /**
+     * Rattrapage au démarrage : séances commencées mais encore PLANIFIE
+     * (parcours de plage sur idx_statut_debut)
+     */
+    static final String SQL_RATTRAPAGE_EN_COURS = "UPDATE planification " +
+            "SET statut = 'EN_COURS' " +
+            "WHERE statut = 'PLANIFIE' " +
+            "AND date_heure <= NOW() " +
+            "AND date_fin > NOW()";
+
+    /**
+     * Rattrapage au démarrage : séances terminées encore PLANIFIE ou EN_COURS
+     * (parcours de plage sur idx_statut_fin). Les séances PLANIFIE manquées
+     * passent directement à TERMINE (voir la description de la classe).
+     */
+    static final String SQL_RATTRAPAGE_TERMINE = "UPDATE planification " +
+            "SET statut = 'TERMINE' " +
+            "WHERE statut IN ('PLANIFIE', 'EN_COURS') " +
+            "AND date_fin <= NOW()";
+
+    /**
+     * Transitions ciblées, complétées par la liste des identifiants et ')'
+     * La condition sur l'heure écarte les séances déplacées depuis le calcul de l'échéance.
+     */
+    private static final String SQL_PASSAGE_EN_COURS = "UPDATE planification SET statut = 'EN_COURS' " +
+            "WHERE statut = 'PLANIFIE' AND date_heure <= NOW() AND id IN (";
+    private static final String SQL_PASSAGE_TERMINE = "UPDATE planification SET statut = 'TERMINE' " +
+            "WHERE statut = 'EN_COURS' AND date_fin <= NOW() AND id IN (";
+    /** Séance dont le passage EN_COURS a été manqué : compté à part pour les statistiques */
+    private static final String SQL_PASSAGE_TERMINE_DIRECT = "UPDATE planification SET statut = 'TERMINE' " +
+            "WHERE statut = 'PLANIFIE' AND date_fin <= NOW() AND id IN (";
+
+    /**
+     * Séances ayant encore au moins une transition à venir
+     */
+    static final String SQL_ECHEANCES = "SELECT id, date_heure, duree, statut FROM planification " +
+            "WHERE statut IN ('PLANIFIE', 'EN_COURS') AND date_fin > NOW()";
+
+    private static final OrdonnanceurTransitions INSTANCE = new OrdonnanceurTransitions();
+
+    /** Transition d'une séance vers un statut à un instant donné */
+    private static final class Echeance implements Delayed {
+        final int id;
+        final long instant;
+        final String cible;
+        final long version;
+        final Timestamp dateHeure;
+        /** Essais déjà restés sans effet */
+        final int essais;
+
+        Echeance(int id, long instant, String cible, long version, Timestamp dateHeure, int essais) {
+            this.id = id;
+            this.instant = instant;
+            this.cible = cible;
+            this.version = version;
+            this.dateHeure = dateHeure;
+            this.essais = essais;
+        }
+
+        Echeance reportee(long nouvelInstant) {
+            return new Echeance(id, nouvelInstant, cible, version, dateHeure, essais);
+        }
+
+        Echeance retentee(long nouvelInstant) {
+            return new Echeance(id, nouvelInstant, cible, version, dateHeure, essais + 1);
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(instant - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed autre) {
+            return Long.compare(instant, ((Echeance) autre).instant);
+        }
+    }
+
+    private final DelayQueue<Echeance> file = new DelayQueue<>();
+    /** Version courante des échéances de chaque séance ; absente = aucune échéance valide */
+    private final ConcurrentHashMap<Integer, Long> versions = new ConcurrentHashMap<>();
+    private final AtomicLong prochaineVersion = new AtomicLong();
+
+    private volatile Thread executeur;
+    /** Vrai une fois la file chargée depuis la base */
+    private volatile boolean synchronise = false;
+
+    private final LongAdder transitions = new LongAdder();
+    private final LongAdder lots = new LongAdder();
+    private final LongAdder erreurs = new LongAdder();
+
+    private OrdonnanceurTransitions() {
+    }
+
+    public static OrdonnanceurTransitions getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Vérifie par EXPLAIN que les requêtes de rattrapage et de chargement sont indexées
+     */
+    public static void verifierPlans() {
+        PlanVerifier.verifier("rattrapage EN_COURS", SQL_RATTRAPAGE_EN_COURS);
+        PlanVerifier.verifier("rattrapage TERMINE", SQL_RATTRAPAGE_TERMINE);
+        PlanVerifier.verifier("échéances de statut", SQL_ECHEANCES);
+    }
+
+    // ==================== Cycle de vie ====================
+
+    /**
+     * Lance le thread ; il charge les échéances à venir (et rattrape les
+     * statuts en retard s'il détient le bail) avant de traiter la file
+     * (nouvel essai périodique si la base est indisponible)
+     */
+    public synchronized void demarrer() {
+        if (executeur != null) {
+            return;
+        }
+        ElectionCluster.getInstance().surveiller(BAIL);
+        synchronise = false;
+        Thread t = new Thread(this::boucler, "transitions-statut");
+        t.setDaemon(true);
+        executeur = t;
+        t.start();
+    }
+
+    /**
+     * Arrête le thread ; les échéances en attente sont abandonnées
+     * (elles seront rattrapées au prochain démarrage)
+     */
+    public synchronized void arreter() {
+        Thread t = executeur;
+        executeur = null;
+        if (t != null) {
+            t.interrupt();
+            try {
+                t.join(5_000L);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        file.clear();
+        versions.clear();
+    }
+
+    /**
+     * Rattrape les statuts en retard en base (titulaire du bail seulement)
+     * Couvre aussi les séances écrites par les autres serveurs, absentes de la file.
+     */
+    public void rattraper() throws SQLException {
+        Connection conn = null;
+
+        try {
+            conn = DatabaseConnection.getConnection();
+
+            int enCours;
+            int terminees;
+            try (PreparedStatement maj = conn.prepareStatement(SQL_RATTRAPAGE_TERMINE)) {
+                terminees = maj.executeUpdate();
+            }
+            try (PreparedStatement maj = conn.prepareStatement(SQL_RATTRAPAGE_EN_COURS)) {
+                enCours = maj.executeUpdate();
+            }
+            if (enCours + terminees > 0) {
+                System.out.println("✓ Rattrapage des statuts : " + enCours + " EN_COURS, " + terminees + " TERMINE");
+                // Séances d'âge quelconque : les semaines concernées ne sont pas connues
+                CacheSemaines.getInstance().vider();
+                // Répartition par statut d'origine inconnue : recompter
+                Statistiques.getInstance().reconcilier();
+            }
+
+        } finally {
+            DatabaseConnection.closeResources(conn, null, null);
+        }
+    }
+
+    /**
+     * Recharge entièrement la file locale depuis la base (chaque serveur)
+     * Reprend les statuts modifiés directement en base ou par un autre serveur.
+     */
+    public void recharger() throws SQLException {
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = DatabaseConnection.getConnection();
+            file.clear();
+            versions.clear();
+            pstmt = conn.prepareStatement(SQL_ECHEANCES);
+            rs = pstmt.executeQuery();
+            while (rs.next()) {
+                planifier(rs.getInt("id"), rs.getTimestamp("date_heure"), rs.getInt("duree"), rs.getString("statut"));
+            }
+            synchronise = true;
+            System.out.println("✓ Transitions de statut synchronisées : " + versions.size() + " séance(s) à suivre");
+
+        } finally {
+            DatabaseConnection.closeResources(conn, pstmt, rs);
+        }
+    }
+
+    // ==================== Mises à jour (appelées par PlanificationDAO) ====================
+
+    /**
+     * (Re)calcule les échéances d'une séance créée ou modifiée
+     */
+    public void planifier(Planification p) {
+        planifier(p.getId(), p.getDateHeure(), p.getDuree(), p.getStatut() != null ? p.getStatut() : "PLANIFIE");
+    }
+
+    /**
+     * Annule les échéances d'une séance supprimée
+     */
+    public void retirer(int id) {
+        versions.remove(id);
+    }
+
+    private void planifier(int id, Timestamp dateHeure, int duree, String statut) {
+        if (dateHeure == null || (!"PLANIFIE".equals(statut) && !EN_COURS.equals(statut))) {
+            versions.remove(id);
+            return;
+        }
+        long version = prochaineVersion.incrementAndGet();
+        versions.put(id, version);
+
+        long debut = dateHeure.getTime();
+        long fin = debut + duree * 60_000L;
+        if ("PLANIFIE".equals(statut)) {
+            file.add(new Echeance(id, debut, EN_COURS, version, dateHeure, 0));
+        }
+        file.add(new Echeance(id, fin, TERMINE, version, dateHeure, 0));
+    }
+
+    // ==================== Exécution ====================
+
+    private void boucler() {
+        boolean titulaire = false;
+        while (executeur == Thread.currentThread()) {
+            try {
+                boolean detenu = ElectionCluster.getInstance().estTitulaire(BAIL);
+                if (detenu && !titulaire) {
+                    // Bail pris : les échéances abandonnées jusque-là sont rattrapées
+                    synchronise = false;
+                }
+                titulaire = detenu;
+                if (!synchronise) {
+                    try {
+                        if (titulaire) {
+                            rattraper();
+                        }
+                        recharger();
+                    } catch (SQLException e) {
+                        erreurs.increment();
+                        System.err.println("Synchronisation des transitions impossible (nouvel essai dans "
+                                + DELAI_REPRISE_MS / 1000 + " s) : " + e.getMessage());
+                    }
+                }
+                Echeance premiere = file.poll(synchronise ? DELAI_BAIL_MS : DELAI_REPRISE_MS,
+                        TimeUnit.MILLISECONDS);
+                if (premiere == null) {
+                    continue;
+                }
+                List<Echeance> arrivees = new ArrayList<>();
+                arrivees.add(premiere);
+                // Toutes les échéances déjà arrivées à terme partent dans le même lot
+                file.drainTo(arrivees);
+                appliquer(arrivees);
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                erreurs.increment();
+                System.err.println("Erreur ordonnanceur de transitions : " + e.getMessage());
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private void appliquer(List<Echeance> arrivees) {
+        List<Echeance> versEnCours = new ArrayList<>();
+        List<Echeance> versTermine = new ArrayList<>();
+        for (Echeance e : arrivees) {
+            Long version = versions.get(e.id);
+            if (version == null || version != e.version) {
+                continue; // séance modifiée ou supprimée depuis
+            }
+            (EN_COURS.equals(e.cible) ? versEnCours : versTermine).add(e);
+        }
+        if (versEnCours.isEmpty() && versTermine.isEmpty()) {
+            return;
+        }
+        if (!ElectionCluster.getInstance().estTitulaire(BAIL)) {
+            // Appliquées par le titulaire du bail ; rattrapées ici si le bail est pris
+            for (Echeance e : versTermine) {
+                versions.remove(e.id, e.version);
+            }
+            return;
+        }
+
+        Connection conn = null;
+        try {
+            conn = DatabaseConnection.getConnection();
+            // EN_COURS d'abord : une séance dont le début et la fin sont passés finit TERMINE
+            int nbEnCours = mettreAJour(conn, versEnCours, SQL_PASSAGE_EN_COURS);
+            int nbTermineEnCours = mettreAJour(conn, versTermine, SQL_PASSAGE_TERMINE);
+            int nbTermineDirect = mettreAJour(conn, versTermine, SQL_PASSAGE_TERMINE_DIRECT);
+            int nbTermine = nbTermineEnCours + nbTermineDirect;
+            Statistiques statistiques = Statistiques.getInstance();
+            statistiques.statutChange("PLANIFIE", EN_COURS, nbEnCours);
+            statistiques.statutChange(EN_COURS, TERMINE, nbTermineEnCours);
+            statistiques.statutChange("PLANIFIE", TERMINE, nbTermineDirect);
+            lots.increment();
+            transitions.add(nbEnCours + nbTermine);
+
+            // Lot incomplet : séances déplacées, déjà traitées, ou base en retard d'horloge
+            long nouvelEssai = System.currentTimeMillis() + DELAI_HORLOGE_MS;
+            if (nbEnCours < versEnCours.size()) {
+                retenter(versEnCours, nouvelEssai);
+            }
+            boolean termineIncomplet = nbTermine < versTermine.size();
+            for (Echeance e : versTermine) {
+                if (termineIncomplet && e.essais + 1 < ESSAIS_MAX) {
+                    file.add(e.retentee(nouvelEssai));
+                } else {
+                    versions.remove(e.id, e.version);
+                }
+            }
+            Set<Timestamp> semaines = new HashSet<>();
+            for (Echeance e : versEnCours) {
+                semaines.add(e.dateHeure);
+            }
+            for (Echeance e : versTermine) {
+                semaines.add(e.dateHeure);
+            }
+            for (Timestamp dateHeure : semaines) {
+                CacheSemaines.getInstance().invalider(dateHeure);
+            }
+            if (nbEnCours > 0) {
+                System.out.println("✓ " + nbEnCours + " planification(s) passée(s) à EN_COURS");
+                JournalAudit.getInstance().journaliser("TIMER_EXECUTION",
+                        nbEnCours + " planification(s) passée(s) à EN_COURS");
+            }
+            if (nbTermine > 0) {
+                System.out.println("✓ " + nbTermine + " planification(s) passée(s) à TERMINE");
+                JournalAudit.getInstance().journaliser("TIMER_EXECUTION",
+                        nbTermine + " planification(s) passée(s) à TERMINE");
+            }
+
+        } catch (SQLException e) {
+            erreurs.increment();
+            System.err.println("Erreur transitions de statut (nouvel essai dans " + DELAI_REPRISE_MS / 1000 + " s) : "
+                    + e.getMessage());
+            long reprise = System.currentTimeMillis() + DELAI_REPRISE_MS;
+            for (Echeance echeance : versEnCours) {
+                file.add(echeance.reportee(reprise));
+            }
+            for (Echeance echeance : versTermine) {
+                file.add(echeance.reportee(reprise));
+            }
+        } finally {
+            DatabaseConnection.closeResources(conn, null, null);
+        }
+    }
+
+    private void retenter(List<Echeance> echeances, long instant) {
+        for (Echeance e : echeances) {
+            if (e.essais + 1 < ESSAIS_MAX) {
+                file.add(e.retentee(instant));
+            }
+        }
+    }
+
+    /**
+     * Applique une transition aux séances données, par paquets de TAILLE_LOT identifiants
+     *
+     * @param prefixe Requête terminée par "id IN (" (SQL_PASSAGE_...)
+     */
+    private static int mettreAJour(Connection conn, List<Echeance> echeances, String prefixe)
+            throws SQLException {
+        int total = 0;
+        for (int debut = 0; debut < echeances.size(); debut += TAILLE_LOT) {
+            int fin = Math.min(debut + TAILLE_LOT, echeances.size());
+            StringBuilder sql = new StringBuilder(prefixe);
+            for (int i = debut; i < fin; i++) {
+                sql.append(i > debut ? ",?" : "?");
+            }
+            sql.append(')');
+            try (PreparedStatement pstmt = conn.prepareStatement(sql.toString())) {
+                for (int i = debut; i < fin; i++) {
+                    pstmt.setInt(i - debut + 1, echeances.get(i).id);
+                }
+                total += pstmt.executeUpdate();
+            }
+        }
+        return total;
+    }
+
+    // ==================== Statistiques ====================
+
+    public int getEcheancesEnAttente() {
+        return file.size();
+    }
+
+    public long getTransitions() {
+        return transitions.sum();
+    }
+
+    public long getLots() {
+        return lots.sum();
+    }
+
+    public long getErreurs() {
+        return erreurs.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "Transitions de statut" + (ElectionCluster.getInstance().estTitulaire(BAIL) ? " (titulaire)" : "")
+                + " : " + getEcheancesEnAttente() + " échéance(s) en attente, "
+                + getTransitions() + " transition(s) en " + getLots() + " lot(s), " + getErreurs() + " erreur(s)";
+    }
+}
@@ -0,0 +1,363 @@
+package services;
+
+import utils.Metriques;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Planificateur de tâches périodiques, indépendant du conteneur
+ *
+ * Remplace les annotations EJB (@Schedule), ignorées par Tomcat. Chaque
+ * tâche a un déclencheur (période fixe ou expression cron) et une gigue
+ * aléatoire ajoutée à chaque échéance, pour que plusieurs serveurs ne
+ * frappent pas la base à la même seconde. Une exécution n'est jamais
+ * lancée tant que la précédente de la même tâche tourne : l'échéance est
+ * alors sautée et comptée. Durées et échecs sont suivis par tâche.
+ *
+ * Une tâche exclusive ne s'exécute que sur le serveur titulaire de son bail
+ * (voir ElectionCluster) ; sur les autres, ses échéances sont cédées.
+ *
+ * Démarré et arrêté par ApplicationListener.
+ *
+ * @author Système de Planification Académique
+ * @version 1.0
+ */
+public class PlanificateurTaches {
+
+    private static final int NB_THREADS = 2;
+    /** Attente maximale des tâches en cours à l'arrêt */
+    private static final long DELAI_ARRET_MS = 10_000L;
+
+    private static final PlanificateurTaches INSTANCE = new PlanificateurTaches();
+
+    /**
+     * Calcule la prochaine échéance d'une tâche
+     */
+    public interface Declencheur {
+        /**
+         * @param apres Instant de référence (ms epoch)
+         * @return Première échéance strictement postérieure (ms epoch)
+         */
+        long prochaineExecution(long apres);
+    }
+
+    /**
+     * Corps d'une tâche ; une exception compte comme un échec
+     */
+    @FunctionalInterface
+    public interface Travail {
+        void executer() throws Exception;
+    }
+
+    /**
+     * Déclencheur à période fixe : les échéances restent alignées sur la
+     * première, celles manquées (serveur surchargé) ne sont pas rattrapées
+     */
+    public static Declencheur periodique(long periode, TimeUnit unite) {
+        final long periodeMs = unite.toMillis(periode);
+        if (periodeMs <= 0) {
+            throw new IllegalArgumentException("Période invalide : " + periode + " " + unite);
+        }
+        final long origine = System.currentTimeMillis();
+        return new Declencheur() {
+            @Override
+            public long prochaineExecution(long apres) {
+                long ecoulees = Math.max(0, apres - origine) / periodeMs + 1;
+                return origine + ecoulees * periodeMs;
+            }
+
+            @Override
+            public String toString() {
+                return periodeMs % 1000 == 0 ? "toutes les " + periodeMs / 1000 + " s" : "toutes les " + periodeMs + " ms";
+            }
+        };
+    }
+
+    /**
+     * Tâche enregistrée et ses métriques
+     */
+    public final class Tache implements Runnable {
+        private final String nom;
+        private final Declencheur declencheur;
+        private final long gigueMaxMs;
+        private final Travail travail;
+        private final boolean exclusive;
+        private final AtomicBoolean enCours = new AtomicBoolean();
+
+        private final LongAdder executions = new LongAdder();
+        private final Metriques.Histogramme duree;
+        private final Metriques.Compteur echecs;
+        private final Metriques.Compteur sautees;
+        private final Metriques.Compteur cedees;
+        private final LongAdder dureeTotaleMs = new LongAdder();
+        private volatile long dureeMaxMs;
+        private volatile long derniereDureeMs;
+        private volatile long derniereFin;
+        private volatile long prochaine;
+        /** Échéance du déclencheur, sans gigue : base du calcul de la suivante */
+        private volatile long echeance;
+        private volatile String derniereErreur;
+
+        private Tache(String nom, Declencheur declencheur, long gigueMaxMs, Travail travail, boolean exclusive) {
+            this.nom = nom;
+            this.declencheur = declencheur;
+            this.gigueMaxMs = gigueMaxMs;
+            this.travail = travail;
+            this.exclusive = exclusive;
+            duree = Metriques.histogramme("planif_tache_duree_secondes", "Durée des exécutions de tâches planifiées",
+                    "tache", nom);
+            echecs = Metriques.compteur("planif_tache_echecs_total", "Exécutions de tâches terminées en erreur",
+                    "tache", nom);
+            sautees = Metriques.compteur("planif_tache_sautees_total",
+                    "Échéances sautées car l'exécution précédente tournait encore", "tache", nom);
+            cedees = Metriques.compteur("planif_tache_cedees_total",
+                    "Échéances laissées au serveur titulaire du bail", "tache", nom);
+        }
+
+        /**
+         * Programme l'échéance suivante (avec gigue) après l'instant donné
+         */
+        private void programmer(long apres) {
+            ScheduledThreadPoolExecutor ex = executeur;
+            if (ex == null || ex.isShutdown()) {
+                return;
+            }
+            echeance = declencheur.prochaineExecution(apres);
+            long gigue = gigueMaxMs > 0 ? ThreadLocalRandom.current().nextLong(gigueMaxMs + 1) : 0;
+            prochaine = echeance + gigue;
+            ex.schedule(this, Math.max(0, prochaine - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public void run() {
+            // Échéance suivante calculée avant l'exécution : le rythme ne dérive pas avec la durée
+            programmer(Math.max(System.currentTimeMillis(), echeance));
+
+            if (exclusive && !ElectionCluster.getInstance().estTitulaire(nom)) {
+                cedees.incrementer();
+                return;
+            }
+            if (!enCours.compareAndSet(false, true)) {
+                sautees.incrementer();
+                System.err.println("Tâche " + nom + " encore en cours : échéance sautée");
+                return;
+            }
+            long debut = System.nanoTime();
+            try {
+                travail.executer();
+                derniereErreur = null;
+            } catch (Exception e) {
+                echecs.incrementer();
+                derniereErreur = e.getClass().getSimpleName() + " : " + e.getMessage();
+                System.err.println("ERREUR tâche " + nom + " : " + e.getMessage());
+                e.printStackTrace();
+            } finally {
+                long nanos = System.nanoTime() - debut;
+                duree.observer(nanos);
+                long ms = TimeUnit.NANOSECONDS.toMillis(nanos);
+                executions.increment();
+                dureeTotaleMs.add(ms);
+                derniereDureeMs = ms;
+                if (ms > dureeMaxMs) {
+                    dureeMaxMs = ms;
+                }
+                derniereFin = System.currentTimeMillis();
+                enCours.set(false);
+            }
+        }
+
+        public String getNom() {
+            return nom;
+        }
+
+        public boolean isEnCours() {
+            return enCours.get();
+        }
+
+        public long getExecutions() {
+            return executions.sum();
+        }
+
+        public long getEchecs() {
+            return echecs.valeur();
+        }
+
+        public long getSautees() {
+            return sautees.valeur();
+        }
+
+        public boolean isExclusive() {
+            return exclusive;
+        }
+
+        /** Échéances laissées au serveur titulaire du bail (tâche exclusive) */
+        public long getCedees() {
+            return cedees.valeur();
+        }
+
+        public long getDureeTotaleMs() {
+            return dureeTotaleMs.sum();
+        }
+
+        public long getDureeMaxMs() {
+            return dureeMaxMs;
+        }
+
+        public long getDerniereDureeMs() {
+            return derniereDureeMs;
+        }
+
+        /** Fin de la dernière exécution (ms epoch), 0 si jamais exécutée */
+        public long getDerniereFin() {
+            return derniereFin;
+        }
+
+        /** Prochaine échéance programmée, gigue comprise (ms epoch) */
+        public long getProchaine() {
+            return prochaine;
+        }
+
+        public String getDerniereErreur() {
+            return derniereErreur;
+        }
+
+        @Override
+        public String toString() {
+            long n = getExecutions();
+            return nom + " [" + declencheur + "] : " + n + " exécution(s), " + getEchecs() + " échec(s), "
+                    + getSautees() + " sautée(s), " + (exclusive ? getCedees() + " cédée(s), " : "") + "durée moy. " + (n > 0 ? getDureeTotaleMs() / n : 0)
+                    + " ms, max " + dureeMaxMs + " ms"
+                    + (derniereErreur != null ? ", dernière erreur : " + derniereErreur : "");
+        }
+    }
+
+    private final List<Tache> taches = Collections.synchronizedList(new ArrayList<>());
+    private volatile ScheduledThreadPoolExecutor executeur;
+
+    private PlanificateurTaches() {
+    }
+
+    public static PlanificateurTaches getInstance() {
+        return INSTANCE;
+    }
+
+    // ==================== Cycle de vie ====================
+
+    /**
+     * Démarre les threads et programme les tâches déjà enregistrées
+     */
+    public synchronized void demarrer() {
+        if (executeur != null) {
+            return;
+        }
+        final AtomicInteger numero = new AtomicInteger();
+        ScheduledThreadPoolExecutor ex = new ScheduledThreadPoolExecutor(NB_THREADS, r -> {
+            Thread t = new Thread(r, "planificateur-" + numero.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        ex.setRemoveOnCancelPolicy(true);
+        ex.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        executeur = ex;
+
+        long maintenant = System.currentTimeMillis();
+        synchronized (taches) {
+            for (Tache tache : taches) {
+                tache.programmer(maintenant);
+            }
+        }
+        System.out.println("✓ Planificateur démarré : " + taches.size() + " tâche(s)");
+    }
+
+    /**
+     * Annule les échéances à venir et attend la fin des exécutions en cours
+     * (interrompues au-delà de DELAI_ARRET_MS)
+     */
+    public synchronized void arreter() {
+        ScheduledThreadPoolExecutor ex = executeur;
+        executeur = null;
+        if (ex == null) {
+            return;
+        }
+        ex.shutdown();
+        try {
+            if (!ex.awaitTermination(DELAI_ARRET_MS, TimeUnit.MILLISECONDS)) {
+                ex.shutdownNow();
+                System.err.println("Planificateur : tâches interrompues à l'arrêt");
+            }
+        } catch (InterruptedException e) {
+            ex.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        taches.clear();
+        System.out.println("Planificateur arrêté");
+    }
+
+    // ==================== Enregistrement ====================
+
+    /**
+     * Enregistre une tâche ; programmée tout de suite si le planificateur tourne
+     *
+     * @param nom         Nom unique, utilisé dans les logs et les métriques
+     * @param declencheur periodique(...) ou ExpressionCron.analyser(...)
+     * @param gigueMax    Retard aléatoire maximal ajouté à chaque échéance
+     * @param unite       Unité de gigueMax
+     * @param travail     Corps de la tâche
+     */
+    public Tache enregistrer(String nom, Declencheur declencheur, long gigueMax, TimeUnit unite, Travail travail) {
+        return enregistrer(nom, declencheur, gigueMax, unite, travail, false);
+    }
+
+    /**
+     * Enregistre une tâche exécutée par un seul serveur du cluster : celui qui
+     * détient son bail dans job_lease (ElectionCluster doit être démarré)
+     */
+    public Tache enregistrerExclusive(String nom, Declencheur declencheur, long gigueMax, TimeUnit unite,
+            Travail travail) {
+        ElectionCluster.getInstance().surveiller(nom);
+        return enregistrer(nom, declencheur, gigueMax, unite, travail, true);
+    }
+
+    private synchronized Tache enregistrer(String nom, Declencheur declencheur, long gigueMax, TimeUnit unite,
+            Travail travail, boolean exclusive) {
+        synchronized (taches) {
+            for (Tache t : taches) {
+                if (t.nom.equals(nom)) {
+                    throw new IllegalArgumentException("Tâche déjà enregistrée : " + nom);
+                }
+            }
+        }
+        Tache tache = new Tache(nom, declencheur, unite.toMillis(gigueMax), travail, exclusive);
+        taches.add(tache);
+        if (executeur != null) {
+            tache.programmer(System.currentTimeMillis());
+        }
+        return tache;
+    }
+
+    /**
+     * Copie de la liste des tâches enregistrées
+     */
+    public List<Tache> getTaches() {
+        synchronized (taches) {
+            return new ArrayList<>(taches);
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("Planificateur : ").append(taches.size()).append(" tâche(s)");
+        for (Tache t : getTaches()) {
+            sb.append("\n    ").append(t);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,168 @@
+package services;
+
+import beans.CreneauLibre;
+import beans.Planification;
+
+import java.sql.Timestamp;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Recherche des premiers créneaux où une salle (parmi plusieurs) et un
+ * enseignant sont libres ensemble
+ *
+ * Travaille semaine par semaine sur les tables d'occupation du moteur de
+ * conflits ({@link CarteOccupation}) : l'occupation de l'enseignant est
+ * ajoutée à celle de chaque salle, puis les débuts possibles d'un créneau de
+ * n quarts d'heure sont obtenus par quelques décalages et ET bit à bit sur
+ * 11 long, masqués par la plage horaire et les jours demandés. Aucune
+ * requête en base.
+ *
+ * Les créneaux sont proposés par début croissant (puis dans l'ordre des
+ * salles demandées), alignés sur le quart d'heure.
+ *
+ * @author Système de Planification Académique
+ * @version 1.0
+ */
+public class RechercheCreneaux {
+
+    /** Nombre maximal de créneaux renvoyés par recherche */
+    public static final int NOMBRE_MAX = 100;
+    /** Nombre maximal de semaines parcourues par recherche */
+    public static final int SEMAINES_MAX = 26;
+
+    private final MoteurConflits moteur;
+
+    public RechercheCreneaux() {
+        this(MoteurConflits.getInstance());
+    }
+
+    RechercheCreneaux(MoteurConflits moteur) {
+        this.moteur = moteur;
+    }
+
+    /**
+     * Premiers créneaux libres dans [debut, fin)
+     *
+     * @param salleIds Salles candidates (au moins une)
+     * @param enseignantId Enseignant à réunir (0 : salle seule)
+     * @param duree Durée en minutes
+     * @param heureMin Heure de début au plus tôt, chaque jour
+     * @param heureMax Heure de fin au plus tard, chaque jour
+     * @param jours Jours acceptés (bit 0 = lundi ... bit 6 = dimanche)
+     * @param nombre Nombre de créneaux voulus (1 à NOMBRE_MAX)
+     * @throws IllegalArgumentException si un critère est invalide
+     * @throws IllegalStateException si le moteur de conflits ne peut pas être chargé
+     */
+    public List<CreneauLibre> rechercher(int[] salleIds, int enseignantId, int duree, Timestamp debut,
+            Timestamp fin, LocalTime heureMin, LocalTime heureMax, int jours, int nombre) {
+        if (salleIds.length == 0) {
+            throw new IllegalArgumentException("Aucune salle candidate");
+        }
+        if (duree < Planification.DUREE_MIN_MINUTES || duree > Planification.DUREE_MAX_MINUTES) {
+            throw new IllegalArgumentException("La durée doit être comprise entre "
+                    + Planification.DUREE_MIN_MINUTES + " et " + Planification.DUREE_MAX_MINUTES + " minutes");
+        }
+        if (!heureMin.isBefore(heureMax)) {
+            throw new IllegalArgumentException("heureMin doit précéder heureMax");
+        }
+        if ((jours & 0x7F) == 0 || (jours & ~0x7F) != 0) {
+            throw new IllegalArgumentException("Au moins un jour de la semaine est requis");
+        }
+        if (nombre < 1 || nombre > NOMBRE_MAX) {
+            throw new IllegalArgumentException("nombre doit être compris entre 1 et " + NOMBRE_MAX);
+        }
+        if (!debut.before(fin)) {
+            throw new IllegalArgumentException("La fin doit suivre le début");
+        }
+        long premiere = CarteOccupation.semaine(debut.getTime());
+        long derniere = CarteOccupation.semaine(fin.getTime() - 1);
+        if (derniere - premiere >= SEMAINES_MAX) {
+            throw new IllegalArgumentException("Période limitée à " + SEMAINES_MAX + " semaines");
+        }
+        if (!moteur.assurerCharge()) {
+            throw new IllegalStateException("Moteur de conflits indisponible");
+        }
+
+        int quarts = (duree + CarteOccupation.MINUTES_QUART - 1) / CarteOccupation.MINUTES_QUART;
+        long[] plages = plagesHoraires(heureMin, heureMax, jours, quarts);
+
+        int[] ressources = new int[salleIds.length + (enseignantId > 0 ? 1 : 0)];
+        System.arraycopy(salleIds, 0, ressources, 0, salleIds.length);
+        if (enseignantId > 0) {
+            ressources[salleIds.length] = enseignantId;
+        }
+
+        List<CreneauLibre> creneaux = new ArrayList<>();
+        for (long semaine = premiere; semaine <= derniere && creneaux.size() < nombre; semaine++) {
+            // Débuts autorisés cette semaine : plages horaires ∩ [debut, fin - durée]
+            long[] masque = new long[CarteOccupation.MOTS];
+            int de = (int) Math.max(0, CarteOccupation.quart(semaine, debut.getTime(), true));
+            int a = (int) Math.min(CarteOccupation.QUARTS_PAR_SEMAINE,
+                    CarteOccupation.quart(semaine, fin.getTime(), false) - quarts + 1);
+            CarteOccupation.marquerPlage(masque, de, a);
+            for (int i = 0; i < CarteOccupation.MOTS; i++) {
+                masque[i] &= plages[i];
+            }
+
+            long[][] occupations = moteur.occupations(ressources, semaine);
+            long[][] libres = new long[salleIds.length][];
+            long[] union = new long[CarteOccupation.MOTS];
+            for (int s = 0; s < salleIds.length; s++) {
+                long[] occupe = occupations[s];
+                if (enseignantId > 0) {
+                    for (int i = 0; i < CarteOccupation.MOTS; i++) {
+                        occupe[i] |= occupations[salleIds.length][i];
+                    }
+                }
+                libres[s] = CarteOccupation.debutsLibres(occupe, quarts);
+                for (int i = 0; i < CarteOccupation.MOTS; i++) {
+                    libres[s][i] &= masque[i];
+                    union[i] |= libres[s][i];
+                }
+            }
+
+            collecter(creneaux, nombre, semaine, salleIds, enseignantId, duree, libres, union);
+        }
+        return creneaux;
+    }
+
+    /**
+     * Débuts de créneau compatibles avec la plage horaire et les jours, identiques chaque semaine
+     */
+    private static long[] plagesHoraires(LocalTime heureMin, LocalTime heureMax, int jours, int quarts) {
+        int premier = (heureMin.toSecondOfDay() / 60 + CarteOccupation.MINUTES_QUART - 1)
+                / CarteOccupation.MINUTES_QUART;
+        int dernier = heureMax.toSecondOfDay() / 60 / CarteOccupation.MINUTES_QUART - quarts;
+        long[] plages = new long[CarteOccupation.MOTS];
+        for (int jour = 0; jour < 7; jour++) {
+            if ((jours & (1 << jour)) != 0 && premier <= dernier) {
+                int base = jour * CarteOccupation.QUARTS_PAR_JOUR;
+                CarteOccupation.marquerPlage(plages, base + premier, base + dernier + 1);
+            }
+        }
+        return plages;
+    }
+
+    /**
+     * Parcourt les débuts libres par ordre croissant jusqu'à obtenir le nombre voulu
+     */
+    private static void collecter(List<CreneauLibre> creneaux, int nombre, long semaine, int[] salleIds,
+            int enseignantId, int duree, long[][] libres, long[] union) {
+        for (int i = 0; i < CarteOccupation.MOTS; i++) {
+            for (long mot = union[i]; mot != 0; mot &= mot - 1) {
+                int bit = Long.numberOfTrailingZeros(mot);
+                Timestamp dateHeure = Timestamp.valueOf(CarteOccupation.debutQuart(semaine, i * 64 + bit));
+                for (int s = 0; s < salleIds.length; s++) {
+                    if ((libres[s][i] & (1L << bit)) != 0) {
+                        creneaux.add(new CreneauLibre(salleIds[s], enseignantId, dateHeure, duree));
+                        if (creneaux.size() == nombre) {
+                            return;
+                        }
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,333 @@
+package services;
+
+import utils.DatabaseConnection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Compteurs de ressources (par type, total et disponibles) et de
+ * planifications (par statut), tenus en mémoire
+ *
+ * Chargés une fois depuis la base, puis tenus à jour par les écritures de
+ * RessourceDAO, PlanificationDAO et OrdonnanceurTransitions : lire les
+ * statistiques ne coûte aucune requête. Une réconciliation périodique
+ * recompte en base et corrige les écarts (écritures d'un autre serveur,
+ * modifications faites à la main, suppressions en cascade).
+ *
+ * @author Système de Planification Académique
+ * @version 1.0
+ */
+public class Statistiques {
+
+    public static final String[] TYPES = { "ENSEIGNANT", "SALLE", "COURS" };
+    public static final String[] STATUTS = { "PLANIFIE", "EN_COURS", "TERMINE", "ANNULE" };
+
+    private static final String SQL_RESSOURCES = "SELECT type, COUNT(*) AS total, " +
+            "SUM(CASE WHEN disponibilite = 1 THEN 1 ELSE 0 END) AS disponibles " +
+            "FROM ressource GROUP BY type";
+
+    private static final String SQL_PLANIFICATIONS = "SELECT statut, COUNT(*) AS total " +
+            "FROM planification GROUP BY statut";
+
+    private static final Statistiques INSTANCE = new Statistiques();
+
+    /** Un compteur par type / statut connu ; ordre d'affichage conservé */
+    private final Map<String, AtomicLong> ressources = compteurs(TYPES);
+    private final Map<String, AtomicLong> disponibles = compteurs(TYPES);
+    private final Map<String, AtomicLong> planifications = compteurs(STATUTS);
+
+    private volatile boolean charge = false;
+    private volatile long dateChargement;
+    private volatile long derniereReconciliation;
+    private final LongAdder reconciliations = new LongAdder();
+    private final LongAdder corrections = new LongAdder();
+
+    private Statistiques() {
+    }
+
+    public static Statistiques getInstance() {
+        return INSTANCE;
+    }
+
+    private static Map<String, AtomicLong> compteurs(String[] cles) {
+        Map<String, AtomicLong> map = new LinkedHashMap<>();
+        for (String cle : cles) {
+            map.put(cle, new AtomicLong());
+        }
+        return Collections.unmodifiableMap(map);
+    }
+
+    // ==================== Chargement ====================
+
+    /**
+     * Charge les compteurs si ce n'est pas déjà fait
+     *
+     * @return false si la base est indisponible
+     */
+    public boolean assurerCharge() {
+        if (charge) {
+            return true;
+        }
+        synchronized (this) {
+            if (charge) {
+                return true;
+            }
+            try {
+                charger();
+                return true;
+            } catch (SQLException e) {
+                System.err.println("Chargement des statistiques impossible : " + e.getMessage());
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Remplace tous les compteurs par les valeurs de la base
+     */
+    public synchronized void charger() throws SQLException {
+        Map<String, long[]> r = compterRessources();
+        Map<String, Long> p = compterPlanifications();
+        for (String type : TYPES) {
+            long[] v = r.get(type);
+            ressources.get(type).set(v != null ? v[0] : 0);
+            disponibles.get(type).set(v != null ? v[1] : 0);
+        }
+        for (String statut : STATUTS) {
+            Long v = p.get(statut);
+            planifications.get(statut).set(v != null ? v : 0);
+        }
+        dateChargement = System.currentTimeMillis();
+        derniereReconciliation = dateChargement;
+        charge = true;
+    }
+
+    /**
+     * Recompte en base et corrige les compteurs qui ont dérivé.
+     *
+     * Un compteur modifié pendant le comptage est laissé tel quel : on ne
+     * sait pas si la base comptée inclut cette écriture. Il sera vérifié à
+     * la réconciliation suivante.
+     *
+     * @return Nombre de compteurs corrigés
+     */
+    public synchronized int reconcilier() throws SQLException {
+        if (!charge) {
+            charger();
+            return 0;
+        }
+        Map<String, Long> avant = instantane();
+        Map<String, long[]> r = compterRessources();
+        Map<String, Long> p = compterPlanifications();
+
+        int corriges = 0;
+        for (String type : TYPES) {
+            long[] v = r.get(type);
+            corriges += corriger("ressources." + type, ressources.get(type), avant, v != null ? v[0] : 0);
+            corriges += corriger("disponibles." + type, disponibles.get(type), avant, v != null ? v[1] : 0);
+        }
+        for (String statut : STATUTS) {
+            Long v = p.get(statut);
+            corriges += corriger("planifications." + statut, planifications.get(statut), avant, v != null ? v : 0);
+        }
+        derniereReconciliation = System.currentTimeMillis();
+        reconciliations.increment();
+        if (corriges > 0) {
+            corrections.add(corriges);
+            System.out.println("✓ Statistiques : " + corriges + " compteur(s) corrigé(s) par la réconciliation");
+        }
+        return corriges;
+    }
+
+    private static int corriger(String cle, AtomicLong compteur, Map<String, Long> avant, long enBase) {
+        long lu = avant.get(cle);
+        // Écart appliqué par compareAndSet : une écriture concurrente annule la correction
+        if (lu != enBase && compteur.compareAndSet(lu, enBase)) {
+            return 1;
+        }
+        return 0;
+    }
+
+    private static Map<String, long[]> compterRessources() throws SQLException {
+        Map<String, long[]> resultat = new LinkedHashMap<>();
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+        try {
+            conn = DatabaseConnection.getConnection();
+            pstmt = conn.prepareStatement(SQL_RESSOURCES);
+            rs = pstmt.executeQuery();
+            while (rs.next()) {
+                resultat.put(rs.getString("type"), new long[] { rs.getLong("total"), rs.getLong("disponibles") });
+            }
+        } finally {
+            DatabaseConnection.closeResources(conn, pstmt, rs);
+        }
+        return resultat;
+    }
+
+    private static Map<String, Long> compterPlanifications() throws SQLException {
+        Map<String, Long> resultat = new LinkedHashMap<>();
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+        try {
+            conn = DatabaseConnection.getConnection();
+            pstmt = conn.prepareStatement(SQL_PLANIFICATIONS);
+            rs = pstmt.executeQuery();
+            while (rs.next()) {
+                resultat.put(rs.getString("statut"), rs.getLong("total"));
+            }
+        } finally {
+            DatabaseConnection.closeResources(conn, pstmt, rs);
+        }
+        return resultat;
+    }
+
+    // ==================== Mises à jour (appelées par les DAO) ====================
+
+    public void ressourceAjoutee(String type, boolean disponible) {
+        ajouter(ressources, type, 1);
+        if (disponible) {
+            ajouter(disponibles, type, 1);
+        }
+    }
+
+    public void ressourceRetiree(String type, boolean disponible) {
+        ajouter(ressources, type, -1);
+        if (disponible) {
+            ajouter(disponibles, type, -1);
+        }
+    }
+
+    public void ressourceModifiee(String ancienType, boolean ancienneDispo, String type, boolean disponible) {
+        ressourceRetiree(ancienType, ancienneDispo);
+        ressourceAjoutee(type, disponible);
+    }
+
+    public void planificationAjoutee(String statut) {
+        planificationsAjoutees(statut, 1);
+    }
+
+    public void planificationsAjoutees(String statut, int nombre) {
+        ajouter(planifications, statut != null ? statut : "PLANIFIE", nombre);
+    }
+
+    public void planificationRetiree(String statut) {
+        ajouter(planifications, statut, -1);
+    }
+
+    /**
+     * Changement de statut de nombre planifications (modification, transition)
+     */
+    public void statutChange(String ancien, String nouveau, int nombre) {
+        if (ancien == null || nouveau == null || ancien.equals(nouveau) || nombre == 0) {
+            return;
+        }
+        ajouter(planifications, ancien, -nombre);
+        ajouter(planifications, nouveau, nombre);
+    }
+
+    private static void ajouter(Map<String, AtomicLong> map, String cle, long delta) {
+        AtomicLong compteur = cle != null ? map.get(cle) : null;
+        if (compteur != null) {
+            compteur.addAndGet(delta);
+        }
+    }
+
+    // ==================== Lecture ====================
+
+    public boolean isCharge() {
+        return charge;
+    }
+
+    public long getRessources(String type) {
+        AtomicLong c = ressources.get(type);
+        return c != null ? c.get() : 0;
+    }
+
+    public long getDisponibles(String type) {
+        AtomicLong c = disponibles.get(type);
+        return c != null ? c.get() : 0;
+    }
+
+    public long getPlanifications(String statut) {
+        AtomicLong c = planifications.get(statut);
+        return c != null ? c.get() : 0;
+    }
+
+    public long getTotalRessources() {
+        long total = 0;
+        for (AtomicLong c : ressources.values()) {
+            total += c.get();
+        }
+        return total;
+    }
+
+    public long getTotalPlanifications() {
+        long total = 0;
+        for (AtomicLong c : planifications.values()) {
+            total += c.get();
+        }
+        return total;
+    }
+
+    public long getDateChargement() {
+        return dateChargement;
+    }
+
+    public long getDerniereReconciliation() {
+        return derniereReconciliation;
+    }
+
+    public long getReconciliations() {
+        return reconciliations.sum();
+    }
+
+    public long getCorrections() {
+        return corrections.sum();
+    }
+
+    /**
+     * Valeur de chaque compteur, clés "ressources.TYPE", "disponibles.TYPE",
+     * "planifications.STATUT"
+     */
+    public Map<String, Long> instantane() {
+        Map<String, Long> valeurs = new LinkedHashMap<>();
+        for (String type : TYPES) {
+            valeurs.put("ressources." + type, ressources.get(type).get());
+            valeurs.put("disponibles." + type, disponibles.get(type).get());
+        }
+        for (String statut : STATUTS) {
+            valeurs.put("planifications." + statut, planifications.get(statut).get());
+        }
+        return valeurs;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("Statistiques : ");
+        if (!charge) {
+            return sb.append("non chargées").toString();
+        }
+        sb.append(getTotalRessources()).append(" ressource(s) (");
+        for (int i = 0; i < TYPES.length; i++) {
+            sb.append(i > 0 ? ", " : "").append(TYPES[i]).append(' ')
+                    .append(getDisponibles(TYPES[i])).append('/').append(getRessources(TYPES[i]));
+        }
+        sb.append("), ").append(getTotalPlanifications()).append(" planification(s) (");
+        for (int i = 0; i < STATUTS.length; i++) {
+            sb.append(i > 0 ? ", " : "").append(STATUTS[i]).append(' ').append(getPlanifications(STATUTS[i]));
+        }
+        return sb.append("), ").append(getCorrections()).append(" correction(s) en ")
+                .append(getReconciliations()).append(" réconciliation(s)").toString();
+    }
+}
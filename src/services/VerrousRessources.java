@@ -0,0 +1,93 @@
+package services;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Verrous par ressource (salle, enseignant) des réservations de l'instance
+ *
+ * Une réservation prend le verrou de sa salle et celui de son enseignant :
+ * deux réservations ne s'attendent que si elles partagent une ressource (ou,
+ * rarement, une même bande). Les ressources sont réparties sur un nombre fixe
+ * de verrous (bandes) pour ne rien allouer par ressource ; les bandes sont
+ * toujours prises dans l'ordre croissant, ce qui exclut l'interblocage.
+ *
+ * Ces verrous évitent que les réservations concurrentes d'une même instance
+ * occupent des connexions du pool en attendant les verrous de ligne de la
+ * base ; entre instances du cluster, c'est le SELECT ... FOR UPDATE sur les
+ * lignes des ressources (PlanificationDAO.reserverSiLibre) qui sérialise.
+ *
+ * Configuration (propriété système) : planification.verrous.bandes (256,
+ * arrondi à la puissance de 2 supérieure)
+ *
+ * @author Système de Planification Académique
+ * @version 1.0
+ */
+public class VerrousRessources {
+
+    private static final VerrousRessources INSTANCE =
+            new VerrousRessources(Integer.getInteger("planification.verrous.bandes", 256));
+
+    private final ReentrantLock[] bandes;
+    private final int masque;
+
+    VerrousRessources(int nombre) {
+        int taille = Integer.highestOneBit(Math.max(1, nombre - 1)) << 1;
+        bandes = new ReentrantLock[taille];
+        for (int i = 0; i < taille; i++) {
+            bandes[i] = new ReentrantLock();
+        }
+        masque = taille - 1;
+    }
+
+    public static VerrousRessources getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Bandes verrouillées pour une réservation, à rendre par {@link #liberer}
+     */
+    public static final class Jeton {
+        private final ReentrantLock premier;
+        private final ReentrantLock second;
+
+        private Jeton(ReentrantLock premier, ReentrantLock second) {
+            this.premier = premier;
+            this.second = second;
+        }
+    }
+
+    /**
+     * Prend les verrous de la salle et de l'enseignant (bloquant)
+     */
+    public Jeton verrouiller(int salleId, int enseignantId) {
+        int a = bande(salleId);
+        int b = bande(enseignantId);
+        ReentrantLock premier = bandes[Math.min(a, b)];
+        ReentrantLock second = a == b ? null : bandes[Math.max(a, b)];
+        premier.lock();
+        if (second != null) {
+            second.lock();
+        }
+        return new Jeton(premier, second);
+    }
+
+    public void liberer(Jeton jeton) {
+        if (jeton.second != null) {
+            jeton.second.unlock();
+        }
+        jeton.premier.unlock();
+    }
+
+    /**
+     * Bande d'une ressource : les identifiants consécutifs tombent sur des bandes distinctes
+     */
+    private int bande(int ressourceId) {
+        int h = ressourceId * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & masque;
+    }
+
+    /** Nombre de bandes (puissance de 2) */
+    public int getNombreBandes() {
+        return bandes.length;
+    }
+}
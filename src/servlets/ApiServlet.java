@@ -0,0 +1,733 @@
+package servlets;
+
+import beans.CreneauLibre;
+import beans.PagePlanifications;
+import beans.Planification;
+import beans.Ressource;
+import beans.ResultatPlanification;
+import beans.SeriePlanification;
+import beans.Utilisateur;
+import dao.PlanificationDAO;
+import dao.RessourceDAO;
+import services.CacheSemaines;
+import services.RechercheCreneaux;
+import utils.JsonReader;
+import utils.JsonReader.Jeton;
+import utils.JsonWriter;
+
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpSession;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Contrôleur frontal de l'API REST utilisée par le frontend React
+ * URL : /api/planifications/* et /api/ressources/*
+ *
+ * Planifications :
+ * - GET    /api/planifications                 liste (voir ci-dessous)
+ * - GET    /api/planifications/semaine?offset=n semaine du lundi au vendredi
+ * - GET    /api/planifications/creneaux-libres  premiers créneaux libres (voir ci-dessous)
+ * - GET    /api/planifications/{id}
+ * - POST   /api/planifications                 création (administrateurs)
+ * - POST   /api/planifications/check-conflict  { "conflit": true|false }
+ * - PUT    /api/planifications/{id}            modification (administrateurs)
+ * - DELETE /api/planifications/{id}            suppression (administrateurs)
+ *
+ * La liste accepte debut et fin ("yyyy-MM-dd" ou "yyyy-MM-ddTHH:mm", début
+ * inclus, fin exclue). Sans curseur ni taille, c'est un tableau JSON écrit au
+ * fil de la lecture en base ; avec taille et/ou curseur, une page
+ * { "elements": [...], "curseurSuivant": "..." } (null sur la dernière page).
+ *
+ * Les créneaux libres acceptent duree (minutes, obligatoire), salleId (liste
+ * séparée par des virgules ; toutes les salles disponibles si absent),
+ * enseignantId, debut et fin (maintenant et 4 semaines par défaut), heureMin
+ * et heureMax ("HH:mm", 08:00 et 20:00), jours ("LUNDI,MARDI,...", du lundi
+ * au vendredi) et nombre (10) ; réponse { "creneaux": [...] }.
+ *
+ * Ressources :
+ * - GET    /api/ressources                     toutes, triées par type puis nom
+ * - GET    /api/ressources/type/{type}
+ * - GET    /api/ressources/recherche?q=...     recherche plein texte, par pertinence
+ * - GET    /api/ressources/autocomplete?type=&q=&limite=&disponible=
+ * - GET    /api/ressources/{id}
+ * - POST   /api/ressources                     création (administrateurs)
+ * - PUT    /api/ressources/{id}                modification (administrateurs)
+ * - DELETE /api/ressources/{id}                suppression (administrateurs)
+ *
+ * Les réponses sont écrites avec {@link JsonWriter} directement depuis les
+ * objets lus (aucune chaîne JSON intermédiaire). Erreurs :
+ * { "success": false, "message": "..." } avec le statut HTTP approprié.
+ *
+ * @author Système de Planification Académique
+ * @version 1.0
+ */
+public class ApiServlet extends HttpServlet {
+
+    private static final long serialVersionUID = 1L;
+    private static final int TAILLE_PAGE_DEFAUT = 50;
+    private static final int LIMITE_AUTOCOMPLETION_DEFAUT = 10;
+    private static final int LIMITE_AUTOCOMPLETION_MAX = 50;
+    private static final int CRENEAUX_DEFAUT = 10;
+    private static final int SEMAINES_CRENEAUX_DEFAUT = 4;
+    private static final LocalTime HEURE_MIN_DEFAUT = LocalTime.of(8, 0);
+    private static final LocalTime HEURE_MAX_DEFAUT = LocalTime.of(20, 0);
+    private static final int JOURS_OUVRES = 0x1F;
+
+    private PlanificationDAO planificationDAO;
+    private RessourceDAO ressourceDAO;
+    private RechercheCreneaux rechercheCreneaux;
+
+    @Override
+    public void init() throws ServletException {
+        planificationDAO = new PlanificationDAO();
+        ressourceDAO = new RessourceDAO();
+        rechercheCreneaux = new RechercheCreneaux();
+        System.out.println("✓ ApiServlet initialisé");
+    }
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+        traiter("GET", request, response);
+    }
+
+    @Override
+    protected void doPost(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+        traiter("POST", request, response);
+    }
+
+    @Override
+    protected void doPut(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+        traiter("PUT", request, response);
+    }
+
+    @Override
+    protected void doDelete(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+        traiter("DELETE", request, response);
+    }
+
+    /**
+     * OPTIONS — pour le preflight CORS
+     */
+    @Override
+    protected void doOptions(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+        response.setHeader("Access-Control-Allow-Origin", "http://localhost:5173");
+        response.setHeader("Access-Control-Allow-Credentials", "true");
+        response.setHeader("Access-Control-Allow-Methods", "GET, POST, PUT, DELETE, OPTIONS");
+        response.setHeader("Access-Control-Allow-Headers", "Content-Type");
+        response.setStatus(HttpServletResponse.SC_OK);
+    }
+
+    // ==================== Routage ====================
+
+    private void traiter(String methode, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+
+        response.setContentType("application/json;charset=UTF-8");
+        response.setHeader("Access-Control-Allow-Origin", "http://localhost:5173");
+        response.setHeader("Access-Control-Allow-Credentials", "true");
+
+        String chemin = request.getPathInfo();
+        String[] segments = chemin == null || chemin.equals("/") ? new String[0] : chemin.substring(1).split("/");
+        JsonWriter json = new JsonWriter(response.getWriter());
+
+        try {
+            boolean traite = request.getServletPath().endsWith("/planifications")
+                    ? routerPlanifications(methode, segments, request, response, json)
+                    : routerRessources(methode, segments, request, response, json);
+            if (!traite) {
+                repondreErreur(response, json, HttpServletResponse.SC_NOT_FOUND, "Route inconnue : " + methode + " "
+                        + request.getServletPath() + (chemin != null ? chemin : ""));
+            }
+            json.flush();
+
+        } catch (AccesRefuse e) {
+            repondreEchec(response, HttpServletResponse.SC_FORBIDDEN, "Rôle insuffisant");
+        } catch (IllegalArgumentException e) {
+            repondreEchec(response, HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+        } catch (SQLException e) {
+            System.err.println("Erreur API " + methode + " " + request.getRequestURI() + " : " + e.getMessage());
+            repondreEchec(response, HttpServletResponse.SC_INTERNAL_SERVER_ERROR, "Erreur de lecture");
+        }
+    }
+
+    private boolean routerPlanifications(String methode, String[] segments, HttpServletRequest request,
+            HttpServletResponse response, JsonWriter json) throws IOException, SQLException {
+
+        if (segments.length == 0) {
+            switch (methode) {
+                case "GET":
+                    listerPlanifications(request, json);
+                    return true;
+                case "POST":
+                    verifierAdmin(request);
+                    enregistrerPlanification(request, response, json, null);
+                    return true;
+                default:
+                    return false;
+            }
+        }
+        if (segments.length != 1) {
+            return false;
+        }
+        if ("GET".equals(methode) && "semaine".equals(segments[0])) {
+            envoyerSemaine(request, json);
+            return true;
+        }
+        if ("GET".equals(methode) && "creneaux-libres".equals(segments[0])) {
+            chercherCreneaux(request, response, json);
+            return true;
+        }
+        if ("POST".equals(methode) && "check-conflict".equals(segments[0])) {
+            verifierConflit(request, json);
+            return true;
+        }
+
+        int id = parserId(segments[0]);
+        switch (methode) {
+            case "GET":
+                Planification p = planificationDAO.getPlanificationById(id);
+                if (p == null) {
+                    repondreErreur(response, json, HttpServletResponse.SC_NOT_FOUND, "Planification introuvable");
+                } else {
+                    ecrirePlanification(json, p);
+                }
+                return true;
+            case "PUT":
+                verifierAdmin(request);
+                enregistrerPlanification(request, response, json, id);
+                return true;
+            case "DELETE":
+                verifierAdmin(request);
+                if (planificationDAO.supprimerPlanification(id)) {
+                    repondreSucces(json);
+                } else {
+                    repondreErreur(response, json, HttpServletResponse.SC_NOT_FOUND, "Planification introuvable");
+                }
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private boolean routerRessources(String methode, String[] segments, HttpServletRequest request,
+            HttpServletResponse response, JsonWriter json) throws IOException, SQLException {
+
+        if (segments.length == 0) {
+            switch (methode) {
+                case "GET":
+                    ecrireRessources(json, ressourceDAO.getAllRessources());
+                    return true;
+                case "POST":
+                    verifierAdmin(request);
+                    enregistrerRessource(request, response, json, null);
+                    return true;
+                default:
+                    return false;
+            }
+        }
+        if ("GET".equals(methode)) {
+            if (segments.length == 2 && "type".equals(segments[0])) {
+                ecrireRessources(json, ressourceDAO.getRessourcesByType(parserType(segments[1])));
+                return true;
+            }
+            if (segments.length == 1 && "recherche".equals(segments[0])) {
+                String q = request.getParameter("q");
+                ecrireRessources(json, ressourceDAO.searchRessources(q != null ? q : ""));
+                return true;
+            }
+            if (segments.length == 1 && "autocomplete".equals(segments[0])) {
+                autocompleter(request, json);
+                return true;
+            }
+        }
+        if (segments.length != 1) {
+            return false;
+        }
+
+        int id = parserId(segments[0]);
+        switch (methode) {
+            case "GET":
+                Ressource r = ressourceDAO.getRessourceById(id);
+                if (r == null) {
+                    repondreErreur(response, json, HttpServletResponse.SC_NOT_FOUND, "Ressource introuvable");
+                } else {
+                    ecrireRessource(json, r);
+                }
+                return true;
+            case "PUT":
+                verifierAdmin(request);
+                enregistrerRessource(request, response, json, id);
+                return true;
+            case "DELETE":
+                verifierAdmin(request);
+                if (ressourceDAO.deleteRessource(id)) {
+                    repondreSucces(json);
+                } else {
+                    repondreErreur(response, json, HttpServletResponse.SC_NOT_FOUND, "Ressource introuvable");
+                }
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    // ==================== Planifications ====================
+
+    private void listerPlanifications(HttpServletRequest request, JsonWriter json) throws IOException, SQLException {
+        Timestamp debut = parserBorne(request.getParameter("debut"));
+        Timestamp fin = parserBorne(request.getParameter("fin"));
+        String curseur = request.getParameter("curseur");
+        String tailleParam = request.getParameter("taille");
+
+        if (curseur == null && tailleParam == null) {
+            // Flux : chaque ligne est écrite dès sa lecture, rien n'est accumulé en mémoire
+            json.debutTableau();
+            int nombre = planificationDAO.parcourirPlanifications(debut, fin, p -> ecrirePlanification(json, p));
+            json.finTableau();
+            System.out.println("✓ Liste des planifications envoyée en flux : " + nombre + " ligne(s)");
+            return;
+        }
+
+        int taille = tailleParam != null ? parserEntier(tailleParam, "taille") : TAILLE_PAGE_DEFAUT;
+        PagePlanifications page = planificationDAO.getPlanificationsPage(debut, fin, curseur, taille);
+        json.debutObjet().nom("elements").debutTableau();
+        for (Planification p : page.getElements()) {
+            ecrirePlanification(json, p);
+        }
+        json.finTableau().nom("curseurSuivant").valeur(page.getCurseurSuivant()).finObjet();
+    }
+
+    /**
+     * Semaine du lundi au vendredi, décalée de offset semaines par rapport à la semaine courante
+     */
+    private void envoyerSemaine(HttpServletRequest request, JsonWriter json) throws IOException, SQLException {
+        String offsetParam = request.getParameter("offset");
+        int offset = offsetParam != null && !offsetParam.isEmpty() ? parserEntier(offsetParam, "offset") : 0;
+        LocalDate lundi = CacheSemaines.lundi(LocalDate.now().plusWeeks(offset));
+        List<Planification> planifications = CacheSemaines.getInstance().getSemaine(lundi);
+
+        json.debutObjet()
+                .nom("debut").valeur(lundi)
+                .nom("fin").valeur(lundi.plusDays(4))
+                .nom("planifications").debutTableau();
+        for (Planification p : planifications) {
+            ecrirePlanification(json, p);
+        }
+        json.finTableau().finObjet();
+    }
+
+    /**
+     * Premiers créneaux où une des salles et l'enseignant sont libres ensemble
+     * Calculé en mémoire par le moteur de conflits (503 s'il est indisponible).
+     */
+    private void chercherCreneaux(HttpServletRequest request, HttpServletResponse response, JsonWriter json)
+            throws IOException, SQLException {
+        String dureeParam = request.getParameter("duree");
+        if (dureeParam == null || dureeParam.isEmpty()) {
+            throw new IllegalArgumentException("Paramètre duree requis");
+        }
+        int duree = parserEntier(dureeParam, "duree");
+        String enseignantParam = request.getParameter("enseignantId");
+        int enseignantId = enseignantParam != null && !enseignantParam.isEmpty()
+                ? parserEntier(enseignantParam, "enseignantId") : 0;
+        Timestamp debut = parserBorne(request.getParameter("debut"));
+        if (debut == null) {
+            debut = Timestamp.valueOf(LocalDateTime.now());
+        }
+        Timestamp fin = parserBorne(request.getParameter("fin"));
+        if (fin == null) {
+            fin = Timestamp.valueOf(debut.toLocalDateTime().plusWeeks(SEMAINES_CRENEAUX_DEFAUT));
+        }
+        String nombreParam = request.getParameter("nombre");
+        int nombre = nombreParam != null && !nombreParam.isEmpty()
+                ? parserEntier(nombreParam, "nombre") : CRENEAUX_DEFAUT;
+
+        List<CreneauLibre> creneaux;
+        try {
+            creneaux = rechercheCreneaux.rechercher(parserSalles(request.getParameter("salleId")), enseignantId,
+                    duree, debut, fin, parserHeure(request.getParameter("heureMin"), HEURE_MIN_DEFAUT),
+                    parserHeure(request.getParameter("heureMax"), HEURE_MAX_DEFAUT),
+                    parserJours(request.getParameter("jours")), nombre);
+        } catch (IllegalStateException e) {
+            repondreErreur(response, json, HttpServletResponse.SC_SERVICE_UNAVAILABLE, e.getMessage());
+            return;
+        }
+
+        json.debutObjet().nom("creneaux").debutTableau();
+        for (CreneauLibre c : creneaux) {
+            json.debutObjet()
+                    .nom("salleId").valeur(c.getSalleId())
+                    .nom("enseignantId").valeur(c.getEnseignantId())
+                    .nom("dateHeure").valeur(c.getDateHeure())
+                    .nom("duree").valeur(c.getDuree())
+                    .finObjet();
+        }
+        json.finTableau().finObjet();
+    }
+
+    /** Salles candidates : liste "1,2,3" ou, si absente, toutes les salles disponibles */
+    private int[] parserSalles(String valeur) throws SQLException {
+        if (valeur != null && !valeur.isEmpty()) {
+            String[] morceaux = valeur.split(",");
+            int[] ids = new int[morceaux.length];
+            for (int i = 0; i < morceaux.length; i++) {
+                ids[i] = parserEntier(morceaux[i].trim(), "salleId");
+            }
+            return ids;
+        }
+        List<Integer> disponibles = new ArrayList<>();
+        for (Ressource r : ressourceDAO.getRessourcesByType("SALLE")) {
+            if (r.isDisponibilite()) {
+                disponibles.add(r.getId());
+            }
+        }
+        return disponibles.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Corps : { "salleId", "enseignantId", "dateHeure", "duree", "planificationId" (optionnel,
+     * planification exclue de la vérification lors d'une modification) }
+     */
+    private void verifierConflit(HttpServletRequest request, JsonWriter json) throws IOException {
+        int salleId = 0;
+        int enseignantId = 0;
+        Timestamp dateHeure = null;
+        int duree = 0;
+        int planificationId = 0;
+
+        JsonReader corps = ouvrirObjet(request);
+        try {
+            while (corps.suivant() == Jeton.NOM) {
+                String champ = corps.getTexte();
+                if (corps.suivant() == Jeton.NUL) {
+                    continue;
+                }
+                switch (champ) {
+                    case "salleId":
+                        salleId = corps.getInt();
+                        break;
+                    case "enseignantId":
+                        enseignantId = corps.getInt();
+                        break;
+                    case "dateHeure":
+                        dateHeure = PlanificationBatchServlet.parserDateHeure(corps.getTexte());
+                        break;
+                    case "duree":
+                        duree = corps.getInt();
+                        break;
+                    case "planificationId":
+                        planificationId = corps.getInt();
+                        break;
+                    default:
+                        corps.ignorerValeur();
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException(e.getMessage());
+        }
+
+        if (dateHeure == null || duree <= 0) {
+            throw new IllegalArgumentException("dateHeure et duree sont obligatoires");
+        }
+        boolean conflit = planificationDAO.verifierConflit(salleId, enseignantId, dateHeure, duree, planificationId);
+        json.debutObjet().nom("conflit").valeur(conflit).finObjet();
+    }
+
+    /**
+     * Création (id null) ou modification ; les champs absents du corps gardent leur valeur
+     */
+    private void enregistrerPlanification(HttpServletRequest request, HttpServletResponse response,
+            JsonWriter json, Integer id) throws IOException {
+
+        Planification p;
+        if (id == null) {
+            p = new Planification();
+        } else {
+            p = planificationDAO.getPlanificationById(id);
+            if (p == null) {
+                repondreErreur(response, json, HttpServletResponse.SC_NOT_FOUND, "Planification introuvable");
+                return;
+            }
+        }
+        lireCorpsPlanification(request, p);
+        if (id != null) {
+            p.setId(id);
+        }
+
+        String erreur = p.valider();
+        if (erreur != null) {
+            throw new IllegalArgumentException(erreur);
+        }
+        ResultatPlanification resultat = planificationDAO.reserverSiLibre(p);
+        if (ResultatPlanification.CONFLIT.equals(resultat.getStatut())) {
+            repondreErreur(response, json, HttpServletResponse.SC_CONFLICT,
+                    "Conflit d'horaire : la salle ou l'enseignant est déjà réservé(e) à cette heure");
+            return;
+        }
+        if (!ResultatPlanification.CREE.equals(resultat.getStatut())) {
+            repondreErreur(response, json, HttpServletResponse.SC_INTERNAL_SERVER_ERROR, "Erreur lors de la sauvegarde");
+            return;
+        }
+        // Relecture pour renvoyer les noms joints
+        Planification enregistree = planificationDAO.getPlanificationById(p.getId());
+        if (id == null) {
+            response.setStatus(HttpServletResponse.SC_CREATED);
+        }
+        ecrirePlanification(json, enregistree != null ? enregistree : p);
+    }
+
+    private Planification lireCorpsPlanification(HttpServletRequest request, Planification p) throws IOException {
+        JsonReader corps = ouvrirObjet(request);
+        try {
+            PlanificationBatchServlet.lirePlanification(corps, p);
+        } catch (IOException e) {
+            throw new IllegalArgumentException(e.getMessage());
+        }
+        return p;
+    }
+
+    /**
+     * Écrit une planification (ou une occurrence de série, avec son serieId)
+     */
+    static void ecrirePlanification(JsonWriter json, Planification p) throws IOException {
+        json.debutObjet()
+                .nom("id").valeur(p.getId())
+                .nom("enseignantId").valeur(p.getEnseignantId())
+                .nom("enseignantNom").valeur(p.getEnseignantNom())
+                .nom("salleId").valeur(p.getSalleId())
+                .nom("salleNom").valeur(p.getSalleNom())
+                .nom("coursId").valeur(p.getCoursId())
+                .nom("coursNom").valeur(p.getCoursNom())
+                .nom("dateHeure").valeur(p.getDateHeure())
+                .nom("duree").valeur(p.getDuree())
+                .nom("statut").valeur(p.getStatut())
+                .nom("notes").valeur(p.getNotes());
+        if (p.isOccurrence()) {
+            json.nom("serieId").valeur(p.getSerieId());
+        }
+        json.finObjet();
+    }
+
+    // ==================== Ressources ====================
+
+    private void autocompleter(HttpServletRequest request, JsonWriter json) throws IOException, SQLException {
+        String type = parserType(request.getParameter("type"));
+        String limiteParam = request.getParameter("limite");
+        int limite = limiteParam != null && !limiteParam.isEmpty()
+                ? Math.min(parserEntier(limiteParam, "limite"), LIMITE_AUTOCOMPLETION_MAX)
+                : LIMITE_AUTOCOMPLETION_DEFAUT;
+        String disponibleParam = request.getParameter("disponible");
+        Boolean disponible = disponibleParam == null || disponibleParam.isEmpty() ? null
+                : Boolean.valueOf(disponibleParam);
+
+        ecrireRessources(json, ressourceDAO.autocompleter(type, request.getParameter("q"), limite, disponible));
+    }
+
+    /**
+     * Création (id null) ou modification ; les champs absents du corps gardent leur valeur
+     */
+    private void enregistrerRessource(HttpServletRequest request, HttpServletResponse response, JsonWriter json,
+            Integer id) throws IOException, SQLException {
+
+        Ressource r;
+        if (id == null) {
+            r = new Ressource();
+            r.setDisponibilite(true);
+        } else {
+            r = ressourceDAO.getRessourceById(id);
+            if (r == null) {
+                repondreErreur(response, json, HttpServletResponse.SC_NOT_FOUND, "Ressource introuvable");
+                return;
+            }
+        }
+
+        JsonReader corps = ouvrirObjet(request);
+        try {
+            while (corps.suivant() == Jeton.NOM) {
+                String champ = corps.getTexte();
+                if (corps.suivant() == Jeton.NUL) {
+                    continue;
+                }
+                switch (champ) {
+                    case "nom":
+                        r.setNom(corps.getTexte().trim());
+                        break;
+                    case "type":
+                        r.setType(corps.getTexte());
+                        break;
+                    case "disponibilite":
+                        r.setDisponibilite(corps.getBooleen());
+                        break;
+                    case "description":
+                        r.setDescription(corps.getTexte().trim());
+                        break;
+                    default:
+                        corps.ignorerValeur();
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException(e.getMessage());
+        }
+
+        if (r.getNom() == null || r.getNom().isEmpty()) {
+            throw new IllegalArgumentException("Le nom est obligatoire");
+        }
+        parserType(r.getType());
+
+        boolean succes = id == null ? ressourceDAO.addRessource(r) : ressourceDAO.updateRessource(r);
+        if (!succes) {
+            repondreErreur(response, json, HttpServletResponse.SC_INTERNAL_SERVER_ERROR, "Erreur lors de la sauvegarde");
+            return;
+        }
+        if (id == null) {
+            response.setStatus(HttpServletResponse.SC_CREATED);
+        }
+        ecrireRessource(json, r);
+    }
+
+    private static void ecrireRessources(JsonWriter json, List<Ressource> ressources) throws IOException {
+        json.debutTableau();
+        for (Ressource r : ressources) {
+            ecrireRessource(json, r);
+        }
+        json.finTableau();
+    }
+
+    static void ecrireRessource(JsonWriter json, Ressource r) throws IOException {
+        json.debutObjet()
+                .nom("id").valeur(r.getId())
+                .nom("nom").valeur(r.getNom())
+                .nom("type").valeur(r.getType())
+                .nom("disponibilite").valeur(r.isDisponibilite())
+                .nom("description").valeur(r.getDescription())
+                .finObjet();
+    }
+
+    // ==================== Méthodes utilitaires ====================
+
+    /** Levée quand une écriture est demandée sans droits d'administration */
+    private static final class AccesRefuse extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+    }
+
+    private static void verifierAdmin(HttpServletRequest request) {
+        HttpSession session = request.getSession(false);
+        Utilisateur utilisateur = session != null ? (Utilisateur) session.getAttribute("utilisateur") : null;
+        if (utilisateur == null || !utilisateur.hasAdminAccess()) {
+            throw new AccesRefuse();
+        }
+    }
+
+    /**
+     * Ouvre le corps JSON de la requête, positionné après le '{' initial
+     */
+    private static JsonReader ouvrirObjet(HttpServletRequest request) throws IOException {
+        JsonReader corps = new JsonReader(request.getInputStream());
+        try {
+            if (corps.suivant() != Jeton.DEBUT_OBJET) {
+                throw new IllegalArgumentException("Objet JSON attendu");
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException(e.getMessage());
+        }
+        return corps;
+    }
+
+    private static String parserType(String type) {
+        if (!"ENSEIGNANT".equals(type) && !"SALLE".equals(type) && !"COURS".equals(type)) {
+            throw new IllegalArgumentException("Type invalide (ENSEIGNANT, SALLE ou COURS) : " + type);
+        }
+        return type;
+    }
+
+    private static int parserId(String valeur) {
+        return parserEntier(valeur, "id");
+    }
+
+    private static int parserEntier(String valeur, String nom) {
+        try {
+            return Integer.parseInt(valeur);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Paramètre " + nom + " invalide : " + valeur);
+        }
+    }
+
+    private static LocalTime parserHeure(String valeur, LocalTime defaut) {
+        if (valeur == null || valeur.isEmpty()) {
+            return defaut;
+        }
+        try {
+            return LocalTime.parse(valeur);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Heure invalide : " + valeur);
+        }
+    }
+
+    /** Noms de jours séparés par des virgules ("LUNDI,MARDI") convertis en masque */
+    private static int parserJours(String valeur) {
+        if (valeur == null || valeur.isEmpty()) {
+            return JOURS_OUVRES;
+        }
+        int masque = 0;
+        for (String nom : valeur.split(",")) {
+            masque |= SeriePlanification.bitJour(nom);
+        }
+        return masque;
+    }
+
+    /** Accepte "yyyy-MM-dd" (minuit) ou "yyyy-MM-ddTHH:mm[:ss]" ; null si absent */
+    private static Timestamp parserBorne(String valeur) {
+        if (valeur == null || valeur.isEmpty()) {
+            return null;
+        }
+        try {
+            if (valeur.indexOf('T') < 0) {
+                return Timestamp.valueOf(LocalDate.parse(valeur).atStartOfDay());
+            }
+            return Timestamp.valueOf(LocalDateTime.parse(valeur));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Date invalide : " + valeur);
+        }
+    }
+
+    private static void repondreSucces(JsonWriter json) throws IOException {
+        json.debutObjet().nom("success").valeur(true).finObjet();
+    }
+
+    /**
+     * Remplace la réponse en cours par une erreur ; le contenu déjà préparé est abandonné
+     * Si une partie a déjà été envoyée (flux), la réponse reste tronquée (JSON
+     * invalide) : le client détecte l'échec.
+     */
+    private static void repondreEchec(HttpServletResponse response, int statut, String message) throws IOException {
+        if (response.isCommitted()) {
+            return;
+        }
+        response.resetBuffer();
+        JsonWriter json = new JsonWriter(response.getWriter());
+        repondreErreur(response, json, statut, message);
+        json.flush();
+    }
+
+    private static void repondreErreur(HttpServletResponse response, JsonWriter json, int statut, String message)
+            throws IOException {
+        response.setStatus(statut);
+        json.debutObjet().nom("success").valeur(false).nom("message").valeur(message).finObjet();
+    }
+}
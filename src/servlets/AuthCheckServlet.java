@@ -2,6 +2,9 @@ package servlets;
 
 import beans.Utilisateur;
 
+import utils.JsonWriter;
+import utils.Metriques;
+
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServlet;
 import jakarta.servlet.http.HttpServletRequest;
@@ -23,6 +26,7 @@ import java.io.IOException;
 public class AuthCheckServlet extends HttpServlet {
 
     private static final long serialVersionUID = 1L;
+    private static final Metriques.Histogramme DUREE_ME = Metriques.action("auth", "me");
 
     @Override
     public void init() throws ServletException {
@@ -36,31 +40,35 @@ public class AuthCheckServlet extends HttpServlet {
     protected void doGet(HttpServletRequest request, HttpServletResponse response)
             throws ServletException, IOException {
 
+        long debut = System.nanoTime();
         response.setContentType("application/json;charset=UTF-8");
         response.setHeader("Access-Control-Allow-Origin", "http://localhost:5173");
         response.setHeader("Access-Control-Allow-Credentials", "true");
 
         HttpSession session = request.getSession(false);
+        JsonWriter json = new JsonWriter(response.getWriter());
 
         if (session == null || session.getAttribute("utilisateur") == null) {
             response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
-            response.getWriter().print("{\"authenticated\":false}");
-            return;
+            json.debutObjet().nom("authenticated").valeur(false).finObjet();
+        } else {
+            json.debutObjet().nom("authenticated").valeur(true);
+            ecrireProfil(json, (Utilisateur) session.getAttribute("utilisateur"));
+            json.finObjet();
         }
+        json.flush();
+        DUREE_ME.observerDepuis(debut);
+    }
 
-        Utilisateur utilisateur = (Utilisateur) session.getAttribute("utilisateur");
-        String ressourceId = utilisateur.getRessourceId() != null
-                ? String.valueOf(utilisateur.getRessourceId())
-                : "null";
-
-        response.getWriter().print("{" +
-                "\"authenticated\":true," +
-                "\"id\":" + utilisateur.getId() + "," +
-                "\"nom\":\"" + escapeJson(utilisateur.getNom()) + "\"," +
-                "\"email\":\"" + escapeJson(utilisateur.getEmail()) + "\"," +
-                "\"role\":\"" + utilisateur.getRole() + "\"," +
-                "\"ressourceId\":" + ressourceId +
-                "}");
+    /**
+     * Champs du profil (dans un objet déjà ouvert) ; partagé avec LoginServlet
+     */
+    static void ecrireProfil(JsonWriter json, Utilisateur utilisateur) throws IOException {
+        json.nom("id").valeur(utilisateur.getId())
+                .nom("nom").valeur(utilisateur.getNom())
+                .nom("email").valeur(utilisateur.getEmail())
+                .nom("role").valeur(utilisateur.getRole())
+                .nom("ressourceId").valeur(utilisateur.getRessourceId());
     }
 
     /**
@@ -75,13 +83,4 @@ public class AuthCheckServlet extends HttpServlet {
         response.setHeader("Access-Control-Allow-Headers", "Content-Type");
         response.setStatus(HttpServletResponse.SC_OK);
     }
-
-    private String escapeJson(String s) {
-        if (s == null)
-            return "";
-        return s.replace("\\", "\\\\")
-                .replace("\"", "\\\"")
-                .replace("\n", "\\n")
-                .replace("\r", "\\r");
-    }
 }
@@ -1,16 +1,21 @@
 package servlets;
 
 import beans.Planification;
+import beans.ResultatPlanification;
 import dao.PlanificationDAO;
 import dao.RessourceDAO;
+import services.CacheSemaines;
+import utils.Metriques;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.annotation.WebServlet;
 import jakarta.servlet.http.HttpServlet;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.text.SimpleDateFormat;
+import java.time.LocalDate;
 import java.util.*;
 
 /**
@@ -21,6 +26,12 @@ import java.util.*;
 @WebServlet("/calendrier")
 public class CalendrierServlet extends HttpServlet {
 
+    private static final Metriques.Histogramme DUREE_AFFICHER = Metriques.action("calendrier", "afficher");
+    private static final Metriques.Histogramme DUREE_DETAIL = Metriques.action("calendrier", "detail");
+    private static final Metriques.Histogramme DUREE_FORMULAIRE = Metriques.action("calendrier", "formulaire");
+    private static final Metriques.Histogramme DUREE_SAUVEGARDER = Metriques.action("calendrier", "sauvegarder");
+    private static final Metriques.Histogramme DUREE_SUPPRIMER = Metriques.action("calendrier", "supprimer");
+
     private PlanificationDAO planificationDAO;
     private RessourceDAO ressourceDAO;
 
@@ -38,18 +49,26 @@ public class CalendrierServlet extends HttpServlet {
         if (action == null)
             action = "afficher";
 
-        switch (action) {
-            case "afficher":
-                afficherCalendrier(request, response);
-                break;
-            case "detail":
-                afficherDetailPlanification(request, response);
-                break;
-            case "formulaire":
-                afficherFormulairePlanification(request, response);
-                break;
-            default:
-                afficherCalendrier(request, response);
+        Metriques.Histogramme mesure = DUREE_AFFICHER;
+        long debut = System.nanoTime();
+        try {
+            switch (action) {
+                case "afficher":
+                    afficherCalendrier(request, response);
+                    break;
+                case "detail":
+                    mesure = DUREE_DETAIL;
+                    afficherDetailPlanification(request, response);
+                    break;
+                case "formulaire":
+                    mesure = DUREE_FORMULAIRE;
+                    afficherFormulairePlanification(request, response);
+                    break;
+                default:
+                    afficherCalendrier(request, response);
+            }
+        } finally {
+            mesure.observerDepuis(debut);
         }
     }
 
@@ -59,12 +78,20 @@ public class CalendrierServlet extends HttpServlet {
 
         String action = request.getParameter("action");
 
-        if ("sauvegarder".equals(action)) {
-            sauvegarderPlanification(request, response);
-        } else if ("supprimer".equals(action)) {
-            supprimerPlanification(request, response);
-        } else {
-            afficherCalendrier(request, response);
+        Metriques.Histogramme mesure = DUREE_AFFICHER;
+        long debut = System.nanoTime();
+        try {
+            if ("sauvegarder".equals(action)) {
+                mesure = DUREE_SAUVEGARDER;
+                sauvegarderPlanification(request, response);
+            } else if ("supprimer".equals(action)) {
+                mesure = DUREE_SUPPRIMER;
+                supprimerPlanification(request, response);
+            } else {
+                afficherCalendrier(request, response);
+            }
+        } finally {
+            mesure.observerDepuis(debut);
         }
     }
 
@@ -76,35 +103,29 @@ public class CalendrierServlet extends HttpServlet {
 
         // Déterminer la semaine à afficher
         String semaineParam = request.getParameter("semaine");
-        Calendar cal = Calendar.getInstance();
+        int offset = 0;
 
         if (semaineParam != null) {
             try {
-                int offset = Integer.parseInt(semaineParam);
-                cal.add(Calendar.WEEK_OF_YEAR, offset);
+                offset = Integer.parseInt(semaineParam);
             } catch (NumberFormatException e) {
                 // Utiliser la semaine actuelle si paramètre invalide
             }
         }
 
-        // Calculer le lundi et vendredi de la semaine
-        cal.set(Calendar.DAY_OF_WEEK, Calendar.MONDAY);
-        cal.set(Calendar.HOUR_OF_DAY, 0);
-        cal.set(Calendar.MINUTE, 0);
-        cal.set(Calendar.SECOND, 0);
-        cal.set(Calendar.MILLISECOND, 0);
-
-        Timestamp debutSemaine = new Timestamp(cal.getTimeInMillis());
-
-        cal.set(Calendar.DAY_OF_WEEK, Calendar.FRIDAY);
-        cal.set(Calendar.HOUR_OF_DAY, 23);
-        cal.set(Calendar.MINUTE, 59);
-        cal.set(Calendar.SECOND, 59);
+        // Lundi 00:00 et vendredi 23:59:59 de la semaine (ISO)
+        LocalDate lundi = CacheSemaines.lundi(LocalDate.now().plusWeeks(offset));
+        Timestamp debutSemaine = Timestamp.valueOf(lundi.atStartOfDay());
+        Timestamp finSemaine = Timestamp.valueOf(lundi.plusDays(4).atTime(23, 59, 59));
 
-        Timestamp finSemaine = new Timestamp(cal.getTimeInMillis());
-
-        // Récupérer les planifications de la semaine
-        List<Planification> planifications = planificationDAO.getPlanificationsParSemaine(debutSemaine, finSemaine);
+        // Récupérer les planifications de la semaine (cache partagé, lecture directe en secours)
+        List<Planification> planifications;
+        try {
+            planifications = CacheSemaines.getInstance().getSemaine(lundi);
+        } catch (SQLException e) {
+            System.err.println("Cache calendrier indisponible : " + e.getMessage());
+            planifications = planificationDAO.getPlanificationsParSemaine(debutSemaine, finSemaine);
+        }
 
         // Préparer les attributs pour la JSP
         request.setAttribute("planifications", planifications);
@@ -196,6 +217,13 @@ public class CalendrierServlet extends HttpServlet {
             SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm");
             Timestamp dateHeure = new Timestamp(sdf.parse(dateHeureStr).getTime());
 
+            if (duree < Planification.DUREE_MIN_MINUTES || duree > Planification.DUREE_MAX_MINUTES) {
+                request.setAttribute("erreur", "La durée doit être comprise entre "
+                        + Planification.DUREE_MIN_MINUTES + " et " + Planification.DUREE_MAX_MINUTES + " minutes.");
+                afficherFormulairePlanification(request, response);
+                return;
+            }
+
             // Créer ou récupérer la planification
             Planification planification;
             boolean isNew = (idParam == null || idParam.isEmpty());
@@ -211,18 +239,6 @@ public class CalendrierServlet extends HttpServlet {
                 }
             }
 
-            // Vérifier les conflits
-            boolean conflit = planificationDAO.verifierConflit(
-                    salleId, enseignantId, dateHeure, duree,
-                    planification.getId());
-
-            if (conflit) {
-                request.setAttribute("erreur",
-                        "Conflit d'horaire détecté ! La salle ou l'enseignant est déjà réservé(e) à cette heure.");
-                afficherFormulairePlanification(request, response);
-                return;
-            }
-
             // Remplir l'objet
             planification.setEnseignantId(enseignantId);
             planification.setSalleId(salleId);
@@ -232,17 +248,16 @@ public class CalendrierServlet extends HttpServlet {
             planification.setStatut(statut);
             planification.setNotes(notes);
 
-            // Sauvegarder
-            boolean success;
-            if (isNew) {
-                success = planificationDAO.creerPlanification(planification);
-            } else {
-                success = planificationDAO.modifierPlanification(planification);
-            }
+            // Sauvegarder si le créneau est libre (vérification et écriture atomiques)
+            ResultatPlanification resultat = planificationDAO.reserverSiLibre(planification);
 
-            if (success) {
+            if (ResultatPlanification.CREE.equals(resultat.getStatut())) {
                 response.sendRedirect(
                         request.getContextPath() + "/calendrier?success=" + (isNew ? "create" : "update"));
+            } else if (ResultatPlanification.CONFLIT.equals(resultat.getStatut())) {
+                request.setAttribute("erreur",
+                        "Conflit d'horaire détecté ! La salle ou l'enseignant est déjà réservé(e) à cette heure.");
+                afficherFormulairePlanification(request, response);
             } else {
                 request.setAttribute("erreur", "Erreur lors de la sauvegarde");
                 afficherFormulairePlanification(request, response);
@@ -3,13 +3,17 @@ package servlets;
 import beans.Utilisateur;
 import dao.UtilisateurDAO;
 
+import utils.JsonReader;
+import utils.JsonReader.Jeton;
+import utils.JsonWriter;
+import utils.Metriques;
+
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServlet;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import jakarta.servlet.http.HttpSession;
 import java.io.IOException;
-import java.io.PrintWriter;
 
 /**
  * Servlet gérant la connexion des utilisateurs.
@@ -26,6 +30,8 @@ import java.io.PrintWriter;
 public class LoginServlet extends HttpServlet {
 
     private static final long serialVersionUID = 1L;
+    private static final Metriques.Histogramme DUREE_LOGIN = Metriques.action("auth", "login");
+
     private UtilisateurDAO utilisateurDAO;
 
     @Override
@@ -45,26 +51,36 @@ public class LoginServlet extends HttpServlet {
         response.setContentType("application/json;charset=UTF-8");
         response.setHeader("Access-Control-Allow-Origin", "http://localhost:5173");
         response.setHeader("Access-Control-Allow-Credentials", "true");
-        request.setCharacterEncoding("UTF-8");
 
-        PrintWriter out = response.getWriter();
+        JsonWriter json = new JsonWriter(response.getWriter());
+        long debut = System.nanoTime();
 
         try {
-            // Lire le corps de la requête JSON
-            StringBuilder sb = new StringBuilder();
-            String line;
-            while ((line = request.getReader().readLine()) != null) {
-                sb.append(line);
+            // Lire le corps JSON directement depuis le flux de la requête
+            String email = null;
+            String password = null;
+            try {
+                JsonReader corps = new JsonReader(request.getInputStream());
+                if (corps.suivant() == Jeton.DEBUT_OBJET) {
+                    while (corps.suivant() == Jeton.NOM) {
+                        String champ = corps.getTexte();
+                        Jeton valeur = corps.suivant();
+                        if (valeur == Jeton.CHAINE && "email".equals(champ)) {
+                            email = corps.getTexte();
+                        } else if (valeur == Jeton.CHAINE && "password".equals(champ)) {
+                            password = corps.getTexte();
+                        } else {
+                            corps.ignorerValeur();
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                // JSON invalide : traité comme des identifiants absents
             }
-            String body = sb.toString();
-
-            // Parser JSON manuellement (pas de dépendance externe)
-            String email = extraireChampJson(body, "email");
-            String password = extraireChampJson(body, "password");
 
             if (email == null || password == null) {
                 response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
-                out.print("{\"success\":false,\"message\":\"Email et mot de passe requis\"}");
+                ecrireEchec(json, "Email et mot de passe requis");
                 return;
             }
 
@@ -73,7 +89,7 @@ public class LoginServlet extends HttpServlet {
 
             if (utilisateur == null) {
                 response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
-                out.print("{\"success\":false,\"message\":\"Email ou mot de passe incorrect\"}");
+                ecrireEchec(json, "Email ou mot de passe incorrect");
                 return;
             }
 
@@ -84,18 +100,9 @@ public class LoginServlet extends HttpServlet {
             session.setAttribute("userId", utilisateur.getId());
 
             // Répondre avec les infos de l'utilisateur
-            String ressourceId = utilisateur.getRessourceId() != null
-                    ? String.valueOf(utilisateur.getRessourceId())
-                    : "null";
-
-            out.print("{" +
-                    "\"success\":true," +
-                    "\"id\":" + utilisateur.getId() + "," +
-                    "\"nom\":\"" + escapeJson(utilisateur.getNom()) + "\"," +
-                    "\"email\":\"" + escapeJson(utilisateur.getEmail()) + "\"," +
-                    "\"role\":\"" + utilisateur.getRole() + "\"," +
-                    "\"ressourceId\":" + ressourceId +
-                    "}");
+            json.debutObjet().nom("success").valeur(true);
+            AuthCheckServlet.ecrireProfil(json, utilisateur);
+            json.finObjet();
 
             System.out.println("✓ Connexion réussie: " + utilisateur.getEmail() + " [" + utilisateur.getRole() + "]");
 
@@ -103,7 +110,11 @@ public class LoginServlet extends HttpServlet {
             System.err.println("Erreur LoginServlet: " + e.getMessage());
             e.printStackTrace();
             response.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
-            out.print("{\"success\":false,\"message\":\"Erreur serveur interne\"}");
+            json = new JsonWriter(response.getWriter());
+            ecrireEchec(json, "Erreur serveur interne");
+        } finally {
+            json.flush();
+            DUREE_LOGIN.observerDepuis(debut);
         }
     }
 
@@ -126,39 +137,7 @@ public class LoginServlet extends HttpServlet {
         response.setHeader("Access-Control-Allow-Headers", "Content-Type");
     }
 
-    /**
-     * Extrait un champ d'une chaîne JSON simple (sans bibliothèque externe).
-     * Fonctionne pour les chaînes entre guillemets : "champ":"valeur"
-     */
-    private String extraireChampJson(String json, String champ) {
-        String searchKey = "\"" + champ + "\"";
-        int keyIndex = json.indexOf(searchKey);
-        if (keyIndex == -1)
-            return null;
-
-        int colonIndex = json.indexOf(":", keyIndex + searchKey.length());
-        if (colonIndex == -1)
-            return null;
-
-        // Avancer après les espaces
-        int startQuote = json.indexOf("\"", colonIndex + 1);
-        if (startQuote == -1)
-            return null;
-
-        int endQuote = json.indexOf("\"", startQuote + 1);
-        if (endQuote == -1)
-            return null;
-
-        return json.substring(startQuote + 1, endQuote);
-    }
-
-    /** Échappe les caractères spéciaux pour JSON */
-    private String escapeJson(String s) {
-        if (s == null)
-            return "";
-        return s.replace("\\", "\\\\")
-                .replace("\"", "\\\"")
-                .replace("\n", "\\n")
-                .replace("\r", "\\r");
+    private void ecrireEchec(JsonWriter json, String message) throws IOException {
+        json.debutObjet().nom("success").valeur(false).nom("message").valeur(message).finObjet();
     }
 }
@@ -1,5 +1,7 @@
 package servlets;
 
+import utils.JsonWriter;
+
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServlet;
 import jakarta.servlet.http.HttpServletRequest;
@@ -46,7 +48,9 @@ public class LogoutServlet extends HttpServlet {
             System.out.println("✓ Déconnexion: " + email);
         }
 
-        response.getWriter().print("{\"success\":true,\"message\":\"Déconnecté avec succès\"}");
+        JsonWriter json = new JsonWriter(response.getWriter());
+        json.debutObjet().nom("success").valeur(true).nom("message").valeur("Déconnecté avec succès").finObjet();
+        json.flush();
     }
 
     /**
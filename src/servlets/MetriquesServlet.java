@@ -0,0 +1,36 @@
+package servlets;
+
+import utils.Metriques;
+
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Métriques au format d'exposition texte de Prometheus (réservé aux administrateurs)
+ *
+ * GET /api/admin/metrics → durées des actions de servlets, des méthodes DAO,
+ * des acquisitions de connexion et des tâches planifiées (voir utils.Metriques).
+ *
+ * @author Système de Planification Académique
+ * @version 1.0
+ */
+public class MetriquesServlet extends HttpServlet {
+
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    public void init() throws ServletException {
+        System.out.println("✓ MetriquesServlet initialisé");
+    }
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+        response.setContentType("text/plain; version=0.0.4; charset=utf-8");
+        response.setHeader("Cache-Control", "no-store");
+        Metriques.exporter(response.getWriter());
+    }
+}
@@ -0,0 +1,185 @@
+package servlets;
+
+import beans.Planification;
+import beans.ResultatPlanification;
+import dao.PlanificationDAO;
+import utils.JsonReader;
+import utils.JsonReader.Jeton;
+import utils.JsonWriter;
+
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Servlet de création de planifications par lot (emplois du temps complets).
+ * URL : POST /api/admin/planifications/batch (réservé aux administrateurs)
+ *
+ * Reçoit JSON : [ { "enseignantId": 1, "salleId": 7, "coursId": 13,
+ * "dateHeure": "2026-02-17T09:00", "duree": 120, "statut": "PLANIFIE",
+ * "notes": "..." }, ... ]
+ * Répond JSON : { "total": n, "crees": k, "resultats": [ { "index": 0,
+ * "statut": "CREE", "id": 42 }, { "index": 1, "statut": "CONFLIT",
+ * "message": "..." } ] }
+ *
+ * Tout le lot est validé et inséré en une seule transaction.
+ *
+ * @author Système de Planification Académique
+ * @version 1.0
+ */
+public class PlanificationBatchServlet extends HttpServlet {
+
+    private static final long serialVersionUID = 1L;
+    private PlanificationDAO planificationDAO;
+
+    @Override
+    public void init() throws ServletException {
+        planificationDAO = new PlanificationDAO();
+        System.out.println("✓ PlanificationBatchServlet initialisé");
+    }
+
+    /**
+     * POST /api/admin/planifications/batch
+     */
+    @Override
+    protected void doPost(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+
+        response.setContentType("application/json;charset=UTF-8");
+        response.setHeader("Access-Control-Allow-Origin", "http://localhost:5173");
+        response.setHeader("Access-Control-Allow-Credentials", "true");
+
+        JsonWriter json = new JsonWriter(response.getWriter());
+        List<Planification> planifications;
+        try {
+            planifications = lirePlanifications(new JsonReader(request.getInputStream()));
+        } catch (IOException | IllegalArgumentException e) {
+            response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            json.debutObjet().nom("success").valeur(false).nom("message").valeur(e.getMessage()).finObjet();
+            json.flush();
+            return;
+        }
+
+        List<ResultatPlanification> resultats = planificationDAO.creerPlanificationsBatch(planifications);
+
+        int crees = 0;
+        for (ResultatPlanification r : resultats) {
+            if (r.isCree()) {
+                crees++;
+            }
+        }
+
+        json.debutObjet()
+                .nom("total").valeur(resultats.size())
+                .nom("crees").valeur(crees)
+                .nom("resultats").debutTableau();
+        for (ResultatPlanification r : resultats) {
+            json.debutObjet().nom("index").valeur(r.getIndex()).nom("statut").valeur(r.getStatut());
+            if (r.isCree()) {
+                json.nom("id").valeur(r.getId());
+            } else if (r.getMessage() != null) {
+                json.nom("message").valeur(r.getMessage());
+            }
+            json.finObjet();
+        }
+        json.finTableau().finObjet();
+        json.flush();
+
+        System.out.println("✓ Lot de planifications : " + crees + "/" + resultats.size() + " créée(s)");
+    }
+
+    /**
+     * OPTIONS — pour le preflight CORS
+     */
+    @Override
+    protected void doOptions(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+        response.setHeader("Access-Control-Allow-Origin", "http://localhost:5173");
+        response.setHeader("Access-Control-Allow-Credentials", "true");
+        response.setHeader("Access-Control-Allow-Methods", "POST, OPTIONS");
+        response.setHeader("Access-Control-Allow-Headers", "Content-Type");
+        response.setStatus(HttpServletResponse.SC_OK);
+    }
+
+    // ==================== Méthodes utilitaires ====================
+
+    /**
+     * Lit le tableau JSON de planifications
+     */
+    private List<Planification> lirePlanifications(JsonReader json) throws IOException {
+        List<Planification> planifications = new ArrayList<>();
+        if (json.suivant() != Jeton.DEBUT_TABLEAU) {
+            throw new IllegalArgumentException("Tableau JSON de planifications attendu");
+        }
+        Jeton jeton;
+        while ((jeton = json.suivant()) != Jeton.FIN_TABLEAU) {
+            if (jeton != Jeton.DEBUT_OBJET) {
+                throw new IllegalArgumentException("Objet planification attendu à l'index " + planifications.size());
+            }
+            planifications.add(lirePlanification(json, new Planification()));
+        }
+        return planifications;
+    }
+
+    /**
+     * Lit les champs d'un objet planification dans p (le jeton DEBUT_OBJET est
+     * déjà lu) ; les champs absents gardent leur valeur. Partagé avec ApiServlet.
+     */
+    static Planification lirePlanification(JsonReader json, Planification p) throws IOException {
+        while (json.suivant() == Jeton.NOM) {
+            String champ = json.getTexte();
+            Jeton valeur = json.suivant();
+            if (valeur == Jeton.NUL) {
+                continue;
+            }
+            switch (champ) {
+                case "enseignantId":
+                    p.setEnseignantId(json.getInt());
+                    break;
+                case "salleId":
+                    p.setSalleId(json.getInt());
+                    break;
+                case "coursId":
+                    p.setCoursId(json.getInt());
+                    break;
+                case "dateHeure":
+                    p.setDateHeure(parserDateHeure(json.getTexte()));
+                    break;
+                case "duree":
+                    p.setDuree(json.getInt());
+                    break;
+                case "statut":
+                    p.setStatut(json.getTexte());
+                    break;
+                case "notes":
+                    p.setNotes(json.getTexte());
+                    break;
+                default:
+                    json.ignorerValeur();
+            }
+        }
+        return p;
+    }
+
+    /**
+     * Accepte "yyyy-MM-ddTHH:mm" (format du formulaire) et "yyyy-MM-ddTHH:mm:ss"
+     * Partagé avec ApiServlet et SerieServlet.
+     */
+    static Timestamp parserDateHeure(String valeur) {
+        if (valeur == null) {
+            throw new IllegalArgumentException("Date/heure manquante");
+        }
+        try {
+            return Timestamp.valueOf(LocalDateTime.parse(valeur));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Date/heure invalide : " + valeur);
+        }
+    }
+}
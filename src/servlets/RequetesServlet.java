@@ -0,0 +1,120 @@
+package servlets;
+
+import utils.InstrumentationJdbc;
+import utils.JsonWriter;
+
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Statistiques des requêtes SQL par empreinte (réservé aux administrateurs)
+ *
+ * GET /api/admin/requetes?tri=total|p99|nombre|lentes&limite=50
+ * → { "active": true, "seuilLentMs": 100,
+ *     "requetes": [ { "empreinte": "SELECT ...", "nombre": 120, "erreurs": 0, "lignes": 840,
+ *                     "p50Us": 850, "p99Us": 4200, "maxUs": 9100, "totalMs": 140, "lentes": 0 }, ... ],
+ *     "lentes": [ { "date": "...", "empreinte": "...", "parametres": "[...]", "dureeUs": 152000,
+ *                   "plan": "id=1 select_type=SIMPLE table=p type=range ..." }, ... ] }
+ *
+ * DELETE /api/admin/requetes → remise à zéro.
+ * Les mesures ne sont collectées qu'avec -Dplanification.jdbc.instrumentation=true.
+ *
+ * @author Système de Planification Académique
+ * @version 1.0
+ */
+public class RequetesServlet extends HttpServlet {
+
+    private static final long serialVersionUID = 1L;
+    private static final int LIMITE_DEFAUT = 50;
+
+    @Override
+    public void init() throws ServletException {
+        System.out.println("✓ RequetesServlet initialisé");
+    }
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+        response.setContentType("application/json;charset=UTF-8");
+        response.setHeader("Access-Control-Allow-Origin", "http://localhost:5173");
+        response.setHeader("Access-Control-Allow-Credentials", "true");
+
+        int limite = LIMITE_DEFAUT;
+        try {
+            if (request.getParameter("limite") != null) {
+                limite = Math.max(1, Integer.parseInt(request.getParameter("limite")));
+            }
+        } catch (NumberFormatException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Paramètre limite invalide");
+            return;
+        }
+
+        List<InstrumentationJdbc.Requete> requetes = new ArrayList<>(InstrumentationJdbc.getRequetes());
+        requetes.sort(tri(request.getParameter("tri")));
+
+        JsonWriter json = new JsonWriter(response.getWriter());
+        json.debutObjet()
+                .nom("active").valeur(InstrumentationJdbc.isActive())
+                .nom("seuilLentMs").valeur(InstrumentationJdbc.getSeuilLentMs());
+
+        json.nom("requetes").debutTableau();
+        for (int i = 0; i < Math.min(limite, requetes.size()); i++) {
+            InstrumentationJdbc.Requete r = requetes.get(i);
+            json.debutObjet()
+                    .nom("empreinte").valeur(r.getEmpreinte())
+                    .nom("nombre").valeur(r.getNombre())
+                    .nom("erreurs").valeur(r.getErreurs())
+                    .nom("lignes").valeur(r.getLignes())
+                    .nom("p50Us").valeur(r.centileNanos(0.50) / 1000)
+                    .nom("p99Us").valeur(r.centileNanos(0.99) / 1000)
+                    .nom("maxUs").valeur(r.getMaxNanos() / 1000)
+                    .nom("totalMs").valeur(r.getTotalNanos() / 1_000_000)
+                    .nom("lentes").valeur(r.getLentes())
+                    .finObjet();
+        }
+        json.finTableau();
+
+        json.nom("lentes").debutTableau();
+        for (InstrumentationJdbc.RequeteLente l : InstrumentationJdbc.getRequetesLentes()) {
+            json.debutObjet()
+                    .nom("date").valeur(new Timestamp(l.getDate()))
+                    .nom("empreinte").valeur(l.getEmpreinte())
+                    .nom("parametres").valeur(l.getParametres())
+                    .nom("dureeUs").valeur(l.getDureeNanos() / 1000)
+                    .nom("plan").valeur(l.getPlan())
+                    .finObjet();
+        }
+        json.finTableau();
+
+        json.finObjet();
+        json.flush();
+    }
+
+    @Override
+    protected void doDelete(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+        InstrumentationJdbc.reinitialiser();
+        response.setStatus(HttpServletResponse.SC_NO_CONTENT);
+    }
+
+    /**
+     * Ordre décroissant selon le critère demandé (durée totale par défaut)
+     */
+    private static Comparator<InstrumentationJdbc.Requete> tri(String critere) {
+        if ("p99".equals(critere)) {
+            return Comparator.comparingLong((InstrumentationJdbc.Requete r) -> r.centileNanos(0.99)).reversed();
+        } else if ("nombre".equals(critere)) {
+            return Comparator.comparingLong(InstrumentationJdbc.Requete::getNombre).reversed();
+        } else if ("lentes".equals(critere)) {
+            return Comparator.comparingLong(InstrumentationJdbc.Requete::getLentes).reversed();
+        }
+        return Comparator.comparingLong(InstrumentationJdbc.Requete::getTotalNanos).reversed();
+    }
+}
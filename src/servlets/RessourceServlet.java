@@ -2,6 +2,7 @@ package servlets;
 
 import beans.Ressource;
 import dao.RessourceDAO;
+import utils.Metriques;
 
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServlet;
@@ -26,6 +27,15 @@ import java.util.List;
 public class RessourceServlet extends HttpServlet {
 
     private static final long serialVersionUID = 1L;
+
+    private static final Metriques.Histogramme DUREE_LIST = Metriques.action("ressources", "list");
+    private static final Metriques.Histogramme DUREE_VIEW = Metriques.action("ressources", "view");
+    private static final Metriques.Histogramme DUREE_ADD = Metriques.action("ressources", "add");
+    private static final Metriques.Histogramme DUREE_EDIT = Metriques.action("ressources", "edit");
+    private static final Metriques.Histogramme DUREE_DELETE = Metriques.action("ressources", "delete");
+    private static final Metriques.Histogramme DUREE_SEARCH = Metriques.action("ressources", "search");
+    private static final Metriques.Histogramme DUREE_SAVE = Metriques.action("ressources", "save");
+
     private RessourceDAO ressourceDAO;
 
     /**
@@ -54,24 +64,31 @@ public class RessourceServlet extends HttpServlet {
             action = "list";
         }
 
+        Metriques.Histogramme mesure = DUREE_LIST;
+        long debut = System.nanoTime();
         try {
             switch (action) {
                 case "list":
                     afficherListe(request, response);
                     break;
                 case "view":
+                    mesure = DUREE_VIEW;
                     afficherDetails(request, response);
                     break;
                 case "add":
+                    mesure = DUREE_ADD;
                     afficherFormulaireAjout(request, response);
                     break;
                 case "edit":
+                    mesure = DUREE_EDIT;
                     afficherFormulaireModification(request, response);
                     break;
                 case "delete":
+                    mesure = DUREE_DELETE;
                     supprimerRessource(request, response);
                     break;
                 case "search":
+                    mesure = DUREE_SEARCH;
                     rechercherRessources(request, response);
                     break;
                 default:
@@ -82,6 +99,8 @@ public class RessourceServlet extends HttpServlet {
             // En cas d'erreur, on redirige vers la page d'erreur 500
             response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR,
                     "Erreur serveur : " + e.getMessage());
+        } finally {
+            mesure.observerDepuis(debut);
         }
     }
 
@@ -99,6 +118,7 @@ public class RessourceServlet extends HttpServlet {
         // ===== MÉTHODE 1 : getParameter() =====
         String action = request.getParameter("action");
 
+        long debut = System.nanoTime();
         try {
             if ("save".equals(action)) {
                 enregistrerRessource(request, response);
@@ -110,6 +130,8 @@ public class RessourceServlet extends HttpServlet {
             e.printStackTrace();
             response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR,
                     "Erreur serveur : " + e.getMessage());
+        } finally {
+            DUREE_SAVE.observerDepuis(debut);
         }
     }
 
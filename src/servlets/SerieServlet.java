@@ -0,0 +1,440 @@
+package servlets;
+
+import beans.ExceptionSerie;
+import beans.Planification;
+import beans.ResultatPlanification;
+import beans.SeriePlanification;
+import dao.SeriePlanificationDAO;
+import utils.JsonReader;
+import utils.JsonReader.Jeton;
+import utils.JsonWriter;
+
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.sql.Date;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+/**
+ * Servlet de gestion des séries de séances récurrentes (réservé aux administrateurs)
+ *
+ * GET    /api/admin/series                      → liste des séries
+ * POST   /api/admin/series                      → création d'une série
+ * POST   /api/admin/series/{id}/exceptions      → annulation ou surcharge d'une occurrence
+ * DELETE /api/admin/series/{id}/exceptions/{date} → rétablit une occurrence
+ * DELETE /api/admin/series/{id}                 → suppression de la série
+ *
+ * Série JSON : { "enseignantId": 1, "salleId": 7, "coursId": 13,
+ * "dateDebut": "2026-02-02", "dateFin": "2026-06-26", "jours": ["LUNDI", "JEUDI"],
+ * "intervalleSemaines": 1, "heureDebut": "09:00", "duree": 120, "notes": "..." }
+ *
+ * Exception JSON : { "dateOccurrence": "2026-04-06", "annulee": true } ou
+ * { "dateOccurrence": "2026-04-06", "dateHeure": "2026-04-07T14:00", "salleId": 8 }
+ *
+ * Les conflits sont vérifiés en base par SeriePlanificationDAO, sous verrou
+ * des ressources et dans la transaction de l'écriture (409 si conflit).
+ *
+ * @author Système de Planification Académique
+ * @version 1.0
+ */
+public class SerieServlet extends HttpServlet {
+
+    private static final long serialVersionUID = 1L;
+    private SeriePlanificationDAO serieDAO;
+
+    @Override
+    public void init() throws ServletException {
+        serieDAO = new SeriePlanificationDAO();
+        System.out.println("✓ SerieServlet initialisé");
+    }
+
+    /**
+     * GET /api/admin/series
+     */
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+        preparerReponse(response);
+
+        List<SeriePlanification> series = serieDAO.getAllSeries();
+        JsonWriter json = new JsonWriter(response.getWriter());
+        json.debutTableau();
+        for (SeriePlanification serie : series) {
+            ecrireSerie(json, serie);
+        }
+        json.finTableau();
+        json.flush();
+    }
+
+    /**
+     * POST /api/admin/series et POST /api/admin/series/{id}/exceptions
+     */
+    @Override
+    protected void doPost(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+        preparerReponse(response);
+        String[] segments = segments(request);
+
+        try {
+            if (segments.length == 0) {
+                creerSerie(request, response);
+            } else if (segments.length == 2 && "exceptions".equals(segments[1])) {
+                enregistrerException(Integer.parseInt(segments[0]), request, response);
+            } else {
+                repondre(response, HttpServletResponse.SC_NOT_FOUND, false, "Ressource inconnue");
+            }
+        } catch (NumberFormatException e) {
+            repondre(response, HttpServletResponse.SC_BAD_REQUEST, false, "ID de série invalide");
+        } catch (IOException | IllegalArgumentException e) {
+            repondre(response, HttpServletResponse.SC_BAD_REQUEST, false, e.getMessage());
+        }
+    }
+
+    /**
+     * DELETE /api/admin/series/{id} et DELETE /api/admin/series/{id}/exceptions/{date}
+     */
+    @Override
+    protected void doDelete(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+        preparerReponse(response);
+        String[] segments = segments(request);
+
+        try {
+            if (segments.length == 1) {
+                boolean ok = serieDAO.supprimerSerie(Integer.parseInt(segments[0]));
+                repondre(response, ok ? HttpServletResponse.SC_OK : HttpServletResponse.SC_NOT_FOUND, ok,
+                        ok ? "Série supprimée" : "Série introuvable");
+            } else if (segments.length == 3 && "exceptions".equals(segments[1])) {
+                SeriePlanification serie = serieDAO.getSerieById(Integer.parseInt(segments[0]));
+                if (serie == null) {
+                    repondre(response, HttpServletResponse.SC_NOT_FOUND, false, "Série introuvable");
+                    return;
+                }
+                Date date = parserDate(segments[2]);
+                if (serie.getException(date.toLocalDate()) == null) {
+                    repondre(response, HttpServletResponse.SC_NOT_FOUND, false, "Exception introuvable");
+                    return;
+                }
+                // L'occurrence rétablie ne doit pas recouvrir une séance créée entre-temps
+                ResultatPlanification resultat = serieDAO.supprimerException(serie, date);
+                if (ResultatPlanification.CREE.equals(resultat.getStatut())) {
+                    repondre(response, HttpServletResponse.SC_OK, true, "Occurrence rétablie");
+                } else {
+                    repondreEchec(response, resultat, "La salle ou l'enseignant est déjà réservé(e) à cette heure");
+                }
+            } else {
+                repondre(response, HttpServletResponse.SC_NOT_FOUND, false, "Ressource inconnue");
+            }
+        } catch (NumberFormatException e) {
+            repondre(response, HttpServletResponse.SC_BAD_REQUEST, false, "ID de série invalide");
+        } catch (IllegalArgumentException e) {
+            repondre(response, HttpServletResponse.SC_BAD_REQUEST, false, e.getMessage());
+        }
+    }
+
+    /**
+     * OPTIONS — pour le preflight CORS
+     */
+    @Override
+    protected void doOptions(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+        response.setHeader("Access-Control-Allow-Origin", "http://localhost:5173");
+        response.setHeader("Access-Control-Allow-Credentials", "true");
+        response.setHeader("Access-Control-Allow-Methods", "GET, POST, DELETE, OPTIONS");
+        response.setHeader("Access-Control-Allow-Headers", "Content-Type");
+        response.setStatus(HttpServletResponse.SC_OK);
+    }
+
+    // ==================== Traitements ====================
+
+    private void creerSerie(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        SeriePlanification serie = lireSerie(new JsonReader(request.getInputStream()));
+
+        String erreur = serie.valider();
+        if (erreur != null) {
+            repondre(response, HttpServletResponse.SC_BAD_REQUEST, false, erreur);
+            return;
+        }
+
+        ResultatPlanification resultat = serieDAO.creerSerie(serie);
+        if (ResultatPlanification.CREE.equals(resultat.getStatut())) {
+            response.setStatus(HttpServletResponse.SC_CREATED);
+            JsonWriter json = new JsonWriter(response.getWriter());
+            json.debutObjet().nom("success").valeur(true).nom("id").valeur(serie.getId()).finObjet();
+            json.flush();
+            System.out.println("✓ Série créée : " + serie);
+        } else {
+            repondreEchec(response, resultat, "Une occurrence de la série chevauche une séance existante");
+        }
+    }
+
+    private void enregistrerException(int serieId, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        SeriePlanification serie = serieDAO.getSerieById(serieId);
+        if (serie == null) {
+            repondre(response, HttpServletResponse.SC_NOT_FOUND, false, "Série introuvable");
+            return;
+        }
+
+        ExceptionSerie exception = lireException(new JsonReader(request.getInputStream()));
+        exception.setSerieId(serieId);
+        if (exception.getDateOccurrence() == null
+                || !serie.estJourPrevu(exception.getDateOccurrence().toLocalDate())) {
+            repondre(response, HttpServletResponse.SC_BAD_REQUEST, false,
+                    "La série ne prévoit pas d'occurrence à cette date");
+            return;
+        }
+
+        if (!exception.isAnnulee()) {
+            String erreur = validerSurcharge(serie, exception);
+            if (erreur != null) {
+                repondre(response, HttpServletResponse.SC_BAD_REQUEST, false, erreur);
+                return;
+            }
+        }
+
+        ResultatPlanification resultat = serieDAO.enregistrerException(serie, exception);
+        if (ResultatPlanification.CREE.equals(resultat.getStatut())) {
+            repondre(response, HttpServletResponse.SC_OK, true,
+                    exception.isAnnulee() ? "Occurrence annulée" : "Occurrence modifiée");
+        } else {
+            repondreEchec(response, resultat, "La salle ou l'enseignant est déjà réservé(e) à cette heure");
+        }
+    }
+
+    /**
+     * Vérifie qu'une occurrence surchargée reste dans les limites de la série
+     */
+    private String validerSurcharge(SeriePlanification serie, ExceptionSerie exception) {
+        int duree = serie.dureeEffective(exception);
+        if (duree < Planification.DUREE_MIN_MINUTES || duree > Planification.DUREE_MAX_MINUTES) {
+            return "Durée hors limites";
+        }
+        LocalDateTime debut = new Timestamp(serie.debutEffectif(exception)).toLocalDateTime();
+        if (!debut.toLocalDate().equals(debut.plusMinutes(duree - 1).toLocalDate())) {
+            return "Une occurrence ne peut pas se terminer après minuit";
+        }
+        long ecart = Math.abs(ChronoUnit.DAYS.between(exception.getDateOccurrence().toLocalDate(),
+                debut.toLocalDate()));
+        if (ecart > SeriePlanificationDAO.DECALAGE_MAX_JOURS) {
+            return "Une occurrence ne peut pas être déplacée de plus de "
+                    + SeriePlanificationDAO.DECALAGE_MAX_JOURS + " jours";
+        }
+        return null;
+    }
+
+    /**
+     * Répond à une écriture refusée : 409 (conflit), 404 (exception
+     * disparue entre-temps) ou 500
+     */
+    private void repondreEchec(HttpServletResponse response, ResultatPlanification resultat,
+            String messageConflit) throws IOException {
+        switch (resultat.getStatut()) {
+            case ResultatPlanification.CONFLIT:
+                repondre(response, HttpServletResponse.SC_CONFLICT, false, messageConflit);
+                break;
+            case ResultatPlanification.INVALIDE:
+                repondre(response, HttpServletResponse.SC_NOT_FOUND, false, resultat.getMessage());
+                break;
+            default:
+                repondre(response, HttpServletResponse.SC_INTERNAL_SERVER_ERROR, false,
+                        "Erreur lors de l'enregistrement");
+        }
+    }
+
+    // ==================== Lecture JSON ====================
+
+    private SeriePlanification lireSerie(JsonReader json) throws IOException {
+        if (json.suivant() != Jeton.DEBUT_OBJET) {
+            throw new IllegalArgumentException("Objet série attendu");
+        }
+        SeriePlanification s = new SeriePlanification();
+        while (json.suivant() == Jeton.NOM) {
+            String champ = json.getTexte();
+            Jeton valeur = json.suivant();
+            if (valeur == Jeton.NUL) {
+                continue;
+            }
+            switch (champ) {
+                case "enseignantId":
+                    s.setEnseignantId(json.getInt());
+                    break;
+                case "salleId":
+                    s.setSalleId(json.getInt());
+                    break;
+                case "coursId":
+                    s.setCoursId(json.getInt());
+                    break;
+                case "dateDebut":
+                    s.setDateDebut(parserDate(json.getTexte()));
+                    break;
+                case "dateFin":
+                    s.setDateFin(parserDate(json.getTexte()));
+                    break;
+                case "jours":
+                    s.setJoursSemaine(lireJours(json, valeur));
+                    break;
+                case "intervalleSemaines":
+                    s.setIntervalleSemaines(json.getInt());
+                    break;
+                case "heureDebut":
+                    s.setHeureDebut(parserHeure(json.getTexte()));
+                    break;
+                case "duree":
+                    s.setDuree(json.getInt());
+                    break;
+                case "notes":
+                    s.setNotes(json.getTexte());
+                    break;
+                default:
+                    json.ignorerValeur();
+            }
+        }
+        return s;
+    }
+
+    /** Tableau de noms de jours ("LUNDI"...) converti en masque */
+    private int lireJours(JsonReader json, Jeton valeur) throws IOException {
+        if (valeur != Jeton.DEBUT_TABLEAU) {
+            throw new IllegalArgumentException("Tableau de jours attendu");
+        }
+        int masque = 0;
+        while (json.suivant() == Jeton.CHAINE) {
+            masque |= SeriePlanification.bitJour(json.getTexte());
+        }
+        if (json.getJeton() != Jeton.FIN_TABLEAU) {
+            throw new IllegalArgumentException("Tableau de jours invalide");
+        }
+        return masque;
+    }
+
+    private ExceptionSerie lireException(JsonReader json) throws IOException {
+        if (json.suivant() != Jeton.DEBUT_OBJET) {
+            throw new IllegalArgumentException("Objet exception attendu");
+        }
+        ExceptionSerie e = new ExceptionSerie();
+        while (json.suivant() == Jeton.NOM) {
+            String champ = json.getTexte();
+            Jeton valeur = json.suivant();
+            if (valeur == Jeton.NUL) {
+                continue;
+            }
+            switch (champ) {
+                case "dateOccurrence":
+                    e.setDateOccurrence(parserDate(json.getTexte()));
+                    break;
+                case "annulee":
+                    e.setAnnulee(json.getBooleen());
+                    break;
+                case "dateHeure":
+                    e.setDateHeure(PlanificationBatchServlet.parserDateHeure(json.getTexte()));
+                    break;
+                case "duree":
+                    e.setDuree(json.getInt());
+                    break;
+                case "salleId":
+                    e.setSalleId(json.getInt());
+                    break;
+                case "enseignantId":
+                    e.setEnseignantId(json.getInt());
+                    break;
+                case "notes":
+                    e.setNotes(json.getTexte());
+                    break;
+                default:
+                    json.ignorerValeur();
+            }
+        }
+        return e;
+    }
+
+    // ==================== Écriture JSON ====================
+
+    private void ecrireSerie(JsonWriter json, SeriePlanification s) throws IOException {
+        json.debutObjet()
+                .nom("id").valeur(s.getId())
+                .nom("enseignantId").valeur(s.getEnseignantId())
+                .nom("enseignantNom").valeur(s.getEnseignantNom())
+                .nom("salleId").valeur(s.getSalleId())
+                .nom("salleNom").valeur(s.getSalleNom())
+                .nom("coursId").valeur(s.getCoursId())
+                .nom("coursNom").valeur(s.getCoursNom())
+                .nom("dateDebut").valeur(s.getDateDebut().toLocalDate())
+                .nom("dateFin").valeur(s.getDateFin().toLocalDate())
+                .nom("jours").debutTableau();
+        for (int i = 0; i < SeriePlanification.JOURS.length; i++) {
+            if ((s.getJoursSemaine() & (1 << i)) != 0) {
+                json.valeur(SeriePlanification.JOURS[i]);
+            }
+        }
+        json.finTableau()
+                .nom("intervalleSemaines").valeur(s.getIntervalleSemaines())
+                .nom("heureDebut").valeur(s.getHeureDebut().toLocalTime().toString())
+                .nom("duree").valeur(s.getDuree())
+                .nom("notes").valeur(s.getNotes())
+                .nom("exceptions").debutTableau();
+        for (ExceptionSerie e : s.getExceptions()) {
+            json.debutObjet()
+                    .nom("dateOccurrence").valeur(e.getDateOccurrence().toLocalDate())
+                    .nom("annulee").valeur(e.isAnnulee());
+            if (!e.isAnnulee()) {
+                json.nom("dateHeure").valeur(new Timestamp(s.debutEffectif(e)))
+                        .nom("duree").valeur(s.dureeEffective(e))
+                        .nom("salleId").valeur(s.salleEffective(e))
+                        .nom("enseignantId").valeur(s.enseignantEffectif(e));
+            }
+            json.finObjet();
+        }
+        json.finTableau().finObjet();
+    }
+
+    // ==================== Méthodes utilitaires ====================
+
+    private void preparerReponse(HttpServletResponse response) {
+        response.setContentType("application/json;charset=UTF-8");
+        response.setHeader("Access-Control-Allow-Origin", "http://localhost:5173");
+        response.setHeader("Access-Control-Allow-Credentials", "true");
+    }
+
+    private void repondre(HttpServletResponse response, int statut, boolean succes, String message)
+            throws IOException {
+        response.setStatus(statut);
+        JsonWriter json = new JsonWriter(response.getWriter());
+        json.debutObjet().nom("success").valeur(succes).nom("message").valeur(message).finObjet();
+        json.flush();
+    }
+
+    /** Segments du chemin après /api/admin/series */
+    private String[] segments(HttpServletRequest request) {
+        String chemin = request.getPathInfo();
+        if (chemin == null || chemin.equals("/")) {
+            return new String[0];
+        }
+        return chemin.substring(1).split("/");
+    }
+
+    private Date parserDate(String valeur) {
+        try {
+            return Date.valueOf(LocalDate.parse(valeur));
+        } catch (DateTimeParseException | NullPointerException e) {
+            throw new IllegalArgumentException("Date invalide : " + valeur);
+        }
+    }
+
+    private Time parserHeure(String valeur) {
+        try {
+            return Time.valueOf(LocalTime.parse(valeur));
+        } catch (DateTimeParseException | NullPointerException e) {
+            throw new IllegalArgumentException("Heure invalide : " + valeur);
+        }
+    }
+}
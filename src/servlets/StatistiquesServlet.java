@@ -0,0 +1,78 @@
+package servlets;
+
+import services.Statistiques;
+import utils.JsonWriter;
+
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.sql.Timestamp;
+
+/**
+ * Compteurs du tableau de bord (réservé aux administrateurs)
+ *
+ * GET /api/admin/stats → ressources par type (total, disponibles) et
+ * planifications par statut, lues en mémoire (services.Statistiques) :
+ * aucune requête SQL par appel.
+ *
+ * { "ressources": { "total": 18, "parType": { "ENSEIGNANT": { "total": 6, "disponibles": 5 }, ... } },
+ *   "planifications": { "total": 10, "parStatut": { "PLANIFIE": 7, ... } },
+ *   "chargeLe": "2026-02-17T08:00", "derniereReconciliation": "2026-02-17T09:10", "corrections": 0 }
+ *
+ * @author Système de Planification Académique
+ * @version 1.0
+ */
+public class StatistiquesServlet extends HttpServlet {
+
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    public void init() throws ServletException {
+        System.out.println("✓ StatistiquesServlet initialisé");
+    }
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+        response.setContentType("application/json;charset=UTF-8");
+        response.setHeader("Access-Control-Allow-Origin", "http://localhost:5173");
+        response.setHeader("Access-Control-Allow-Credentials", "true");
+
+        Statistiques stats = Statistiques.getInstance();
+        JsonWriter json = new JsonWriter(response.getWriter());
+        if (!stats.assurerCharge()) {
+            response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            json.debutObjet().nom("success").valeur(false)
+                    .nom("message").valeur("Statistiques indisponibles (base inaccessible)").finObjet();
+            json.flush();
+            return;
+        }
+
+        json.debutObjet();
+
+        json.nom("ressources").debutObjet().nom("total").valeur(stats.getTotalRessources());
+        json.nom("parType").debutObjet();
+        for (String type : Statistiques.TYPES) {
+            json.nom(type).debutObjet()
+                    .nom("total").valeur(stats.getRessources(type))
+                    .nom("disponibles").valeur(stats.getDisponibles(type))
+                    .finObjet();
+        }
+        json.finObjet().finObjet();
+
+        json.nom("planifications").debutObjet().nom("total").valeur(stats.getTotalPlanifications());
+        json.nom("parStatut").debutObjet();
+        for (String statut : Statistiques.STATUTS) {
+            json.nom(statut).valeur(stats.getPlanifications(statut));
+        }
+        json.finObjet().finObjet();
+
+        json.nom("chargeLe").valeur(new Timestamp(stats.getDateChargement()))
+                .nom("derniereReconciliation").valeur(new Timestamp(stats.getDerniereReconciliation()))
+                .nom("corrections").valeur(stats.getCorrections());
+        json.finObjet();
+        json.flush();
+    }
+}
@@ -0,0 +1,156 @@
+package utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Création d'une base embarquée (H2) à partir des scripts database/*.sql
+ *
+ * Les scripts sont écrits pour le client mysql : on en retire ce qui ne
+ * concerne que lui ou le serveur (DROP/CREATE DATABASE, USE, SELECT
+ * d'affichage, blocs DELIMITER des procédures stockées) et chaque
+ * instruction restante passe par Dialecte.adapterScript. planification.sql
+ * est exécuté en premier (les autres scripts en dépendent), puis les
+ * suivants par ordre alphabétique.
+ *
+ * Une base qui contient déjà la table schema_version (fichier H2 réutilisé)
+ * n'est pas rechargée.
+ *
+ * @author Système de Planification Académique
+ * @version 1.0
+ */
+public class BaseEmbarquee {
+
+    private static final String SCRIPT_PRINCIPAL = "planification.sql";
+
+    private BaseEmbarquee() {
+    }
+
+    /**
+     * Exécute les scripts du répertoire si la base est vide
+     *
+     * @return Nombre d'instructions exécutées (0 si la base existait déjà)
+     */
+    public static int initialiser(Connection conn, Dialecte dialecte, File repertoire)
+            throws SQLException, IOException {
+        if (tableExiste(conn, "schema_version")) {
+            System.out.println("✓ Base embarquée déjà initialisée");
+            return 0;
+        }
+
+        File[] scripts = repertoire.listFiles((dir, nom) -> nom.endsWith(".sql"));
+        if (scripts == null || scripts.length == 0) {
+            throw new IOException("Aucun script .sql dans " + repertoire.getAbsolutePath()
+                    + " (voir -Dplanification.db.h2.scripts)");
+        }
+        Arrays.sort(scripts, (a, b) -> {
+            boolean pa = SCRIPT_PRINCIPAL.equals(a.getName());
+            boolean pb = SCRIPT_PRINCIPAL.equals(b.getName());
+            return pa != pb ? (pa ? -1 : 1) : a.getName().compareTo(b.getName());
+        });
+
+        int total = 0;
+        try (Statement stmt = conn.createStatement()) {
+            for (File script : scripts) {
+                String contenu = new String(Files.readAllBytes(script.toPath()), StandardCharsets.UTF_8);
+                int n = 0;
+                for (String instruction : decouper(contenu)) {
+                    if (ignorer(instruction)) {
+                        continue;
+                    }
+                    try {
+                        stmt.execute(dialecte.adapterScript(instruction));
+                        n++;
+                    } catch (SQLException e) {
+                        throw new SQLException(script.getName() + " : " + e.getMessage(), e.getSQLState(), e);
+                    }
+                }
+                System.out.println("✓ " + script.getName() + " : " + n + " instruction(s)");
+                total += n;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Instructions propres au client ou au serveur MySQL
+     */
+    private static boolean ignorer(String instruction) {
+        String debut = instruction.toUpperCase(Locale.ROOT);
+        return debut.startsWith("DROP DATABASE") || debut.startsWith("CREATE DATABASE")
+                || debut.startsWith("USE ") || debut.startsWith("SELECT ");
+    }
+
+    /**
+     * Découpe un script en instructions : ; hors chaînes, commentaires -- retirés,
+     * blocs DELIMITER (procédures stockées) ignorés
+     */
+    static List<String> decouper(String script) {
+        List<String> instructions = new ArrayList<>();
+        StringBuilder courante = new StringBuilder();
+        boolean dansChaine = false;
+        boolean blocDelimiter = false;
+
+        for (String ligne : script.split("\r?\n")) {
+            String nette = ligne.trim();
+            if (!dansChaine && nette.toUpperCase(Locale.ROOT).startsWith("DELIMITER")) {
+                blocDelimiter = !nette.endsWith(";");
+                continue;
+            }
+            if (blocDelimiter) {
+                continue;
+            }
+
+            for (int i = 0; i < ligne.length(); i++) {
+                char c = ligne.charAt(i);
+                if (dansChaine) {
+                    courante.append(c);
+                    if (c == '\\' && i + 1 < ligne.length()) {
+                        courante.append(ligne.charAt(++i));
+                    } else if (c == '\'') {
+                        dansChaine = false;
+                    }
+                } else if (c == '\'') {
+                    dansChaine = true;
+                    courante.append(c);
+                } else if (c == '-' && i + 1 < ligne.length() && ligne.charAt(i + 1) == '-') {
+                    break;
+                } else if (c == ';') {
+                    ajouter(instructions, courante);
+                } else {
+                    courante.append(c);
+                }
+            }
+            courante.append('\n');
+        }
+        ajouter(instructions, courante);
+        return instructions;
+    }
+
+    private static void ajouter(List<String> instructions, StringBuilder courante) {
+        String instruction = courante.toString().trim();
+        if (!instruction.isEmpty()) {
+            instructions.add(instruction);
+        }
+        courante.setLength(0);
+    }
+
+    private static boolean tableExiste(Connection conn, String table) throws SQLException {
+        DatabaseMetaData meta = conn.getMetaData();
+        String nom = meta.storesUpperCaseIdentifiers() ? table.toUpperCase(Locale.ROOT) : table;
+        try (ResultSet rs = meta.getTables(conn.getCatalog(), null, nom, null)) {
+            return rs.next();
+        }
+    }
+}
@@ -0,0 +1,536 @@
+package utils;
+
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+import javax.sql.DataSource;
+
+/**
+ * Pool de connexions JDBC borné utilisé par {@link DatabaseConnection}
+ *
+ * Fonctionnalités :
+ * - Taille maximale bornée (les emprunteurs attendent au-delà)
+ * - Éviction des connexions inactives et renouvellement des connexions anciennes
+ * - Validation à l'emprunt des connexions restées inactives
+ * - Détection des fuites avec la pile d'appel de l'emprunteur
+ * - Statistiques : actives, inactives, en attente, histogramme des temps d'attente
+ *
+ * Les connexions rendues par {@link #getConnection()} sont des proxys :
+ * close() remet la connexion physique dans le pool au lieu de la fermer.
+ *
+ * @author Système de Planification Académique
+ * @version 1.0
+ */
+public class ConnectionPool implements DataSource {
+
+    // ==================== Configuration ====================
+
+    /** Bornes supérieures (ms) des tranches de l'histogramme des temps d'attente */
+    private static final long[] TRANCHES_ATTENTE_MS = { 1, 5, 10, 50, 100, 500, 1000, Long.MAX_VALUE };
+
+    /** En deçà de cette durée d'inactivité, une connexion n'est pas revalidée */
+    private static final long DELAI_SANS_VALIDATION_MS = 500;
+
+    /** Attente du permis, validation ou création comprises */
+    private static final Metriques.Histogramme DUREE_ACQUISITION = Metriques.histogramme(
+            "planif_pool_acquisition_duree_secondes", "Durée d'obtention d'une connexion du pool");
+    private static final Metriques.Compteur ECHECS_ACQUISITION = Metriques.compteur(
+            "planif_pool_acquisition_echecs_total", "Connexions refusées (pool saturé ou connexion impossible)");
+
+    private final String url;
+    private final String user;
+    private final String password;
+    private final int tailleMax;
+    private final int minInactives;
+    private final long attenteMaxMs;
+    private final long inactiviteMaxMs;
+    private final long dureeVieMaxMs;
+    private final long seuilFuiteMs;
+    private final int timeoutValidationSec;
+
+    // ==================== État du pool ====================
+
+    private final LinkedBlockingDeque<ConnexionPhysique> inactives = new LinkedBlockingDeque<>();
+    private final Set<ConnexionPhysique> empruntees = ConcurrentHashMap.newKeySet();
+    private final Semaphore permis;
+    private final AtomicInteger enAttente = new AtomicInteger();
+    private final AtomicLong totalCreees = new AtomicLong();
+    private final AtomicLong totalFuites = new AtomicLong();
+    private final LongAdder[] histogrammeAttente = new LongAdder[TRANCHES_ATTENTE_MS.length];
+    private final ScheduledExecutorService entretien;
+    private volatile boolean ferme = false;
+
+    /**
+     * Crée un pool de connexions
+     *
+     * @param url             URL JDBC
+     * @param user            Utilisateur
+     * @param password        Mot de passe
+     * @param tailleMax       Nombre maximal de connexions physiques ouvertes
+     * @param minInactives    Nombre de connexions inactives conservées par l'éviction
+     * @param attenteMaxMs    Attente maximale d'un emprunteur quand le pool est plein
+     * @param inactiviteMaxMs Durée d'inactivité au-delà de laquelle une connexion est fermée
+     * @param dureeVieMaxMs   Durée de vie maximale d'une connexion physique
+     * @param seuilFuiteMs    Durée d'emprunt au-delà de laquelle une fuite est signalée (0 = désactivé)
+     */
+    public ConnectionPool(String url, String user, String password, int tailleMax, int minInactives,
+            long attenteMaxMs, long inactiviteMaxMs, long dureeVieMaxMs, long seuilFuiteMs) {
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.tailleMax = tailleMax;
+        this.minInactives = Math.min(minInactives, tailleMax);
+        this.attenteMaxMs = attenteMaxMs;
+        this.inactiviteMaxMs = inactiviteMaxMs;
+        this.dureeVieMaxMs = dureeVieMaxMs;
+        this.seuilFuiteMs = seuilFuiteMs;
+        this.timeoutValidationSec = 2;
+        this.permis = new Semaphore(tailleMax, true);
+
+        for (int i = 0; i < histogrammeAttente.length; i++) {
+            histogrammeAttente[i] = new LongAdder();
+        }
+
+        entretien = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "pool-connexions-entretien");
+            t.setDaemon(true);
+            return t;
+        });
+        entretien.scheduleWithFixedDelay(this::entretenir, 30, 30, TimeUnit.SECONDS);
+    }
+
+    // ==================== Emprunt / restitution ====================
+
+    /**
+     * Emprunte une connexion au pool
+     * Attend au plus attenteMaxMs si toutes les connexions sont empruntées.
+     *
+     * @return Proxy de connexion ; close() la rend au pool
+     * @throws SQLException si le pool est fermé, saturé ou si la connexion échoue
+     */
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (ferme) {
+            throw new SQLException("Le pool de connexions est fermé");
+        }
+
+        long debut = System.nanoTime();
+        enAttente.incrementAndGet();
+        boolean obtenu;
+        try {
+            obtenu = permis.tryAcquire(attenteMaxMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Attente d'une connexion interrompue", e);
+        } finally {
+            enAttente.decrementAndGet();
+        }
+        enregistrerAttente((System.nanoTime() - debut) / 1_000_000L);
+
+        if (!obtenu) {
+            ECHECS_ACQUISITION.incrementer();
+            DUREE_ACQUISITION.observerDepuis(debut);
+            throw new SQLException("Pool de connexions saturé : aucune connexion libre après "
+                    + attenteMaxMs + " ms (" + tailleMax + " empruntées)");
+        }
+
+        try {
+            ConnexionPhysique physique = obtenirConnexionValide();
+            physique.empruntee(seuilFuiteMs > 0 ? new Throwable("Connexion empruntée ici") : null);
+            empruntees.add(physique);
+            DUREE_ACQUISITION.observerDepuis(debut);
+            return physique.nouveauProxy();
+        } catch (SQLException | RuntimeException e) {
+            permis.release();
+            ECHECS_ACQUISITION.incrementer();
+            DUREE_ACQUISITION.observerDepuis(debut);
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Le pool n'utilise que les identifiants configurés");
+    }
+
+    /**
+     * Retourne une connexion inactive encore valide, ou en ouvre une nouvelle
+     */
+    private ConnexionPhysique obtenirConnexionValide() throws SQLException {
+        ConnexionPhysique physique;
+        while ((physique = inactives.pollFirst()) != null) {
+            if (physique.estUtilisable()) {
+                return physique;
+            }
+            physique.fermer();
+        }
+        return ouvrirConnexion();
+    }
+
+    private ConnexionPhysique ouvrirConnexion() throws SQLException {
+        Connection conn = DriverManager.getConnection(url, user, password);
+        totalCreees.incrementAndGet();
+        return new ConnexionPhysique(conn);
+    }
+
+    /**
+     * Remet une connexion physique dans le pool (appelé par le proxy)
+     */
+    private void restituer(ConnexionPhysique physique) {
+        if (!empruntees.remove(physique)) {
+            return;
+        }
+        try {
+            if (ferme || !physique.reinitialiser()) {
+                physique.fermer();
+            } else {
+                inactives.offerFirst(physique);
+            }
+        } finally {
+            permis.release();
+        }
+    }
+
+    private void enregistrerAttente(long attenteMs) {
+        for (int i = 0; i < TRANCHES_ATTENTE_MS.length; i++) {
+            if (attenteMs < TRANCHES_ATTENTE_MS[i]) {
+                histogrammeAttente[i].increment();
+                return;
+            }
+        }
+    }
+
+    // ==================== Entretien périodique ====================
+
+    /**
+     * Ferme les connexions inactives en trop ou trop anciennes
+     * et signale les connexions empruntées depuis trop longtemps
+     */
+    private void entretenir() {
+        try {
+            long maintenant = System.currentTimeMillis();
+
+            List<ConnexionPhysique> aFermer = new ArrayList<>();
+            int conservees = 0;
+            // Les plus récemment utilisées sont en tête : on garde le début de la file
+            for (ConnexionPhysique physique : inactives) {
+                boolean tropAncienne = maintenant - physique.creation > dureeVieMaxMs;
+                boolean inactiveTropLongtemps = maintenant - physique.derniereUtilisation > inactiviteMaxMs;
+                if (tropAncienne || (inactiveTropLongtemps && conservees >= minInactives)) {
+                    aFermer.add(physique);
+                } else {
+                    conservees++;
+                }
+            }
+            for (ConnexionPhysique physique : aFermer) {
+                if (inactives.remove(physique)) {
+                    physique.fermer();
+                }
+            }
+
+            if (seuilFuiteMs > 0) {
+                for (ConnexionPhysique physique : empruntees) {
+                    if (!physique.fuiteSignalee && maintenant - physique.emprunt > seuilFuiteMs) {
+                        physique.fuiteSignalee = true;
+                        totalFuites.incrementAndGet();
+                        System.err.println("⚠ Fuite de connexion probable : empruntée depuis "
+                                + (maintenant - physique.emprunt) + " ms sans être rendue");
+                        if (physique.pileEmprunt != null) {
+                            physique.pileEmprunt.printStackTrace();
+                        }
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            System.err.println("Erreur entretien du pool : " + e.getMessage());
+        }
+    }
+
+    /**
+     * Ferme le pool et toutes les connexions inactives
+     * Les connexions empruntées sont fermées lors de leur restitution.
+     */
+    public void fermer() {
+        ferme = true;
+        entretien.shutdownNow();
+        ConnexionPhysique physique;
+        while ((physique = inactives.pollFirst()) != null) {
+            physique.fermer();
+        }
+    }
+
+    // ==================== Statistiques ====================
+
+    /**
+     * Retourne un instantané des statistiques du pool
+     */
+    public Statistiques getStatistiques() {
+        long[] histogramme = new long[histogrammeAttente.length];
+        for (int i = 0; i < histogramme.length; i++) {
+            histogramme[i] = histogrammeAttente[i].sum();
+        }
+        return new Statistiques(empruntees.size(), inactives.size(), enAttente.get(), tailleMax,
+                totalCreees.get(), totalFuites.get(), histogramme);
+    }
+
+    /**
+     * Instantané immuable des statistiques du pool
+     */
+    public static class Statistiques {
+        private final int actives;
+        private final int inactives;
+        private final int enAttente;
+        private final int tailleMax;
+        private final long totalCreees;
+        private final long totalFuites;
+        private final long[] histogrammeAttente;
+
+        Statistiques(int actives, int inactives, int enAttente, int tailleMax, long totalCreees,
+                long totalFuites, long[] histogrammeAttente) {
+            this.actives = actives;
+            this.inactives = inactives;
+            this.enAttente = enAttente;
+            this.tailleMax = tailleMax;
+            this.totalCreees = totalCreees;
+            this.totalFuites = totalFuites;
+            this.histogrammeAttente = histogrammeAttente;
+        }
+
+        public int getActives() {
+            return actives;
+        }
+
+        public int getInactives() {
+            return inactives;
+        }
+
+        public int getEnAttente() {
+            return enAttente;
+        }
+
+        public int getTailleMax() {
+            return tailleMax;
+        }
+
+        public long getTotalCreees() {
+            return totalCreees;
+        }
+
+        public long getTotalFuites() {
+            return totalFuites;
+        }
+
+        /** Bornes supérieures (ms, exclusives) des tranches de l'histogramme */
+        public static long[] getTranchesAttenteMs() {
+            return TRANCHES_ATTENTE_MS.clone();
+        }
+
+        /** Nombre d'emprunts par tranche de temps d'attente */
+        public long[] getHistogrammeAttente() {
+            return histogrammeAttente.clone();
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            sb.append("Pool[actives=").append(actives)
+                    .append(", inactives=").append(inactives)
+                    .append(", enAttente=").append(enAttente)
+                    .append(", max=").append(tailleMax)
+                    .append(", creees=").append(totalCreees)
+                    .append(", fuites=").append(totalFuites)
+                    .append(", attente={");
+            for (int i = 0; i < histogrammeAttente.length; i++) {
+                if (i > 0) {
+                    sb.append(", ");
+                }
+                sb.append(TRANCHES_ATTENTE_MS[i] == Long.MAX_VALUE ? "+inf" : "<" + TRANCHES_ATTENTE_MS[i] + "ms")
+                        .append('=').append(histogrammeAttente[i]);
+            }
+            return sb.append("}]").toString();
+        }
+    }
+
+    // ==================== Connexion physique ====================
+
+    /**
+     * Connexion JDBC réelle gérée par le pool
+     */
+    private final class ConnexionPhysique {
+        private final Connection connexion;
+        private final long creation = System.currentTimeMillis();
+        private volatile long derniereUtilisation = creation;
+        private volatile long emprunt;
+        private volatile Throwable pileEmprunt;
+        private volatile boolean fuiteSignalee;
+
+        ConnexionPhysique(Connection connexion) {
+            this.connexion = connexion;
+        }
+
+        void empruntee(Throwable pile) {
+            emprunt = System.currentTimeMillis();
+            pileEmprunt = pile;
+            fuiteSignalee = false;
+        }
+
+        /**
+         * Vérifie la connexion avant de la prêter, sauf si elle vient juste d'être rendue
+         */
+        boolean estUtilisable() {
+            long maintenant = System.currentTimeMillis();
+            if (maintenant - creation > dureeVieMaxMs) {
+                return false;
+            }
+            if (maintenant - derniereUtilisation < DELAI_SANS_VALIDATION_MS) {
+                return true;
+            }
+            try {
+                return connexion.isValid(timeoutValidationSec);
+            } catch (SQLException e) {
+                return false;
+            }
+        }
+
+        /**
+         * Remet la connexion dans un état neutre avant sa réutilisation
+         *
+         * @return false si la connexion est inutilisable et doit être fermée
+         */
+        boolean reinitialiser() {
+            try {
+                if (connexion.isClosed()) {
+                    return false;
+                }
+                if (!connexion.getAutoCommit()) {
+                    connexion.rollback();
+                    connexion.setAutoCommit(true);
+                }
+                if (connexion.isReadOnly()) {
+                    connexion.setReadOnly(false);
+                }
+                connexion.clearWarnings();
+                derniereUtilisation = System.currentTimeMillis();
+                pileEmprunt = null;
+                return true;
+            } catch (SQLException e) {
+                return false;
+            }
+        }
+
+        void fermer() {
+            try {
+                connexion.close();
+            } catch (SQLException e) {
+                System.err.println("Erreur lors de la fermeture de connexion : " + e.getMessage());
+            }
+        }
+
+        Connection nouveauProxy() {
+            return (Connection) Proxy.newProxyInstance(ConnectionPool.class.getClassLoader(),
+                    new Class<?>[] { Connection.class }, new GestionnaireProxy(this));
+        }
+    }
+
+    /**
+     * Intercepte close() / isClosed() et délègue le reste à la connexion physique
+     */
+    private final class GestionnaireProxy implements InvocationHandler {
+        private ConnexionPhysique physique;
+
+        GestionnaireProxy(ConnexionPhysique physique) {
+            this.physique = physique;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String nom = method.getName();
+            switch (nom) {
+                case "close":
+                    if (physique != null) {
+                        ConnexionPhysique rendue = physique;
+                        physique = null;
+                        restituer(rendue);
+                    }
+                    return null;
+                case "isClosed":
+                    return physique == null || physique.connexion.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "ConnexionPoolee[" + (physique != null ? physique.connexion : "rendue") + "]";
+                default:
+                    break;
+            }
+            if (physique == null) {
+                throw new SQLException("Connexion déjà rendue au pool");
+            }
+            try {
+                return method.invoke(physique.connexion, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    // ==================== DataSource (non utilisé) ====================
+
+    @Override
+    public PrintWriter getLogWriter() {
+        return null;
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) {
+        // Journalisation via System.out / System.err comme le reste de l'application
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) {
+        DriverManager.setLoginTimeout(seconds);
+    }
+
+    @Override
+    public int getLoginTimeout() {
+        return DriverManager.getLoginTimeout();
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        throw new SQLFeatureNotSupportedException();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        throw new SQLException("Pas un wrapper de " + iface.getName());
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) {
+        return iface.isInstance(this);
+    }
+}
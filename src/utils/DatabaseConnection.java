@@ -1,5 +1,7 @@
 package utils;
 
+import java.io.File;
+import java.io.IOException;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.PreparedStatement;
@@ -10,6 +12,22 @@ import java.sql.SQLException;
  * Classe utilitaire pour gérer les connexions à la base de données MySQL
  * Utilise le pattern Singleton pour assurer une gestion optimale des connexions
  * 
+ * Deux modes :
+ * - Pool (par défaut) : les connexions sont empruntées à un {@link ConnectionPool}
+ * borné et rendues par closeConnection()
+ * - Direct (-Dplanification.db.pool=false) : une connexion DriverManager par appel
+ * 
+ * Base cible (-Dplanification.db) :
+ * - mysql (défaut) : serveur MySQL, URL et identifiants réglables par
+ * -Dplanification.db.url, .user et .password
+ * - h2 : base H2 embarquée en mode MySQL, créée au premier accès à partir
+ * des scripts database/*.sql (voir {@link BaseEmbarquee}) ; en mémoire par
+ * défaut, ou fichier via -Dplanification.db.url
+ * Les variantes SQL entre les deux sont dans {@link Dialecte}.
+ * 
+ * Avec -Dplanification.jdbc.instrumentation=true, les connexions renvoyées
+ * mesurent leurs requêtes (voir {@link InstrumentationJdbc}).
+ * 
  * @author Système de Planification Académique
  * @version 1.0
  */
@@ -17,12 +35,42 @@ public class DatabaseConnection {
 
     // ==================== Configuration BDD ====================
 
-    private static final String URL = "jdbc:mysql://localhost:3306/planification_academique";
-    private static final String USER = "root";
-    private static final String PASSWORD = ""; // À modifier selon votre configuration
+    private static final Dialecte DIALECTE = Dialecte
+            .valueOf(System.getProperty("planification.db", "mysql").toUpperCase());
+
+    // rewriteBatchedStatements : executeBatch() envoie des INSERT multi-lignes
+    private static final String URL_MYSQL = "jdbc:mysql://localhost:3306/planification_academique"
+            + "?rewriteBatchedStatements=true";
+    // DATABASE_TO_LOWER : noms en minuscules comme sous MySQL ; DB_CLOSE_DELAY : base conservée sans connexion
+    private static final String URL_H2 = "jdbc:h2:mem:planification_academique"
+            + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+
+    private static final String URL = System.getProperty("planification.db.url",
+            DIALECTE == Dialecte.H2 ? URL_H2 : URL_MYSQL);
+    private static final String USER = System.getProperty("planification.db.user",
+            DIALECTE == Dialecte.H2 ? "sa" : "root");
+    // À modifier selon votre configuration
+    private static final String PASSWORD = System.getProperty("planification.db.password", "");
+
+    /** Répertoire des scripts chargés dans la base embarquée */
+    private static final String SCRIPTS_H2 = System.getProperty("planification.db.h2.scripts", "database");
 
     // Paramètres de connexion
-    private static final String DRIVER = "com.mysql.cj.jdbc.Driver";
+    private static final String DRIVER = DIALECTE == Dialecte.H2 ? "org.h2.Driver" : "com.mysql.cj.jdbc.Driver";
+
+    // ==================== Configuration du pool ====================
+
+    private static final boolean POOL_ACTIF = Boolean
+            .parseBoolean(System.getProperty("planification.db.pool", "true"));
+    private static final int POOL_TAILLE_MAX = Integer.getInteger("planification.db.pool.max", 20);
+    private static final int POOL_MIN_INACTIVES = Integer.getInteger("planification.db.pool.minIdle", 2);
+    private static final long POOL_ATTENTE_MAX_MS = Long.getLong("planification.db.pool.maxWaitMs", 5000L);
+    private static final long POOL_INACTIVITE_MAX_MS = Long.getLong("planification.db.pool.idleTimeoutMs", 600000L);
+    private static final long POOL_DUREE_VIE_MAX_MS = Long.getLong("planification.db.pool.maxLifetimeMs", 1800000L);
+    private static final long POOL_SEUIL_FUITE_MS = Long.getLong("planification.db.pool.leakThresholdMs", 60000L);
+
+    private static volatile ConnectionPool pool;
+    private static volatile boolean baseInitialisee = DIALECTE != Dialecte.H2;
 
     // ==================== Chargement du Driver ====================
 
@@ -30,10 +78,11 @@ public class DatabaseConnection {
         try {
             // Charger le driver MySQL au démarrage de l'application
             Class.forName(DRIVER);
-            System.out.println("✓ Driver MySQL chargé avec succès");
+            System.out.println("✓ Driver " + DIALECTE + " chargé avec succès");
         } catch (ClassNotFoundException e) {
-            System.err.println("✗ ERREUR : Driver MySQL introuvable !");
-            System.err.println("Vérifiez que mysql-connector-java est dans le classpath");
+            System.err.println("✗ ERREUR : Driver " + DRIVER + " introuvable !");
+            System.err.println(DIALECTE == Dialecte.H2 ? "Construisez avec le profil Maven h2 (mvn -Ph2)"
+                    : "Vérifiez que mysql-connector-java est dans le classpath");
             e.printStackTrace();
         }
     }
@@ -42,11 +91,32 @@ public class DatabaseConnection {
 
     /**
      * Obtient une connexion à la base de données
+     * En mode pool, la connexion est empruntée et doit être rendue via
+     * closeConnection() (ou close()).
      * 
      * @return Connection active vers la base de données
      * @throws SQLException si la connexion échoue
      */
     public static Connection getConnection() throws SQLException {
+        if (InstrumentationJdbc.isActive()) {
+            return InstrumentationJdbc.envelopper(obtenirConnexion());
+        }
+        return obtenirConnexion();
+    }
+
+    private static Connection obtenirConnexion() throws SQLException {
+        if (!baseInitialisee) {
+            initialiserBaseEmbarquee();
+        }
+        if (POOL_ACTIF) {
+            try {
+                return getPool().getConnection();
+            } catch (SQLException e) {
+                System.err.println("✗ ERREUR d'obtention d'une connexion du pool : " + e.getMessage());
+                throw e;
+            }
+        }
+
         try {
             Connection conn = DriverManager.getConnection(URL, USER, PASSWORD);
             System.out.println("✓ Connexion à la base de données établie");
@@ -76,6 +146,7 @@ public class DatabaseConnection {
 
     /**
      * Ferme proprement une connexion
+     * En mode pool, la connexion est rendue au pool au lieu d'être fermée.
      * 
      * @param conn Connexion à fermer
      */
@@ -83,7 +154,9 @@ public class DatabaseConnection {
         if (conn != null) {
             try {
                 conn.close();
-                System.out.println("✓ Connexion fermée");
+                if (!POOL_ACTIF) {
+                    System.out.println("✓ Connexion fermée");
+                }
             } catch (SQLException e) {
                 System.err.println("Erreur lors de la fermeture de connexion : " + e.getMessage());
             }
@@ -134,8 +207,94 @@ public class DatabaseConnection {
         closeConnection(conn);
     }
 
+    /**
+     * Crée le schéma et les données de la base embarquée, une seule fois,
+     * sur une connexion directe (le pool n'existe pas encore)
+     */
+    private static synchronized void initialiserBaseEmbarquee() throws SQLException {
+        if (baseInitialisee) {
+            return;
+        }
+        try (Connection conn = DriverManager.getConnection(URL, USER, PASSWORD)) {
+            int n = BaseEmbarquee.initialiser(conn, DIALECTE, new File(SCRIPTS_H2));
+            if (n > 0) {
+                System.out.println("✓ Base H2 créée depuis " + new File(SCRIPTS_H2).getAbsolutePath());
+            }
+        } catch (IOException e) {
+            throw new SQLException("Scripts de la base embarquée illisibles : " + e.getMessage(), e);
+        }
+        baseInitialisee = true;
+    }
+
+    // ==================== Gestion du pool ====================
+
+    /**
+     * Retourne le pool de connexions, créé au premier appel
+     */
+    public static ConnectionPool getPool() {
+        ConnectionPool p = pool;
+        if (p == null) {
+            synchronized (DatabaseConnection.class) {
+                p = pool;
+                if (p == null) {
+                    p = new ConnectionPool(URL, USER, PASSWORD, POOL_TAILLE_MAX, POOL_MIN_INACTIVES,
+                            POOL_ATTENTE_MAX_MS, POOL_INACTIVITE_MAX_MS, POOL_DUREE_VIE_MAX_MS,
+                            POOL_SEUIL_FUITE_MS);
+                    pool = p;
+                    enregistrerJauges();
+                    System.out.println("✓ Pool de connexions initialisé (max " + POOL_TAILLE_MAX + ")");
+                }
+            }
+        }
+        return p;
+    }
+
+    /**
+     * Occupation du pool, lue à chaque export des métriques
+     */
+    private static void enregistrerJauges() {
+        Metriques.jauge("planif_pool_connexions", "Connexions du pool par état",
+                () -> pool != null ? pool.getStatistiques().getActives() : 0, "etat", "empruntee");
+        Metriques.jauge("planif_pool_connexions", "Connexions du pool par état",
+                () -> pool != null ? pool.getStatistiques().getInactives() : 0, "etat", "inactive");
+        Metriques.jauge("planif_pool_en_attente", "Threads en attente d'une connexion",
+                () -> pool != null ? pool.getStatistiques().getEnAttente() : 0);
+    }
+
+    /**
+     * Indique si les connexions sont servies par le pool
+     */
+    public static boolean isPoolActif() {
+        return POOL_ACTIF;
+    }
+
+    /**
+     * Retourne les statistiques du pool, ou null en mode direct
+     */
+    public static ConnectionPool.Statistiques getStatistiquesPool() {
+        return POOL_ACTIF ? getPool().getStatistiques() : null;
+    }
+
+    /**
+     * Ferme le pool et ses connexions (arrêt de l'application)
+     */
+    public static synchronized void shutdown() {
+        if (pool != null) {
+            pool.fermer();
+            pool = null;
+            System.out.println("✓ Pool de connexions fermé");
+        }
+    }
+
     // ==================== Méthodes de configuration ====================
 
+    /**
+     * Variantes SQL de la base configurée
+     */
+    public static Dialecte getDialecte() {
+        return DIALECTE;
+    }
+
     /**
      * Retourne l'URL de connexion (pour debug)
      */
@@ -0,0 +1,173 @@
+package utils;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Variantes SQL propres à chaque base supportée
+ *
+ * Le reste du SQL de l'application est commun : H2 est utilisé en mode
+ * MySQL (ENUM, INSERT IGNORE, ON DUPLICATE KEY UPDATE, LIMIT, NOW(3)...).
+ * Seuls l'arithmétique de dates, les colonnes calculées, les clés
+ * AUTO_INCREMENT, la lecture en flux et le format d'EXPLAIN diffèrent.
+ *
+ * @author Système de Planification Académique
+ * @version 1.0
+ */
+public enum Dialecte {
+
+    MYSQL {
+        @Override
+        public String ajouterMinutes(String date, String minutes) {
+            return "DATE_ADD(" + date + ", INTERVAL " + minutes + " MINUTE)";
+        }
+
+        @Override
+        public String ajouterMicrosecondes(String date, String microsecondes) {
+            return "DATE_ADD(" + date + ", INTERVAL " + microsecondes + " MICROSECOND)";
+        }
+
+        @Override
+        public String colonneCalculee(String type, String expression) {
+            return type + " AS (" + expression + ") STORED";
+        }
+
+        @Override
+        public void lireEnFlux(PreparedStatement pstmt) throws SQLException {
+            // Le driver MySQL ne transmet les lignes une à une qu'avec cette valeur
+            pstmt.setFetchSize(Integer.MIN_VALUE);
+        }
+
+        @Override
+        public boolean isExplainTabulaire() {
+            return true;
+        }
+
+        @Override
+        public String adapterScript(String instruction) {
+            return instruction;
+        }
+
+        @Override
+        public void reprendreIdentite(Connection conn, String table) {
+            // InnoDB avance AUTO_INCREMENT au-delà des identifiants insérés explicitement
+        }
+    },
+
+    /** H2 embarqué en mode MySQL (profil -Dplanification.db=h2) */
+    H2 {
+        @Override
+        public String ajouterMinutes(String date, String minutes) {
+            return "DATEADD(MINUTE, " + minutes + ", " + date + ")";
+        }
+
+        @Override
+        public String ajouterMicrosecondes(String date, String microsecondes) {
+            return "DATEADD(MICROSECOND, " + microsecondes + ", " + date + ")";
+        }
+
+        @Override
+        public String colonneCalculee(String type, String expression) {
+            return type + " AS (" + expression + ")";
+        }
+
+        @Override
+        public void lireEnFlux(PreparedStatement pstmt) throws SQLException {
+            pstmt.setFetchSize(TAILLE_LOT_FLUX);
+        }
+
+        @Override
+        public boolean isExplainTabulaire() {
+            return false;
+        }
+
+        /**
+         * En mode MySQL, H2 recale l'identité après chaque INSERT et ce recalage
+         * n'est pas atomique : des INSERT simultanés reçoivent parfois le même id.
+         * Les clés AUTO_INCREMENT deviennent donc des séquences ordinaires.
+         */
+        @Override
+        public String adapterScript(String instruction) {
+            String s = DATE_ADD_MINUTE.matcher(instruction).replaceAll("DATEADD(MINUTE, $2, $1)");
+            s = STORED.matcher(s).replaceAll(")");
+
+            Matcher table = CREATE_TABLE.matcher(s);
+            Matcher cle = CLE_AUTO_INCREMENT.matcher(s);
+            if (table.lookingAt() && cle.find()) {
+                String sequence = sequenceIdentite(table.group(1));
+                s = "CREATE SEQUENCE IF NOT EXISTS " + sequence + "; "
+                        + cle.replaceFirst("$1 INT DEFAULT NEXT VALUE FOR " + sequence + " PRIMARY KEY");
+            }
+            return s;
+        }
+
+        @Override
+        public void reprendreIdentite(Connection conn, String table) throws SQLException {
+            try (Statement stmt = conn.createStatement()) {
+                long suivant;
+                try (ResultSet rs = stmt.executeQuery("SELECT COALESCE(MAX(id), 0) + 1 FROM " + table)) {
+                    rs.next();
+                    suivant = rs.getLong(1);
+                }
+                stmt.execute("ALTER SEQUENCE " + sequenceIdentite(table) + " RESTART WITH " + suivant);
+            }
+        }
+    };
+
+    /** Lignes transmises par aller-retour lors d'une lecture en flux (hors MySQL) */
+    private static final int TAILLE_LOT_FLUX = 500;
+
+    private static final Pattern DATE_ADD_MINUTE = Pattern
+            .compile("DATE_ADD\\(\\s*(\\w+)\\s*,\\s*INTERVAL\\s+(\\w+)\\s+MINUTE\\s*\\)", Pattern.CASE_INSENSITIVE);
+    private static final Pattern STORED = Pattern.compile("\\)\\s+STORED\\b", Pattern.CASE_INSENSITIVE);
+    private static final Pattern CREATE_TABLE = Pattern
+            .compile("CREATE\\s+TABLE\\s+(?:IF\\s+NOT\\s+EXISTS\\s+)?(\\w+)", Pattern.CASE_INSENSITIVE);
+    private static final Pattern CLE_AUTO_INCREMENT = Pattern
+            .compile("(\\w+)\\s+INT\\s+AUTO_INCREMENT\\s+PRIMARY\\s+KEY", Pattern.CASE_INSENSITIVE);
+
+    private static String sequenceIdentite(String table) {
+        return table + "_id_seq";
+    }
+
+    /**
+     * Expression SQL : date + minutes (deux expressions SQL)
+     */
+    public abstract String ajouterMinutes(String date, String minutes);
+
+    /**
+     * Expression SQL : date + microsecondes (deux expressions SQL)
+     */
+    public abstract String ajouterMicrosecondes(String date, String microsecondes);
+
+    /**
+     * Définition d'une colonne calculée à partir des autres colonnes de la ligne
+     */
+    public abstract String colonneCalculee(String type, String expression);
+
+    /**
+     * Configure une requête pour lire un grand résultat sans le charger en mémoire
+     */
+    public abstract void lireEnFlux(PreparedStatement pstmt) throws SQLException;
+
+    /**
+     * EXPLAIN renvoie une ligne par table avec les colonnes table, type et key
+     * (format MySQL exploité par PlanVerifier)
+     */
+    public abstract boolean isExplainTabulaire();
+
+    /**
+     * Traduit une instruction des scripts database/*.sql (écrits pour MySQL)
+     */
+    public abstract String adapterScript(String instruction);
+
+    /**
+     * Fait reprendre la clé générée de la table après le plus grand id présent
+     * (après un chargement avec identifiants explicites)
+     */
+    public abstract void reprendreIdentite(Connection conn, String table) throws SQLException;
+}
@@ -0,0 +1,755 @@
+package utils;
+
+import dao.UtilisateurDAO;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.text.Normalizer;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+/**
+ * Générateur de jeux de données volumineux et reproductibles
+ *
+ * Produit un établissement fictif complet : enseignants, salles et cours
+ * (table ressource), comptes utilisateurs, plusieurs années de planifications
+ * et les logs TIMER_EXECUTION correspondants. Pour une même graine et les
+ * mêmes paramètres, les lignes produites sont identiques.
+ *
+ * Les planifications suivent un emploi du temps hebdomadaire par semestre
+ * (2 semestres de 15 semaines par année, vacances exclues), construit sans
+ * conflit de salle ni d'enseignant, jusqu'au taux d'occupation des salles
+ * demandé. Le statut dépend de la date de référence : TERMINE avant,
+ * EN_COURS pendant, PLANIFIE après ; environ 2 % des séances sont ANNULE.
+ *
+ * Les lignes sont écrites au fil de l'eau, sans tout garder en mémoire :
+ * - --csv=rep : un fichier CSV par table (en-tête, séparateur virgule,
+ *   guillemets doublés, NULL écrit \N, dates "yyyy-MM-dd HH:mm:ss") ;
+ * - --charger : INSERT par lots (rewriteBatchedStatements côté MySQL) dans
+ *   la base configurée par -Dplanification.db* (voir DatabaseConnection) ;
+ * - --charger=load-data : CSV puis LOAD DATA LOCAL INFILE (MySQL seulement,
+ *   URL avec allowLoadLocalInfile=true et serveur avec local_infile=ON).
+ *
+ * Sans --vider, les identifiants commencent après les lignes existantes.
+ *
+ * Exemple : java -cp "WEB-INF/classes:WEB-INF/lib/*" utils.GenerateurDonnees
+ * --graine=42 --salles=1200 --enseignants=2000 --cours=600 --annees=3 --charger
+ *
+ * @author Système de Planification Académique
+ * @version 1.0
+ */
+public final class GenerateurDonnees {
+
+    // ==================== Tables produites ====================
+
+    /**
+     * Tables alimentées, dans l'ordre des clés étrangères
+     */
+    enum Table {
+        RESSOURCE("ressource", "id", "nom", "type", "disponibilite", "description", "date_creation",
+                "date_modification"),
+        UTILISATEURS("utilisateurs", "id", "nom", "email", "mot_de_passe_hash", "role", "ressource_id",
+                "date_creation", "actif"),
+        PLANIFICATION("planification", "id", "enseignant_id", "salle_id", "cours_id", "date_heure", "duree",
+                "statut", "notes", "date_creation"),
+        LOGS("logs", "id", "action", "details", "date_action");
+
+        final String nom;
+        final String[] colonnes;
+
+        Table(String nom, String... colonnes) {
+            this.nom = nom;
+            this.colonnes = colonnes;
+        }
+
+        String insertion() {
+            StringBuilder sql = new StringBuilder("INSERT INTO ").append(nom).append(" (")
+                    .append(String.join(", ", colonnes)).append(") VALUES (");
+            for (int i = 0; i < colonnes.length; i++) {
+                sql.append(i == 0 ? "?" : ", ?");
+            }
+            return sql.append(')').toString();
+        }
+    }
+
+    // ==================== Paramètres ====================
+
+    private static final int LOT_DEFAUT = 1000;
+
+    /** Début des créneaux (minutes depuis minuit) : séances de 90 min */
+    private static final int[] HEURES = { 8 * 60 + 30, 10 * 60 + 15, 13 * 60 + 30, 15 * 60 + 15, 17 * 60 };
+    /** Lundi à samedi ; le samedi seulement le matin */
+    private static final int JOURS = 6;
+    private static final int CRENEAUX_SAMEDI = 2;
+    private static final int CRENEAUX = JOURS * HEURES.length;
+    private static final int CRENEAUX_OUVERTS = (JOURS - 1) * HEURES.length + CRENEAUX_SAMEDI;
+    /** Créneaux occupés par semaine au-delà desquels un enseignant n'est plus sollicité */
+    private static final int CHARGE_MAX = 12;
+
+    /** Semaines d'enseignement depuis la rentrée (semaines 8 et 27 : vacances) */
+    private static final int[][] SEMESTRES = { semaines(0, 16, 8), semaines(20, 36, 27) };
+
+    private static final DateTimeFormatter FORMAT_DATE = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final String MOT_DE_PASSE = "password123";
+
+    private final long graine;
+    private final int nbEnseignants;
+    private final int nbSalles;
+    private final int nbCours;
+    private final int nbEtudiants;
+    private final int annees;
+    private final LocalDate rentree;
+    private final LocalDateTime reference;
+    private final double occupation;
+
+    // Premier identifiant de chaque table (après les lignes existantes)
+    private int idRessource = 1;
+    private int idUtilisateur = 1;
+    private int idPlanification = 1;
+    private int idLog = 1;
+
+    private final Map<Table, Long> compteurs = new EnumMap<>(Table.class);
+    private final List<Destination> destinations = new ArrayList<>();
+
+    GenerateurDonnees(Map<String, String> options) {
+        graine = Long.parseLong(options.getOrDefault("graine", "42"));
+        nbEnseignants = Integer.parseInt(options.getOrDefault("enseignants", "2000"));
+        nbSalles = Integer.parseInt(options.getOrDefault("salles", "1200"));
+        nbCours = Integer.parseInt(options.getOrDefault("cours", "600"));
+        nbEtudiants = Integer.parseInt(options.getOrDefault("etudiants", "20000"));
+        annees = Integer.parseInt(options.getOrDefault("annees", "3"));
+        rentree = LocalDate.parse(options.getOrDefault("debut", "2024-09-02"))
+                .with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        reference = options.containsKey("reference")
+                ? LocalDate.parse(options.get("reference")).atStartOfDay()
+                : LocalDateTime.now().withNano(0);
+        occupation = Double.parseDouble(options.getOrDefault("occupation", "0.6"));
+        if (nbEnseignants < 1 || nbSalles < 1 || nbCours < 1 || annees < 1 || occupation <= 0 || occupation > 1) {
+            throw new IllegalArgumentException("enseignants, salles, cours et annees >= 1, 0 < occupation <= 1");
+        }
+    }
+
+    // ==================== Point d'entrée ====================
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                usage();
+                return;
+            }
+            int egal = arg.indexOf('=');
+            options.put(egal < 0 ? arg.substring(2) : arg.substring(2, egal), egal < 0 ? "" : arg.substring(egal + 1));
+        }
+        String csv = options.get("csv");
+        String charger = options.get("charger");
+        boolean loadData = "load-data".equals(charger);
+        if ((csv == null && charger == null) || (loadData && csv == null)) {
+            usage();
+            return;
+        }
+
+        // Une seule connexion, gardée pendant tout le chargement : pas de pool (ni d'alerte de fuite)
+        if (System.getProperty("planification.db.pool") == null) {
+            System.setProperty("planification.db.pool", "false");
+        }
+
+        GenerateurDonnees generateur = new GenerateurDonnees(options);
+        int lot = Integer.parseInt(options.getOrDefault("lot", String.valueOf(LOT_DEFAUT)));
+        long debut = System.nanoTime();
+        Connection conn = null;
+        try {
+            if (charger != null) {
+                conn = DatabaseConnection.getConnection();
+                if (options.containsKey("vider")) {
+                    vider(conn);
+                }
+                generateur.reprendreIdentifiants(conn);
+            }
+            if (csv != null) {
+                generateur.destinations.add(new DestinationCsv(new File(csv)));
+            }
+            if (charger != null && !loadData) {
+                generateur.destinations.add(new DestinationJdbc(conn, lot));
+            }
+
+            generateur.generer();
+            for (Destination d : generateur.destinations) {
+                d.fermer();
+            }
+            if (loadData) {
+                chargerCsv(conn, new File(csv));
+            }
+            if (charger != null) {
+                // Les lignes portent leurs identifiants : les prochains INSERT de l'application les suivent
+                for (Table table : Table.values()) {
+                    DatabaseConnection.getDialecte().reprendreIdentite(conn, table.nom);
+                }
+            }
+        } finally {
+            if (conn != null) {
+                DatabaseConnection.closeConnection(conn);
+                DatabaseConnection.shutdown();
+            }
+        }
+
+        double secondes = (System.nanoTime() - debut) / 1e9;
+        long total = 0;
+        for (Map.Entry<Table, Long> e : generateur.compteurs.entrySet()) {
+            System.out.println("  " + e.getKey().nom + " : " + e.getValue() + " ligne(s)");
+            total += e.getValue();
+        }
+        System.out.printf(Locale.ROOT, "✓ %d lignes en %.1f s (%.0f lignes/s)%n", total, secondes, total / secondes);
+    }
+
+    private static void usage() {
+        System.err.println("Usage : utils.GenerateurDonnees [--csv=repertoire] [--charger[=load-data]] [--vider]");
+        System.err.println("  [--graine=42] [--enseignants=2000] [--salles=1200] [--cours=600] [--etudiants=20000]");
+        System.err.println("  [--annees=3] [--debut=2024-09-02] [--reference=aaaa-mm-jj] [--occupation=0.6]"
+                + " [--lot=" + LOT_DEFAUT + "]");
+        System.err.println("--csv et/ou --charger sont requis ; load-data exige --csv.");
+    }
+
+    // ==================== Génération ====================
+
+    /**
+     * Produit toutes les tables vers les destinations configurées
+     */
+    void generer() throws IOException, SQLException {
+        int premierEnseignant = idRessource;
+        int premiereSalle = premierEnseignant + nbEnseignants;
+        int premierCours = premiereSalle + nbSalles;
+
+        Random aleatoire = new Random(graine);
+        String[] nomsEnseignants = genererRessources(new Random(aleatoire.nextLong()));
+        genererUtilisateurs(new Random(aleatoire.nextLong()), nomsEnseignants, premierEnseignant);
+
+        long graineEmplois = aleatoire.nextLong();
+        Random seances = new Random(aleatoire.nextLong());
+        for (int annee = 0; annee < annees; annee++) {
+            LocalDate rentreeAnnee = rentree.plusWeeks(52L * annee);
+            for (int s = 0; s < SEMESTRES.length; s++) {
+                List<Seance> emploi = emploiDuTemps(new Random(graineEmplois + annee * 2L + s));
+                long avant = compte(Table.PLANIFICATION);
+                for (int semaine : SEMESTRES[s]) {
+                    genererSemaine(seances, emploi, rentreeAnnee.plusWeeks(semaine),
+                            premierEnseignant, premiereSalle, premierCours);
+                }
+                System.out.println("✓ " + rentreeAnnee.getYear() + "-" + (rentreeAnnee.getYear() + 1) + " S" + (s + 1)
+                        + " : " + emploi.size() + " séances/semaine, "
+                        + (compte(Table.PLANIFICATION) - avant) + " planification(s)");
+            }
+        }
+
+        ecrire(Table.LOGS, idLog++, "DATA_IMPORT",
+                "Génération synthétique (graine " + graine + ") : " + compte(Table.RESSOURCE) + " ressources, "
+                        + compte(Table.PLANIFICATION) + " planifications, " + compte(Table.UTILISATEURS)
+                        + " utilisateurs.",
+                reference);
+    }
+
+    /**
+     * Enseignants, salles puis cours ; retourne les noms des enseignants
+     */
+    private String[] genererRessources(Random r) throws IOException, SQLException {
+        String[] noms = new String[nbEnseignants];
+        for (int i = 0; i < nbEnseignants; i++) {
+            boolean femme = r.nextBoolean();
+            String prenom = choisir(r, femme ? PRENOMS_F : PRENOMS_H);
+            noms[i] = (r.nextInt(3) == 0 ? "Pr. " : "Dr. ") + prenom + " " + choisir(r, NOMS);
+            String description = (femme ? "Professeure" : "Professeur") + " de " + choisir(r, DISCIPLINES) + ".";
+            LocalDateTime creation = dateCreation(r);
+            ecrire(Table.RESSOURCE, idRessource++, noms[i], "ENSEIGNANT", r.nextInt(50) != 0, description,
+                    creation, creation);
+        }
+
+        for (int i = 0; i < nbSalles; i++) {
+            String nom;
+            String description;
+            switch (categorieSalle(i)) {
+                case 0:
+                    nom = "Amphi " + (i / 20 + 1) + " - Bloc " + (char) ('A' + i % 7);
+                    description = "Amphithéâtre de " + (150 + r.nextInt(11) * 15) + " places. Projecteur, sonorisation.";
+                    break;
+                case 1:
+                    nom = "Salle TP " + (i / 20 + 1) + "-" + (i % 20);
+                    description = "Laboratoire de " + (20 + r.nextInt(4) * 5) + " postes.";
+                    break;
+                default:
+                    nom = "Salle TD " + (100 + i / 20) + "-" + (i % 20);
+                    description = "Salle de " + (30 + r.nextInt(4) * 5) + " places pour travaux dirigés.";
+                    break;
+            }
+            LocalDateTime creation = dateCreation(r);
+            ecrire(Table.RESSOURCE, idRessource++, nom, "SALLE", r.nextInt(40) != 0, description, creation, creation);
+        }
+
+        for (int i = 0; i < nbCours; i++) {
+            String discipline = DISCIPLINES[i % DISCIPLINES.length];
+            int variante = i / DISCIPLINES.length;
+            String nom = discipline + " " + NIVEAUX[variante % NIVEAUX.length]
+                    + (variante >= NIVEAUX.length ? " - parcours " + (variante / NIVEAUX.length + 1) : "");
+            LocalDateTime creation = dateCreation(r);
+            ecrire(Table.RESSOURCE, idRessource++, nom, "COURS", true,
+                    "Cours, TD et TP de " + discipline + ".", creation, creation);
+        }
+        return noms;
+    }
+
+    /**
+     * Administrateurs, un compte par enseignant, puis les étudiants
+     */
+    private void genererUtilisateurs(Random r, String[] nomsEnseignants, int premierEnseignant)
+            throws IOException, SQLException {
+        String hash = UtilisateurDAO.hashSHA256(MOT_DE_PASSE);
+        for (int i = 0; i < 2; i++) {
+            int id = idUtilisateur++;
+            ecrire(Table.UTILISATEURS, id, "Administrateur " + (i + 1),
+                    id == 1 ? "admin@academie.ma" : "admin" + id + "@academie.ma", hash, "ADMIN", null,
+                    dateCreation(r), true);
+        }
+        for (int i = 0; i < nomsEnseignants.length; i++) {
+            int id = idUtilisateur++;
+            ecrire(Table.UTILISATEURS, id, nomsEnseignants[i], email(nomsEnseignants[i].substring(4), id), hash,
+                    "ENSEIGNANT", premierEnseignant + i, dateCreation(r), true);
+        }
+        for (int i = 0; i < nbEtudiants; i++) {
+            int id = idUtilisateur++;
+            String nom = choisir(r, r.nextBoolean() ? PRENOMS_F : PRENOMS_H) + " " + choisir(r, NOMS);
+            ecrire(Table.UTILISATEURS, id, nom, email(nom, id), hash, "ETUDIANT", null, dateCreation(r),
+                    r.nextInt(30) != 0);
+        }
+    }
+
+    /**
+     * Séance hebdomadaire d'un emploi du temps (indices relatifs : 0 = premier enseignant...)
+     */
+    private static final class Seance {
+        final int cours;
+        final int enseignant;
+        final int salle;
+        final int jour;
+        final int minute;
+        final int duree;
+
+        Seance(int cours, int enseignant, int salle, int jour, int minute, int duree) {
+            this.cours = cours;
+            this.enseignant = enseignant;
+            this.salle = salle;
+            this.jour = jour;
+            this.minute = minute;
+            this.duree = duree;
+        }
+    }
+
+    /**
+     * Emploi du temps d'un semestre sans conflit : salles occupées jusqu'au taux
+     * demandé, enseignants limités à CHARGE_MAX créneaux, cours plus ou moins
+     * demandés (les premiers d'une discipline ont plus de groupes)
+     */
+    private List<Seance> emploiDuTemps(Random r) {
+        BitSet salles = new BitSet(nbSalles * CRENEAUX);
+        BitSet enseignants = new BitSet(nbEnseignants * CRENEAUX);
+        int[] charge = new int[nbEnseignants];
+        int equipe = Math.max(2, (nbEnseignants + nbCours - 1) / nbCours);
+
+        int cible = (int) Math.round((double) nbSalles * CRENEAUX_OUVERTS * occupation);
+        List<Seance> emploi = new ArrayList<>(cible);
+        for (int essais = cible * 4; emploi.size() < cible && essais > 0; essais--) {
+            int cours = (int) (nbCours * Math.pow(r.nextDouble(), 1.5));
+            int tirage = r.nextInt(100);
+            int duree = tirage < 75 ? 90 : tirage < 90 ? 120 : 180;
+            int debut = r.nextInt(CRENEAUX);
+            int jour = debut / HEURES.length;
+            int heure = debut % HEURES.length;
+            if (jour == JOURS - 1 && heure >= CRENEAUX_SAMEDI) {
+                continue;
+            }
+            int minute = HEURES[heure];
+            int premier = debut;
+            int dernier = debut;
+            while (dernier + 1 < (jour + 1) * HEURES.length
+                    && HEURES[dernier + 1 - jour * HEURES.length] < minute + duree) {
+                dernier++;
+            }
+
+            int enseignant = -1;
+            int k0 = r.nextInt(equipe);
+            for (int k = 0; k < equipe && enseignant < 0; k++) {
+                int e = (cours + ((k0 + k) % equipe) * nbCours) % nbEnseignants;
+                if (charge[e] + dernier - premier < CHARGE_MAX && libre(enseignants, e, premier, dernier)) {
+                    enseignant = e;
+                }
+            }
+            if (enseignant < 0) {
+                continue;
+            }
+
+            // Les TP de 3 h vont en laboratoire, le reste en amphi ou salle de TD
+            int salle = -1;
+            for (int k = 0; k < 12 && salle < 0; k++) {
+                int s = r.nextInt(nbSalles);
+                if ((categorieSalle(s) == 1) == (duree == 180) && libre(salles, s, premier, dernier)) {
+                    salle = s;
+                }
+            }
+            if (salle < 0) {
+                continue;
+            }
+
+            salles.set(salle * CRENEAUX + premier, salle * CRENEAUX + dernier + 1);
+            enseignants.set(enseignant * CRENEAUX + premier, enseignant * CRENEAUX + dernier + 1);
+            charge[enseignant] += dernier - premier + 1;
+            emploi.add(new Seance(cours, enseignant, salle, jour, minute, duree));
+        }
+
+        emploi.sort((a, b) -> a.jour != b.jour ? a.jour - b.jour : a.minute - b.minute);
+        return emploi;
+    }
+
+    private static boolean libre(BitSet occupation, int ressource, int premier, int dernier) {
+        int debut = ressource * CRENEAUX + premier;
+        int suivant = occupation.nextSetBit(debut);
+        return suivant < 0 || suivant > ressource * CRENEAUX + dernier;
+    }
+
+    /**
+     * Planifications d'une semaine et logs des transitions de statut déjà passées
+     */
+    private void genererSemaine(Random r, List<Seance> emploi, LocalDate lundi, int premierEnseignant,
+            int premiereSalle, int premierCours) throws IOException, SQLException {
+        LocalDateTime creation = lundi.minusDays(7 + r.nextInt(21)).atTime(9 + r.nextInt(8), r.nextInt(60));
+        TreeMap<LocalDateTime, int[]> transitions = new TreeMap<>();
+
+        for (Seance s : emploi) {
+            LocalDateTime debut = lundi.plusDays(s.jour).atStartOfDay().plusMinutes(s.minute);
+            LocalDateTime fin = debut.plusMinutes(s.duree);
+            String statut;
+            if (r.nextInt(50) == 0) {
+                statut = "ANNULE";
+            } else if (!fin.isAfter(reference)) {
+                statut = "TERMINE";
+            } else if (!debut.isAfter(reference)) {
+                statut = "EN_COURS";
+            } else {
+                statut = "PLANIFIE";
+            }
+            if (!"ANNULE".equals(statut)) {
+                transitions.computeIfAbsent(debut, d -> new int[2])[0]++;
+                transitions.computeIfAbsent(fin, d -> new int[2])[1]++;
+            }
+
+            String notes = null;
+            if (r.nextInt(4) == 0) {
+                notes = (s.duree == 180 ? "TP" : s.duree == 120 ? "TD" : "Cours") + " - "
+                        + choisir(r, NOTES);
+            }
+            ecrire(Table.PLANIFICATION, idPlanification++, premierEnseignant + s.enseignant,
+                    premiereSalle + s.salle, premierCours + s.cours, debut, s.duree, statut, notes, creation);
+        }
+
+        for (Map.Entry<LocalDateTime, int[]> t : transitions.headMap(reference, true).entrySet()) {
+            int[] n = t.getValue();
+            if (n[0] > 0) {
+                ecrire(Table.LOGS, idLog++, "TIMER_EXECUTION", n[0] + " planification(s) passée(s) à EN_COURS",
+                        t.getKey());
+            }
+            if (n[1] > 0) {
+                ecrire(Table.LOGS, idLog++, "TIMER_EXECUTION", n[1] + " planification(s) passée(s) à TERMINE",
+                        t.getKey());
+            }
+        }
+    }
+
+    // ==================== Écriture ====================
+
+    private void ecrire(Table table, Object... valeurs) throws IOException, SQLException {
+        for (Destination d : destinations) {
+            d.ligne(table, valeurs);
+        }
+        compteurs.merge(table, 1L, Long::sum);
+    }
+
+    private long compte(Table table) {
+        return compteurs.getOrDefault(table, 0L);
+    }
+
+    /**
+     * Reçoit les lignes générées, table par table dans l'ordre des clés étrangères
+     */
+    interface Destination {
+        void ligne(Table table, Object[] valeurs) throws IOException, SQLException;
+
+        void fermer() throws IOException, SQLException;
+    }
+
+    /**
+     * Un fichier <table>.csv par table, lisible par LOAD DATA INFILE et les tableurs
+     */
+    static final class DestinationCsv implements Destination {
+        private final File repertoire;
+        private final Map<Table, Writer> fichiers = new EnumMap<>(Table.class);
+
+        DestinationCsv(File repertoire) throws IOException {
+            if (!repertoire.isDirectory() && !repertoire.mkdirs()) {
+                throw new IOException("Répertoire impossible à créer : " + repertoire.getAbsolutePath());
+            }
+            this.repertoire = repertoire;
+        }
+
+        @Override
+        public void ligne(Table table, Object[] valeurs) throws IOException {
+            Writer out = fichiers.get(table);
+            if (out == null) {
+                out = new BufferedWriter(new OutputStreamWriter(
+                        new FileOutputStream(new File(repertoire, table.nom + ".csv")), StandardCharsets.UTF_8),
+                        1 << 16);
+                out.write(String.join(",", table.colonnes));
+                out.write('\n');
+                fichiers.put(table, out);
+            }
+            for (int i = 0; i < valeurs.length; i++) {
+                if (i > 0) {
+                    out.write(',');
+                }
+                ecrireChamp(out, valeurs[i]);
+            }
+            out.write('\n');
+        }
+
+        private static void ecrireChamp(Writer out, Object valeur) throws IOException {
+            if (valeur == null) {
+                out.write("\\N");
+            } else if (valeur instanceof Boolean) {
+                out.write((Boolean) valeur ? '1' : '0');
+            } else if (valeur instanceof LocalDateTime) {
+                out.write(FORMAT_DATE.format((LocalDateTime) valeur));
+            } else if (valeur instanceof String) {
+                String s = (String) valeur;
+                if (s.indexOf(',') >= 0 || s.indexOf('"') >= 0 || s.indexOf('\n') >= 0) {
+                    out.write('"');
+                    out.write(s.replace("\"", "\"\""));
+                    out.write('"');
+                } else {
+                    out.write(s);
+                }
+            } else {
+                out.write(valeur.toString());
+            }
+        }
+
+        @Override
+        public void fermer() throws IOException {
+            for (Writer out : fichiers.values()) {
+                out.close();
+            }
+            fichiers.clear();
+        }
+    }
+
+    /**
+     * INSERT préparés envoyés par lots, une transaction par lot ; le lot en
+     * cours part aussi dès que la table change
+     */
+    static final class DestinationJdbc implements Destination {
+        private final Connection conn;
+        private final int lot;
+        private final Map<Table, PreparedStatement> requetes = new EnumMap<>(Table.class);
+        private Table courante;
+        private int enAttente;
+
+        DestinationJdbc(Connection conn, int lot) throws SQLException {
+            this.conn = conn;
+            this.lot = lot;
+            conn.setAutoCommit(false);
+        }
+
+        @Override
+        public void ligne(Table table, Object[] valeurs) throws SQLException {
+            // Les lignes référencées (ressources avant planifications) doivent être en base
+            if (table != courante) {
+                envoyer();
+                courante = table;
+            }
+            PreparedStatement pstmt = requetes.get(table);
+            if (pstmt == null) {
+                pstmt = conn.prepareStatement(table.insertion());
+                requetes.put(table, pstmt);
+            }
+            for (int i = 0; i < valeurs.length; i++) {
+                Object v = valeurs[i];
+                if (v instanceof LocalDateTime) {
+                    pstmt.setTimestamp(i + 1, Timestamp.valueOf((LocalDateTime) v));
+                } else {
+                    pstmt.setObject(i + 1, v);
+                }
+            }
+            pstmt.addBatch();
+            if (++enAttente >= lot) {
+                envoyer();
+            }
+        }
+
+        private void envoyer() throws SQLException {
+            if (enAttente > 0) {
+                requetes.get(courante).executeBatch();
+                conn.commit();
+                enAttente = 0;
+            }
+        }
+
+        @Override
+        public void fermer() throws SQLException {
+            try {
+                envoyer();
+            } finally {
+                for (PreparedStatement pstmt : requetes.values()) {
+                    DatabaseConnection.closeStatement(pstmt);
+                }
+                requetes.clear();
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
+    // ==================== Base cible ====================
+
+    /**
+     * Supprime les données des tables alimentées (et les séries qui en dépendent)
+     */
+    private static void vider(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            for (String table : new String[] { "logs", "utilisateurs", "serie_exception", "serie_planification",
+                    "planification", "ressource" }) {
+                int n = stmt.executeUpdate("DELETE FROM " + table);
+                System.out.println("✓ " + table + " vidée (" + n + " ligne(s))");
+            }
+        }
+    }
+
+    /**
+     * Les identifiants générés commencent après le plus grand identifiant existant
+     */
+    private void reprendreIdentifiants(Connection conn) throws SQLException {
+        idRessource = maxId(conn, Table.RESSOURCE) + 1;
+        idUtilisateur = maxId(conn, Table.UTILISATEURS) + 1;
+        idPlanification = maxId(conn, Table.PLANIFICATION) + 1;
+        idLog = maxId(conn, Table.LOGS) + 1;
+    }
+
+    private static int maxId(Connection conn, Table table) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+                ResultSet rs = stmt.executeQuery("SELECT COALESCE(MAX(id), 0) FROM " + table.nom)) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    /**
+     * Charge les CSV par LOAD DATA LOCAL INFILE (MySQL)
+     */
+    private static void chargerCsv(Connection conn, File repertoire) throws SQLException {
+        if (DatabaseConnection.getDialecte() != Dialecte.MYSQL) {
+            throw new SQLException("--charger=load-data n'est disponible qu'avec MySQL");
+        }
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("SET foreign_key_checks = 0");
+            try {
+                for (Table table : Table.values()) {
+                    File fichier = new File(repertoire, table.nom + ".csv");
+                    if (!fichier.isFile()) {
+                        continue;
+                    }
+                    long debut = System.nanoTime();
+                    int n = stmt.executeUpdate("LOAD DATA LOCAL INFILE '"
+                            + fichier.getAbsolutePath().replace('\\', '/').replace("'", "''")
+                            + "' INTO TABLE " + table.nom + " CHARACTER SET utf8mb4"
+                            + " FIELDS TERMINATED BY ',' OPTIONALLY ENCLOSED BY '\"'"
+                            + " LINES TERMINATED BY '\\n' IGNORE 1 LINES"
+                            + " (" + String.join(", ", table.colonnes) + ")");
+                    System.out.println("✓ " + table.nom + " : " + n + " ligne(s) chargée(s) en "
+                            + (System.nanoTime() - debut) / 1_000_000 + " ms");
+                }
+            } finally {
+                stmt.execute("SET foreign_key_checks = 1");
+            }
+        }
+    }
+
+    // ==================== Données de base ====================
+
+    private static int[] semaines(int debut, int fin, int vacances) {
+        int[] s = new int[fin - debut - 1];
+        int n = 0;
+        for (int i = debut; i < fin; i++) {
+            if (i != vacances) {
+                s[n++] = i;
+            }
+        }
+        return s;
+    }
+
+    /** 0 = amphi, 1 = laboratoire de TP, 2 = salle de TD */
+    private static int categorieSalle(int salle) {
+        int k = salle % 20;
+        return k < 2 ? 0 : k < 7 ? 1 : 2;
+    }
+
+    private LocalDateTime dateCreation(Random r) {
+        return rentree.minusDays(30 + r.nextInt(365)).atTime(8 + r.nextInt(10), r.nextInt(60), r.nextInt(60));
+    }
+
+    private static String email(String nom, int id) {
+        String ascii = Normalizer.normalize(nom, Normalizer.Form.NFD).replaceAll("\\p{M}", "")
+                .toLowerCase(Locale.ROOT).replaceAll("[^a-z]+", ".");
+        return ascii + "." + id + "@academie.ma";
+    }
+
+    private static String choisir(Random r, String[] valeurs) {
+        return valeurs[r.nextInt(valeurs.length)];
+    }
+
+    private static final String[] PRENOMS_H = { "Mohammed", "Youssef", "Karim", "Ahmed", "Omar", "Hassan",
+            "Rachid", "Mehdi", "Amine", "Hamza", "Anas", "Ayoub", "Adil", "Nabil", "Tarik", "Othmane", "Ilyas",
+            "Saad", "Hicham", "Driss" };
+    private static final String[] PRENOMS_F = { "Fatima", "Samira", "Laila", "Khadija", "Salma", "Nadia",
+            "Imane", "Zineb", "Sara", "Meryem", "Hiba", "Ghita", "Loubna", "Houda", "Asmae", "Kenza", "Soukaina",
+            "Hajar", "Nora", "Yasmine" };
+    private static final String[] NOMS = { "ALAMI", "BENCHEKROUN", "TAHIRI", "IDRISSI", "BENNANI", "HAMMADI",
+            "ZIANI", "EL FASSI", "CHRAIBI", "BERRADA", "TAZI", "LAHLOU", "SQALLI", "KETTANI", "OUAZZANI",
+            "AMRANI", "BENJELLOUN", "FILALI", "MANSOURI", "HAJJI", "EL AMRANI", "SEBTI", "GUESSOUS", "ZEMMOURI",
+            "SLAOUI", "RAMI", "BOUZIDI", "NACIRI", "CHERKAOUI", "LAMRANI" };
+    private static final String[] DISCIPLINES = { "Développement JEE", "Bases de Données", "Frameworks JavaScript",
+            "Sécurité des Systèmes", "Machine Learning", "Architecture Microservices", "Génie Logiciel",
+            "Réseaux Informatiques", "Systèmes d'Exploitation", "Algorithmique", "Analyse Numérique",
+            "Probabilités et Statistiques", "Compilation", "Intelligence Artificielle", "Recherche Opérationnelle",
+            "Théorie des Graphes", "Cloud Computing", "Big Data", "Anglais Technique", "Gestion de Projets",
+            "Droit du Numérique", "Traitement du Signal", "Électronique Numérique", "Algèbre Linéaire",
+            "Architecture des Ordinateurs" };
+    private static final String[] NIVEAUX = { "L1", "L2", "L3", "M1", "M2" };
+    private static final String[] NOTES = { "Séance de rattrapage", "Contrôle continu", "Apporter son ordinateur",
+            "Exposés des étudiants", "Correction du partiel", "Séance en demi-groupe", "Projet en binôme",
+            "Intervenant extérieur" };
+}
@@ -0,0 +1,567 @@
+package utils;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * Chronométrage des requêtes SQL, par empreinte
+ *
+ * Activé par -Dplanification.jdbc.instrumentation=true : DatabaseConnection
+ * enveloppe alors chaque connexion dans un proxy qui mesure les exécutions
+ * de PreparedStatement (executeQuery, executeUpdate, execute, executeBatch).
+ *
+ * L'empreinte d'une requête est son texte normalisé : littéraux remplacés
+ * par ?, espaces réduits, listes IN (?, ?, ...) et VALUES multi-lignes
+ * ramenées à une seule forme. Par empreinte : nombre d'exécutions, erreurs,
+ * lignes lues ou modifiées, durée totale et maximale, et un échantillon des
+ * dernières durées pour les centiles p50 / p99.
+ *
+ * Une exécution plus longue que -Dplanification.jdbc.seuilLentMs (défaut
+ * 100) est journalisée avec ses paramètres liés (masqués pour les requêtes
+ * sur les mots de passe) et conservée parmi les REQUETES_LENTES_MAX
+ * dernières. Pour un SELECT, le plan (EXPLAIN) est capturé en arrière-plan
+ * sur une autre connexion, au plus une fois par empreinte et par
+ * INTERVALLE_EXPLAIN_MS.
+ *
+ * @author Système de Planification Académique
+ * @version 1.0
+ */
+public final class InstrumentationJdbc {
+
+    private static final boolean ACTIVE = Boolean.getBoolean("planification.jdbc.instrumentation");
+    private static final long SEUIL_LENT_MS = Long.getLong("planification.jdbc.seuilLentMs", 100L);
+    private static final long SEUIL_LENT_NANOS = TimeUnit.MILLISECONDS.toNanos(SEUIL_LENT_MS);
+
+    /** Durées conservées par empreinte pour le calcul des centiles */
+    private static final int TAILLE_ECHANTILLON = 1024;
+    /** Au-delà, les nouvelles empreintes sont regroupées sous EMPREINTE_AUTRES */
+    private static final int EMPREINTES_MAX = 500;
+    private static final String EMPREINTE_AUTRES = "(autres requêtes)";
+    private static final int REQUETES_LENTES_MAX = 50;
+    private static final long INTERVALLE_EXPLAIN_MS = TimeUnit.MINUTES.toMillis(10);
+    private static final int LONGUEUR_PARAMETRE_MAX = 100;
+
+    private static final Pattern LITTERAL_CHAINE = Pattern.compile("'(?:[^'\\\\]|\\\\.|'')*'");
+    private static final Pattern LITTERAL_NOMBRE = Pattern.compile("(?<![\\w.])-?\\d+(?:\\.\\d+)?(?![\\w.])");
+    private static final Pattern ESPACES = Pattern.compile("\\s+");
+    private static final Pattern LISTE = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\)");
+    private static final Pattern LIGNES = Pattern.compile("\\(\\?\\+\\)(?:\\s*,\\s*\\(\\?\\+\\))+");
+
+    /** Statistiques par empreinte */
+    private static final ConcurrentHashMap<String, Requete> REQUETES = new ConcurrentHashMap<>();
+    /** Empreinte de chaque texte SQL déjà vu (les requêtes viennent du code : ensemble borné) */
+    private static final ConcurrentHashMap<String, Requete> PAR_SQL = new ConcurrentHashMap<>();
+    private static final ArrayDeque<RequeteLente> LENTES = new ArrayDeque<>();
+
+    /** Capture des plans hors du thread de la requête ; au-delà de 16 en attente, abandon */
+    private static final ThreadPoolExecutor EXPLAIN = new ThreadPoolExecutor(1, 1, 30, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(16), r -> {
+                Thread t = new Thread(r, "explain-requetes");
+                t.setDaemon(true);
+                return t;
+            }, new ThreadPoolExecutor.DiscardPolicy());
+
+    static {
+        EXPLAIN.allowCoreThreadTimeOut(true);
+    }
+
+    private InstrumentationJdbc() {
+    }
+
+    /**
+     * Indique si les connexions sont instrumentées
+     */
+    public static boolean isActive() {
+        return ACTIVE;
+    }
+
+    public static long getSeuilLentMs() {
+        return SEUIL_LENT_MS;
+    }
+
+    /**
+     * Enveloppe une connexion ; close() et les autres méthodes sont déléguées
+     */
+    public static Connection envelopper(Connection connexion) {
+        return (Connection) Proxy.newProxyInstance(InstrumentationJdbc.class.getClassLoader(),
+                new Class<?>[] { Connection.class }, new GestionnaireConnexion(connexion));
+    }
+
+    /**
+     * Arrête la capture des plans (arrêt de l'application)
+     */
+    public static void arreter() {
+        EXPLAIN.shutdownNow();
+    }
+
+    // ==================== Statistiques ====================
+
+    /**
+     * Statistiques d'une empreinte
+     */
+    public static final class Requete {
+        private final String empreinte;
+        private final boolean masquee;
+        private final boolean explicable;
+        private final LongAdder nombre = new LongAdder();
+        private final LongAdder erreurs = new LongAdder();
+        private final LongAdder lignes = new LongAdder();
+        private final LongAdder lentes = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+        private final long[] echantillon = new long[TAILLE_ECHANTILLON];
+        private final AtomicLong position = new AtomicLong();
+        private final AtomicLong dernierExplain = new AtomicLong();
+
+        Requete(String empreinte) {
+            this.empreinte = empreinte;
+            this.masquee = empreinte.contains("mot_de_passe");
+            String debut = empreinte.trim().toUpperCase();
+            this.explicable = debut.startsWith("SELECT") || debut.startsWith("(SELECT");
+        }
+
+        void enregistrer(long nanos, boolean echec) {
+            nombre.increment();
+            totalNanos.add(nanos);
+            if (echec) {
+                erreurs.increment();
+            }
+            long max = maxNanos.get();
+            while (nanos > max && !maxNanos.compareAndSet(max, nanos)) {
+                max = maxNanos.get();
+            }
+            // Écriture non synchronisée : une valeur perdue ne fausse pas les centiles
+            echantillon[(int) (position.getAndIncrement() % TAILLE_ECHANTILLON)] = nanos;
+        }
+
+        /**
+         * @param q Centile entre 0 et 1, sur les TAILLE_ECHANTILLON dernières exécutions
+         */
+        public long centileNanos(double q) {
+            int n = (int) Math.min(position.get(), TAILLE_ECHANTILLON);
+            if (n == 0) {
+                return 0;
+            }
+            long[] copie = Arrays.copyOf(echantillon, n);
+            Arrays.sort(copie);
+            int rang = (int) Math.ceil(q * n) - 1;
+            return copie[Math.max(0, Math.min(n - 1, rang))];
+        }
+
+        public String getEmpreinte() {
+            return empreinte;
+        }
+
+        public long getNombre() {
+            return nombre.sum();
+        }
+
+        public long getErreurs() {
+            return erreurs.sum();
+        }
+
+        public long getLignes() {
+            return lignes.sum();
+        }
+
+        public long getLentes() {
+            return lentes.sum();
+        }
+
+        public long getTotalNanos() {
+            return totalNanos.sum();
+        }
+
+        public long getMaxNanos() {
+            return maxNanos.get();
+        }
+    }
+
+    /**
+     * Exécution plus longue que le seuil ; le plan est renseigné en différé
+     */
+    public static final class RequeteLente {
+        private final long date = System.currentTimeMillis();
+        private final String empreinte;
+        private final String parametres;
+        private final long dureeNanos;
+        private volatile String plan;
+
+        RequeteLente(String empreinte, String parametres, long dureeNanos) {
+            this.empreinte = empreinte;
+            this.parametres = parametres;
+            this.dureeNanos = dureeNanos;
+        }
+
+        public long getDate() {
+            return date;
+        }
+
+        public String getEmpreinte() {
+            return empreinte;
+        }
+
+        public String getParametres() {
+            return parametres;
+        }
+
+        public long getDureeNanos() {
+            return dureeNanos;
+        }
+
+        public String getPlan() {
+            return plan;
+        }
+    }
+
+    /**
+     * Statistiques de toutes les empreintes, dans un ordre quelconque
+     */
+    public static Collection<Requete> getRequetes() {
+        return new ArrayList<>(REQUETES.values());
+    }
+
+    /**
+     * Requêtes lentes récentes, de la plus récente à la plus ancienne
+     */
+    public static List<RequeteLente> getRequetesLentes() {
+        List<RequeteLente> liste;
+        synchronized (LENTES) {
+            liste = new ArrayList<>(LENTES);
+        }
+        Collections.reverse(liste);
+        return liste;
+    }
+
+    /**
+     * Remet toutes les statistiques à zéro
+     */
+    public static void reinitialiser() {
+        REQUETES.clear();
+        PAR_SQL.clear();
+        synchronized (LENTES) {
+            LENTES.clear();
+        }
+    }
+
+    // ==================== Empreintes ====================
+
+    /**
+     * Texte normalisé d'une requête : deux requêtes qui ne diffèrent que par
+     * leurs valeurs ou par la longueur d'une liste ont la même empreinte
+     */
+    static String empreinte(String sql) {
+        String s = LITTERAL_CHAINE.matcher(sql).replaceAll("?");
+        s = LITTERAL_NOMBRE.matcher(s).replaceAll("?");
+        s = ESPACES.matcher(s).replaceAll(" ").trim();
+        s = LISTE.matcher(s).replaceAll("(?+)");
+        return LIGNES.matcher(s).replaceAll("(?+)+");
+    }
+
+    private static Requete requete(String sql) {
+        Requete r = PAR_SQL.get(sql);
+        if (r != null) {
+            return r;
+        }
+        String e = empreinte(sql);
+        if (REQUETES.size() >= EMPREINTES_MAX && !REQUETES.containsKey(e)) {
+            e = EMPREINTE_AUTRES;
+        }
+        r = REQUETES.computeIfAbsent(e, Requete::new);
+        if (PAR_SQL.size() < EMPREINTES_MAX * 4) {
+            PAR_SQL.put(sql, r);
+        }
+        return r;
+    }
+
+    // ==================== Requêtes lentes ====================
+
+    private static void signalerLente(Requete r, String sql, Object[] parametres, int nbParametres, long nanos) {
+        r.lentes.increment();
+        String texteParametres = r.masquee ? "(masqués)" : formater(parametres, nbParametres);
+        RequeteLente lente = new RequeteLente(r.empreinte, texteParametres, nanos);
+        synchronized (LENTES) {
+            if (LENTES.size() >= REQUETES_LENTES_MAX) {
+                LENTES.removeFirst();
+            }
+            LENTES.addLast(lente);
+        }
+        System.err.println("⚠ Requête lente (" + TimeUnit.NANOSECONDS.toMillis(nanos) + " ms) : "
+                + r.empreinte + " | paramètres " + texteParametres);
+
+        long maintenant = System.currentTimeMillis();
+        long dernier = r.dernierExplain.get();
+        if (r.explicable && !r.masquee && maintenant - dernier >= INTERVALLE_EXPLAIN_MS
+                && r.dernierExplain.compareAndSet(dernier, maintenant)) {
+            Object[] copie = Arrays.copyOf(parametres, nbParametres);
+            EXPLAIN.execute(() -> lente.plan = expliquer(sql, copie));
+        }
+    }
+
+    /**
+     * EXPLAIN sur une connexion distincte (la connexion d'origine peut avoir
+     * un résultat en flux encore ouvert)
+     */
+    private static String expliquer(String sql, Object[] parametres) {
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+        try {
+            conn = DatabaseConnection.getConnection();
+            // Le proxy ignore les requêtes EXPLAIN : pas de mesure ni de récursion
+            pstmt = conn.prepareStatement("EXPLAIN " + sql);
+            for (int i = 0; i < parametres.length; i++) {
+                pstmt.setObject(i + 1, parametres[i]);
+            }
+            rs = pstmt.executeQuery();
+            ResultSetMetaData meta = rs.getMetaData();
+            StringBuilder plan = new StringBuilder();
+            while (rs.next()) {
+                plan.append(plan.length() > 0 ? "\n" : "");
+                for (int c = 1; c <= meta.getColumnCount(); c++) {
+                    Object v = rs.getObject(c);
+                    if (v != null) {
+                        plan.append(c > 1 ? " " : "").append(meta.getColumnLabel(c)).append('=').append(v);
+                    }
+                }
+            }
+            System.err.println("  Plan : " + plan.toString().replace("\n", "\n         "));
+            return plan.toString();
+        } catch (SQLException | RuntimeException e) {
+            return "EXPLAIN impossible : " + e.getMessage();
+        } finally {
+            DatabaseConnection.closeResources(conn, pstmt, rs);
+        }
+    }
+
+    private static String formater(Object[] parametres, int n) {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < n; i++) {
+            sb.append(i > 0 ? ", " : "");
+            Object v = parametres[i];
+            if (v == null) {
+                sb.append("NULL");
+            } else if (v instanceof CharSequence) {
+                String s = v.toString();
+                sb.append('\'').append(s.length() > LONGUEUR_PARAMETRE_MAX
+                        ? s.substring(0, LONGUEUR_PARAMETRE_MAX) + "…" : s).append('\'');
+            } else {
+                sb.append(v);
+            }
+        }
+        return sb.append(']').toString();
+    }
+
+    // ==================== Proxies ====================
+
+    private static Object deleguer(Object cible, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(cible, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Enveloppe les PreparedStatement créés par la connexion
+     */
+    private static final class GestionnaireConnexion implements InvocationHandler {
+        private final Connection connexion;
+
+        GestionnaireConnexion(Connection connexion) {
+            this.connexion = connexion;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "ConnexionInstrumentee[" + connexion + "]";
+                default:
+                    break;
+            }
+            Object resultat = deleguer(connexion, method, args);
+            if ("prepareStatement".equals(method.getName()) && args[0] instanceof String
+                    && !((String) args[0]).regionMatches(true, 0, "EXPLAIN", 0, 7)) {
+                return Proxy.newProxyInstance(InstrumentationJdbc.class.getClassLoader(),
+                        new Class<?>[] { PreparedStatement.class },
+                        new GestionnaireRequete((PreparedStatement) resultat, (String) args[0]));
+            }
+            return resultat;
+        }
+    }
+
+    /**
+     * Mesure les exécutions et retient les paramètres liés
+     */
+    private static final class GestionnaireRequete implements InvocationHandler {
+        private final PreparedStatement cible;
+        private final String sql;
+        private final Requete requete;
+        private Object[] parametres = new Object[8];
+        private int nbParametres;
+
+        GestionnaireRequete(PreparedStatement cible, String sql) {
+            this.cible = cible;
+            this.sql = sql;
+            this.requete = requete(sql);
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String nom = method.getName();
+            switch (nom) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "RequeteInstrumentee[" + requete.empreinte + "]";
+                case "clearParameters":
+                    Arrays.fill(parametres, 0, nbParametres, null);
+                    nbParametres = 0;
+                    return deleguer(cible, method, args);
+                case "executeQuery":
+                case "executeUpdate":
+                case "executeLargeUpdate":
+                case "execute":
+                case "executeBatch":
+                case "executeLargeBatch":
+                    if (args == null || args.length == 0) {
+                        return executer(method, nom);
+                    }
+                    break;
+                case "getResultSet":
+                    return envelopperResultat((ResultSet) deleguer(cible, method, args));
+                default:
+                    if (nom.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                        lier((Integer) args[0], nom.equals("setNull") ? null : args[1]);
+                    }
+                    break;
+            }
+            return deleguer(cible, method, args);
+        }
+
+        private void lier(int index, Object valeur) {
+            if (index < 1) {
+                return;
+            }
+            if (index > parametres.length) {
+                parametres = Arrays.copyOf(parametres, Math.max(index, parametres.length * 2));
+            }
+            parametres[index - 1] = valeur;
+            nbParametres = Math.max(nbParametres, index);
+        }
+
+        private Object executer(Method method, String nom) throws Throwable {
+            long debut = System.nanoTime();
+            Object resultat;
+            try {
+                resultat = deleguer(cible, method, null);
+            } catch (Throwable t) {
+                requete.enregistrer(System.nanoTime() - debut, true);
+                throw t;
+            }
+            long nanos = System.nanoTime() - debut;
+            requete.enregistrer(nanos, false);
+
+            if (resultat instanceof Number) {
+                requete.lignes.add(Math.max(0, ((Number) resultat).longValue()));
+            } else if (resultat instanceof int[]) {
+                for (int n : (int[]) resultat) {
+                    requete.lignes.add(Math.max(0, n));
+                }
+            } else if (resultat instanceof long[]) {
+                for (long n : (long[]) resultat) {
+                    requete.lignes.add(Math.max(0, n));
+                }
+            }
+            if (nanos >= SEUIL_LENT_NANOS) {
+                signalerLente(requete, sql, parametres, nbParametres, nanos);
+            }
+            if ("executeQuery".equals(nom)) {
+                return envelopperResultat((ResultSet) resultat);
+            }
+            return resultat;
+        }
+
+        private ResultSet envelopperResultat(ResultSet rs) {
+            if (rs == null) {
+                return null;
+            }
+            return (ResultSet) Proxy.newProxyInstance(InstrumentationJdbc.class.getClassLoader(),
+                    new Class<?>[] { ResultSet.class }, new GestionnaireResultat(rs, requete));
+        }
+    }
+
+    /**
+     * Compte les lignes parcourues ; ajoutées aux statistiques en fin de parcours
+     */
+    private static final class GestionnaireResultat implements InvocationHandler {
+        private final ResultSet cible;
+        private final Requete requete;
+        private long lignes;
+        private boolean compte;
+
+        GestionnaireResultat(ResultSet cible, Requete requete) {
+            this.cible = cible;
+            this.requete = requete;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "next": {
+                    boolean suivant = (Boolean) deleguer(cible, method, args);
+                    if (suivant) {
+                        lignes++;
+                    } else {
+                        comptabiliser();
+                    }
+                    return suivant;
+                }
+                case "close":
+                    comptabiliser();
+                    break;
+                default:
+                    break;
+            }
+            return deleguer(cible, method, args);
+        }
+
+        private void comptabiliser() {
+            if (!compte) {
+                compte = true;
+                requete.lignes.add(lignes);
+            }
+        }
+    }
+}
@@ -0,0 +1,444 @@
+package utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Analyseur JSON en flux (pull parser) lisant directement un InputStream UTF-8
+ *
+ * L'appelant avance jeton par jeton avec {@link #suivant()} et lit la valeur
+ * courante avec {@link #getTexte()}, {@link #getInt()}, etc. Les octets sont
+ * décodés dans un tampon de caractères réutilisé : aucune copie intermédiaire
+ * du corps de la requête n'est construite.
+ *
+ * La grammaire est vérifiée au fil de la lecture : ':' après chaque nom de
+ * champ, ',' entre deux éléments, pas de virgule finale.
+ *
+ * Exemple :
+ * <pre>
+ * JsonReader json = new JsonReader(request.getInputStream());
+ * json.suivant(); // DEBUT_OBJET
+ * while (json.suivant() == JsonReader.Jeton.NOM) {
+ *     String champ = json.getTexte();
+ *     json.suivant(); // valeur du champ
+ *     ...
+ * }
+ * </pre>
+ *
+ * @author Système de Planification Académique
+ * @version 1.0
+ */
+public class JsonReader {
+
+    /**
+     * Types de jetons produits par l'analyseur
+     */
+    public enum Jeton {
+        DEBUT_OBJET, FIN_OBJET, DEBUT_TABLEAU, FIN_TABLEAU, NOM, CHAINE, NOMBRE, BOOLEEN, NUL, FIN_DOCUMENT
+    }
+
+    private static final int TAILLE_TAMPON = 8192;
+
+    private final InputStream in;
+    private final byte[] octets = new byte[TAILLE_TAMPON];
+    private int position = 0;
+    private int limite = 0;
+
+    /** Texte du jeton courant (nom, chaîne, nombre) */
+    private char[] texte = new char[64];
+    private int longueurTexte = 0;
+
+    /** Pile des conteneurs ouverts : true = objet, false = tableau */
+    private boolean[] pile = new boolean[32];
+    private int profondeur = 0;
+    /** Dans un objet : le prochain jeton chaîne est un nom de champ */
+    private boolean attendNom = false;
+
+    /** Ce qui peut suivre le jeton courant */
+    private static final int VALEUR = 0;       // début de document
+    private static final int PREMIER = 1;      // après '{' ou '[' : élément ou fermeture
+    private static final int SEPARATEUR = 2;   // après un élément : ',' ou fermeture
+    private static final int DEUX_POINTS = 3;  // après un nom de champ
+    private int attente = VALEUR;
+
+    private Jeton courant;
+    private boolean valeurBooleenne;
+
+    public JsonReader(InputStream in) {
+        this.in = in;
+    }
+
+    // ==================== Lecture des jetons ====================
+
+    /**
+     * Avance au jeton suivant
+     *
+     * @return Le type du nouveau jeton courant
+     * @throws IOException si le flux est illisible ou le JSON invalide
+     */
+    public Jeton suivant() throws IOException {
+        int c = lireNonBlanc();
+        boolean fermeture = attente == PREMIER;
+
+        // Séparateurs : ':' après un nom, ',' (ou une fermeture) après un élément
+        if (attente == DEUX_POINTS) {
+            if (c != ':') {
+                throw erreur("':' attendu après le nom de champ");
+            }
+            c = lireNonBlanc();
+        } else if (attente == SEPARATEUR && profondeur > 0) {
+            if (c == ',') {
+                attendNom = pile[profondeur - 1];
+                c = lireNonBlanc();
+            } else if (c == '}' || c == ']') {
+                fermeture = true;
+            } else {
+                throw erreur("',' attendue entre deux éléments");
+            }
+        } else if (attente == SEPARATEUR && c != -1) {
+            throw erreur("Contenu après la fin du document");
+        }
+
+        if ((c == '}' || c == ']') && !fermeture) {
+            throw erreur("Élément attendu avant '" + (char) c + "'");
+        }
+        if (attendNom && c != '"' && c != '}' && c != -1) {
+            throw erreur("Nom de champ attendu");
+        }
+
+        courant = lireJeton(c);
+        switch (courant) {
+            case DEBUT_OBJET:
+            case DEBUT_TABLEAU:
+                attente = PREMIER;
+                break;
+            case NOM:
+                attente = DEUX_POINTS;
+                break;
+            case FIN_DOCUMENT:
+                break;
+            default:
+                attente = SEPARATEUR;
+        }
+        return courant;
+    }
+
+    /** Lit le jeton commençant par le caractère c (séparateurs déjà consommés) */
+    private Jeton lireJeton(int c) throws IOException {
+        switch (c) {
+            case -1:
+                if (profondeur != 0) {
+                    throw erreur("Fin de document inattendue");
+                }
+                return Jeton.FIN_DOCUMENT;
+            case '{':
+                empiler(true);
+                attendNom = true;
+                return Jeton.DEBUT_OBJET;
+            case '[':
+                empiler(false);
+                attendNom = false;
+                return Jeton.DEBUT_TABLEAU;
+            case '}':
+            case ']':
+                if (profondeur == 0 || pile[profondeur - 1] != (c == '}')) {
+                    throw erreur("Fermeture inattendue '" + (char) c + "'");
+                }
+                profondeur--;
+                attendNom = false;
+                return (c == '}') ? Jeton.FIN_OBJET : Jeton.FIN_TABLEAU;
+            case '"':
+                lireChaine();
+                if (attendNom) {
+                    attendNom = false;
+                    return Jeton.NOM;
+                }
+                return Jeton.CHAINE;
+            case 't':
+                lireMotCle("rue");
+                valeurBooleenne = true;
+                return Jeton.BOOLEEN;
+            case 'f':
+                lireMotCle("alse");
+                valeurBooleenne = false;
+                return Jeton.BOOLEEN;
+            case 'n':
+                lireMotCle("ull");
+                return Jeton.NUL;
+            default:
+                if (c == '-' || (c >= '0' && c <= '9')) {
+                    lireNombre(c);
+                    return Jeton.NOMBRE;
+                }
+                throw erreur("Caractère inattendu '" + (char) c + "'");
+        }
+    }
+
+    /**
+     * Ignore la valeur courante (et tout son contenu s'il s'agit d'un conteneur)
+     * À appeler après avoir avancé sur la valeur d'un champ non utilisé.
+     */
+    public void ignorerValeur() throws IOException {
+        if (courant != Jeton.DEBUT_OBJET && courant != Jeton.DEBUT_TABLEAU) {
+            return;
+        }
+        int cible = profondeur - 1;
+        while (profondeur > cible) {
+            if (suivant() == Jeton.FIN_DOCUMENT) {
+                throw erreur("Fin de document inattendue");
+            }
+        }
+    }
+
+    // ==================== Accès à la valeur courante ====================
+
+    public Jeton getJeton() {
+        return courant;
+    }
+
+    /**
+     * Texte du jeton courant (nom de champ, chaîne ou nombre), null pour NUL
+     */
+    public String getTexte() {
+        if (courant == Jeton.NUL) {
+            return null;
+        }
+        if (courant == Jeton.BOOLEEN) {
+            return String.valueOf(valeurBooleenne);
+        }
+        return new String(texte, 0, longueurTexte);
+    }
+
+    /**
+     * Compare le texte courant sans créer de String
+     */
+    public boolean texteEgal(String attendu) {
+        if (attendu.length() != longueurTexte) {
+            return false;
+        }
+        for (int i = 0; i < longueurTexte; i++) {
+            if (texte[i] != attendu.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Valeur entière du jeton courant (nombre, ou chaîne contenant un nombre)
+     */
+    public int getInt() throws IOException {
+        long v = getLong();
+        if (v < Integer.MIN_VALUE || v > Integer.MAX_VALUE) {
+            throw erreur("Entier hors limites");
+        }
+        return (int) v;
+    }
+
+    /**
+     * Valeur entière longue du jeton courant, analysée sans créer de String
+     */
+    public long getLong() throws IOException {
+        if (longueurTexte == 0 || (courant != Jeton.NOMBRE && courant != Jeton.CHAINE)) {
+            throw erreur("Nombre attendu");
+        }
+        int i = 0;
+        boolean negatif = texte[0] == '-';
+        if (negatif) {
+            i++;
+        }
+        if (i == longueurTexte) {
+            throw erreur("Nombre invalide");
+        }
+        long v = 0;
+        for (; i < longueurTexte; i++) {
+            char ch = texte[i];
+            if (ch < '0' || ch > '9') {
+                throw erreur("Entier attendu : " + getTexte());
+            }
+            try {
+                v = Math.addExact(Math.multiplyExact(v, 10), ch - '0');
+            } catch (ArithmeticException e) {
+                throw erreur("Entier hors limites");
+            }
+        }
+        return negatif ? -v : v;
+    }
+
+    public boolean getBooleen() throws IOException {
+        if (courant != Jeton.BOOLEEN) {
+            throw erreur("Booléen attendu");
+        }
+        return valeurBooleenne;
+    }
+
+    // ==================== Implémentation ====================
+
+    private int lireOctet() throws IOException {
+        if (position == limite) {
+            limite = in.read(octets, 0, octets.length);
+            position = 0;
+            if (limite <= 0) {
+                limite = 0;
+                return -1;
+            }
+        }
+        return octets[position++] & 0xFF;
+    }
+
+    private int lireNonBlanc() throws IOException {
+        int c;
+        do {
+            c = lireOctet();
+        } while (c == ' ' || c == '\n' || c == '\r' || c == '\t');
+        return c;
+    }
+
+    private void empiler(boolean objet) {
+        if (profondeur == pile.length) {
+            boolean[] agrandie = new boolean[pile.length * 2];
+            System.arraycopy(pile, 0, agrandie, 0, pile.length);
+            pile = agrandie;
+        }
+        pile[profondeur++] = objet;
+    }
+
+    private void ajouterCaractere(char ch) {
+        if (longueurTexte == texte.length) {
+            char[] agrandi = new char[texte.length * 2];
+            System.arraycopy(texte, 0, agrandi, 0, longueurTexte);
+            texte = agrandi;
+        }
+        texte[longueurTexte++] = ch;
+    }
+
+    private void lireChaine() throws IOException {
+        longueurTexte = 0;
+        while (true) {
+            int c = lireOctet();
+            if (c == -1) {
+                throw erreur("Chaîne non terminée");
+            }
+            if (c == '"') {
+                return;
+            }
+            if (c == '\\') {
+                lireEchappement();
+            } else if (c < 0x80) {
+                ajouterCaractere((char) c);
+            } else {
+                decoderUtf8(c);
+            }
+        }
+    }
+
+    private void lireEchappement() throws IOException {
+        int c = lireOctet();
+        switch (c) {
+            case '"':
+            case '\\':
+            case '/':
+                ajouterCaractere((char) c);
+                break;
+            case 'b':
+                ajouterCaractere('\b');
+                break;
+            case 'f':
+                ajouterCaractere('\f');
+                break;
+            case 'n':
+                ajouterCaractere('\n');
+                break;
+            case 'r':
+                ajouterCaractere('\r');
+                break;
+            case 't':
+                ajouterCaractere('\t');
+                break;
+            case 'u':
+                int code = 0;
+                for (int i = 0; i < 4; i++) {
+                    int h = Character.digit(lireOctet(), 16);
+                    if (h < 0) {
+                        throw erreur("Séquence \\u invalide");
+                    }
+                    code = (code << 4) | h;
+                }
+                ajouterCaractere((char) code);
+                break;
+            default:
+                throw erreur("Échappement invalide");
+        }
+    }
+
+    /**
+     * Décode une séquence UTF-8 multi-octets commençant par l'octet premier
+     */
+    private void decoderUtf8(int premier) throws IOException {
+        int code;
+        int suite;
+        if ((premier & 0xE0) == 0xC0) {
+            code = premier & 0x1F;
+            suite = 1;
+        } else if ((premier & 0xF0) == 0xE0) {
+            code = premier & 0x0F;
+            suite = 2;
+        } else if ((premier & 0xF8) == 0xF0) {
+            code = premier & 0x07;
+            suite = 3;
+        } else {
+            throw erreur("Octet UTF-8 invalide");
+        }
+        for (int i = 0; i < suite; i++) {
+            int c = lireOctet();
+            if (c == -1 || (c & 0xC0) != 0x80) {
+                throw erreur("Séquence UTF-8 invalide");
+            }
+            code = (code << 6) | (c & 0x3F);
+        }
+        if (code >= 0x10000) {
+            ajouterCaractere(Character.highSurrogate(code));
+            ajouterCaractere(Character.lowSurrogate(code));
+        } else {
+            ajouterCaractere((char) code);
+        }
+    }
+
+    private void lireNombre(int premier) throws IOException {
+        longueurTexte = 0;
+        ajouterCaractere((char) premier);
+        while (true) {
+            if (position == limite && lireOctetSansConsommer() == -1) {
+                return;
+            }
+            int c = octets[position] & 0xFF;
+            if ((c >= '0' && c <= '9') || c == '.' || c == 'e' || c == 'E' || c == '+' || c == '-') {
+                ajouterCaractere((char) c);
+                position++;
+            } else {
+                return;
+            }
+        }
+    }
+
+    /** Remplit le tampon si nécessaire sans avancer ; -1 en fin de flux */
+    private int lireOctetSansConsommer() throws IOException {
+        int c = lireOctet();
+        if (c != -1) {
+            position--;
+        }
+        return c;
+    }
+
+    private void lireMotCle(String reste) throws IOException {
+        for (int i = 0; i < reste.length(); i++) {
+            if (lireOctet() != reste.charAt(i)) {
+                throw erreur("Mot-clé invalide");
+            }
+        }
+    }
+
+    private IOException erreur(String message) {
+        return new IOException("JSON invalide : " + message);
+    }
+}
@@ -0,0 +1,309 @@
+package utils;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Writer;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Écriture JSON en flux, pendant de {@link JsonReader}
+ *
+ * Les jetons sont écrits dans un tampon de caractères réutilisé, vidé vers
+ * le Writer sous-jacent quand il est plein et par {@link #flush()}. Les
+ * chaînes sont échappées caractère par caractère directement dans ce tampon
+ * et les nombres y sont formatés sans passer par une String : écrire une
+ * ligne de résultat n'alloue rien. Les virgules sont placées automatiquement.
+ *
+ * Exemple :
+ * <pre>
+ * JsonWriter json = new JsonWriter(response.getWriter());
+ * json.debutObjet().nom("id").valeur(42).nom("nom").valeur("Salle A").finObjet();
+ * json.flush();
+ * </pre>
+ *
+ * @author Système de Planification Académique
+ * @version 1.0
+ */
+public class JsonWriter implements Flushable {
+
+    private static final int TAILLE_TAMPON = 8192;
+    private static final char[] HEXA = "0123456789abcdef".toCharArray();
+    private static final char[] MIN_LONG = Long.toString(Long.MIN_VALUE).toCharArray();
+
+    private final Writer out;
+    private final char[] tampon = new char[TAILLE_TAMPON];
+    private int position = 0;
+
+    /** Pour chaque conteneur ouvert : aucun élément encore écrit */
+    private boolean[] vide = new boolean[32];
+    private int profondeur = 0;
+    /** Un nom de champ vient d'être écrit : la valeur suit sans virgule */
+    private boolean apresNom = false;
+
+    public JsonWriter(Writer out) {
+        this.out = out;
+    }
+
+    // ==================== Conteneurs ====================
+
+    public JsonWriter debutObjet() throws IOException {
+        avantValeur();
+        ecrire('{');
+        empiler();
+        return this;
+    }
+
+    public JsonWriter finObjet() throws IOException {
+        depiler();
+        ecrire('}');
+        return this;
+    }
+
+    public JsonWriter debutTableau() throws IOException {
+        avantValeur();
+        ecrire('[');
+        empiler();
+        return this;
+    }
+
+    public JsonWriter finTableau() throws IOException {
+        depiler();
+        ecrire(']');
+        return this;
+    }
+
+    /**
+     * Nom du champ suivant (dans un objet)
+     */
+    public JsonWriter nom(String nom) throws IOException {
+        avantValeur();
+        ecrireChaine(nom);
+        ecrire(':');
+        apresNom = true;
+        return this;
+    }
+
+    // ==================== Valeurs ====================
+
+    /**
+     * Chaîne échappée, ou null
+     */
+    public JsonWriter valeur(String valeur) throws IOException {
+        avantValeur();
+        if (valeur == null) {
+            ecrireBrut("null");
+        } else {
+            ecrireChaine(valeur);
+        }
+        return this;
+    }
+
+    public JsonWriter valeur(long valeur) throws IOException {
+        avantValeur();
+        ecrireLong(valeur);
+        return this;
+    }
+
+    public JsonWriter valeur(boolean valeur) throws IOException {
+        avantValeur();
+        ecrireBrut(valeur ? "true" : "false");
+        return this;
+    }
+
+    /**
+     * Entier facultatif, null si absent
+     */
+    public JsonWriter valeur(Integer valeur) throws IOException {
+        if (valeur == null) {
+            return valeurNulle();
+        }
+        return valeur(valeur.longValue());
+    }
+
+    public JsonWriter valeurNulle() throws IOException {
+        avantValeur();
+        ecrireBrut("null");
+        return this;
+    }
+
+    /**
+     * Date/heure au format ISO local ("2026-02-17T09:00", secondes si non nulles), ou null
+     */
+    public JsonWriter valeur(Timestamp dateHeure) throws IOException {
+        if (dateHeure == null) {
+            return valeurNulle();
+        }
+        avantValeur();
+        LocalDateTime t = dateHeure.toLocalDateTime();
+        ecrire('"');
+        ecrireDate(t.getYear(), t.getMonthValue(), t.getDayOfMonth());
+        ecrire('T');
+        ecrireDeuxChiffres(t.getHour());
+        ecrire(':');
+        ecrireDeuxChiffres(t.getMinute());
+        if (t.getSecond() != 0) {
+            ecrire(':');
+            ecrireDeuxChiffres(t.getSecond());
+        }
+        ecrire('"');
+        return this;
+    }
+
+    /**
+     * Date au format ISO ("2026-02-17"), ou null
+     */
+    public JsonWriter valeur(LocalDate date) throws IOException {
+        if (date == null) {
+            return valeurNulle();
+        }
+        avantValeur();
+        ecrire('"');
+        ecrireDate(date.getYear(), date.getMonthValue(), date.getDayOfMonth());
+        ecrire('"');
+        return this;
+    }
+
+    /**
+     * Vide le tampon vers le Writer sous-jacent
+     */
+    @Override
+    public void flush() throws IOException {
+        vider();
+        out.flush();
+    }
+
+    // ==================== Implémentation ====================
+
+    private void avantValeur() throws IOException {
+        if (apresNom) {
+            apresNom = false;
+            return;
+        }
+        if (profondeur > 0) {
+            if (vide[profondeur - 1]) {
+                vide[profondeur - 1] = false;
+            } else {
+                ecrire(',');
+            }
+        }
+    }
+
+    private void empiler() {
+        if (profondeur == vide.length) {
+            boolean[] agrandie = new boolean[profondeur * 2];
+            System.arraycopy(vide, 0, agrandie, 0, profondeur);
+            vide = agrandie;
+        }
+        vide[profondeur++] = true;
+    }
+
+    private void depiler() {
+        if (profondeur == 0) {
+            throw new IllegalStateException("Aucun conteneur JSON ouvert");
+        }
+        profondeur--;
+    }
+
+    private void ecrire(char c) throws IOException {
+        if (position == tampon.length) {
+            vider();
+        }
+        tampon[position++] = c;
+    }
+
+    private void ecrireBrut(String s) throws IOException {
+        for (int i = 0; i < s.length(); i++) {
+            ecrire(s.charAt(i));
+        }
+    }
+
+    private void ecrireChaine(String s) throws IOException {
+        ecrire('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"':
+                    ecrire('\\');
+                    ecrire('"');
+                    break;
+                case '\\':
+                    ecrire('\\');
+                    ecrire('\\');
+                    break;
+                case '\n':
+                    ecrire('\\');
+                    ecrire('n');
+                    break;
+                case '\r':
+                    ecrire('\\');
+                    ecrire('r');
+                    break;
+                case '\t':
+                    ecrire('\\');
+                    ecrire('t');
+                    break;
+                default:
+                    if (c < 0x20 || c == 0x2028 || c == 0x2029) {
+                        ecrire('\\');
+                        ecrire('u');
+                        ecrire(HEXA[(c >> 12) & 0xF]);
+                        ecrire(HEXA[(c >> 8) & 0xF]);
+                        ecrire(HEXA[(c >> 4) & 0xF]);
+                        ecrire(HEXA[c & 0xF]);
+                    } else {
+                        ecrire(c);
+                    }
+            }
+        }
+        ecrire('"');
+    }
+
+    private void ecrireLong(long v) throws IOException {
+        if (v == Long.MIN_VALUE) {
+            for (char c : MIN_LONG) {
+                ecrire(c);
+            }
+            return;
+        }
+        if (v < 0) {
+            ecrire('-');
+            v = -v;
+        }
+        // Au plus 19 chiffres : réserver la place puis remplir depuis la droite
+        int chiffres = 1;
+        for (long p = 10; chiffres < 19 && v >= p; p *= 10) {
+            chiffres++;
+        }
+        if (position + chiffres > tampon.length) {
+            vider();
+        }
+        int i = position + chiffres;
+        do {
+            tampon[--i] = (char) ('0' + (v % 10));
+            v /= 10;
+        } while (v != 0);
+        position += chiffres;
+    }
+
+    private void ecrireDate(int annee, int mois, int jour) throws IOException {
+        ecrireLong(annee);
+        ecrire('-');
+        ecrireDeuxChiffres(mois);
+        ecrire('-');
+        ecrireDeuxChiffres(jour);
+    }
+
+    private void ecrireDeuxChiffres(int v) throws IOException {
+        ecrire((char) ('0' + v / 10));
+        ecrire((char) ('0' + v % 10));
+    }
+
+    private void vider() throws IOException {
+        if (position > 0) {
+            out.write(tampon, 0, position);
+            position = 0;
+        }
+    }
+}
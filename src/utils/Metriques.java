@@ -0,0 +1,323 @@
+package utils;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Registre de métriques exposé au format texte de Prometheus
+ *
+ * Les métriques sont créées une fois (champs static final des classes
+ * instrumentées) : l'enregistrement ne fait ni recherche ni allocation, il
+ * incrémente des LongAdder (striés par thread, sans contention). Les
+ * histogrammes ont des seuils fixes ; le cumul demandé par Prometheus est
+ * calculé à l'export.
+ *
+ * Exemple :
+ * <pre>
+ * private static final Metriques.Histogramme DUREE =
+ *         Metriques.histogramme("planif_action_duree_secondes", "...", "servlet", "calendrier", "action", "afficher");
+ * long debut = System.nanoTime();
+ * ...
+ * DUREE.observerDepuis(debut);
+ * </pre>
+ *
+ * @author Système de Planification Académique
+ * @version 1.0
+ */
+public final class Metriques {
+
+    /** Seuils des histogrammes de durée, en secondes (0,5 ms à 10 s) */
+    private static final double[] SEUILS_SECONDES = {
+            0.0005, 0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10 };
+    private static final long[] SEUILS_NANOS = new long[SEUILS_SECONDES.length];
+    /** Valeurs de l'étiquette le, sans notation scientifique */
+    private static final String[] LIBELLES_SEUILS = new String[SEUILS_SECONDES.length];
+
+    static {
+        for (int i = 0; i < SEUILS_SECONDES.length; i++) {
+            SEUILS_NANOS[i] = (long) (SEUILS_SECONDES[i] * 1e9);
+            LIBELLES_SEUILS[i] = BigDecimal.valueOf(SEUILS_SECONDES[i]).stripTrailingZeros().toPlainString();
+        }
+    }
+
+    /** Une famille par nom de métrique, séries dans l'ordre de création */
+    private static final ConcurrentHashMap<String, Famille> FAMILLES = new ConcurrentHashMap<>();
+    private static final List<Famille> ORDRE = new ArrayList<>();
+
+    private Metriques() {
+    }
+
+    // ==================== Types de métriques ====================
+
+    /** Série d'une famille : étiquettes déjà formatées ("{a=\"x\",b=\"y\"}" ou "") */
+    private abstract static class Serie {
+        final String etiquettes;
+
+        Serie(String etiquettes) {
+            this.etiquettes = etiquettes;
+        }
+
+        abstract void exporter(String nom, StringBuilder sb);
+    }
+
+    /**
+     * Compteur monotone
+     */
+    public static final class Compteur extends Serie {
+        private final LongAdder valeur = new LongAdder();
+
+        Compteur(String etiquettes) {
+            super(etiquettes);
+        }
+
+        public void incrementer() {
+            valeur.increment();
+        }
+
+        public void ajouter(long n) {
+            valeur.add(n);
+        }
+
+        public long valeur() {
+            return valeur.sum();
+        }
+
+        @Override
+        void exporter(String nom, StringBuilder sb) {
+            sb.append(nom).append(etiquettes).append(' ').append(valeur.sum()).append('\n');
+        }
+    }
+
+    /**
+     * Valeur instantanée lue à l'export (taille d'un pool, d'une file...)
+     */
+    static final class Jauge extends Serie {
+        private final LongSupplier source;
+
+        Jauge(String etiquettes, LongSupplier source) {
+            super(etiquettes);
+            this.source = source;
+        }
+
+        @Override
+        void exporter(String nom, StringBuilder sb) {
+            sb.append(nom).append(etiquettes).append(' ').append(source.getAsLong()).append('\n');
+        }
+    }
+
+    /**
+     * Histogramme de durées à seuils fixes
+     */
+    public static final class Histogramme extends Serie {
+        /** Effectif par intervalle (non cumulé) ; dernière case = au-delà du dernier seuil */
+        private final LongAdder[] cases = new LongAdder[SEUILS_NANOS.length + 1];
+        private final LongAdder sommeNanos = new LongAdder();
+        private final String prefixeSeuil;
+
+        Histogramme(String etiquettes) {
+            super(etiquettes);
+            for (int i = 0; i < cases.length; i++) {
+                cases[i] = new LongAdder();
+            }
+            prefixeSeuil = etiquettes.isEmpty() ? "{le=\""
+                    : etiquettes.substring(0, etiquettes.length() - 1) + ",le=\"";
+        }
+
+        public void observer(long nanos) {
+            int i = 0;
+            while (i < SEUILS_NANOS.length && nanos > SEUILS_NANOS[i]) {
+                i++;
+            }
+            cases[i].increment();
+            sommeNanos.add(nanos);
+        }
+
+        /**
+         * Observe la durée écoulée depuis debut (valeur de System.nanoTime())
+         */
+        public void observerDepuis(long debut) {
+            observer(System.nanoTime() - debut);
+        }
+
+        public long nombre() {
+            long n = 0;
+            for (LongAdder c : cases) {
+                n += c.sum();
+            }
+            return n;
+        }
+
+        @Override
+        void exporter(String nom, StringBuilder sb) {
+            long cumul = 0;
+            for (int i = 0; i < SEUILS_SECONDES.length; i++) {
+                cumul += cases[i].sum();
+                sb.append(nom).append("_bucket").append(prefixeSeuil).append(LIBELLES_SEUILS[i]).append("\"} ")
+                        .append(cumul).append('\n');
+            }
+            cumul += cases[SEUILS_SECONDES.length].sum();
+            sb.append(nom).append("_bucket").append(prefixeSeuil).append("+Inf\"} ").append(cumul).append('\n');
+            sb.append(nom).append("_sum").append(etiquettes).append(' ')
+                    .append(sommeNanos.sum() / (double) TimeUnit.SECONDS.toNanos(1)).append('\n');
+            sb.append(nom).append("_count").append(etiquettes).append(' ').append(cumul).append('\n');
+        }
+    }
+
+    /**
+     * Durée et nombre de lignes d'une méthode de DAO
+     */
+    public static final class MesureRequete {
+        private final Histogramme duree;
+        private final Compteur lignes;
+        private final Compteur erreurs;
+
+        MesureRequete(String dao, String methode) {
+            duree = histogramme("planif_dao_duree_secondes", "Durée des méthodes DAO",
+                    "dao", dao, "methode", methode);
+            lignes = compteur("planif_dao_lignes_total", "Lignes lues ou modifiées par les méthodes DAO",
+                    "dao", dao, "methode", methode);
+            erreurs = compteur("planif_dao_erreurs_total", "Exceptions levées par les méthodes DAO",
+                    "dao", dao, "methode", methode);
+        }
+
+        /**
+         * @param debut  Valeur de System.nanoTime() à l'entrée de la méthode
+         * @param nombre Lignes lues ou modifiées
+         */
+        public void enregistrer(long debut, long nombre) {
+            duree.observerDepuis(debut);
+            lignes.ajouter(nombre);
+        }
+
+        public void echec() {
+            erreurs.incrementer();
+        }
+    }
+
+    // ==================== Familles ====================
+
+    private static final class Famille {
+        final String nom;
+        final String aide;
+        final String type;
+        final ConcurrentHashMap<String, Serie> series = new ConcurrentHashMap<>();
+        final List<Serie> ordre = new ArrayList<>();
+
+        Famille(String nom, String aide, String type) {
+            this.nom = nom;
+            this.aide = aide;
+            this.type = type;
+        }
+    }
+
+    private static Famille famille(String nom, String aide, String type) {
+        Famille f = FAMILLES.computeIfAbsent(nom, n -> {
+            Famille nouvelle = new Famille(n, aide, type);
+            synchronized (ORDRE) {
+                ORDRE.add(nouvelle);
+            }
+            return nouvelle;
+        });
+        if (!f.type.equals(type)) {
+            throw new IllegalArgumentException("Métrique " + nom + " déjà déclarée de type " + f.type);
+        }
+        return f;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <S extends Serie> S serie(Famille f, String etiquettes, Function<String, S> creer) {
+        return (S) f.series.computeIfAbsent(etiquettes, e -> {
+            S s = creer.apply(e);
+            synchronized (f.ordre) {
+                f.ordre.add(s);
+            }
+            return s;
+        });
+    }
+
+    /**
+     * @param etiquettes Paires nom, valeur
+     */
+    public static Compteur compteur(String nom, String aide, String... etiquettes) {
+        return serie(famille(nom, aide, "counter"), formater(etiquettes), Compteur::new);
+    }
+
+    public static Histogramme histogramme(String nom, String aide, String... etiquettes) {
+        return serie(famille(nom, aide, "histogram"), formater(etiquettes), Histogramme::new);
+    }
+
+    public static void jauge(String nom, String aide, LongSupplier source, String... etiquettes) {
+        serie(famille(nom, aide, "gauge"), formater(etiquettes), e -> new Jauge(e, source));
+    }
+
+    /**
+     * Histogramme de durée d'une action de servlet (planif_action_duree_secondes)
+     */
+    public static Histogramme action(String servlet, String action) {
+        return histogramme("planif_action_duree_secondes", "Durée de traitement des requêtes par action",
+                "servlet", servlet, "action", action);
+    }
+
+    public static MesureRequete requete(String dao, String methode) {
+        return new MesureRequete(dao, methode);
+    }
+
+    private static String formater(String[] etiquettes) {
+        if (etiquettes.length % 2 != 0) {
+            throw new IllegalArgumentException("Étiquettes attendues par paires nom, valeur");
+        }
+        if (etiquettes.length == 0) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder("{");
+        for (int i = 0; i < etiquettes.length; i += 2) {
+            sb.append(i > 0 ? "," : "").append(etiquettes[i]).append("=\"");
+            String v = etiquettes[i + 1];
+            for (int j = 0; j < v.length(); j++) {
+                char c = v.charAt(j);
+                if (c == '\\' || c == '"') {
+                    sb.append('\\').append(c);
+                } else if (c == '\n') {
+                    sb.append("\\n");
+                } else {
+                    sb.append(c);
+                }
+            }
+            sb.append('"');
+        }
+        return sb.append('}').toString();
+    }
+
+    // ==================== Export ====================
+
+    /**
+     * Écrit toutes les métriques au format d'exposition texte de Prometheus (0.0.4)
+     */
+    public static void exporter(Writer out) throws IOException {
+        StringBuilder sb = new StringBuilder(16384);
+        List<Famille> familles;
+        synchronized (ORDRE) {
+            familles = new ArrayList<>(ORDRE);
+        }
+        for (Famille f : familles) {
+            sb.append("# HELP ").append(f.nom).append(' ').append(f.aide).append('\n');
+            sb.append("# TYPE ").append(f.nom).append(' ').append(f.type).append('\n');
+            List<Serie> series;
+            synchronized (f.ordre) {
+                series = new ArrayList<>(f.ordre);
+            }
+            for (Serie s : series) {
+                s.exporter(f.nom, sb);
+            }
+        }
+        out.write(sb.toString());
+    }
+}
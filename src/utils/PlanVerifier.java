@@ -0,0 +1,75 @@
+package utils;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Vérifie par EXPLAIN que les requêtes critiques utilisent un index
+ *
+ * Appelé au démarrage après les migrations : une requête dont le plan
+ * contient un parcours complet de table (type ALL) ou aucune clé est
+ * signalée dans les logs.
+ *
+ * @author Système de Planification Académique
+ * @version 1.0
+ */
+public class PlanVerifier {
+
+    /**
+     * Exécute EXPLAIN sur une requête paramétrée
+     *
+     * @param nom        Nom de la requête (pour les logs)
+     * @param sql        Requête SELECT/UPDATE à expliquer
+     * @param parametres Valeurs des paramètres, dans l'ordre
+     * @return true si toutes les tables du plan sont accédées par index
+     */
+    public static boolean verifier(String nom, String sql, Object... parametres) {
+        if (!DatabaseConnection.getDialecte().isExplainTabulaire()) {
+            System.out.println("Plan non vérifié pour " + nom + " (base " + DatabaseConnection.getDialecte() + ")");
+            return true;
+        }
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = DatabaseConnection.getConnection();
+            pstmt = conn.prepareStatement("EXPLAIN " + sql);
+            for (int i = 0; i < parametres.length; i++) {
+                pstmt.setObject(i + 1, parametres[i]);
+            }
+            rs = pstmt.executeQuery();
+
+            boolean indexe = true;
+            StringBuilder plan = new StringBuilder();
+            while (rs.next()) {
+                String table = rs.getString("table");
+                String type = rs.getString("type");
+                String cle = rs.getString("key");
+                plan.append(' ').append(table).append('[').append(type).append(',').append(cle).append(']');
+                // Les lignes <unionN,M> / <derivedN> décrivent des tables temporaires
+                if (table != null && table.startsWith("<")) {
+                    continue;
+                }
+                if ("ALL".equals(type) || cle == null) {
+                    indexe = false;
+                }
+            }
+
+            if (indexe) {
+                System.out.println("✓ Plan indexé pour " + nom + " :" + plan);
+            } else {
+                System.err.println("⚠ Parcours complet détecté pour " + nom + " :" + plan);
+            }
+            return indexe;
+
+        } catch (SQLException e) {
+            System.err.println("EXPLAIN impossible pour " + nom + " : " + e.getMessage());
+            return false;
+        } finally {
+            DatabaseConnection.closeResources(conn, pstmt, rs);
+        }
+    }
+}
@@ -0,0 +1,299 @@
+package utils;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Applique au démarrage les migrations de schéma manquantes
+ *
+ * Chaque migration porte un numéro de version ; les versions appliquées sont
+ * enregistrées dans la table schema_version. Les migrations vérifient
+ * l'existence des colonnes et index avant de les créer : elles sont donc
+ * idempotentes, ce qui permet à plusieurs instances de démarrer en même temps
+ * et à une base créée par database/planification.sql d'être reconnue à jour.
+ *
+ * @author Système de Planification Académique
+ * @version 1.0
+ */
+public class SchemaMigrator {
+
+    /**
+     * Migration de schéma numérotée
+     */
+    public abstract static class Migration {
+        private final int version;
+        private final String description;
+
+        protected Migration(int version, String description) {
+            this.version = version;
+            this.description = description;
+        }
+
+        public int getVersion() {
+            return version;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+
+        /**
+         * Applique la migration sur la connexion fournie
+         */
+        protected abstract void appliquer(Connection conn) throws SQLException;
+    }
+
+    // ==================== Migrations connues ====================
+
+    private static final List<Migration> MIGRATIONS = new ArrayList<>();
+
+    static {
+        MIGRATIONS.add(new Migration(1, "Colonnes enseignant_id, salle_id, cours_id") {
+            @Override
+            protected void appliquer(Connection conn) throws SQLException {
+                ajouterColonneSiAbsente(conn, "planification", "enseignant_id", "INT NULL");
+                ajouterColonneSiAbsente(conn, "planification", "salle_id", "INT NULL");
+                ajouterColonneSiAbsente(conn, "planification", "cours_id", "INT NULL");
+                // Ancien schéma à ressource unique : la colonne ne doit plus bloquer les INSERT
+                if (colonneExiste(conn, "planification", "ressource_id")) {
+                    executer(conn, "ALTER TABLE planification MODIFY ressource_id INT NULL");
+                }
+            }
+        });
+
+        MIGRATIONS.add(new Migration(2, "Colonne date_fin et index composites ressource/période") {
+            @Override
+            protected void appliquer(Connection conn) throws SQLException {
+                Dialecte dialecte = DatabaseConnection.getDialecte();
+                ajouterColonneSiAbsente(conn, "planification", "date_fin",
+                        dialecte.colonneCalculee("DATETIME", dialecte.ajouterMinutes("date_heure", "duree")));
+                ajouterIndexSiAbsent(conn, "planification", "idx_salle_periode", "salle_id, date_heure, date_fin");
+                ajouterIndexSiAbsent(conn, "planification", "idx_enseignant_periode",
+                        "enseignant_id, date_heure, date_fin");
+                ajouterIndexSiAbsent(conn, "planification", "idx_statut_debut", "statut, date_heure");
+                ajouterIndexSiAbsent(conn, "planification", "idx_statut_fin", "statut, date_fin");
+                // Préfixe de idx_statut_debut : devenu redondant
+                if (indexExiste(conn, "planification", "idx_statut")) {
+                    executer(conn, "DROP INDEX idx_statut ON planification");
+                }
+            }
+        });
+        MIGRATIONS.add(new Migration(3, "Tables serie_planification et serie_exception") {
+            @Override
+            protected void appliquer(Connection conn) throws SQLException {
+                executer(conn, "CREATE TABLE IF NOT EXISTS serie_planification (" +
+                        "id INT AUTO_INCREMENT PRIMARY KEY, " +
+                        "enseignant_id INT NOT NULL, " +
+                        "salle_id INT NOT NULL, " +
+                        "cours_id INT NOT NULL, " +
+                        "date_debut DATE NOT NULL, " +
+                        "date_fin DATE NOT NULL, " +
+                        "jours_semaine TINYINT NOT NULL, " +
+                        "intervalle_semaines INT NOT NULL DEFAULT 1, " +
+                        "heure_debut TIME NOT NULL, " +
+                        "duree INT NOT NULL, " +
+                        "notes TEXT, " +
+                        "date_creation TIMESTAMP DEFAULT CURRENT_TIMESTAMP, " +
+                        "FOREIGN KEY (enseignant_id) REFERENCES ressource(id) ON DELETE CASCADE, " +
+                        "FOREIGN KEY (salle_id) REFERENCES ressource(id) ON DELETE CASCADE, " +
+                        "FOREIGN KEY (cours_id) REFERENCES ressource(id) ON DELETE CASCADE, " +
+                        "INDEX idx_serie_periode (date_debut, date_fin))");
+                executer(conn, "CREATE TABLE IF NOT EXISTS serie_exception (" +
+                        "serie_id INT NOT NULL, " +
+                        "date_occurrence DATE NOT NULL, " +
+                        "annulee BOOLEAN NOT NULL DEFAULT FALSE, " +
+                        "date_heure DATETIME NULL, " +
+                        "duree INT NULL, " +
+                        "salle_id INT NULL, " +
+                        "enseignant_id INT NULL, " +
+                        "notes TEXT, " +
+                        "PRIMARY KEY (serie_id, date_occurrence), " +
+                        "FOREIGN KEY (serie_id) REFERENCES serie_planification(id) ON DELETE CASCADE, " +
+                        "FOREIGN KEY (salle_id) REFERENCES ressource(id) ON DELETE CASCADE, " +
+                        "FOREIGN KEY (enseignant_id) REFERENCES ressource(id) ON DELETE CASCADE)");
+            }
+        });
+        MIGRATIONS.add(new Migration(4, "Table job_lease (élection des tâches planifiées)") {
+            @Override
+            protected void appliquer(Connection conn) throws SQLException {
+                executer(conn, "CREATE TABLE IF NOT EXISTS job_lease (" +
+                        "nom VARCHAR(100) PRIMARY KEY, " +
+                        "proprietaire VARCHAR(200) NOT NULL, " +
+                        "expiration DATETIME(3) NOT NULL, " +
+                        "date_acquisition DATETIME(3) NOT NULL)");
+            }
+        });
+        MIGRATIONS.add(new Migration(5, "Contrainte de durée des planifications") {
+            @Override
+            protected void appliquer(Connection conn) throws SQLException {
+                // Bornes de Planification.DUREE_MIN/MAX_MINUTES : une séance plus longue
+                // échapperait aux recherches de conflit, qui ne remontent que DUREE_MAX
+                if (contrainteExiste(conn, "planification", "chk_planification_duree")) {
+                    return;
+                }
+                List<Integer> horsLimites = new ArrayList<>();
+                int total = 0;
+                try (Statement stmt = conn.createStatement();
+                        ResultSet rs = stmt.executeQuery("SELECT id FROM planification "
+                                + "WHERE duree < 15 OR duree > 480 ORDER BY id")) {
+                    while (rs.next()) {
+                        if (horsLimites.size() < 20) {
+                            horsLimites.add(rs.getInt(1));
+                        }
+                        total++;
+                    }
+                }
+                if (total > 0) {
+                    throw new SQLException(total + " planification(s) de durée hors de [15, 480] minutes (id "
+                            + horsLimites + (total > horsLimites.size() ? "..." : "")
+                            + ") : les corriger puis redémarrer");
+                }
+                executer(conn, "ALTER TABLE planification ADD CONSTRAINT chk_planification_duree "
+                        + "CHECK (duree BETWEEN 15 AND 480)");
+            }
+        });
+    }
+
+    // ==================== Exécution ====================
+
+    /**
+     * Applique les migrations dont la version n'est pas encore enregistrée
+     *
+     * @return Nombre de migrations appliquées
+     * @throws SQLException si une migration échoue (les suivantes ne sont pas appliquées)
+     */
+    public static int migrer() throws SQLException {
+        Connection conn = null;
+        int appliquees = 0;
+
+        try {
+            conn = DatabaseConnection.getConnection();
+            executer(conn, "CREATE TABLE IF NOT EXISTS schema_version (" +
+                    "version INT PRIMARY KEY, " +
+                    "description VARCHAR(200) NOT NULL, " +
+                    "date_application TIMESTAMP DEFAULT CURRENT_TIMESTAMP)");
+
+            Set<Integer> deja = versionsAppliquees(conn);
+            for (Migration migration : MIGRATIONS) {
+                if (deja.contains(migration.getVersion())) {
+                    continue;
+                }
+                System.out.println("→ Migration V" + migration.getVersion() + " : " + migration.getDescription());
+                migration.appliquer(conn);
+                enregistrerVersion(conn, migration);
+                appliquees++;
+            }
+
+            if (appliquees > 0) {
+                System.out.println("✓ " + appliquees + " migration(s) de schéma appliquée(s)");
+            } else {
+                System.out.println("✓ Schéma à jour (V" + versionCourante() + ")");
+            }
+            return appliquees;
+
+        } finally {
+            DatabaseConnection.closeConnection(conn);
+        }
+    }
+
+    /**
+     * Dernière version de schéma connue de l'application
+     */
+    public static int versionCourante() {
+        return MIGRATIONS.get(MIGRATIONS.size() - 1).getVersion();
+    }
+
+    private static Set<Integer> versionsAppliquees(Connection conn) throws SQLException {
+        Set<Integer> versions = new HashSet<>();
+        try (Statement stmt = conn.createStatement();
+                ResultSet rs = stmt.executeQuery("SELECT version FROM schema_version")) {
+            while (rs.next()) {
+                versions.add(rs.getInt(1));
+            }
+        }
+        return versions;
+    }
+
+    private static void enregistrerVersion(Connection conn, Migration migration) throws SQLException {
+        String sql = "INSERT INTO schema_version (version, description) VALUES (?, ?)";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, migration.getVersion());
+            pstmt.setString(2, migration.getDescription());
+            pstmt.executeUpdate();
+        } catch (SQLIntegrityConstraintViolationException e) {
+            // Une autre instance a appliqué la même migration en parallèle
+        }
+    }
+
+    // ==================== Outils DDL idempotents ====================
+
+    static void executer(Connection conn, String sql) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute(sql);
+        }
+    }
+
+    static void ajouterColonneSiAbsente(Connection conn, String table, String colonne, String definition)
+            throws SQLException {
+        if (!colonneExiste(conn, table, colonne)) {
+            executer(conn, "ALTER TABLE " + table + " ADD COLUMN " + colonne + " " + definition);
+        }
+    }
+
+    static void ajouterIndexSiAbsent(Connection conn, String table, String index, String colonnes)
+            throws SQLException {
+        if (!indexExiste(conn, table, index)) {
+            executer(conn, "CREATE INDEX " + index + " ON " + table + " (" + colonnes + ")");
+        }
+    }
+
+    static boolean colonneExiste(Connection conn, String table, String colonne) throws SQLException {
+        DatabaseMetaData meta = conn.getMetaData();
+        try (ResultSet rs = meta.getColumns(conn.getCatalog(), null, nomMeta(meta, table), null)) {
+            while (rs.next()) {
+                if (colonne.equalsIgnoreCase(rs.getString("COLUMN_NAME"))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    static boolean indexExiste(Connection conn, String table, String index) throws SQLException {
+        DatabaseMetaData meta = conn.getMetaData();
+        try (ResultSet rs = meta.getIndexInfo(conn.getCatalog(), null, nomMeta(meta, table), false, false)) {
+            while (rs.next()) {
+                if (index.equalsIgnoreCase(rs.getString("INDEX_NAME"))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    static boolean contrainteExiste(Connection conn, String table, String contrainte) throws SQLException {
+        String sql = "SELECT 1 FROM information_schema.TABLE_CONSTRAINTS "
+                + "WHERE TABLE_SCHEMA = SCHEMA() AND UPPER(TABLE_NAME) = ? AND UPPER(CONSTRAINT_NAME) = ?";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, table.toUpperCase());
+            pstmt.setString(2, contrainte.toUpperCase());
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
+    /** Adapte la casse d'un nom de table aux conventions de la base */
+    private static String nomMeta(DatabaseMetaData meta, String nom) throws SQLException {
+        return meta.storesUpperCaseIdentifiers() ? nom.toUpperCase() : nom;
+    }
+}